@@ -0,0 +1,21 @@
+package com.teknolojikpanda.bitbucket.aicode.api;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Shared persistence tier for cached chunk review results (Active Objects).
+ * <p>
+ * Entries are content-addressed, so a key always maps to the same payload and nodes never need to
+ * invalidate each other.
+ */
+public interface ChunkResultStore {
+
+    /**
+     * @return the serialized findings stored for {@code key}, or {@code null} when absent
+     */
+    @Nullable
+    String load(@Nonnull String key);
+
+    void save(@Nonnull String key, @Nonnull String model, @Nonnull String payload, int findingCount);
+}
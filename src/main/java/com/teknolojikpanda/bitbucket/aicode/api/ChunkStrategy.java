@@ -21,7 +21,8 @@ public interface ChunkStrategy {
      * Plan chunk boundaries for the supplied diff.
      *
      * @param context        immutable snapshot of the review inputs
-     * @param combinedDiff   full unified diff used for chunking (never {@code null})
+     * @param combinedDiff   full unified diff (never {@code null}); strategies should prefer
+     *                       {@link ReviewContext#getDiffModel()} and only parse this when no model is present
      * @param candidateFiles ordered set of files that passed filtering
      * @param metrics        recorder for strategy-specific instrumentation
      * @return planning result describing generated chunks and any truncation metadata
@@ -1,6 +1,7 @@
 package com.teknolojikpanda.bitbucket.aicode.api;
 
 import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
 
@@ -15,4 +16,15 @@ public interface DiffProvider {
     ReviewContext collect(@Nonnull PullRequest pullRequest,
                           @Nonnull ReviewConfig config,
                           @Nonnull MetricsRecorder metrics);
+
+    /**
+     * Streams the zero-context diff between two commits on the pull request's source branch. Incremental
+     * re-reviews use it to find the lines changed since the previously reviewed head.
+     */
+    @Nonnull
+    DiffModel collectInterdiff(@Nonnull PullRequest pullRequest,
+                               @Nonnull String sinceCommit,
+                               @Nonnull String untilCommit,
+                               @Nonnull ReviewConfig config,
+                               @Nonnull MetricsRecorder metrics);
 }
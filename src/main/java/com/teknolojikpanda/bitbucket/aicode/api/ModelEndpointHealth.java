@@ -0,0 +1,15 @@
+package com.teknolojikpanda.bitbucket.aicode.api;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Health view of model endpoints used to weight request routing across an endpoint pool.
+ */
+public interface ModelEndpointHealth {
+
+    /**
+     * @return relative share of traffic {@code endpoint} should receive for {@code model}, between {@code 0}
+     * (drain: send nothing new) and {@code 1} (healthy and as fast as any host in the pool)
+     */
+    double routingWeight(@Nonnull String endpoint, @Nonnull String model);
+}
@@ -0,0 +1,17 @@
+package com.teknolojikpanda.bitbucket.aicode.api;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Approximates how many model tokens a piece of prompt text costs, without calling the model.
+ * <p>
+ * Estimates only need to be consistent, not exact: callers correct them per model with the token counts
+ * the model reports for prompts it has already processed.
+ */
+public interface TokenEstimator {
+
+    /**
+     * @return estimated number of prompt tokens {@code text} occupies; {@code 0} for empty text
+     */
+    int estimateTokens(@Nonnull CharSequence text);
+}
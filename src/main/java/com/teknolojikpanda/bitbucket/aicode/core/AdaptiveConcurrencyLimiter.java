@@ -0,0 +1,303 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-endpoint AIMD limit on concurrent model calls.
+ * <p>
+ * Each endpoint starts in slow start, doubling its limit after every window of healthy samples. Once the
+ * window's p90 latency exceeds the endpoint's baseline by {@link #LATENCY_TOLERANCE} the limit shrinks by
+ * {@link #LATENCY_BACKOFF}; a 429, 503 or timeout halves it. After the first backoff the limit grows by one
+ * per healthy window in which the endpoint was actually busy. The configured node-wide limit is the ceiling.
+ */
+@Named
+@Singleton
+@ExportAsService(AdaptiveConcurrencyLimiter.class)
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    static final int INITIAL_LIMIT = 2;
+    static final int MIN_WINDOW = 5;
+    static final double LATENCY_TOLERANCE = 2.0d;
+    static final double LATENCY_BACKOFF = 0.9d;
+    static final double DROP_BACKOFF = 0.5d;
+    private static final double BASELINE_SMOOTHING = 0.1d;
+    private static final double BASELINE_DRIFT = 0.05d;
+    private static final int MAX_WINDOW = 256;
+
+    private final ConcurrentMap<String, EndpointLimit> endpoints = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    @Inject
+    public AdaptiveConcurrencyLimiter() {
+        this(System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * Waits until {@code endpoint} has a free slot under its current limit.
+     *
+     * @param maxLimit ceiling for the endpoint's limit, normally the node-wide in-flight limit
+     * @return a permit that must be completed exactly once with the outcome of the call
+     */
+    @Nonnull
+    public Permit acquire(@Nonnull String endpoint, int maxLimit) throws InterruptedException {
+        Objects.requireNonNull(endpoint, "endpoint");
+        EndpointLimit state = endpoints.computeIfAbsent(endpoint, EndpointLimit::new);
+        return state.acquire(Math.max(1, maxLimit));
+    }
+
+    @Nonnull
+    public Map<String, Object> snapshot() {
+        List<Map<String, Object>> list = new ArrayList<>(endpoints.size());
+        for (EndpointLimit state : endpoints.values()) {
+            list.add(state.toMap());
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("endpoints", list);
+        map.put("capturedAt", System.currentTimeMillis());
+        return map;
+    }
+
+    /**
+     * Slot held for the duration of one model call.
+     */
+    public final class Permit {
+        private final EndpointLimit state;
+        private final long grantedAt;
+        private final long waitMs;
+        private boolean completed;
+
+        private Permit(EndpointLimit state, long grantedAt, long waitMs) {
+            this.state = state;
+            this.grantedAt = grantedAt;
+            this.waitMs = waitMs;
+        }
+
+        /**
+         * @return time spent waiting for the endpoint's limit
+         */
+        public long getWaitMs() {
+            return waitMs;
+        }
+
+        /**
+         * The call completed; its latency feeds the endpoint's window.
+         */
+        public void onSuccess() {
+            complete(Outcome.SUCCESS);
+        }
+
+        /**
+         * The endpoint signalled overload (throttled, busy or timed out).
+         */
+        public void onDropped() {
+            complete(Outcome.DROPPED);
+        }
+
+        /**
+         * The call failed for reasons unrelated to load; release the slot without a sample.
+         */
+        public void onIgnore() {
+            complete(Outcome.IGNORED);
+        }
+
+        private void complete(Outcome outcome) {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            state.release(this, outcome);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, DROPPED, IGNORED
+    }
+
+    private final class EndpointLimit {
+        private final String endpoint;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition slotAvailable = lock.newCondition();
+        private final long[] window = new long[MAX_WINDOW];
+        private double limit = INITIAL_LIMIT;
+        private int maxLimit = INITIAL_LIMIT;
+        private boolean slowStart = true;
+        private double baselineMs;
+        private long lastWindowP90Ms;
+        private long lastDecreaseAt = Long.MIN_VALUE;
+        private int windowCount;
+        private int windowMaxInFlight;
+        private int inFlight;
+        private int waiting;
+        private long successes;
+        private long drops;
+        private long increases;
+        private long decreases;
+        private long totalWaitMs;
+        private String lastChange = "initial";
+        private long lastChangeAt;
+
+        private EndpointLimit(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        Permit acquire(int ceiling) throws InterruptedException {
+            long start = clock.getAsLong();
+            lock.lockInterruptibly();
+            try {
+                maxLimit = ceiling;
+                limit = Math.min(limit, maxLimit);
+                waiting++;
+                try {
+                    while (inFlight >= currentLimit()) {
+                        slotAvailable.await();
+                    }
+                } finally {
+                    waiting--;
+                }
+                inFlight++;
+                windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+                long now = clock.getAsLong();
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(now - start);
+                totalWaitMs += waitMs;
+                return new Permit(this, now, waitMs);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(Permit permit, Outcome outcome) {
+            long now = clock.getAsLong();
+            lock.lock();
+            try {
+                inFlight--;
+                if (outcome == Outcome.SUCCESS) {
+                    successes++;
+                    if (windowCount < MAX_WINDOW) {
+                        window[windowCount++] = TimeUnit.NANOSECONDS.toMillis(now - permit.grantedAt);
+                    }
+                    if (windowCount >= Math.max(MIN_WINDOW, currentLimit())) {
+                        closeWindow(now);
+                    }
+                } else if (outcome == Outcome.DROPPED) {
+                    drops++;
+                    // Calls already in flight when we last backed off report the same congestion; count it once.
+                    if (permit.grantedAt > lastDecreaseAt) {
+                        decrease(DROP_BACKOFF, "overload", now);
+                        resetWindow();
+                    }
+                }
+                slotAvailable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void closeWindow(long now) {
+            long[] sorted = Arrays.copyOf(window, windowCount);
+            Arrays.sort(sorted);
+            long p90 = sorted[Math.max(0, (int) Math.ceil(0.9d * sorted.length) - 1)];
+            lastWindowP90Ms = p90;
+            if (baselineMs <= 0d) {
+                baselineMs = Math.max(1d, p90);
+            }
+            if (p90 > baselineMs * LATENCY_TOLERANCE) {
+                // Let the baseline follow slowly so a permanently slower model does not pin the limit at 1.
+                baselineMs += (p90 - baselineMs) * BASELINE_DRIFT;
+                decrease(LATENCY_BACKOFF, "latency", now);
+            } else {
+                baselineMs += (p90 - baselineMs) * BASELINE_SMOOTHING;
+                if (windowMaxInFlight * 2 >= currentLimit() && limit < maxLimit) {
+                    double previous = limit;
+                    limit = Math.min(maxLimit, slowStart ? limit * 2 : limit + 1);
+                    increases++;
+                    recordChange(slowStart ? "slow-start" : "increase", previous);
+                }
+            }
+            resetWindow();
+        }
+
+        private void decrease(double factor, String reason, long now) {
+            double previous = limit;
+            limit = Math.max(1d, limit * factor);
+            slowStart = false;
+            lastDecreaseAt = now;
+            decreases++;
+            recordChange(reason, previous);
+        }
+
+        private void recordChange(String reason, double previous) {
+            lastChange = reason;
+            lastChangeAt = System.currentTimeMillis();
+            if ((int) previous != currentLimit()) {
+                LogSupport.debug(log, "model_limit.adjusted", "Adjusted model concurrency limit",
+                        "endpoint", endpoint,
+                        "reason", reason,
+                        "from", (int) previous,
+                        "to", currentLimit(),
+                        "baselineMs", (long) baselineMs,
+                        "p90Ms", lastWindowP90Ms);
+            }
+        }
+
+        private void resetWindow() {
+            windowCount = 0;
+            windowMaxInFlight = inFlight;
+        }
+
+        private int currentLimit() {
+            return Math.max(1, (int) limit);
+        }
+
+        Map<String, Object> toMap() {
+            lock.lock();
+            try {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("endpoint", endpoint);
+                map.put("limit", currentLimit());
+                map.put("maxLimit", maxLimit);
+                map.put("inFlight", inFlight);
+                map.put("waiting", waiting);
+                map.put("slowStart", slowStart);
+                map.put("baselineMs", Math.round(baselineMs));
+                map.put("lastWindowP90Ms", lastWindowP90Ms);
+                map.put("successes", successes);
+                map.put("drops", drops);
+                map.put("increases", increases);
+                map.put("decreases", decreases);
+                map.put("totalWaitMs", totalWaitMs);
+                map.put("lastChange", lastChange);
+                map.put("lastChangeAt", lastChangeAt > 0 ? lastChangeAt : null);
+                return map;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkPlanSupport.FileDiff;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkPlanSupport.Hunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkContent;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.util.Diagnostics;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Chunking strategy that packs hunks first-fit-decreasing to minimise the number of chunks, and so the
+ * number of model calls.
+ * <p>
+ * Files that share a group key (a class and its tests) are packed as one item, and a file's hunks stay
+ * together, as long as they fit one chunk; larger groups fall back to one item per file and larger files
+ * to consecutive runs of hunks. Items are placed, largest first, into the first chunk with room for their
+ * size and files. Chunks are emitted in diff order of their first file, with each file's hunks in diff
+ * order, so the output reads like the size-first plan with the gaps filled. When more than
+ * {@code maxChunks} chunks are needed, the {@link ChunkRiskScorer riskiest} ones are kept.
+ */
+@Named
+public class BinPackingChunkStrategy implements ChunkStrategy {
+
+    private static final Logger log = LoggerFactory.getLogger(BinPackingChunkStrategy.class);
+
+    private final ModelContextBudget contextBudget;
+    private final ChunkPlanningPool planningPool;
+
+    public BinPackingChunkStrategy() {
+        this(null, null);
+    }
+
+    public BinPackingChunkStrategy(@Nullable ModelContextBudget contextBudget) {
+        this(contextBudget, null);
+    }
+
+    @Inject
+    public BinPackingChunkStrategy(@Nullable ModelContextBudget contextBudget, @Nullable ChunkPlanningPool planningPool) {
+        this.contextBudget = contextBudget;
+        this.planningPool = planningPool;
+    }
+
+    @Nonnull
+    @Override
+    public Result plan(@Nonnull ReviewContext context,
+                       @Nonnull String combinedDiff,
+                       @Nonnull Set<String> candidateFiles,
+                       @Nonnull MetricsRecorder metrics) {
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(combinedDiff, "combinedDiff");
+        Objects.requireNonNull(candidateFiles, "candidateFiles");
+
+        ChunkBudget budget = ChunkPlanSupport.budget(contextBudget, context);
+        int maxSize = budget.limit();
+        int tolerance = budget.tolerance();
+        int maxFiles = Math.max(1, context.getConfig().getMaxFilesPerChunk());
+        int maxChunks = context.getConfig().getMaxChunks();
+
+        Map<String, FileDiff> fileDiffs = ChunkPlanSupport.extractFileDiffs(context, combinedDiff, candidateFiles,
+                budget, planningPool);
+        LogSupport.debug(log, "chunk.plan_start", "Evaluating file diffs",
+                "fileCount", fileDiffs.keySet().size());
+        List<String> filesWithoutHunks = ChunkPlanSupport.removeFilesWithoutHunks(fileDiffs);
+
+        List<PackedFile> files = new ArrayList<>(fileDiffs.size());
+        Map<String, List<PackedFile>> groups = new LinkedHashMap<>();
+        for (FileDiff fileDiff : fileDiffs.values()) {
+            PackedFile file = new PackedFile(files.size(), fileDiff, fileDiff.headerSize, fileDiff.hunks);
+            files.add(file);
+            groups.computeIfAbsent(ChunkPlanSupport.computeGroupKey(fileDiff.path), ignored -> new ArrayList<>())
+                    .add(file);
+        }
+
+        List<Item> items = new ArrayList<>();
+        for (List<PackedFile> group : groups.values()) {
+            Item whole = Item.of(group);
+            if (group.size() > 1 && group.size() <= maxFiles && whole.size <= maxSize + tolerance) {
+                items.add(whole);
+                continue;
+            }
+            for (PackedFile file : group) {
+                addFileItems(items, file, maxSize, tolerance);
+            }
+        }
+        items.sort(Comparator.comparingInt((Item item) -> item.size).reversed()
+                .thenComparingLong(item -> item.order));
+
+        List<Bin> bins = new ArrayList<>();
+        for (Item item : items) {
+            Bin target = null;
+            for (Bin bin : bins) {
+                if (bin.accepts(item, maxSize, maxFiles)) {
+                    target = bin;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new Bin();
+                bins.add(target);
+            }
+            target.add(item);
+        }
+        bins.sort(Comparator.comparingInt(Bin::firstFileIndex));
+
+        List<ReviewChunk> chunks = new ArrayList<>(bins.size());
+        int[] binSizes = new int[bins.size()];
+        for (Bin bin : bins) {
+            int index = chunks.size();
+            ChunkContent.Builder buffer = ChunkContent.builder();
+            Set<String> chunkFiles = new LinkedHashSet<>();
+            Map<String, List<LineRange>> chunkRanges = new LinkedHashMap<>();
+            for (Map.Entry<PackedFile, Set<Integer>> entry : bin.sortedHunks().entrySet()) {
+                PackedFile file = entry.getKey();
+                chunkFiles.add(file.diff.path);
+                buffer.append(file.diff.header);
+                List<LineRange> ranges = chunkRanges.computeIfAbsent(file.diff.path, ignored -> new ArrayList<>());
+                for (int hunkIndex : entry.getValue()) {
+                    Hunk hunk = file.hunks.get(hunkIndex);
+                    buffer.append(hunk.content);
+                    ranges.add(hunk.range);
+                }
+            }
+            binSizes[index] = bin.size;
+            ChunkPlanSupport.finalizeChunk(context, chunks,
+                    ReviewChunk.builder().id("chunk-" + index).index(index),
+                    buffer, chunkFiles, chunkRanges);
+        }
+
+        boolean truncated = chunks.size() > maxChunks;
+        if (truncated) {
+            chunks = ChunkRiskScorer.retainHighestRisk(chunks, maxChunks, context.getFileMetadata());
+        }
+        long packedSize = 0;
+        for (ReviewChunk chunk : chunks) {
+            packedSize += binSizes[chunk.getIndex()];
+        }
+
+        metrics.recordMetric("chunk.budget.unit", budget.unit());
+        metrics.recordMetric("chunk.budget.limit", maxSize);
+        if (!chunks.isEmpty()) {
+            metrics.recordMetric("chunk.binPacking.fillRatio", (double) packedSize / ((long) maxSize * chunks.size()));
+        }
+        int chunkCount = chunks.size();
+        if (Diagnostics.isEnabled()) {
+            Diagnostics.log(log, () -> String.format(
+                    "Bin-packed %d item(s) from %d file(s) into %d chunk(s) for PR #%d",
+                    items.size(),
+                    files.size(),
+                    chunkCount,
+                    context.getPullRequest().getId()));
+        }
+        if (truncated) {
+            LogSupport.warn(log, "chunk.truncated", "Chunk planning truncated",
+                    "pullRequestId", context.getPullRequest().getId(),
+                    "chunkCount", chunks.size(),
+                    "maxChunks", maxChunks);
+        }
+        return new Result(chunks, truncated, filesWithoutHunks);
+    }
+
+    /**
+     * Adds {@code file} as one item when it fits a chunk, otherwise as consecutive runs of its hunks that
+     * each fit, every run carrying the file header.
+     */
+    private static void addFileItems(List<Item> items, PackedFile file, int maxSize, int tolerance) {
+        Item whole = Item.of(file);
+        if (whole.size <= maxSize + tolerance) {
+            items.add(whole);
+            return;
+        }
+        int start = 0;
+        int size = file.headerSize;
+        for (int i = 0; i < file.hunks.size(); i++) {
+            int hunkSize = file.hunks.get(i).size;
+            if (i > start && size + hunkSize > maxSize) {
+                items.add(Item.run(file, start, i, size));
+                start = i;
+                size = file.headerSize;
+            }
+            size += hunkSize;
+        }
+        items.add(Item.run(file, start, file.hunks.size(), size));
+    }
+
+    private static final class PackedFile {
+        final int index;
+        final FileDiff diff;
+        final int headerSize;
+        final List<Hunk> hunks;
+        final int hunksSize;
+
+        private PackedFile(int index, FileDiff diff, int headerSize, List<Hunk> hunks) {
+            this.index = index;
+            this.diff = diff;
+            this.headerSize = headerSize;
+            this.hunks = hunks;
+            int total = 0;
+            for (Hunk hunk : hunks) {
+                total += hunk.size;
+            }
+            this.hunksSize = total;
+        }
+    }
+
+    /**
+     * Unit of packing: whole files, or a run {@code [fromHunk, toHunk)} of one file's hunks.
+     */
+    private static final class Item {
+        final List<PackedFile> files;
+        final int fromHunk;
+        final int toHunk;
+        /** Size including the headers of all files. */
+        final int size;
+        /** Position in diff order, used to break ties between equally sized items. */
+        final long order;
+
+        private Item(List<PackedFile> files, int fromHunk, int toHunk, int size) {
+            this.files = files;
+            this.fromHunk = fromHunk;
+            this.toHunk = toHunk;
+            this.size = size;
+            this.order = ((long) files.get(0).index << 32) | fromHunk;
+        }
+
+        static Item of(List<PackedFile> group) {
+            int size = 0;
+            for (PackedFile file : group) {
+                size += file.headerSize + file.hunksSize;
+            }
+            return new Item(group, -1, -1, size);
+        }
+
+        static Item of(PackedFile file) {
+            return new Item(Collections.singletonList(file), -1, -1, file.headerSize + file.hunksSize);
+        }
+
+        static Item run(PackedFile file, int fromHunk, int toHunk, int size) {
+            return new Item(Collections.singletonList(file), fromHunk, toHunk, size);
+        }
+
+        boolean isRun() {
+            return fromHunk >= 0;
+        }
+    }
+
+    private static final class Bin {
+        final Map<PackedFile, Set<Integer>> hunks = new LinkedHashMap<>();
+        int size;
+
+        /**
+         * An empty bin takes anything; otherwise the item must fit the size limit (counting headers of
+         * files already in the bin once) and the file limit.
+         */
+        boolean accepts(Item item, int maxSize, int maxFiles) {
+            if (hunks.isEmpty()) {
+                return true;
+            }
+            int cost = cost(item);
+            int newFiles = 0;
+            for (PackedFile file : item.files) {
+                if (!hunks.containsKey(file)) {
+                    newFiles++;
+                }
+            }
+            return size + cost <= maxSize && hunks.size() + newFiles <= maxFiles;
+        }
+
+        void add(Item item) {
+            size += cost(item);
+            for (PackedFile file : item.files) {
+                Set<Integer> indexes = hunks.computeIfAbsent(file, ignored -> new LinkedHashSet<>());
+                int from = item.isRun() ? item.fromHunk : 0;
+                int to = item.isRun() ? item.toHunk : file.hunks.size();
+                for (int i = from; i < to; i++) {
+                    indexes.add(i);
+                }
+            }
+        }
+
+        int firstFileIndex() {
+            int first = Integer.MAX_VALUE;
+            for (PackedFile file : hunks.keySet()) {
+                first = Math.min(first, file.index);
+            }
+            return first;
+        }
+
+        /**
+         * @return the bin's files in diff order, each with its hunk indexes in ascending order
+         */
+        Map<PackedFile, Set<Integer>> sortedHunks() {
+            Map<PackedFile, Set<Integer>> sorted = new TreeMap<>(Comparator.comparingInt(file -> file.index));
+            hunks.forEach((file, indexes) -> sorted.put(file, new TreeSet<>(indexes)));
+            return sorted;
+        }
+
+        private int cost(Item item) {
+            int cost = item.size;
+            for (PackedFile file : item.files) {
+                if (hunks.containsKey(file)) {
+                    cost -= file.headerSize;
+                }
+            }
+            return cost;
+        }
+    }
+}
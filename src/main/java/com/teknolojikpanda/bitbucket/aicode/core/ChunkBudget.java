@@ -0,0 +1,124 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.api.TokenEstimator;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkContent;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Size limit a chunk strategy packs against, measured either in chars ({@code maxCharsPerChunk}) or in
+ * estimated model tokens when the model's context window is known (see {@link ModelContextBudget}).
+ */
+final class ChunkBudget {
+
+    static final int MIN_CHAR_TOLERANCE = 512;
+    static final int MIN_TOKEN_TOLERANCE = 128;
+    /** Tokens of the {@code [Line N] } marker added to every line of the diff that is not a removal. */
+    static final int LINE_MARKER_TOKENS = 4;
+    /** Tokens of a file's entry in the chunk context besides its path (language, line counts, ranges). */
+    static final int FILE_CONTEXT_TOKENS = 24;
+    /** Smallest piece an oversized hunk is split into, in chars. */
+    private static final int MIN_SPLIT_CHARS = 256;
+
+    private final int limit;
+    private final TokenEstimator estimator;
+    private final double calibration;
+
+    private ChunkBudget(int limit, TokenEstimator estimator, double calibration) {
+        this.limit = Math.max(1, limit);
+        this.estimator = estimator;
+        this.calibration = calibration;
+    }
+
+    @Nonnull
+    static ChunkBudget chars(int maxChars) {
+        return new ChunkBudget(maxChars, null, 1D);
+    }
+
+    /**
+     * @param calibration factor applied to raw estimates so they match the token counts the model reports
+     */
+    @Nonnull
+    static ChunkBudget tokens(int maxTokens, @Nonnull TokenEstimator estimator, double calibration) {
+        return new ChunkBudget(maxTokens, Objects.requireNonNull(estimator, "estimator"),
+                calibration > 0 ? calibration : 1D);
+    }
+
+    boolean isTokenBased() {
+        return estimator != null;
+    }
+
+    /**
+     * @return {@code "tokens"} or {@code "chars"}
+     */
+    @Nonnull
+    String unit() {
+        return isTokenBased() ? "tokens" : "chars";
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * @return how far a chunk may run over {@link #limit()} to keep a small hunk with the rest of its file or group
+     */
+    int tolerance() {
+        return Math.max(limit / 10, isTokenBased() ? MIN_TOKEN_TOLERANCE : MIN_CHAR_TOLERANCE);
+    }
+
+    /**
+     * @return size of a hunk as sent to the model, including its line markers when measured in tokens
+     */
+    int measureHunk(@Nonnull ChunkContent content) {
+        if (!isTokenBased()) {
+            return content.length();
+        }
+        String text = content.materialize();
+        return calibrated(estimator.estimateTokens(text) + LINE_MARKER_TOKENS * markedLines(text));
+    }
+
+    /**
+     * @return size the file adds to a chunk besides its hunks: the diff header and, in tokens, its chunk
+     * context entry
+     */
+    int measureFile(@Nonnull String path, @Nonnull ChunkContent header) {
+        if (!isTokenBased()) {
+            return header.length();
+        }
+        return calibrated(estimator.estimateTokens(header.materialize())
+                + estimator.estimateTokens(path) + FILE_CONTEXT_TOKENS);
+    }
+
+    /**
+     * @param size the content's size as returned by {@link #measureHunk(ChunkContent)}
+     * @return number of chars an oversized hunk should be split at so each piece fits the budget
+     */
+    int splitChars(@Nonnull ChunkContent content, int size) {
+        if (!isTokenBased()) {
+            return limit;
+        }
+        if (size <= limit) {
+            return Math.max(content.length(), MIN_SPLIT_CHARS);
+        }
+        return (int) Math.max(MIN_SPLIT_CHARS, (long) content.length() * limit / size);
+    }
+
+    private int calibrated(int tokens) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(tokens * calibration));
+    }
+
+    private static int markedLines(String text) {
+        int lines = 0;
+        boolean lineStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (lineStart && c != '-' && c != '@' && c != '\\') {
+                lines++;
+            }
+            lineStart = c == '\n';
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,385 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Node-wide executor for chunk model calls.
+ * <p>
+ * A single set of worker threads caps the number of chunk requests in flight across every running review.
+ * Each review submits through its own {@link Batch}; workers take tasks from batches in round-robin order,
+ * one task per turn, so a review with hundreds of chunks cannot starve smaller reviews queued behind it. A
+ * batch never runs more tasks at once than its own parallelism allows.
+ * <p>
+ * The worker count is a node-wide setting taken from the global configuration through
+ * {@link #setMaxInFlight(int)}; reviews only ever limit themselves through their batch parallelism.
+ */
+@Named
+@Singleton
+@ExportAsService(ChunkExecutionEngine.class)
+public class ChunkExecutionEngine implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkExecutionEngine.class);
+    static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final int MAX_IN_FLIGHT_LIMIT = 256;
+    private static final int WAIT_SAMPLE_SIZE = 512;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final ArrayDeque<Batch> ready = new ArrayDeque<>();
+    private final Set<Batch> open = new LinkedHashSet<>();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private final long[] waitSamples = new long[WAIT_SAMPLE_SIZE];
+    private int waitSampleCount;
+    private int waitSampleCursor;
+    private int maxInFlight;
+    private int workers;
+    private int inFlight;
+    private int queued;
+    private long submitted;
+    private long completed;
+    private long totalWaitMs;
+    private long maxWaitMs;
+    private boolean shutdown;
+
+    @Inject
+    public ChunkExecutionEngine() {
+        this(DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    ChunkExecutionEngine(int maxInFlight) {
+        this.maxInFlight = clamp(maxInFlight);
+    }
+
+    /**
+     * Opens a submission handle for one review.
+     *
+     * @param reviewKey   label reported in telemetry (typically the pull request)
+     * @param parallelism maximum tasks of this review running at once
+     */
+    @Nonnull
+    public Batch open(@Nonnull String reviewKey, int parallelism) {
+        Objects.requireNonNull(reviewKey, "reviewKey");
+        Batch batch = new Batch(reviewKey, Math.max(1, parallelism));
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Chunk execution engine is shut down");
+            }
+            resize(maxInFlight);
+            open.add(batch);
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    /**
+     * Applies the node-wide in-flight limit. Missing workers start with the next review; surplus workers retire
+     * once their current task finishes.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        lock.lock();
+        try {
+            int desired = clamp(maxInFlight);
+            if (shutdown || desired == this.maxInFlight) {
+                return;
+            }
+            if (open.isEmpty()) {
+                this.maxInFlight = desired;
+                workAvailable.signalAll();
+            } else {
+                resize(desired);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nonnull
+    public Map<String, Object> snapshot() {
+        lock.lock();
+        try {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("maxInFlight", maxInFlight);
+            map.put("inFlight", inFlight);
+            map.put("queueDepth", queued);
+            map.put("activeReviews", open.size());
+            map.put("submittedTasks", submitted);
+            map.put("completedTasks", completed);
+            map.put("avgWaitMs", completed > 0 ? (double) totalWaitMs / completed : 0d);
+            map.put("maxWaitMs", maxWaitMs);
+            map.put("p95WaitMs", recentWaitPercentile(0.95));
+            List<Map<String, Object>> reviews = new ArrayList<>(open.size());
+            for (Batch batch : open) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("review", batch.reviewKey);
+                entry.put("parallelism", batch.parallelism);
+                entry.put("running", batch.running);
+                entry.put("queued", batch.pending.size());
+                entry.put("completed", batch.completed);
+                entry.put("share", inFlight > 0 ? (double) batch.running / inFlight : 0d);
+                entry.put("avgWaitMs", batch.completed > 0 ? (double) batch.totalWaitMs / batch.completed : 0d);
+                reviews.add(entry);
+            }
+            map.put("reviews", reviews);
+            map.put("capturedAt", System.currentTimeMillis());
+            return map;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<Batch> batches;
+        lock.lock();
+        try {
+            shutdown = true;
+            batches = new ArrayList<>(open);
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        batches.forEach(Batch::close);
+    }
+
+    private void resize(int desired) {
+        maxInFlight = desired;
+        while (workers < maxInFlight) {
+            Thread thread = new Thread(this::workerLoop, "ai-review-chunk-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            workers++;
+            thread.start();
+        }
+        // Surplus workers retire on their next pass through the loop.
+        workAvailable.signalAll();
+    }
+
+    private void workerLoop() {
+        while (true) {
+            Task task;
+            lock.lock();
+            try {
+                task = null;
+                while (!shutdown && workers <= maxInFlight && (task = pollNext()) == null) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (task == null) {
+                    workers--;
+                    return;
+                }
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAt);
+                inFlight++;
+                task.waitMs = waitMs;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                task.run();
+            } catch (RuntimeException | Error ex) {
+                LogSupport.warn(log, "chunk_engine.task_failed", "Chunk task escaped its future",
+                        "review", task.batch.reviewKey,
+                        "error", ex.getMessage());
+            } finally {
+                // A cancelled review interrupts its running tasks; never carry that into the next review's task.
+                Thread.interrupted();
+                finish(task);
+            }
+        }
+    }
+
+    /**
+     * Takes one task from the batch at the head of the ready ring and rotates that batch to the tail.
+     */
+    private Task pollNext() {
+        Batch batch;
+        while ((batch = ready.pollFirst()) != null) {
+            batch.inReady = false;
+            Task task = batch.pending.pollFirst();
+            if (task == null) {
+                continue;
+            }
+            queued--;
+            batch.running++;
+            batch.runningTasks.add(task);
+            batch.enqueueIfRunnable();
+            return task;
+        }
+        return null;
+    }
+
+    private void finish(Task task) {
+        lock.lock();
+        try {
+            inFlight--;
+            completed++;
+            totalWaitMs += task.waitMs;
+            maxWaitMs = Math.max(maxWaitMs, task.waitMs);
+            waitSamples[waitSampleCursor] = task.waitMs;
+            waitSampleCursor = (waitSampleCursor + 1) % WAIT_SAMPLE_SIZE;
+            waitSampleCount = Math.min(WAIT_SAMPLE_SIZE, waitSampleCount + 1);
+            Batch batch = task.batch;
+            batch.running--;
+            batch.completed++;
+            batch.totalWaitMs += task.waitMs;
+            batch.maxWaitMs = Math.max(batch.maxWaitMs, task.waitMs);
+            batch.runningTasks.remove(task);
+            batch.enqueueIfRunnable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long recentWaitPercentile(double percentile) {
+        if (waitSampleCount == 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(waitSamples, waitSampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static int clamp(int value) {
+        return Math.max(1, Math.min(MAX_IN_FLIGHT_LIMIT, value));
+    }
+
+    /**
+     * Per-review submission handle. Closing it cancels queued tasks and interrupts running ones.
+     */
+    public final class Batch implements AutoCloseable {
+        private final String reviewKey;
+        private final int parallelism;
+        private final ArrayDeque<Task> pending = new ArrayDeque<>();
+        private final Set<Task> runningTasks = new LinkedHashSet<>();
+        private boolean inReady;
+        private boolean closed;
+        private int running;
+        private int completed;
+        private long totalWaitMs;
+        private long maxWaitMs;
+
+        private Batch(String reviewKey, int parallelism) {
+            this.reviewKey = reviewKey;
+            this.parallelism = parallelism;
+        }
+
+        @Nonnull
+        public <T> Future<T> submit(@Nonnull Callable<T> callable) {
+            Objects.requireNonNull(callable, "callable");
+            Task task = new Task(this, callable);
+            lock.lock();
+            try {
+                if (closed || shutdown) {
+                    throw new RejectedExecutionException("Chunk batch for " + reviewKey + " is closed");
+                }
+                pending.addLast(task);
+                queued++;
+                submitted++;
+                enqueueIfRunnable();
+            } finally {
+                lock.unlock();
+            }
+            @SuppressWarnings("unchecked")
+            Future<T> future = (Future<T>) task;
+            return future;
+        }
+
+        /**
+         * @return total time this review's tasks spent queued behind the node-wide limit
+         */
+        public long getTotalWaitMs() {
+            lock.lock();
+            try {
+                return totalWaitMs;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public long getMaxWaitMs() {
+            lock.lock();
+            try {
+                return maxWaitMs;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            List<Task> toCancel;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                toCancel = new ArrayList<>(pending);
+                toCancel.addAll(runningTasks);
+                queued -= pending.size();
+                pending.clear();
+                if (inReady) {
+                    ready.remove(this);
+                    inReady = false;
+                }
+                open.remove(this);
+            } finally {
+                lock.unlock();
+            }
+            for (Task task : toCancel) {
+                task.cancel(true);
+            }
+        }
+
+        /**
+         * Must hold the engine lock.
+         */
+        private void enqueueIfRunnable() {
+            if (!inReady && !closed && !pending.isEmpty() && running < parallelism) {
+                inReady = true;
+                ready.addLast(this);
+                workAvailable.signal();
+            }
+        }
+    }
+
+    private static final class Task extends FutureTask<Object> {
+        private final Batch batch;
+        private final long enqueuedAt;
+        private long waitMs;
+
+        @SuppressWarnings("unchecked")
+        private Task(Batch batch, Callable<?> callable) {
+            super((Callable<Object>) callable);
+            this.batch = batch;
+            this.enqueuedAt = System.nanoTime();
+        }
+    }
+}
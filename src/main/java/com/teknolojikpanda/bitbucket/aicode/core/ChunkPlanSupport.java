@@ -0,0 +1,399 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkContent;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffContentSource;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffHunk;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.util.Diagnostics;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Diff handling shared by the chunk strategies: mapping the diff onto the files under review, splitting
+ * oversized hunks, grouping related files and assembling the final {@link ReviewChunk}s.
+ */
+final class ChunkPlanSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkPlanSupport.class);
+
+    private static final Pattern FULL_HUNK_HEADER =
+            Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@(.*)$");
+    static final String MIXED_GROUP_KEY = "__MIXED__";
+
+    private ChunkPlanSupport() {
+    }
+
+    /**
+     * @return token budget from {@code contextBudget} when available, else {@code maxCharsPerChunk}
+     */
+    @Nonnull
+    static ChunkBudget budget(@Nullable ModelContextBudget contextBudget, @Nonnull ReviewContext context) {
+        return contextBudget != null
+                ? contextBudget.budgetFor(context)
+                : ChunkBudget.chars(context.getConfig().getMaxCharsPerChunk());
+    }
+
+    /**
+     * Maps the streamed {@link DiffModel} onto the files selected for review, measuring every file header
+     * and splitting and measuring its hunks against {@code budget}. Headers and hunks stay views over the
+     * diff source, so chunk text is only decoded when a chunk is sent or measured in tokens. The diff text
+     * is only parsed here when the context was built without a model.
+     * <p>
+     * Files are independent, so with a {@code pool} they are prepared in parallel; results are merged back
+     * in diff order and match a serial run exactly.
+     */
+    @Nonnull
+    static Map<String, FileDiff> extractFileDiffs(@Nonnull ReviewContext context,
+                                                  @Nonnull String diff,
+                                                  @Nonnull Set<String> filesToReview,
+                                                  @Nonnull ChunkBudget budget,
+                                                  @Nullable ChunkPlanningPool pool) {
+        DiffModel model = context.getDiffModel();
+        if (model == null) {
+            model = StreamingDiffAccumulator.parse(diff);
+        }
+        List<DiffFile> selected = new ArrayList<>();
+        for (DiffFile file : model.getFiles()) {
+            if (filesToReview.contains(file.getPath())) {
+                selected.add(file);
+            }
+        }
+        FileDiff[] prepared = new FileDiff[selected.size()];
+        IntConsumer prepare = index -> prepared[index] = prepareFile(selected.get(index), budget);
+        if (pool != null) {
+            pool.forEachIndex(prepared.length, prepare);
+        } else {
+            for (int i = 0; i < prepared.length; i++) {
+                prepare.accept(i);
+            }
+        }
+        Map<String, FileDiff> fileDiffs = new LinkedHashMap<>();
+        for (FileDiff fileDiff : prepared) {
+            fileDiffs.put(fileDiff.path, fileDiff);
+        }
+        return fileDiffs;
+    }
+
+    private static FileDiff prepareFile(DiffFile file, ChunkBudget budget) {
+        String path = file.getPath();
+        List<Hunk> hunks = new ArrayList<>(file.getHunks().size());
+        for (DiffHunk hunk : file.getHunks()) {
+            if (hunk.getNewStart() < 1) {
+                LogSupport.debug(log, "chunk.zero_based_hunk",
+                        "Adjusted zero-based hunk header to 1-based range",
+                        "file", path,
+                        "rawStart", hunk.getNewStart(),
+                        "length", hunk.getNewCount());
+            }
+            hunks.add(new Hunk(view(hunk.getSource(), hunk.getOffset(), hunk.getLength(), hunk.getCharLength()),
+                    hunk.getNewRange()));
+        }
+        int headerLength = file.getHeaderLength();
+        ChunkContent header = view(file.getSource(), file.getHeaderOffset(), headerLength,
+                file.getSource().charLength(file.getHeaderOffset(), headerLength));
+        if (hunks.isEmpty()) {
+            return new FileDiff(path, header, 0, hunks);
+        }
+        return new FileDiff(path, header, budget.measureFile(path, header), splitHunkIfNeeded(hunks, budget));
+    }
+
+    /**
+     * Removes files without hunks from {@code fileDiffs}, logging them once.
+     *
+     * @return paths of the removed files, in diff order
+     */
+    @Nonnull
+    static List<String> removeFilesWithoutHunks(@Nonnull Map<String, FileDiff> fileDiffs) {
+        List<String> filesWithoutHunks = new ArrayList<>();
+        fileDiffs.entrySet().removeIf(entry -> {
+            boolean empty = entry.getValue().hunks.isEmpty();
+            if (empty) {
+                filesWithoutHunks.add(entry.getKey());
+            }
+            return empty;
+        });
+        if (!filesWithoutHunks.isEmpty()) {
+            LogSupport.warn(log, "chunk.no_textual_changes", "Skipping files with no textual changes",
+                    "fileCount", filesWithoutHunks.size(),
+                    "files", filesWithoutHunks);
+        }
+        return filesWithoutHunks;
+    }
+
+    /**
+     * Splits hunks larger than the budget at line boundaries and measures every resulting hunk.
+     */
+    @Nonnull
+    private static List<Hunk> splitHunkIfNeeded(@Nonnull List<Hunk> hunks, @Nonnull ChunkBudget budget) {
+        List<Hunk> result = new ArrayList<>();
+        for (Hunk hunk : hunks) {
+            int size = budget.measureHunk(hunk.content);
+            if (size <= budget.limit()) {
+                result.add(hunk.measured(size));
+                continue;
+            }
+            for (Hunk part : splitSingleHunk(hunk, budget.splitChars(hunk.content, size))) {
+                result.add(part == hunk ? hunk.measured(size) : part.measured(budget.measureHunk(part.content)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Key shared by files that belong together in a chunk: same directory and name, ignoring a
+     * {@code Test}/{@code Spec}/{@code IT} suffix, so a class and its tests are reviewed side by side.
+     */
+    @Nonnull
+    static String computeGroupKey(@Nullable String path) {
+        if (path == null || path.isEmpty()) {
+            return MIXED_GROUP_KEY;
+        }
+        int lastSlash = path.lastIndexOf('/') >= 0 ? path.lastIndexOf('/') : path.lastIndexOf('\\');
+        String directory = lastSlash >= 0 ? path.substring(0, lastSlash) : "";
+        String fileName = lastSlash >= 0 ? path.substring(lastSlash + 1) : path;
+        int dotIndex = fileName.lastIndexOf('.');
+        String extension = dotIndex >= 0 ? fileName.substring(dotIndex) : "";
+        String stem = dotIndex >= 0 ? fileName.substring(0, dotIndex) : fileName;
+        String normalizedStem = stem.replaceAll("(?i)(Test|Spec|IT)$", "");
+        if (normalizedStem.isEmpty()) {
+            normalizedStem = stem;
+        }
+        return directory + "::" + normalizedStem + extension;
+    }
+
+    static void finalizeChunk(@Nonnull ReviewContext context,
+                              @Nonnull List<ReviewChunk> chunks,
+                              @Nonnull ReviewChunk.Builder builder,
+                              @Nonnull ChunkContent.Builder content,
+                              @Nonnull Set<String> chunkFiles,
+                              @Nonnull Map<String, List<LineRange>> chunkRanges) {
+        builder.content(content.build());
+        builder.files(new ArrayList<>(chunkFiles));
+        Map<String, List<LineRange>> ranges = new LinkedHashMap<>();
+        chunkRanges.forEach((file, values) ->
+                ranges.put(file, new ArrayList<>(values)));
+        builder.primaryRanges(ranges);
+        ReviewChunk chunk = builder.build();
+        chunks.add(chunk);
+        if (Diagnostics.isEnabled()) {
+            Diagnostics.log(log, () -> String.format(
+                    "Chunk %s created for PR #%d (files=%d, chars=%d): %s",
+                    chunk.getId(),
+                    context.getPullRequest().getId(),
+                    chunk.getFiles().size(),
+                    content.length(),
+                    chunk.getFiles()));
+            Diagnostics.dumpChunk(context.getPullRequest().getId(), chunk);
+        }
+    }
+
+    private static List<Hunk> splitSingleHunk(Hunk hunk, int maxChars) {
+        if (hunk.content.length() <= maxChars) {
+            return Collections.singletonList(hunk);
+        }
+
+        String[] lines = hunk.content.materialize().split("\n", -1);
+        if (lines.length == 0) {
+            return Collections.singletonList(hunk);
+        }
+
+        Matcher matcher = FULL_HUNK_HEADER.matcher(stripTrailingCarriageReturn(lines[0]));
+        if (!matcher.matches()) {
+            LogSupport.debug(log, "chunk.split_failed", "Unable to split oversized hunk",
+                    "header", lines[0]);
+            return Collections.singletonList(hunk);
+        }
+
+        int fromStart = parseInt(matcher.group(1), 0);
+        int toStart = parseInt(matcher.group(3), 0);
+        String headerSuffix = matcher.group(5) == null ? "" : matcher.group(5);
+
+        List<Hunk> parts = new ArrayList<>();
+        int currentFromLine = fromStart;
+        int currentToLine = toStart;
+        int segmentFromStart = currentFromLine;
+        int segmentToStart = currentToLine;
+        int segmentFromCount = 0;
+        int segmentToCount = 0;
+        StringBuilder segmentBody = new StringBuilder();
+
+        int headerLength = lines[0].length() + 1;
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            boolean lastLine = (i == lines.length - 1);
+            String lineWithNewline = lastLine ? line : line + '\n';
+            int prospectiveLength = headerLength + segmentBody.length() + lineWithNewline.length();
+            if (segmentBody.length() > 0 && prospectiveLength > maxChars) {
+                parts.add(buildSegment(segmentBody.toString(),
+                        segmentFromStart,
+                        segmentFromCount,
+                        segmentToStart,
+                        segmentToCount,
+                        headerSuffix));
+                segmentBody = new StringBuilder();
+                segmentFromStart = currentFromLine;
+                segmentToStart = currentToLine;
+                segmentFromCount = 0;
+                segmentToCount = 0;
+            }
+
+            segmentBody.append(lineWithNewline);
+            char prefix = line.isEmpty() ? ' ' : line.charAt(0);
+            switch (prefix) {
+                case ' ':
+                    currentFromLine++;
+                    currentToLine++;
+                    segmentFromCount++;
+                    segmentToCount++;
+                    break;
+                case '-':
+                    currentFromLine++;
+                    segmentFromCount++;
+                    break;
+                case '+':
+                    currentToLine++;
+                    segmentToCount++;
+                    break;
+                default:
+                    currentFromLine++;
+                    currentToLine++;
+                    segmentFromCount++;
+                    segmentToCount++;
+                    break;
+            }
+        }
+
+        if (segmentBody.length() > 0) {
+            parts.add(buildSegment(segmentBody.toString(),
+                    segmentFromStart,
+                    segmentFromCount,
+                    segmentToStart,
+                    segmentToCount,
+                    headerSuffix));
+        }
+
+        if (parts.isEmpty()) {
+            return Collections.singletonList(hunk);
+        }
+
+        int index = 0;
+        for (Hunk part : parts) {
+            if (part.range.getStart() <= 0) {
+                parts.set(index, new Hunk(part.content, LineRange.singleLine(Math.max(1, toStart))));
+            }
+            index++;
+        }
+        return parts;
+    }
+
+    private static Hunk buildSegment(String body,
+                                     int fromStart,
+                                     int fromCount,
+                                     int toStart,
+                                     int toCount,
+                                     String suffix) {
+        String header = buildHunkHeader(fromStart, fromCount, toStart, toCount, suffix);
+        LineRange range = LineRange.of(
+                Math.max(1, toStart),
+                Math.max(Math.max(1, toStart), toStart + Math.max(toCount - 1, 0)));
+        return new Hunk(ChunkContent.of(header + '\n' + body), range);
+    }
+
+    private static String buildHunkHeader(int fromStart, int fromCount, int toStart, int toCount, String suffix) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("@@ -").append(fromStart);
+        if (fromCount != 1) {
+            builder.append(',').append(Math.max(fromCount, 0));
+        }
+        builder.append(" +").append(toStart);
+        if (toCount != 1) {
+            builder.append(',').append(Math.max(toCount, 0));
+        }
+        builder.append(" @@");
+        if (suffix != null && !suffix.isEmpty()) {
+            builder.append(suffix);
+        }
+        return builder.toString();
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static String stripTrailingCarriageReturn(String line) {
+        if (line != null && line.endsWith("\r")) {
+            return line.substring(0, line.length() - 1);
+        }
+        return line;
+    }
+
+    /**
+     * View over {@code length} source bytes, terminated with a newline when the range does not end
+     * with one (the last hunk of a diff without a trailing newline).
+     */
+    private static ChunkContent view(DiffContentSource source, long offset, int length, int charLength) {
+        ChunkContent.Builder builder = ChunkContent.builder().append(source, offset, length, charLength);
+        if (length > 0 && source.byteAt(offset + length - 1) != '\n') {
+            builder.append("\n");
+        }
+        return builder.build();
+    }
+
+    static final class FileDiff {
+        final String path;
+        final ChunkContent header;
+        /** Size of the header in the units of the plan's {@link ChunkBudget}. */
+        final int headerSize;
+        /** Hunks split to fit the budget, each measured. */
+        final List<Hunk> hunks;
+
+        FileDiff(String path, ChunkContent header, int headerSize, List<Hunk> hunks) {
+            this.path = path;
+            this.header = header;
+            this.headerSize = headerSize;
+            this.hunks = hunks;
+        }
+    }
+
+    static final class Hunk {
+        final ChunkContent content;
+        final LineRange range;
+        /** Size in the units of the plan's {@link ChunkBudget}; set once the hunk has been measured. */
+        final int size;
+
+        Hunk(ChunkContent content, LineRange range) {
+            this(content, range, content.length());
+        }
+
+        private Hunk(ChunkContent content, LineRange range, int size) {
+            this.content = content;
+            this.range = range;
+            this.size = size;
+        }
+
+        Hunk measured(int measuredSize) {
+            return measuredSize == size ? this : new Hunk(content, range, measuredSize);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Node-wide fork/join pool the chunk strategies prepare files on: extracting a file's hunks from the
+ * streamed diff, measuring them and splitting oversized ones are independent per file.
+ * <p>
+ * Work is split by index and every result lands in its own slot, so callers merge in diff order and the
+ * plan is identical to a serial one. Small diffs stay on the calling thread.
+ */
+@Named
+@Singleton
+public class ChunkPlanningPool implements DisposableBean {
+
+    /** Below this many files the fork/join overhead outweighs the gain. */
+    static final int MIN_PARALLEL_FILES = 64;
+    /** Files handled by one task once the range has been split down. */
+    private static final int FILES_PER_TASK = 16;
+    private static final int MAX_DEFAULT_PARALLELISM = 8;
+
+    private final ForkJoinPool pool;
+
+    @Inject
+    public ChunkPlanningPool() {
+        this(Math.min(MAX_DEFAULT_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public ChunkPlanningPool(int parallelism) {
+        int threads = Math.max(1, parallelism);
+        this.pool = threads > 1 ? new ForkJoinPool(threads, ChunkPlanningPool::newThread, null, false) : null;
+    }
+
+    public int getParallelism() {
+        return pool != null ? pool.getParallelism() : 1;
+    }
+
+    /**
+     * Runs {@code action} for every index in {@code [0, count)}, in parallel when the pool has more than
+     * one thread and {@code count} is large enough, and returns once all have completed.
+     */
+    public void forEachIndex(int count, @Nonnull IntConsumer action) {
+        if (pool == null || count < MIN_PARALLEL_FILES) {
+            for (int i = 0; i < count; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new IndexRange(action, 0, count));
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("ai-review-chunk-plan-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class IndexRange extends RecursiveAction {
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+
+        private IndexRange(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FILES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new IndexRange(action, from, middle), new IndexRange(action, middle, to));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkResultStore;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.PromptTemplates;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Content-addressed cache of chunk review findings.
+ * <p>
+ * Keys hash the configured models, the prompt templates, the profile's minimum severity and the chunk
+ * content, so a chunk that is byte-identical to one reviewed before (typically after a force-push) is
+ * answered without a model call. A bounded in-memory LRU tier, evicting by entry count and payload size, sits
+ * in front of the shared {@link ChunkResultStore}, which survives restarts and is visible to every
+ * cluster node.
+ */
+@Named
+@Singleton
+@ExportAsService(ChunkResultCache.class)
+public class ChunkResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkResultCache.class);
+    private static final String KEY_VERSION = "v1";
+    static final int DEFAULT_MAX_ENTRIES = 4_096;
+    static final long DEFAULT_MAX_WEIGHT_CHARS = 16L * 1024 * 1024;
+
+    private final ChunkResultStore store;
+    private final int maxEntries;
+    private final long maxWeightChars;
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weightChars;
+
+    @Inject
+    public ChunkResultCache(ChunkResultStore store) {
+        this(store, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT_CHARS);
+    }
+
+    ChunkResultCache(ChunkResultStore store, int maxEntries, long maxWeightChars) {
+        this.store = Objects.requireNonNull(store, "store");
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxWeightChars = Math.max(1L, maxWeightChars);
+    }
+
+    @Nonnull
+    public String buildKey(@Nonnull ReviewChunk chunk, @Nonnull ReviewConfig config) {
+        Objects.requireNonNull(chunk, "chunk");
+        Objects.requireNonNull(config, "config");
+        PromptTemplates templates = config.getPromptTemplates();
+        MessageDigest digest = sha256();
+        update(digest, KEY_VERSION);
+        update(digest, config.getPrimaryModel());
+        update(digest, config.getFallbackModel());
+        update(digest, templates.getSystemPrompt());
+        update(digest, templates.getChunkInstructionsTemplate());
+        update(digest, config.getProfile().getMinSeverity().name());
+        update(digest, chunk.getContent());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    /**
+     * @return the cached findings for {@code key}, or {@code null} on a miss
+     */
+    @Nullable
+    public List<ReviewFinding> get(@Nonnull String key, @Nonnull MetricsRecorder metrics) {
+        String payload;
+        synchronized (entries) {
+            payload = entries.get(key);
+        }
+        if (payload == null) {
+            payload = loadFromStore(key);
+            if (payload != null) {
+                metrics.increment("ai.chunk.cache.storeHit");
+                remember(key, payload);
+            }
+        }
+        if (payload == null) {
+            metrics.increment("ai.chunk.cache.miss");
+            return null;
+        }
+        try {
+            List<ReviewFinding> findings = ReviewFindingCodec.fromJson(payload);
+            metrics.increment("ai.chunk.cache.hit");
+            return findings;
+        } catch (Exception ex) {
+            LogSupport.warn(log, "chunk_cache.decode_failed", "Discarding unreadable cached chunk result",
+                    "key", key,
+                    "error", ex.getMessage());
+            forget(key);
+            metrics.increment("ai.chunk.cache.miss");
+            return null;
+        }
+    }
+
+    public void put(@Nonnull String key, @Nonnull String model, @Nonnull List<ReviewFinding> findings) {
+        String payload;
+        try {
+            payload = ReviewFindingCodec.toJson(findings);
+        } catch (Exception ex) {
+            LogSupport.warn(log, "chunk_cache.encode_failed", "Failed to serialise chunk result",
+                    "key", key,
+                    "error", ex.getMessage());
+            return;
+        }
+        remember(key, payload);
+        try {
+            store.save(key, model, payload, findings.size());
+        } catch (RuntimeException ex) {
+            LogSupport.warn(log, "chunk_cache.store_failed", "Failed to persist chunk result",
+                    "key", key,
+                    "error", ex.getMessage());
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long weight() {
+        synchronized (entries) {
+            return weightChars;
+        }
+    }
+
+    private String loadFromStore(String key) {
+        try {
+            return store.load(key);
+        } catch (RuntimeException ex) {
+            LogSupport.warn(log, "chunk_cache.load_failed", "Failed to load chunk result",
+                    "key", key,
+                    "error", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void remember(String key, String payload) {
+        long weight = weightOf(key, payload);
+        if (weight > maxWeightChars) {
+            return;
+        }
+        synchronized (entries) {
+            String previous = entries.put(key, payload);
+            if (previous != null) {
+                weightChars -= weightOf(key, previous);
+            }
+            weightChars += weight;
+            Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || weightChars > maxWeightChars) && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                weightChars -= weightOf(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    private void forget(String key) {
+        synchronized (entries) {
+            String previous = entries.remove(key);
+            if (previous != null) {
+                weightChars -= weightOf(key, previous);
+            }
+        }
+    }
+
+    private static long weightOf(String key, String payload) {
+        return (long) key.length() + payload.length();
+    }
+
+    private static void update(MessageDigest digest, @Nullable String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    }
+}
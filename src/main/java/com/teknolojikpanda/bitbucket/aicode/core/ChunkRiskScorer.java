@@ -0,0 +1,131 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFileMetadata;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores chunks by how likely they are to contain findings worth reporting, from the per-file metadata
+ * of {@link FileMetadataExtractor}. The score decides which chunks survive {@code maxChunks} truncation
+ * and the order in which chunks are sent to the model, so the riskiest code is reviewed first.
+ * <p>
+ * A hunk scores its file's weight times the log of its changed lines. The file weight starts from the
+ * language (code above configuration and markup above unknown files), is doubled for security-sensitive
+ * paths and halved for tests. A chunk scores the sum of its hunks.
+ */
+public final class ChunkRiskScorer {
+
+    private static final double CODE_WEIGHT = 1.0;
+    private static final double MARKUP_WEIGHT = 0.6;
+    private static final double UNKNOWN_WEIGHT = 0.5;
+    private static final double SECURITY_FACTOR = 2.0;
+    private static final double TEST_FACTOR = 0.5;
+
+    private ChunkRiskScorer() {
+    }
+
+    /**
+     * @return weight of a changed line in {@code metadata}'s file; files without metadata weigh as unknown files
+     */
+    public static double fileWeight(@Nullable ReviewFileMetadata metadata) {
+        if (metadata == null) {
+            return UNKNOWN_WEIGHT;
+        }
+        if (metadata.isBinary()) {
+            return 0.0;
+        }
+        double weight = languageWeight(metadata.getLanguage());
+        if (metadata.isSecuritySensitive()) {
+            weight *= SECURITY_FACTOR;
+        }
+        if (metadata.isTestFile()) {
+            weight *= TEST_FACTOR;
+        }
+        return weight;
+    }
+
+    public static double scoreHunk(@Nullable ReviewFileMetadata metadata, @Nonnull LineRange range) {
+        int lines = Math.max(1, range.getEnd() - range.getStart() + 1);
+        return fileWeight(metadata) * log2(1 + lines);
+    }
+
+    public static double scoreChunk(@Nonnull ReviewChunk chunk, @Nonnull Map<String, ReviewFileMetadata> metadata) {
+        double score = 0.0;
+        for (Map.Entry<String, List<LineRange>> entry : chunk.getPrimaryRanges().entrySet()) {
+            ReviewFileMetadata fileMetadata = metadata.get(entry.getKey());
+            for (LineRange range : entry.getValue()) {
+                score += scoreHunk(fileMetadata, range);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Keeps the {@code maxChunks} highest-scoring chunks, ties going to the earlier chunk.
+     *
+     * @return the kept chunks in their planned order
+     */
+    @Nonnull
+    public static List<ReviewChunk> retainHighestRisk(@Nonnull List<ReviewChunk> chunks,
+                                                      int maxChunks,
+                                                      @Nonnull Map<String, ReviewFileMetadata> metadata) {
+        if (chunks.size() <= maxChunks) {
+            return chunks;
+        }
+        List<Integer> ranked = dispatchOrder(chunks, metadata);
+        boolean[] kept = new boolean[chunks.size()];
+        for (int i = 0; i < Math.max(0, maxChunks); i++) {
+            kept[ranked.get(i)] = true;
+        }
+        List<ReviewChunk> retained = new ArrayList<>(Math.max(0, maxChunks));
+        for (int i = 0; i < chunks.size(); i++) {
+            if (kept[i]) {
+                retained.add(chunks.get(i));
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * @return positions in {@code chunks}, highest score first, ties in planned order
+     */
+    @Nonnull
+    public static List<Integer> dispatchOrder(@Nonnull List<ReviewChunk> chunks,
+                                              @Nonnull Map<String, ReviewFileMetadata> metadata) {
+        double[] scores = new double[chunks.size()];
+        List<Integer> order = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            scores[i] = scoreChunk(chunks.get(i), metadata);
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble((Integer i) -> scores[i]).reversed()
+                .thenComparingInt(i -> i));
+        return order;
+    }
+
+    private static double languageWeight(@Nullable String language) {
+        if (language == null) {
+            return UNKNOWN_WEIGHT;
+        }
+        switch (language) {
+            case "YAML":
+            case "JSON":
+            case "XML":
+            case "HTML":
+                return MARKUP_WEIGHT;
+            default:
+                return CODE_WEIGHT;
+        }
+    }
+
+    private static double log2(int value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
@@ -1,5 +1,9 @@
 package com.teknolojikpanda.bitbucket.aicode.core;
 
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffHunk;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffLineSpan;
+
 import javax.annotation.Nonnull;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -66,6 +70,27 @@ public final class DiffPositionResolver {
         return new DiffPositionIndex(lines);
     }
 
+    /**
+     * Builds the index from the line spans captured while streaming, without re-reading the diff text.
+     */
+    public static DiffPositionIndex index(@Nonnull DiffFile file) {
+        Objects.requireNonNull(file, "file");
+        Map<Integer, LineType> lines = new LinkedHashMap<>();
+        for (DiffHunk hunk : file.getHunks()) {
+            for (int i = 0; i < hunk.getSpanCount(); i++) {
+                DiffLineSpan span = hunk.spanAt(i);
+                if (!span.isNewSide()) {
+                    continue;
+                }
+                LineType type = span.getType() == DiffLineSpan.Type.ADDED ? LineType.ADDED : LineType.CONTEXT;
+                for (int line = span.getNewStart(); line < span.getNewStart() + span.getLength(); line++) {
+                    lines.put(line, type);
+                }
+            }
+        }
+        return new DiffPositionIndex(lines);
+    }
+
     private static Integer parseDestStart(String hunkHeader) {
         for (String token : hunkHeader.split(" ")) {
             if (token.startsWith("+")) {
@@ -16,6 +16,9 @@ import java.util.regex.Pattern;
 public final class FileMetadataExtractor {
 
     private static final Pattern TEST_PATH_PATTERN = Pattern.compile("(^|/)(test|tests|__tests__|spec|specs)(/|$)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SECURITY_PATH_PATTERN = Pattern.compile(
+            "auth|security|crypt|cipher|password|passwd|secret|credential|token|session|permission|acl|oauth|saml|jwt|login|sanitiz",
+            Pattern.CASE_INSENSITIVE);
 
     private FileMetadataExtractor() {
     }
@@ -40,6 +43,7 @@ public final class FileMetadataExtractor {
             builder.extension(extension);
             builder.language(languageForExtension(extension));
             builder.testFile(isTestPath(normalizedPath));
+            builder.securitySensitive(isSecuritySensitivePath(normalizedPath));
 
             metadata.put(path, builder.build());
         });
@@ -68,6 +72,10 @@ public final class FileMetadataExtractor {
         return TEST_PATH_PATTERN.matcher(path).find();
     }
 
+    private static boolean isSecuritySensitivePath(String path) {
+        return SECURITY_PATH_PATTERN.matcher(path).find();
+    }
+
     private static String languageForExtension(String extension) {
         if (extension == null) {
             return null;
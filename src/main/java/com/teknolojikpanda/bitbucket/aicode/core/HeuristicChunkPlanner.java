@@ -4,6 +4,11 @@ import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
 import com.teknolojikpanda.bitbucket.aicode.api.ChunkPlanner;
 import com.teknolojikpanda.bitbucket.aicode.api.ChunkStrategy;
 import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkStrategyType;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.IncrementalScope;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewPreparation;
@@ -15,7 +20,6 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.time.Instant;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -27,13 +31,24 @@ public class HeuristicChunkPlanner implements ChunkPlanner {
 
     private static final Logger log = LoggerFactory.getLogger(HeuristicChunkPlanner.class);
 
-    private static final Set<String> TEST_KEYWORDS = new HashSet<>(Arrays.asList("test", "spec", "fixture"));
-
-    private final ChunkStrategy chunkStrategy;
+    private final Map<ChunkStrategyType, ChunkStrategy> chunkStrategies;
 
     @Inject
+    public HeuristicChunkPlanner(SizeFirstChunkStrategy sizeFirst, BinPackingChunkStrategy binPacking) {
+        this.chunkStrategies = new EnumMap<>(ChunkStrategyType.class);
+        chunkStrategies.put(ChunkStrategyType.SIZE_FIRST, Objects.requireNonNull(sizeFirst, "sizeFirst"));
+        chunkStrategies.put(ChunkStrategyType.BIN_PACKING, Objects.requireNonNull(binPacking, "binPacking"));
+    }
+
+    /**
+     * Plans every review with {@code chunkStrategy}, whatever the configured {@code chunkStrategy} setting.
+     */
     public HeuristicChunkPlanner(ChunkStrategy chunkStrategy) {
-        this.chunkStrategy = Objects.requireNonNull(chunkStrategy, "chunkStrategy");
+        Objects.requireNonNull(chunkStrategy, "chunkStrategy");
+        this.chunkStrategies = new EnumMap<>(ChunkStrategyType.class);
+        for (ChunkStrategyType type : ChunkStrategyType.values()) {
+            chunkStrategies.put(type, chunkStrategy);
+        }
     }
 
     @Nonnull
@@ -42,8 +57,11 @@ public class HeuristicChunkPlanner implements ChunkPlanner {
         Objects.requireNonNull(context, "context");
         Objects.requireNonNull(metrics, "metrics");
 
-        String diff = context.getRawDiff();
-        if (diff == null || diff.isEmpty()) {
+        // With a streamed model the strategy reads views from it; the text is only needed otherwise.
+        DiffModel model = context.getDiffModel();
+        String diff = model != null ? "" : context.getRawDiff();
+        boolean empty = model != null ? model.getTotalBytes() == 0 : diff == null || diff.isEmpty();
+        if (empty) {
             return ReviewPreparation.builder()
                     .context(context)
                     .overview(new ReviewOverview.Builder().build())
@@ -66,10 +84,29 @@ public class HeuristicChunkPlanner implements ChunkPlanner {
         ReviewOverview overview = buildOverview(context, filesToReview);
         metrics.recordMetric("chunks.overviewFiles", overview.getTotalFiles());
 
+        // Incremental re-reviews keep the overview of the whole PR but only plan files edited since the last review.
+        IncrementalScope scope = context.getIncrementalScope();
+        Set<String> filesToPlan = filesToReview;
+        if (scope != null) {
+            filesToPlan = filesToReview.stream()
+                    .filter(scope::touchesFile)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+            metrics.recordMetric("chunks.incremental.files", filesToPlan.size());
+        }
+
         Instant planStart = metrics.recordStart("chunk.plan");
-        ChunkStrategy.Result result = chunkStrategy.plan(context, diff, filesToReview, metrics);
+        ChunkStrategyType strategyType = context.getConfig().getChunkStrategy();
+        metrics.recordMetric("chunks.strategy", strategyType.toConfigValue());
+        ChunkStrategy.Result result = chunkStrategies.get(strategyType).plan(context, diff, filesToPlan, metrics);
         metrics.recordEnd("chunk.plan", planStart);
-        metrics.recordMetric("chunks.count", result.getChunks().size());
+        List<ReviewChunk> chunks = result.getChunks();
+        if (scope != null) {
+            chunks = chunks.stream()
+                    .filter(scope::intersects)
+                    .collect(Collectors.toList());
+            metrics.recordMetric("chunks.incremental.skipped", result.getChunks().size() - chunks.size());
+        }
+        metrics.recordMetric("chunks.count", chunks.size());
         metrics.recordMetric("chunks.truncated", result.isTruncated());
         if (Diagnostics.isEnabled()) {
             Diagnostics.log(log, () -> String.format(
@@ -82,7 +119,7 @@ public class HeuristicChunkPlanner implements ChunkPlanner {
         return ReviewPreparation.builder()
                 .context(context)
                 .overview(overview)
-                .chunks(result.getChunks())
+                .chunks(chunks)
                 .truncated(result.isTruncated())
                 .skippedFiles(result.getSkippedFiles())
                 .build();
@@ -94,104 +131,27 @@ public class HeuristicChunkPlanner implements ChunkPlanner {
             return Collections.emptySet();
         }
 
-        Set<String> allowedExtensions = context.getConfig().getReviewableExtensions().stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
-        List<Pattern> ignorePatterns = context.getConfig().getIgnorePatterns().stream()
-                .filter(s -> !s.trim().isEmpty())
-                .map(this::globToPattern)
-                .collect(Collectors.toList());
-        List<String> ignorePaths = context.getConfig().getIgnorePaths().stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toList());
+        ReviewConfig config = context.getConfig();
+        PathFilter filter = PathFilter.forConfig(config);
         if (Diagnostics.isEnabled()) {
             Diagnostics.log(log, () -> String.format(
                     "Filter setup for PR #%d -> allowedExtensions=%s, ignorePaths=%s, ignorePatterns=%d",
                     context.getPullRequest().getId(),
-                    allowedExtensions,
-                    ignorePaths,
-                    ignorePatterns.size()));
-        }
-
-        return files.stream()
-                .filter(file -> shouldReviewFile(file, allowedExtensions, ignorePatterns, ignorePaths, context))
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-    }
-
-    private boolean shouldReviewFile(String file,
-                                     Set<String> allowedExtensions,
-                                     List<Pattern> ignorePatterns,
-                                     List<String> ignorePaths,
-                                     ReviewContext context) {
-        String lower = file.toLowerCase();
-        for (String path : ignorePaths) {
-            if (!path.isEmpty() && lower.contains(path)) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Skipping {} because it matches ignore path '{}'", file, path);
-                }
-                return false;
-            }
-        }
-
-        for (Pattern pattern : ignorePatterns) {
-            if (pattern.matcher(lower).matches()) {
-                if (log.isDebugEnabled()) {
-                    log.debug("Skipping {} because it matches ignore pattern {}", file, pattern);
-                }
-                return false;
-            }
+                    config.getReviewableExtensions(),
+                    config.getIgnorePaths(),
+                    config.getIgnorePatterns().size()));
         }
 
-        int idx = file.lastIndexOf('.');
-        if (idx < 0) {
-            if (log.isDebugEnabled()) {
-                log.debug("Skipping {} because it has no extension", file);
+        Set<String> selected = new LinkedHashSet<>();
+        for (String file : files) {
+            PathFilter.Verdict verdict = filter.classify(file);
+            if (verdict == PathFilter.Verdict.REVIEW) {
+                selected.add(file);
+            } else if (log.isDebugEnabled()) {
+                log.debug("Skipping {}: {}", file, verdict);
             }
-            return false;
-        }
-        String ext = file.substring(idx + 1).toLowerCase();
-        if (!allowedExtensions.isEmpty() && !allowedExtensions.contains(ext)) {
-            if (log.isDebugEnabled()) {
-                log.debug("Skipping {} because extension '{}' not in allow-list {}", file, ext, allowedExtensions);
-            }
-            return false;
-        }
-
-        if (context.getConfig().getProfile().isSkipGeneratedFiles() && looksGenerated(file)) {
-            if (log.isDebugEnabled()) {
-                log.debug("Skipping generated file {}", file);
-            }
-            return false;
-        }
-        if (!context.getConfig().getProfile().isReviewTests() && looksLikeTestFile(file)) {
-            if (log.isDebugEnabled()) {
-                log.debug("Skipping test file {}", file);
-            }
-            return false;
-        }
-        return true;
-    }
-
-    private boolean looksGenerated(String file) {
-        String lower = file.toLowerCase();
-        return lower.contains("generated") || lower.endsWith(".g.dart") || lower.contains("build/");
-    }
-
-    private boolean looksLikeTestFile(String file) {
-        String lower = file.toLowerCase();
-        return TEST_KEYWORDS.stream().anyMatch(lower::contains);
-    }
-
-    private Pattern globToPattern(String glob) {
-        String trimmed = glob.trim().toLowerCase();
-        if (trimmed.isEmpty()) {
-            return Pattern.compile("$^");
         }
-        String regex = trimmed
-                .replace(".", "\\.")
-                .replace("*", ".*")
-                .replace("?", ".");
-        return Pattern.compile(regex);
+        return selected;
     }
 
     private ReviewOverview buildOverview(ReviewContext context, Set<String> filesToReview) {
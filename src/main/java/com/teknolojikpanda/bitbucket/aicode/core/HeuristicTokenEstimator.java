@@ -0,0 +1,105 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.api.TokenEstimator;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Objects;
+
+/**
+ * Single-pass approximation of a BPE tokenizer for source code and diffs.
+ * <p>
+ * Text is split into the runs a code tokenizer would typically keep together: word pieces (split at
+ * camelCase boundaries), digit groups, whitespace and punctuation. Short word pieces cost one token and
+ * long ones one more per few letters, digits go in groups of three, a single space merges into the
+ * following word and punctuation pairs up. The result tracks real tokenizers closely enough that
+ * dense code (minified bundles, long identifiers) is recognised as dense; the remaining per-model bias
+ * is corrected by {@link ModelContextBudget}.
+ */
+@Named
+@Singleton
+public class HeuristicTokenEstimator implements TokenEstimator {
+
+    /** Letters of a word piece covered by its first token. */
+    static final int WORD_HEAD_CHARS = 6;
+    /** Letters covered by each further token of a long word piece. */
+    static final int WORD_TAIL_CHARS = 4;
+    static final int DIGITS_PER_TOKEN = 3;
+    static final int WHITESPACE_PER_TOKEN = 16;
+
+    @Inject
+    public HeuristicTokenEstimator() {
+    }
+
+    @Override
+    public int estimateTokens(@Nonnull CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        int length = text.length();
+        long tokens = 0;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            int start = i;
+            if (isAsciiLetter(c)) {
+                i++;
+                while (i < length && isAsciiLetter(text.charAt(i))) {
+                    char current = text.charAt(i);
+                    if (Character.isUpperCase(current) && Character.isLowerCase(text.charAt(i - 1))) {
+                        break;
+                    }
+                    i++;
+                }
+                tokens += wordPieceTokens(i - start);
+            } else if (c >= '0' && c <= '9') {
+                while (i < length && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                    i++;
+                }
+                tokens += (i - start + DIGITS_PER_TOKEN - 1) / DIGITS_PER_TOKEN;
+            } else if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                while (i < length && isWhitespace(text.charAt(i))) {
+                    i++;
+                }
+                int run = i - start;
+                boolean mergesIntoWord = run == 1 && c == ' ' && i < length && isWordStart(text.charAt(i));
+                if (!mergesIntoWord) {
+                    tokens += 1 + (run - 1) / WHITESPACE_PER_TOKEN;
+                }
+            } else if (c < 0x80) {
+                while (i < length && isAsciiPunctuation(text.charAt(i))) {
+                    i++;
+                }
+                tokens += (i - start + 1) / 2;
+            } else {
+                // Non-ASCII text is far less compressed by code tokenizers; count every code point.
+                i += Character.isHighSurrogate(c) && i + 1 < length ? 2 : 1;
+                tokens++;
+            }
+        }
+        return tokens > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) tokens;
+    }
+
+    private static int wordPieceTokens(int letters) {
+        if (letters <= WORD_HEAD_CHARS) {
+            return 1;
+        }
+        return 1 + (letters - WORD_HEAD_CHARS + WORD_TAIL_CHARS - 1) / WORD_TAIL_CHARS;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isWordStart(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isAsciiPunctuation(char c) {
+        return c < 0x80 && !isAsciiLetter(c) && !isWhitespace(c) && !(c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,75 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.DiffContentSource;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * {@link DiffContentSource} over a read-only mapping of a spilled diff file.
+ * <p>
+ * The spill file is unlinked as soon as it has been mapped, so the pages are released once the
+ * mapping becomes unreachable and nothing is left behind on disk if a review is abandoned.
+ */
+final class MappedDiffContentSource implements DiffContentSource {
+
+    private final MappedByteBuffer buffer;
+    private final int length;
+
+    MappedDiffContentSource(@Nonnull MappedByteBuffer buffer, int length) {
+        this.buffer = Objects.requireNonNull(buffer, "buffer");
+        this.length = length;
+    }
+
+    @Override
+    public long size() {
+        return length;
+    }
+
+    @Nonnull
+    @Override
+    public String read(long offset, int count) {
+        checkRange(offset, count);
+        if (count == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[count];
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) offset);
+        view.get(bytes, 0, count);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte byteAt(long offset) {
+        if (offset < 0 || offset >= length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", size=" + length);
+        }
+        return buffer.get((int) offset);
+    }
+
+    @Override
+    public int charLength(long offset, int count) {
+        checkRange(offset, count);
+        int chars = 0;
+        int end = (int) offset + count;
+        for (int i = (int) offset; i < end; i++) {
+            chars += DiffContentSource.utf16Length(buffer.get(i));
+        }
+        return chars;
+    }
+
+    @Override
+    public boolean isSpilled() {
+        return true;
+    }
+
+    private void checkRange(long offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + count + ", size=" + length);
+        }
+    }
+}
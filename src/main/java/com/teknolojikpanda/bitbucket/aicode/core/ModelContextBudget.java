@@ -0,0 +1,269 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teknolojikpanda.bitbucket.aicode.api.TokenEstimator;
+import com.teknolojikpanda.bitbucket.aicode.model.PromptTemplates;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token budget of review chunks, derived from the context window of the configured models.
+ * <p>
+ * The window is taken from {@code modelContextTokens} when set, otherwise it is read once per model from
+ * Ollama's {@code /api/show} on the first endpoint serving it: the model's {@code num_ctx} parameter when
+ * present, else its trained context length capped at {@link #AUTO_CONTEXT_CAP}. Chunk requests send the same
+ * value as {@code num_ctx}, so the server never truncates a prompt that was packed to fit.
+ * <p>
+ * Token counts come from the {@link TokenEstimator}, scaled per model by a calibration factor that tracks the
+ * ratio between the {@code prompt_eval_count} Ollama reports and the estimate of the prompt that was sent.
+ */
+@Named
+@Singleton
+public class ModelContextBudget {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelContextBudget.class);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+    private static final Pattern NUM_CTX_PARAMETER = Pattern.compile("(?m)^\\s*num_ctx\\s+(\\d+)\\s*$");
+
+    /** Window assumed for models without a {@code num_ctx} parameter; larger windows cost server memory. */
+    static final int AUTO_CONTEXT_CAP = 32_768;
+    /** Below this many tokens per chunk the window is too small to plan by; chars are used instead. */
+    static final int MIN_TOKEN_BUDGET = 2_048;
+    static final int MIN_RESPONSE_RESERVE = 1_024;
+    static final int MAX_RESPONSE_RESERVE = 8_192;
+    static final double CALIBRATION_ALPHA = 0.2D;
+    static final double MIN_CALIBRATION = 0.25D;
+    static final double MAX_CALIBRATION = 4D;
+    /** Prompts smaller than this are dominated by fixed overhead and not used for calibration. */
+    static final int MIN_CALIBRATION_SAMPLE = 256;
+    static final long LOOKUP_RETRY_MS = TimeUnit.MINUTES.toMillis(10);
+    private static final int LOOKUP_TIMEOUT_MS = 10_000;
+    private static final String LOOKUP_ROLE = "metadata";
+
+    private final TokenEstimator estimator;
+    private final ModelHttpTransport transport;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, ContextWindow> windows = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Double> calibrations = new ConcurrentHashMap<>();
+
+    @Inject
+    public ModelContextBudget(TokenEstimator estimator, ModelHttpTransport transport) {
+        this(estimator, transport, System::currentTimeMillis);
+    }
+
+    ModelContextBudget(TokenEstimator estimator, ModelHttpTransport transport, LongSupplier clock) {
+        this.estimator = Objects.requireNonNull(estimator, "estimator");
+        this.transport = Objects.requireNonNull(transport, "transport");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    @Nonnull
+    public TokenEstimator getEstimator() {
+        return estimator;
+    }
+
+    /**
+     * @return context window in tokens used for {@code model}, or {@code 0} when it is not known
+     */
+    public int contextWindow(@Nonnull ReviewConfig config, @Nonnull String model, @Nonnull List<URI> endpoints) {
+        if (config.getModelContextTokens() > 0) {
+            return config.getModelContextTokens();
+        }
+        if (endpoints.isEmpty()) {
+            return 0;
+        }
+        String endpoint = endpoints.get(0).toString();
+        String key = endpoint + "|" + model;
+        long now = clock.getAsLong();
+        ContextWindow cached = windows.get(key);
+        if (cached != null && (cached.tokens > 0 || now - cached.fetchedAt < LOOKUP_RETRY_MS)) {
+            return cached.tokens;
+        }
+        int tokens = lookup(config, endpoint, model);
+        windows.put(key, new ContextWindow(tokens, now));
+        return tokens;
+    }
+
+    /**
+     * @return factor turning raw estimates for {@code model} into the token counts it reports; {@code 1}
+     * until the first sample
+     */
+    public double calibration(@Nonnull String model) {
+        Double factor = calibrations.get(model);
+        return factor != null ? factor : 1D;
+    }
+
+    /**
+     * Feeds back the tokens the model counted for a prompt whose raw estimate was {@code estimatedTokens}.
+     * Samples that are too small, or off by more than the calibration bounds (prompt caching, truncated
+     * prompts), are ignored.
+     */
+    public void recordPromptTokens(@Nonnull String model, int estimatedTokens, int promptEvalCount) {
+        if (estimatedTokens < MIN_CALIBRATION_SAMPLE || promptEvalCount <= 0) {
+            return;
+        }
+        double ratio = (double) promptEvalCount / estimatedTokens;
+        if (ratio < MIN_CALIBRATION || ratio > MAX_CALIBRATION) {
+            LogSupport.debug(log, "token.calibration_outlier", "Ignored outlying token count sample",
+                    "model", model,
+                    "estimatedTokens", estimatedTokens,
+                    "promptEvalCount", promptEvalCount);
+            return;
+        }
+        calibrations.merge(model, ratio, (current, sample) -> current + CALIBRATION_ALPHA * (sample - current));
+    }
+
+    /**
+     * Budget chunks of {@code context} are packed against: the smallest window of the models that may review
+     * them, minus the fixed prompt, the overview and a reserve for the response. Falls back to
+     * {@code maxCharsPerChunk} when no window is known or it leaves too little room.
+     */
+    @Nonnull
+    ChunkBudget budgetFor(@Nonnull ReviewContext context) {
+        ReviewConfig config = context.getConfig();
+        int window = contextWindow(config, config.getFallbackModel(), config.getFallbackModelEndpoints());
+        double calibration = calibration(config.getFallbackModel());
+        if (!config.isSkipPrimaryModel() && window > 0) {
+            window = Math.min(window, contextWindow(config, config.getPrimaryModel(), config.getPrimaryModelEndpoints()));
+            calibration = Math.max(calibration, calibration(config.getPrimaryModel()));
+        }
+        if (window <= 0) {
+            // A model whose window is unknown runs with the server's default; only chars are safe to plan by.
+            return ChunkBudget.chars(config.getMaxCharsPerChunk());
+        }
+
+        int overhead = (int) Math.ceil(promptOverheadTokens(context) * calibration);
+        int reserve = Math.max(MIN_RESPONSE_RESERVE, Math.min(MAX_RESPONSE_RESERVE, window / 8));
+        // Leave room for the strategy's tolerance (a tenth of the budget) within the window.
+        int budget = (int) ((window - reserve - (long) overhead) * 10 / 11);
+        if (budget < MIN_TOKEN_BUDGET) {
+            LogSupport.warn(log, "token.budget_too_small", "Model context window too small for token packing",
+                    "pullRequestId", context.getPullRequest().getId(),
+                    "contextTokens", window,
+                    "overheadTokens", overhead,
+                    "budgetTokens", budget);
+            return ChunkBudget.chars(config.getMaxCharsPerChunk());
+        }
+        LogSupport.debug(log, "token.budget", "Planning chunks by token budget",
+                "pullRequestId", context.getPullRequest().getId(),
+                "contextTokens", window,
+                "overheadTokens", overhead,
+                "budgetTokens", budget,
+                "calibration", calibration);
+        return ChunkBudget.tokens(budget, estimator, calibration);
+    }
+
+    /**
+     * Raw estimate of everything in a chunk prompt besides the diff and the per-file chunk context.
+     */
+    int promptOverheadTokens(@Nonnull ReviewContext context) {
+        PromptTemplates templates = context.getConfig().getPromptTemplates();
+        long tokens = estimator.estimateTokens(templates.getSystemPrompt())
+                + estimator.estimateTokens(templates.getChunkInstructionsTemplate())
+                + estimator.estimateTokens(templates.getOverviewTemplate());
+        int entryTokens = estimator.estimateTokens(templates.getOverviewFileEntryTemplate());
+        for (String path : context.getFileStats().keySet()) {
+            tokens += entryTokens + estimator.estimateTokens(path);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, tokens);
+    }
+
+    private int lookup(ReviewConfig config, String endpoint, String model) {
+        try {
+            byte[] payload = OBJECT_MAPPER.writeValueAsBytes(Collections.singletonMap("model", model));
+            ModelHttpTransport.Response response = transport.postJson(
+                    LOOKUP_ROLE,
+                    showUri(endpoint),
+                    payload,
+                    1,
+                    Math.max(5_000, config.getConnectTimeoutMs()),
+                    LOOKUP_TIMEOUT_MS);
+            if (response.getStatusCode() >= 400) {
+                LogSupport.warn(log, "token.context_lookup_failed", "Model context window lookup failed",
+                        "endpoint", endpoint,
+                        "model", model,
+                        "status", response.getStatusCode());
+                return 0;
+            }
+            int tokens = parseContextWindow(response.getBody());
+            LogSupport.info(log, "token.context_window", "Resolved model context window",
+                    "endpoint", endpoint,
+                    "model", model,
+                    "contextTokens", tokens);
+            return tokens;
+        } catch (Exception ex) {
+            LogSupport.warn(log, "token.context_lookup_failed", "Model context window lookup failed",
+                    "endpoint", endpoint,
+                    "model", model,
+                    "error", ex.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the window from an {@code /api/show} response: the {@code num_ctx} parameter if the model sets
+     * one, otherwise its {@code <architecture>.context_length} capped at {@link #AUTO_CONTEXT_CAP}.
+     */
+    static int parseContextWindow(@Nullable String body) throws IOException {
+        if (body == null || body.trim().isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> show = OBJECT_MAPPER.readValue(body.getBytes(StandardCharsets.UTF_8), MAP_TYPE);
+        long trained = 0;
+        Object info = show.get("model_info");
+        if (info instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) info).entrySet()) {
+                if (String.valueOf(entry.getKey()).endsWith(".context_length") && entry.getValue() instanceof Number) {
+                    trained = ((Number) entry.getValue()).longValue();
+                    break;
+                }
+            }
+        }
+        Object parameters = show.get("parameters");
+        if (parameters instanceof String) {
+            Matcher matcher = NUM_CTX_PARAMETER.matcher((String) parameters);
+            if (matcher.find()) {
+                long numCtx = Long.parseLong(matcher.group(1));
+                return (int) Math.min(Integer.MAX_VALUE, trained > 0 ? Math.min(numCtx, trained) : numCtx);
+            }
+        }
+        return trained > 0 ? (int) Math.min(trained, AUTO_CONTEXT_CAP) : 0;
+    }
+
+    private static URI showUri(String baseUrl) {
+        return URI.create(baseUrl.endsWith("/") ? baseUrl + "api/show" : baseUrl + "/api/show");
+    }
+
+    private static final class ContextWindow {
+        final int tokens;
+        final long fetchedAt;
+
+        private ContextWindow(int tokens, long fetchedAt) {
+            this.tokens = tokens;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
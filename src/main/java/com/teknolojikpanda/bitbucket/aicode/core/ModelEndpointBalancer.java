@@ -0,0 +1,408 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aicode.api.ModelEndpointHealth;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aireviewer.util.CircuitBreaker;
+import com.teknolojikpanda.bitbucket.aireviewer.util.CircuitBreaker.CircuitBreakerOpenException;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import com.teknolojikpanda.bitbucket.aireviewer.util.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Spreads model calls across a pool of endpoints serving the same model.
+ * <p>
+ * Each call samples two eligible endpoints and takes the one with fewer outstanding requests relative to its
+ * routing weight (power of two choices). Weights come from {@link ModelEndpointHealth}: endpoints that probes
+ * mark as failed get weight zero and stop receiving new calls while their in-flight calls finish. Every
+ * endpoint and model pair has its own {@link CircuitBreaker} and {@link RateLimiter}, so one broken host only
+ * takes itself out of rotation and one busy review only spends the request budget of the hosts it lands on.
+ * Thresholds come from the review configuration; the registry is read without locking and a guard is only
+ * rebuilt when its endpoint's settings change.
+ */
+@Named
+@Singleton
+@ExportAsService(ModelEndpointBalancer.class)
+public class ModelEndpointBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelEndpointBalancer.class);
+    static final int FAILURE_THRESHOLD = 5;
+    static final Duration OPEN_TIMEOUT = Duration.ofMinutes(1);
+    static final int RATE_LIMIT_PER_SECOND = 10;
+    private static final Settings DEFAULT_SETTINGS =
+            new Settings(RATE_LIMIT_PER_SECOND, FAILURE_THRESHOLD, OPEN_TIMEOUT);
+
+    private final ConcurrentMap<String, EndpointState> endpoints = new ConcurrentHashMap<>();
+    private final ModelEndpointHealth health;
+
+    @Inject
+    public ModelEndpointBalancer(ModelEndpointHealth health) {
+        this.health = Objects.requireNonNull(health, "health");
+    }
+
+    /**
+     * Picks the endpoint for the next call to {@code model} using default breaker and rate settings.
+     *
+     * @see #acquire(List, String, Predicate, ReviewConfig)
+     */
+    @Nonnull
+    public Lease acquire(@Nonnull List<String> pool, @Nonnull String model, @Nonnull Predicate<String> excluded) {
+        return acquire(pool, model, excluded, endpoint -> DEFAULT_SETTINGS);
+    }
+
+    /**
+     * Picks the endpoint for the next call to {@code model}.
+     *
+     * @param pool     endpoints serving the model, in configured order
+     * @param excluded endpoints to skip for this call (for example those that do not have the model)
+     * @param config   source of the per-endpoint rate limits and circuit thresholds
+     * @return a lease that must be completed exactly once
+     * @throws CircuitBreakerOpenException if every endpoint not excluded has an open circuit
+     */
+    @Nonnull
+    public Lease acquire(@Nonnull List<String> pool,
+                         @Nonnull String model,
+                         @Nonnull Predicate<String> excluded,
+                         @Nonnull ReviewConfig config) {
+        Objects.requireNonNull(config, "config");
+        return acquire(pool, model, excluded, endpoint -> new Settings(
+                config.modelRateLimitPerSecond(endpoint),
+                config.getModelCircuitFailureThreshold(),
+                Duration.ofSeconds(config.getModelCircuitOpenSeconds())));
+    }
+
+    private Lease acquire(List<String> pool,
+                          String model,
+                          Predicate<String> excluded,
+                          Function<String, Settings> settings) {
+        List<EndpointState> open = new ArrayList<>(pool.size());
+        List<EndpointState> weighted = new ArrayList<>(pool.size());
+        List<Double> weights = new ArrayList<>(pool.size());
+        for (String endpoint : pool) {
+            if (excluded.test(endpoint)) {
+                continue;
+            }
+            EndpointState state = state(endpoint, model);
+            if (!state.guard(settings.apply(endpoint)).breaker.tryAcquire()) {
+                continue;
+            }
+            open.add(state);
+            double weight = Math.max(0d, Math.min(1d, health.routingWeight(endpoint, model)));
+            state.weight = weight;
+            if (weight > 0d) {
+                weighted.add(state);
+                weights.add(weight);
+            }
+        }
+        if (open.isEmpty()) {
+            throw new CircuitBreakerOpenException("All endpoints for model " + model + " are unavailable");
+        }
+        EndpointState chosen;
+        if (!weighted.isEmpty()) {
+            chosen = pick(weighted, weights);
+        } else {
+            // Probes say every host is down; the breakers still let calls through, so trust them over stale probes.
+            chosen = open.get(0);
+            LogSupport.debug(log, "model_balancer.all_drained", "All endpoints drained; routing to first reachable",
+                    "model", model,
+                    "endpoint", chosen.endpoint);
+        }
+        chosen.outstanding.incrementAndGet();
+        chosen.selected.incrementAndGet();
+        return new Lease(chosen, chosen.current());
+    }
+
+    /**
+     * @return per endpoint and model routing state for telemetry
+     */
+    @Nonnull
+    public Map<String, Object> snapshot() {
+        List<Map<String, Object>> list = new ArrayList<>(endpoints.size());
+        for (EndpointState state : endpoints.values()) {
+            list.add(state.toMap());
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("endpoints", list);
+        map.put("capturedAt", System.currentTimeMillis());
+        return map;
+    }
+
+    /**
+     * Combines the circuits of every endpoint into the shape reported for a single breaker: the state is
+     * {@code OPEN} only when no endpoint can take calls, {@code HALF_OPEN} when at least one is not closed.
+     */
+    @Nonnull
+    public Map<String, Object> circuitSummary() {
+        int closed = 0;
+        int notOpen = 0;
+        long failureCount = 0;
+        long openEvents = 0;
+        long blockedCalls = 0;
+        long succeededCalls = 0;
+        long failedCalls = 0;
+        for (EndpointState state : endpoints.values()) {
+            CircuitBreaker breaker = state.current().breaker;
+            String current = breaker.getState();
+            if ("CLOSED".equals(current)) {
+                closed++;
+            }
+            if (!"OPEN".equals(current)) {
+                notOpen++;
+            }
+            failureCount += breaker.getFailureCount();
+            openEvents += breaker.getOpenEvents();
+            blockedCalls += breaker.getBlockedCalls();
+            succeededCalls += breaker.getSucceededCalls();
+            failedCalls += breaker.getFailedCalls();
+        }
+        String state;
+        if (endpoints.isEmpty() || closed == endpoints.size()) {
+            state = "CLOSED";
+        } else if (notOpen == 0) {
+            state = "OPEN";
+        } else {
+            state = "HALF_OPEN";
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("state", state);
+        map.put("failureCount", failureCount);
+        map.put("openEvents", openEvents);
+        map.put("blockedCalls", blockedCalls);
+        map.put("succeededCalls", succeededCalls);
+        map.put("failedCalls", failedCalls);
+        return map;
+    }
+
+    private EndpointState pick(List<EndpointState> candidates, List<Double> weights) {
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        EndpointState a = candidates.get(first);
+        EndpointState b = candidates.get(second);
+        // An endpoint that can take a call now beats one whose rate limit would make the call wait.
+        boolean aReady = a.current().limiter.nanosUntilAvailable() == 0L;
+        boolean bReady = b.current().limiter.nanosUntilAvailable() == 0L;
+        if (aReady != bReady) {
+            return aReady ? a : b;
+        }
+        double firstLoad = (a.outstanding.get() + 1) / weights.get(first);
+        double secondLoad = (b.outstanding.get() + 1) / weights.get(second);
+        return secondLoad < firstLoad ? b : a;
+    }
+
+    private EndpointState state(String endpoint, String model) {
+        String key = endpoint + "|" + model;
+        // computeIfAbsent locks the bin even when the key exists; only fall back to it for new pairs.
+        EndpointState state = endpoints.get(key);
+        return state != null ? state : endpoints.computeIfAbsent(key, k -> new EndpointState(endpoint, model));
+    }
+
+    /**
+     * Claim on one endpoint for the duration of a call.
+     */
+    public static final class Lease {
+        private final EndpointState state;
+        private final Guard guard;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Lease(EndpointState state, Guard guard) {
+            this.state = state;
+            this.guard = guard;
+        }
+
+        @Nonnull
+        public String getEndpoint() {
+            return state.endpoint;
+        }
+
+        /**
+         * Waits for the endpoint and model pair's request rate to allow one more call.
+         *
+         * @return time spent waiting in milliseconds
+         */
+        public long awaitRateLimit() throws InterruptedException {
+            long delayNanos = guard.limiter.reserve();
+            if (delayNanos <= 0L) {
+                return 0L;
+            }
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(delayNanos);
+            state.throttledCalls.incrementAndGet();
+            state.rateWaitMs.addAndGet(waitMs);
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+            return waitMs;
+        }
+
+        /**
+         * The endpoint answered.
+         */
+        public void onSuccess() {
+            if (complete()) {
+                guard.breaker.recordSuccess();
+            }
+        }
+
+        /**
+         * The endpoint failed on its side (unreachable, timed out or answered 5xx); counts toward its circuit.
+         */
+        public void onFailure() {
+            if (complete()) {
+                guard.breaker.recordFailure();
+            }
+        }
+
+        /**
+         * The call ended without saying anything about the endpoint's health (cancelled, or rejected as invalid).
+         */
+        public void release() {
+            complete();
+        }
+
+        private boolean complete() {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            state.outstanding.decrementAndGet();
+            return true;
+        }
+    }
+
+    private static final class Settings {
+        private final int rateLimitPerSecond;
+        private final int failureThreshold;
+        private final Duration openTimeout;
+
+        private Settings(int rateLimitPerSecond, int failureThreshold, Duration openTimeout) {
+            this.rateLimitPerSecond = Math.max(1, rateLimitPerSecond);
+            this.failureThreshold = Math.max(1, failureThreshold);
+            this.openTimeout = openTimeout;
+        }
+
+        boolean sameBreaker(Settings other) {
+            return failureThreshold == other.failureThreshold && openTimeout.equals(other.openTimeout);
+        }
+    }
+
+    /**
+     * Breaker and limiter built for one set of settings; replaced as a whole so readers never see a mix.
+     */
+    private static final class Guard {
+        private final Settings settings;
+        private final CircuitBreaker breaker;
+        private final RateLimiter limiter;
+
+        private Guard(Settings settings, CircuitBreaker breaker, RateLimiter limiter) {
+            this.settings = settings;
+            this.breaker = breaker;
+            this.limiter = limiter;
+        }
+    }
+
+    private static final class EndpointState {
+        private final String endpoint;
+        private final String model;
+        private final AtomicReference<Guard> guard;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong selected = new AtomicLong();
+        private final AtomicLong throttledCalls = new AtomicLong();
+        private final AtomicLong rateWaitMs = new AtomicLong();
+        private volatile double weight = 1d;
+
+        private EndpointState(String endpoint, String model) {
+            this.endpoint = endpoint;
+            this.model = model;
+            this.guard = new AtomicReference<>(new Guard(DEFAULT_SETTINGS, newBreaker(DEFAULT_SETTINGS),
+                    newLimiter(DEFAULT_SETTINGS)));
+        }
+
+        Guard current() {
+            return guard.get();
+        }
+
+        Guard guard(Settings settings) {
+            while (true) {
+                Guard current = guard.get();
+                Settings previous = current.settings;
+                boolean sameBreaker = previous.sameBreaker(settings);
+                boolean sameLimiter = previous.rateLimitPerSecond == settings.rateLimitPerSecond;
+                if (sameBreaker && sameLimiter) {
+                    return current;
+                }
+                Guard updated = new Guard(settings,
+                        sameBreaker ? current.breaker : newBreaker(settings),
+                        sameLimiter ? current.limiter : newLimiter(settings));
+                if (guard.compareAndSet(current, updated)) {
+                    LogSupport.info(log, "model_balancer.settings_changed", "Applied new endpoint guard settings",
+                            "endpoint", endpoint,
+                            "model", model,
+                            "rateLimitPerSecond", settings.rateLimitPerSecond,
+                            "failureThreshold", settings.failureThreshold,
+                            "openSeconds", settings.openTimeout.getSeconds());
+                    return updated;
+                }
+            }
+        }
+
+        private CircuitBreaker newBreaker(Settings settings) {
+            return new CircuitBreaker("ollama-client:" + endpoint + ":" + model,
+                    settings.failureThreshold, settings.openTimeout);
+        }
+
+        private RateLimiter newLimiter(Settings settings) {
+            return new RateLimiter("ollama-client:" + endpoint + ":" + model,
+                    settings.rateLimitPerSecond, Duration.ofSeconds(1));
+        }
+
+        Map<String, Object> toMap() {
+            Guard current = guard.get();
+            CircuitBreaker breaker = current.breaker;
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", endpoint);
+            map.put("model", model);
+            map.put("weight", weight);
+            map.put("outstanding", outstanding.get());
+            map.put("selected", selected.get());
+            map.put("rateLimitPerSecond", current.settings.rateLimitPerSecond);
+            map.put("rateLoad", current.limiter.getCurrentLoad());
+            map.put("throttledCalls", throttledCalls.get());
+            map.put("rateWaitMs", rateWaitMs.get());
+            map.put("failureThreshold", current.settings.failureThreshold);
+            map.put("openSeconds", current.settings.openTimeout.getSeconds());
+            map.put("state", breaker.getState());
+            map.put("failureCount", breaker.getFailureCount());
+            map.put("openEvents", breaker.getOpenEvents());
+            map.put("blockedCalls", breaker.getBlockedCalls());
+            map.put("succeededCalls", breaker.getSucceededCalls());
+            map.put("failedCalls", breaker.getFailedCalls());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pooled HTTP/1.1 transport for model endpoints.
+ * <p>
+ * Every (role, endpoint) pair owns a pool of persistent connections, so primary and fallback traffic
+ * are sized independently and chunk calls reuse sockets instead of paying TCP/TLS setup each time.
+ * Idle and expired connections are evicted in the background; lease counts and pool waits are kept
+ * per pool and exposed through {@link #snapshot()}.
+ */
+@Named
+@Singleton
+public class ModelHttpTransport implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelHttpTransport.class);
+    private static final long IDLE_EVICTION_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_KEEP_ALIVE_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2_000;
+    private static final long LEASE_WAIT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /**
+     * Longest wait for a free pooled connection. Kept well below the read timeout: a call that cannot get a
+     * connection within this is better retried than left queued behind slow generations.
+     */
+    static final int LEASE_TIMEOUT_MS = 10_000;
+
+    private static final ThreadLocal<CallHandle> CALL_HANDLE = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, EndpointPool> pools = new ConcurrentHashMap<>();
+
+    @Inject
+    public ModelHttpTransport() {
+    }
+
+    /**
+     * POSTs a JSON payload through the pool of {@code role} for the endpoint of {@code uri}. The
+     * response body is always consumed so the connection goes back to the pool.
+     *
+     * @param maxConnections pool size for this role/endpoint; applied on every call so config
+     *                       changes take effect without a restart
+     * @throws SocketTimeoutException when connecting or reading times out
+     * @throws LeaseTimeoutException when no pooled connection frees up within {@link #LEASE_TIMEOUT_MS}
+     */
+    @Nonnull
+    public Response postJson(@Nonnull String role,
+                             @Nonnull URI uri,
+                             @Nonnull byte[] payload,
+                             int maxConnections,
+                             int connectTimeoutMs,
+                             int readTimeoutMs) throws IOException {
+        return execute(role, uri, payload, maxConnections, connectTimeoutMs, readTimeoutMs, 0L, null);
+    }
+
+    /**
+     * Like {@link #postJson}, but hands a successful (2xx) body to {@code reader} as it arrives. When the
+     * reader stops early or the body grows past {@code maxResponseBytes}, the connection is closed rather
+     * than drained, which also tells the server to stop generating. Error bodies are read in full and
+     * returned as usual.
+     *
+     * @param maxResponseBytes cap on the streamed body; {@code <= 0} disables it
+     * @throws ResponseTooLargeException when the streamed body exceeds {@code maxResponseBytes}
+     */
+    @Nonnull
+    public Response postJsonStreaming(@Nonnull String role,
+                                      @Nonnull URI uri,
+                                      @Nonnull byte[] payload,
+                                      int maxConnections,
+                                      int connectTimeoutMs,
+                                      int readTimeoutMs,
+                                      long maxResponseBytes,
+                                      @Nonnull BodyReader reader) throws IOException {
+        Objects.requireNonNull(reader, "reader");
+        return execute(role, uri, payload, maxConnections, connectTimeoutMs, readTimeoutMs, maxResponseBytes, reader);
+    }
+
+    /**
+     * Runs {@code call} with {@code handle} bound to the current thread so another thread can abort whatever
+     * request {@code call} has in flight. Blocking socket reads ignore interrupts; aborting closes the connection.
+     */
+    public static <T> T withCallHandle(@Nonnull CallHandle handle, @Nonnull Callable<T> call) throws Exception {
+        Objects.requireNonNull(handle, "handle");
+        CallHandle previous = CALL_HANDLE.get();
+        CALL_HANDLE.set(handle);
+        try {
+            return call.call();
+        } finally {
+            if (previous != null) {
+                CALL_HANDLE.set(previous);
+            } else {
+                CALL_HANDLE.remove();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} when the handle bound by {@link #withCallHandle} on this thread has been aborted
+     */
+    public static boolean isCurrentCallAborted() {
+        CallHandle handle = CALL_HANDLE.get();
+        return handle != null && handle.isAborted();
+    }
+
+    private Response execute(String role,
+                             URI uri,
+                             byte[] payload,
+                             int maxConnections,
+                             int connectTimeoutMs,
+                             int readTimeoutMs,
+                             long maxResponseBytes,
+                             @Nullable BodyReader reader) throws IOException {
+        Objects.requireNonNull(role, "role");
+        Objects.requireNonNull(uri, "uri");
+        Objects.requireNonNull(payload, "payload");
+        EndpointPool pool = pool(role, uri, maxConnections);
+
+        HttpPost post = new HttpPost(uri);
+        post.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(Math.min(LEASE_TIMEOUT_MS, readTimeoutMs))
+                .build());
+        post.setEntity(new ByteArrayEntity(payload, ContentType.APPLICATION_JSON));
+
+        HttpClientContext context = HttpClientContext.create();
+        pool.lastLeaseWaitNanos.set(0L);
+        CallHandle handle = CALL_HANDLE.get();
+        if (handle != null) {
+            handle.attach(post);
+        }
+        try (CloseableHttpResponse response = pool.client.execute(post, context)) {
+            boolean reused = isReused(context);
+            pool.requests.incrementAndGet();
+            if (reused) {
+                pool.reusedRequests.incrementAndGet();
+            }
+            int status = response.getStatusLine().getStatusCode();
+            long leaseWaitMs = TimeUnit.NANOSECONDS.toMillis(pool.lastLeaseWaitNanos.get());
+            HttpEntity entity = response.getEntity();
+            if (reader != null && entity != null && status >= 200 && status < 300) {
+                LimitedInputStream body = new LimitedInputStream(entity.getContent(), maxResponseBytes);
+                boolean completed = reader.read(body);
+                if (completed) {
+                    EntityUtils.consume(entity);
+                } else {
+                    pool.stoppedEarly.incrementAndGet();
+                }
+                // Returning without consuming an unfinished entity makes close() discard the connection.
+                return new Response(status, "", body.count, leaseWaitMs, reused, !completed);
+            }
+            byte[] body = readBody(response);
+            return new Response(status, new String(body, StandardCharsets.UTF_8), body.length, leaseWaitMs, reused, false);
+        } catch (ConnectionPoolTimeoutException ex) {
+            // The pool is exhausted locally; the endpoint itself has not been reached.
+            throw new LeaseTimeoutException(role, pool.endpoint, ex);
+        } catch (ConnectTimeoutException ex) {
+            // Callers classify connect timeouts like the old socket path.
+            SocketTimeoutException timeout = new SocketTimeoutException(ex.getMessage());
+            timeout.initCause(ex);
+            throw timeout;
+        } finally {
+            if (handle != null) {
+                handle.detach(post);
+            }
+        }
+    }
+
+    /**
+     * @return per-pool lease and wait counters alongside the live pool occupancy
+     */
+    @Nonnull
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        pools.forEach((key, pool) -> result.add(pool.snapshot()));
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach((key, pool) -> pool.close());
+        pools.clear();
+    }
+
+    private EndpointPool pool(String role, URI uri, int maxConnections) {
+        String endpoint = uri.getScheme() + "://" + uri.getRawAuthority();
+        int size = Math.max(1, maxConnections);
+        EndpointPool pool = pools.computeIfAbsent(role + "|" + endpoint,
+                ignored -> new EndpointPool(role, endpoint, size));
+        pool.resize(size);
+        return pool;
+    }
+
+    private static boolean isReused(HttpClientContext context) {
+        try {
+            HttpConnection connection = context.getConnection();
+            return connection != null && connection.getMetrics().getRequestCount() > 1;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private static byte[] readBody(HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        return entity != null ? EntityUtils.toByteArray(entity) : new byte[0];
+    }
+
+    /**
+     * Lets one thread abort the request another thread is executing; see {@link #withCallHandle}.
+     */
+    public static final class CallHandle {
+        private HttpPost current;
+        private boolean aborted;
+
+        public void abort() {
+            HttpPost post;
+            synchronized (this) {
+                aborted = true;
+                post = current;
+            }
+            if (post != null) {
+                post.abort();
+            }
+        }
+
+        public synchronized boolean isAborted() {
+            return aborted;
+        }
+
+        private void attach(HttpPost post) {
+            boolean abortNow;
+            synchronized (this) {
+                current = post;
+                abortNow = aborted;
+            }
+            if (abortNow) {
+                post.abort();
+            }
+        }
+
+        private synchronized void detach(HttpPost post) {
+            if (current == post) {
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Consumes a streamed response body.
+     */
+    public interface BodyReader {
+        /**
+         * @return {@code true} when the body was read to its end; {@code false} to stop early and
+         *         discard the connection
+         */
+        boolean read(@Nonnull InputStream body) throws IOException;
+    }
+
+    /**
+     * Raised when every connection of a pool stays leased past {@link #LEASE_TIMEOUT_MS}. Nothing was sent, so
+     * this says nothing about the endpoint's health.
+     */
+    public static final class LeaseTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        LeaseTimeoutException(String role, String endpoint, ConnectionPoolTimeoutException cause) {
+            super("Timed out waiting for a pooled " + role + " connection to " + endpoint, cause);
+        }
+    }
+
+    /**
+     * Raised when a streamed body grows past the configured cap.
+     */
+    public static final class ResponseTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final long limitBytes;
+
+        ResponseTooLargeException(long limitBytes) {
+            super("Model response exceeded " + limitBytes + " bytes");
+            this.limitBytes = limitBytes;
+        }
+
+        public long getLimitBytes() {
+            return limitBytes;
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                advance(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        private void advance(int read) throws ResponseTooLargeException {
+            count += read;
+            if (limit > 0 && count > limit) {
+                throw new ResponseTooLargeException(limit);
+            }
+        }
+    }
+
+    /**
+     * Result of a pooled call; the body is fully read unless it was handed to a {@link BodyReader}.
+     */
+    public static final class Response {
+        private final int statusCode;
+        private final String body;
+        private final long responseBytes;
+        private final long leaseWaitMs;
+        private final boolean connectionReused;
+        private final boolean stoppedEarly;
+
+        Response(int statusCode,
+                 String body,
+                 long responseBytes,
+                 long leaseWaitMs,
+                 boolean connectionReused,
+                 boolean stoppedEarly) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.responseBytes = responseBytes;
+            this.leaseWaitMs = leaseWaitMs;
+            this.connectionReused = connectionReused;
+            this.stoppedEarly = stoppedEarly;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Nonnull
+        public String getBody() {
+            return body;
+        }
+
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+
+        /**
+         * @return time spent waiting for a pooled connection
+         */
+        public long getLeaseWaitMs() {
+            return leaseWaitMs;
+        }
+
+        /**
+         * @return {@code true} when the request went over a kept-alive connection
+         */
+        public boolean isConnectionReused() {
+            return connectionReused;
+        }
+
+        /**
+         * @return {@code true} when the body reader stopped before the end of a streamed response
+         */
+        public boolean isStoppedEarly() {
+            return stoppedEarly;
+        }
+    }
+
+    private static final class EndpointPool {
+        private final String role;
+        private final String endpoint;
+        private final MeteredConnectionManager connectionManager;
+        private final CloseableHttpClient client;
+        private final AtomicLong leases = new AtomicLong();
+        private final AtomicLong leaseWaits = new AtomicLong();
+        private final AtomicLong leaseWaitNanos = new AtomicLong();
+        private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+        private final AtomicLong leaseTimeouts = new AtomicLong();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong reusedRequests = new AtomicLong();
+        private final AtomicLong stoppedEarly = new AtomicLong();
+        private final ThreadLocal<Long> lastLeaseWaitNanos = ThreadLocal.withInitial(() -> 0L);
+        private volatile int maxConnections;
+
+        private EndpointPool(String role, String endpoint, int maxConnections) {
+            this.role = role;
+            this.endpoint = endpoint;
+            this.maxConnections = maxConnections;
+            this.connectionManager = new MeteredConnectionManager(this);
+            connectionManager.setMaxTotal(maxConnections);
+            connectionManager.setDefaultMaxPerRoute(maxConnections);
+            connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+            this.client = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(new CappedKeepAliveStrategy())
+                    .evictExpiredConnections()
+                    .evictIdleConnections(IDLE_EVICTION_MS, TimeUnit.MILLISECONDS)
+                    .disableCookieManagement()
+                    .build();
+            LogSupport.info(log, "http.pool_created", "Created model connection pool",
+                    "role", role,
+                    "endpoint", endpoint,
+                    "maxConnections", maxConnections);
+        }
+
+        private void resize(int size) {
+            if (size == maxConnections) {
+                return;
+            }
+            synchronized (this) {
+                if (size != maxConnections) {
+                    connectionManager.setMaxTotal(size);
+                    connectionManager.setDefaultMaxPerRoute(size);
+                    LogSupport.info(log, "http.pool_resized", "Resized model connection pool",
+                            "role", role,
+                            "endpoint", endpoint,
+                            "previous", maxConnections,
+                            "maxConnections", size);
+                    maxConnections = size;
+                }
+            }
+        }
+
+        private void leased(long waitNanos) {
+            leases.incrementAndGet();
+            lastLeaseWaitNanos.set(waitNanos);
+            if (waitNanos >= LEASE_WAIT_THRESHOLD_NANOS) {
+                leaseWaits.incrementAndGet();
+                leaseWaitNanos.addAndGet(waitNanos);
+                maxLeaseWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        private Map<String, Object> snapshot() {
+            PoolStats stats = connectionManager.getTotalStats();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("role", role);
+            map.put("endpoint", endpoint);
+            map.put("maxConnections", maxConnections);
+            map.put("leased", stats.getLeased());
+            map.put("available", stats.getAvailable());
+            map.put("pending", stats.getPending());
+            map.put("leases", leases.get());
+            map.put("leaseWaits", leaseWaits.get());
+            map.put("leaseWaitMs", TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos.get()));
+            map.put("maxLeaseWaitMs", TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos.get()));
+            map.put("leaseTimeouts", leaseTimeouts.get());
+            map.put("requests", requests.get());
+            map.put("reusedRequests", reusedRequests.get());
+            map.put("stoppedEarly", stoppedEarly.get());
+            return map;
+        }
+
+        private void close() {
+            try {
+                client.close();
+            } catch (IOException ex) {
+                LogSupport.warn(log, "http.pool_close_failed", "Failed to close model connection pool",
+                        "role", role,
+                        "endpoint", endpoint,
+                        "error", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Times every lease so waits for a free pooled connection are visible.
+     */
+    private static final class MeteredConnectionManager extends PoolingHttpClientConnectionManager {
+        private final EndpointPool pool;
+
+        private MeteredConnectionManager(EndpointPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest delegate = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        HttpClientConnection connection = delegate.get(timeout, unit);
+                        pool.leased(System.nanoTime() - start);
+                        return connection;
+                    } catch (ConnectionPoolTimeoutException ex) {
+                        pool.leaseTimeouts.incrementAndGet();
+                        throw ex;
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return delegate.cancel();
+                }
+            };
+        }
+    }
+
+    /**
+     * Honours the server's Keep-Alive hint but never keeps a connection longer than
+     * {@link #MAX_KEEP_ALIVE_MS}, so sockets are recycled before typical proxy idle cut-offs.
+     */
+    private static final class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? Math.min(duration, MAX_KEEP_ALIVE_MS) : MAX_KEEP_ALIVE_MS;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.teknolojikpanda.bitbucket.aicode.core;
 import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
 import com.teknolojikpanda.bitbucket.aicode.api.AiReviewClient;
 import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.api.TokenEstimator;
 import com.teknolojikpanda.bitbucket.aicode.model.ChunkReviewResult;
 import com.teknolojikpanda.bitbucket.aicode.model.IssueCategory;
 import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
@@ -13,8 +14,6 @@ import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewPreparation;
 import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
-import com.teknolojikpanda.bitbucket.aireviewer.util.CircuitBreaker;
-import com.teknolojikpanda.bitbucket.aireviewer.util.RateLimiter;
 import com.teknolojikpanda.bitbucket.aireviewer.util.CircuitBreaker.CircuitBreakerOpenException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
@@ -22,15 +21,16 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -41,9 +41,19 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,7 +62,7 @@ import java.util.regex.Pattern;
  */
 @Named
 @ExportAsService(AiReviewClient.class)
-public class OllamaAiReviewClient implements AiReviewClient {
+public class OllamaAiReviewClient implements AiReviewClient, DisposableBean {
 
     private static final Logger log = LoggerFactory.getLogger(OllamaAiReviewClient.class);
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
@@ -60,19 +70,54 @@ public class OllamaAiReviewClient implements AiReviewClient {
             .configure(JsonReadFeature.ALLOW_TRAILING_COMMA.mappedFeature(), true);
     private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
     private static final Pattern LINE_MARKER_PATTERN = Pattern.compile("\\[Line\\s+(\\d+)]");
+    private static final String PROMPT_EVAL_COUNT_FIELD = "\"prompt_eval_count\":";
+    private static final long BACKOFF_SLICE_MS = 250L;
 
-    private final CircuitBreaker circuitBreaker = new CircuitBreaker("ollama-client", 5, Duration.ofMinutes(1));
-    private final RateLimiter rateLimiter = new RateLimiter("ollama-client", 10, Duration.ofSeconds(1));
     private final Set<String> unavailableModels =
             Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final OverviewCache overviewCache;
-    private final AtomicInteger circuitOpenEvents = new AtomicInteger();
+    private final ModelHttpTransport transport;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ModelEndpointBalancer balancer;
+    private final ModelContextBudget contextBudget;
     private final AtomicInteger circuitBlockedCalls = new AtomicInteger();
     private final AtomicInteger hardFailures = new AtomicInteger();
+    private final HedgeBudget hedgeBudget = new HedgeBudget();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesBudgetExhausted = new AtomicLong();
+    private final AtomicLong hedgesRejected = new AtomicLong();
+    private final AtomicInteger hedgesInFlight = new AtomicInteger();
+    private final AtomicInteger hedgeThreadCounter = new AtomicInteger();
+    /**
+     * Runs only the hedged fallback calls; the primary call stays on the caller's thread. One thread per hedge the
+     * budget can hold, and no queue: when every thread is busy the hedge is skipped rather than waiting.
+     */
+    private final ThreadPoolExecutor hedgeExecutor = new ThreadPoolExecutor(0, HedgeBudget.MAX_HEDGES,
+            30L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "ai-review-hedge-" + hedgeThreadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    /** Fires hedges once the hedge delay elapses; it only submits, it never calls a model itself. */
+    private final ScheduledThreadPoolExecutor hedgeTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "ai-review-hedge-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Inject
-    public OllamaAiReviewClient(OverviewCache overviewCache) {
+    public OllamaAiReviewClient(OverviewCache overviewCache,
+                                ModelHttpTransport transport,
+                                AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                ModelEndpointBalancer balancer,
+                                ModelContextBudget contextBudget) {
         this.overviewCache = overviewCache;
+        this.transport = Objects.requireNonNull(transport, "transport");
+        this.concurrencyLimiter = Objects.requireNonNull(concurrencyLimiter, "concurrencyLimiter");
+        this.balancer = Objects.requireNonNull(balancer, "balancer");
+        this.contextBudget = Objects.requireNonNull(contextBudget, "contextBudget");
+        hedgeTimer.setRemoveOnCancelPolicy(true);
     }
 
     @Nonnull
@@ -92,12 +137,10 @@ public class OllamaAiReviewClient implements AiReviewClient {
         ReviewConfig config = context.getConfig();
         Instant start = metrics.recordStart("ai.chunk.call");
         try {
-            ChunkReviewResult result = circuitBreaker.execute(() -> doReview(chunk, overview, context, config, metrics));
+            ChunkReviewResult result = doReview(chunk, overview, context, config, metrics);
             metrics.recordEnd("ai.chunk.call", start);
             return result;
         } catch (CircuitBreakerOpenException ex) {
-            circuitBlockedCalls.incrementAndGet();
-            metrics.increment("ai.model.circuit.blocked");
             metrics.recordEnd("ai.chunk.call", start);
             return failureResult(chunk, "AI model recovery in progress; please retry shortly");
         } catch (VendorServerException ex) {
@@ -131,41 +174,45 @@ public class OllamaAiReviewClient implements AiReviewClient {
                                        ReviewContext context,
                                        ReviewConfig config,
                                        MetricsRecorder metrics) {
-        try {
-            rateLimiter.acquire();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return ChunkReviewResult.builder()
-                    .chunk(chunk)
-                    .success(false)
-                    .error("Interrupted while waiting for rate limiter")
-                    .build();
-        }
-
         List<ReviewFinding> findings = null;
+        boolean fallbackAttempted = false;
         if (config.isSkipPrimaryModel()) {
             metrics.increment("ai.model.primarySkipped");
             LogSupport.info(log, "ollama.primary_skipped", "Primary model skipped due to degradation",
                     "primaryModel", config.getPrimaryModel());
+        } else if (config.getHedgeDelayMs() > 0) {
+            try {
+                HedgedResult hedged = invokeHedged(chunk, overview, context, config, metrics);
+                findings = hedged.findings;
+                fallbackAttempted = hedged.fallbackAttempted;
+            } catch (CircuitBreakerOpenException ex) {
+                LogSupport.debug(log, "ollama.primary_blocked", "Every primary endpoint has an open circuit",
+                        "chunkId", chunk.getId());
+            }
         } else {
-            findings = invokeModelWithRetry(
-                    chunk,
-                    overview,
-                    context,
-                    config.getPrimaryModelEndpoint().toString(),
-                    config.getPrimaryModel(),
-                    config,
-                    "primary",
-                    metrics);
+            try {
+                findings = invokeModelWithRetry(
+                        chunk,
+                        overview,
+                        context,
+                        config.getPrimaryModelEndpoints(),
+                        config.getPrimaryModel(),
+                        config,
+                        "primary",
+                        metrics);
+            } catch (CircuitBreakerOpenException ex) {
+                LogSupport.debug(log, "ollama.primary_blocked", "Every primary endpoint has an open circuit",
+                        "chunkId", chunk.getId());
+            }
         }
 
-        if (findings == null) {
+        if (findings == null && !fallbackAttempted) {
             metrics.increment("ai.model.fallback.triggered");
             findings = invokeModelWithRetry(
                     chunk,
                     overview,
                     context,
-                    config.getFallbackModelEndpoint().toString(),
+                    config.getFallbackModelEndpoints(),
                     config.getFallbackModel(),
                     config,
                     "fallback",
@@ -187,10 +234,165 @@ public class OllamaAiReviewClient implements AiReviewClient {
                 .build();
     }
 
+    /**
+     * Calls the primary model on the calling thread and, if it has not answered within
+     * {@link ReviewConfig#getHedgeDelayMs()}, races a duplicate request against the fallback model on a hedge thread.
+     * The first non-empty answer wins and the other call is aborted. Hedges draw on a node-wide budget so they add at
+     * most {@link ReviewConfig#getHedgeBudgetPercent()} extra load, and at most that share of
+     * {@link ReviewConfig#getMaxConcurrentModelRequests()} can be in flight; a hedge that does not fit is skipped.
+     */
+    private HedgedResult invokeHedged(ReviewChunk chunk,
+                                      String overview,
+                                      ReviewContext context,
+                                      ReviewConfig config,
+                                      MetricsRecorder metrics) {
+        hedgeBudget.deposit(config.getHedgeBudgetPercent());
+        HedgeRace race = new HedgeRace();
+        ScheduledFuture<?> trigger = hedgeTimer.schedule(() -> fireHedge(race, chunk, overview, context, config, metrics),
+                config.getHedgeDelayMs(), TimeUnit.MILLISECONDS);
+        List<ReviewFinding> findings = null;
+        RuntimeException failure = null;
+        try {
+            findings = ModelHttpTransport.withCallHandle(race.primaryHandle,
+                    () -> invokeModelWithRetry(chunk, overview, context, config.getPrimaryModelEndpoints(),
+                            config.getPrimaryModel(), config, "primary", metrics));
+        } catch (RuntimeException ex) {
+            failure = ex;
+        } catch (Exception ex) {
+            failure = new IllegalStateException(ex);
+        } finally {
+            trigger.cancel(false);
+        }
+
+        Future<List<ReviewFinding>> fallback = race.primaryFinished();
+        if (fallback == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            return new HedgedResult(findings, false);
+        }
+        if (findings != null) {
+            metrics.increment("ai.model.hedge.lost");
+            cancel(fallback, race.fallbackHandle);
+            recordHedgeMetrics(metrics);
+            return new HedgedResult(findings, true);
+        }
+        try {
+            List<ReviewFinding> fallbackFindings = unwrap(fallback);
+            recordHedgeMetrics(metrics);
+            if (fallbackFindings == null && failure != null) {
+                throw failure;
+            }
+            if (fallbackFindings != null) {
+                hedgesWon.incrementAndGet();
+                metrics.increment("ai.model.hedge.won");
+            }
+            return new HedgedResult(fallbackFindings, true);
+        } catch (RuntimeException ex) {
+            recordHedgeMetrics(metrics);
+            throw failure != null ? failure : ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel(fallback, race.fallbackHandle);
+            return new HedgedResult(null, true);
+        }
+    }
+
+    /**
+     * Runs on the hedge timer once the primary call has been outstanding for the hedge delay.
+     */
+    private void fireHedge(HedgeRace race,
+                           ReviewChunk chunk,
+                           String overview,
+                           ReviewContext context,
+                           ReviewConfig config,
+                           MetricsRecorder metrics) {
+        synchronized (race) {
+            if (race.primaryDone) {
+                return;
+            }
+            int maxInFlight = Math.max(1,
+                    config.getMaxConcurrentModelRequests() * config.getHedgeBudgetPercent() / 100);
+            if (hedgesInFlight.get() >= maxInFlight) {
+                rejectHedge(metrics);
+                return;
+            }
+            if (!hedgeBudget.tryWithdraw()) {
+                hedgesBudgetExhausted.incrementAndGet();
+                metrics.increment("ai.model.hedge.budgetExhausted");
+                return;
+            }
+            hedgesInFlight.incrementAndGet();
+            try {
+                race.fallback = hedgeExecutor.submit(() -> {
+                    try {
+                        List<ReviewFinding> findings = ModelHttpTransport.withCallHandle(race.fallbackHandle,
+                                () -> invokeModelWithRetry(chunk, overview, context,
+                                        config.getFallbackModelEndpoints(), config.getFallbackModel(), config,
+                                        "fallback", metrics));
+                        if (findings != null) {
+                            race.fallbackAnswered();
+                        }
+                        return findings;
+                    } finally {
+                        hedgesInFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                hedgesInFlight.decrementAndGet();
+                hedgeBudget.refund();
+                rejectHedge(metrics);
+                return;
+            }
+        }
+        hedgesFired.incrementAndGet();
+        metrics.increment("ai.model.hedge.fired");
+        LogSupport.debug(log, "ollama.hedge_fired", "Primary model slow; hedging to fallback",
+                "chunkId", chunk.getId(),
+                "hedgeDelayMs", config.getHedgeDelayMs());
+    }
+
+    private void rejectHedge(MetricsRecorder metrics) {
+        hedgesRejected.incrementAndGet();
+        metrics.increment("ai.model.hedge.rejected");
+    }
+
+    private List<ReviewFinding> unwrap(Future<List<ReviewFinding>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void cancel(Future<?> future, ModelHttpTransport.CallHandle handle) {
+        // Interrupt first so the losing call recognises the abort as a cancellation rather than a failure.
+        future.cancel(true);
+        handle.abort();
+    }
+
+    private void recordHedgeMetrics(MetricsRecorder metrics) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("fired", hedgesFired.get());
+        snapshot.put("won", hedgesWon.get());
+        snapshot.put("budgetExhausted", hedgesBudgetExhausted.get());
+        snapshot.put("rejected", hedgesRejected.get());
+        snapshot.put("inFlight", hedgesInFlight.get());
+        snapshot.put("budgetTokens", hedgeBudget.tokens());
+        metrics.recordMetric("ai.model.hedge.snapshot", snapshot);
+    }
+
     private List<ReviewFinding> invokeModelWithRetry(ReviewChunk chunk,
                                                      String overview,
                                                      ReviewContext context,
-                                                     String baseUrl,
+                                                     List<URI> endpoints,
                                                      String model,
                                                      ReviewConfig config,
                                                      String modelRole,
@@ -200,19 +402,25 @@ public class OllamaAiReviewClient implements AiReviewClient {
         int backoff = Math.max(500, config.getChunkRetryDelayMs());
         Exception lastError = null;
         boolean modelNotFound = false;
-        String modelKey = modelKey(baseUrl, model);
+        boolean cancelled = false;
+        List<String> pool = new ArrayList<>(endpoints.size());
+        for (URI endpoint : endpoints) {
+            pool.add(endpoint.toString());
+        }
+        String baseUrl = pool.get(0);
+        int contextWindow = contextBudget.contextWindow(config, model, endpoints);
         Instant invocationStart = Instant.now();
         metrics.increment("ai.model." + modelRole + ".invocations");
 
-        if (unavailableModels.contains(modelKey)) {
+        if (isUnavailableEverywhere(pool, model)) {
             LogSupport.debug(log, "ollama.model_skipped", "Model skipped due to previous missing response",
                     "model", model,
-                    "endpoint", baseUrl,
+                    "endpoints", pool,
                     "chunkId", chunk.getId());
             return null;
         }
 
-        String originalContent = chunk.getContent() != null ? chunk.getContent() : "";
+        String originalContent = chunk.getContent();
         String diffContent = originalContent;
         int originalLength = originalContent.length();
         String lastErrorMessage = null;
@@ -223,21 +431,76 @@ public class OllamaAiReviewClient implements AiReviewClient {
         boolean vendorThrottled = false;
         boolean serverSideFailure = false;
         long penaltyBackoffMs = 0L;
+        long lastLeaseWaitMs = 0L;
 
         while (attempts < maxRetries) {
+            ModelEndpointBalancer.Lease lease;
+            try {
+                lease = balancer.acquire(pool, model,
+                        endpoint -> unavailableModels.contains(modelKey(endpoint, model)), config);
+            } catch (CircuitBreakerOpenException ex) {
+                circuitBlockedCalls.incrementAndGet();
+                metrics.increment("ai.model.circuit.blocked");
+                if (attempts == 0) {
+                    // Nothing was sent; let the caller move on to the fallback model.
+                    recordBreakerMetrics(metrics);
+                    throw ex;
+                }
+                lastError = ex;
+                lastErrorMessage = ex.getMessage();
+                break;
+            }
+            baseUrl = lease.getEndpoint();
             try {
+                long rateWaitMs = lease.awaitRateLimit();
+                if (rateWaitMs > 0) {
+                    metrics.increment("ai.model.rateLimit.throttled");
+                    metrics.recordMetric("ai.model.rateLimit.waitMs", rateWaitMs);
+                }
                 attempts++;
                 metrics.increment("ai.chunk.attempt");
-                String payload = buildChunkRequest(chunk, overview, context, model, diffContent, false);
-                byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+                boolean streaming = config.isStreamResponses();
+                ChunkRequest request = buildChunkRequest(chunk, overview, context, model, diffContent, false, streaming,
+                        contextWindow);
+                byte[] payloadBytes = request.payload.getBytes(StandardCharsets.UTF_8);
                 lastRequestBytes = payloadBytes.length;
 
-                ChatResponse response = executeChat(baseUrl, payloadBytes, config);
-                List<ReviewFinding> parsed = parseFindings(response.body, chunk);
+                ChatResponse response;
+                AdaptiveConcurrencyLimiter.Permit permit = acquirePermit(baseUrl, config, modelRole, metrics);
+                try {
+                    response = streaming
+                            ? executeStreamingChat(baseUrl, payloadBytes, config, modelRole, chunk, metrics)
+                            : executeChat(baseUrl, payloadBytes, config, modelRole, metrics);
+                    if (permit != null) {
+                        permit.onSuccess();
+                    }
+                    lease.onSuccess();
+                } catch (Exception ex) {
+                    // A cancelled call (hedge lost or review closed) says nothing about the endpoint's health.
+                    boolean cancelledCall = isCallCancelled();
+                    if (permit != null) {
+                        if (!cancelledCall && isOverloadSignal(ex)) {
+                            permit.onDropped();
+                        } else {
+                            permit.onIgnore();
+                        }
+                    }
+                    if (!cancelledCall && isEndpointFailure(ex)) {
+                        lease.onFailure();
+                    } else {
+                        lease.release();
+                    }
+                    throw ex;
+                }
+                List<ReviewFinding> parsed = response.content != null
+                        ? toFindings(response.content, chunk)
+                        : parseFindings(response.body, chunk);
                 lastResponseBytes = response.responseBytes;
+                lastLeaseWaitMs = response.leaseWaitMs;
                 lastStatusCode = response.statusCode;
                 timeoutOccurred = false;
                 lastErrorMessage = null;
+                recordPromptTokens(metrics, chunk, model, contextWindow, request.estimatedTokens, response.promptTokens);
                 metrics.increment("ai.model." + modelRole + ".success");
                 recordChunkInvocation(metrics,
                         chunk,
@@ -251,12 +514,26 @@ public class OllamaAiReviewClient implements AiReviewClient {
                         null,
                         lastRequestBytes,
                         lastResponseBytes,
+                        lastLeaseWaitMs,
                         lastStatusCode,
                         false,
                         false);
                 metrics.increment("ai.model." + modelRole + ".success");
                 recordBreakerMetrics(metrics);
                 return parsed;
+            } catch (ModelHttpTransport.LeaseTimeoutException ex) {
+                // The local connection pool is saturated; nothing reached the endpoint, so it is not penalised.
+                metrics.increment("ai.http.pool.leaseTimeouts");
+                LogSupport.warn(log, "ollama.lease_timeout", "Timed out waiting for a pooled model connection",
+                        "model", model,
+                        "endpoint", baseUrl,
+                        "chunkId", chunk.getId(),
+                        "attempt", attempts);
+                lastError = ex;
+                lastErrorMessage = ex.getMessage();
+                timeoutOccurred = false;
+                lastResponseBytes = 0;
+                lastStatusCode = null;
             } catch (SocketTimeoutException ex) {
                 LogSupport.warn(log, "ollama.timeout", "Model request timed out",
                         "model", model,
@@ -271,6 +548,11 @@ public class OllamaAiReviewClient implements AiReviewClient {
                 lastResponseBytes = 0;
                 lastStatusCode = null;
             } catch (Exception ex) {
+                if (isCallCancelled()) {
+                    // The call was cancelled (hedge lost or review closed) rather than failing.
+                    cancelled = true;
+                    break;
+                }
                 LogSupport.warn(log, "ollama.attempt_failed", "Model attempt failed",
                         "model", model,
                         "endpoint", baseUrl,
@@ -281,8 +563,17 @@ public class OllamaAiReviewClient implements AiReviewClient {
                 lastErrorMessage = ex.getMessage();
                 timeoutOccurred = false;
                 if (isModelNotFound(ex)) {
+                    LogSupport.warn(log, "ollama.model_not_found", "Model not found at endpoint",
+                            "model", model,
+                            "endpoint", baseUrl,
+                            "chunkId", chunk.getId());
+                    unavailableModels.add(modelKey(baseUrl, model));
                     modelNotFound = true;
-                    break;
+                    if (isUnavailableEverywhere(pool, model)) {
+                        break;
+                    }
+                    // Another endpoint in the pool may have the model; try it without backing off.
+                    continue;
                 }
                 if (ex instanceof OllamaHttpException) {
                     OllamaHttpException httpEx = (OllamaHttpException) ex;
@@ -300,26 +591,39 @@ public class OllamaAiReviewClient implements AiReviewClient {
                     lastStatusCode = null;
                     lastResponseBytes = 0;
                 }
+            } finally {
+                // No-op once the call reported its outcome; frees the slot if the attempt failed before sending.
+                lease.release();
             }
 
             if (attempts < maxRetries) {
                 try {
                     long sleepMs = (long) Math.pow(2, attempts - 1) * backoff + penaltyBackoffMs;
                     penaltyBackoffMs = 0L;
-                    Thread.sleep(Math.min(60_000L, sleepMs));
+                    if (!backOff(Math.min(60_000L, sleepMs))) {
+                        cancelled = true;
+                        break;
+                    }
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
-                    lastError = ie;
+                    cancelled = true;
                     break;
                 }
             }
         }
-        if (modelNotFound) {
-            LogSupport.error(log, "ollama.model_not_found", "Model not found at endpoint",
+        if (cancelled) {
+            LogSupport.debug(log, "ollama.call_cancelled", "Model call cancelled",
                     "model", model,
-                    "endpoint", baseUrl,
+                    "chunkId", chunk.getId(),
+                    "attempts", attempts);
+            metrics.increment("ai.model." + modelRole + ".cancelled");
+            return null;
+        }
+        if (modelNotFound && isUnavailableEverywhere(pool, model)) {
+            LogSupport.error(log, "ollama.model_not_found", "Model not found at any endpoint",
+                    "model", model,
+                    "endpoints", pool,
                     "chunkId", chunk.getId());
-            unavailableModels.add(modelKey);
             metrics.increment("ai.model." + modelRole + ".failures");
             recordBreakerMetrics(metrics);
             recordChunkInvocation(metrics,
@@ -334,6 +638,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
                     lastErrorMessage != null ? lastErrorMessage : "model not found",
                     lastRequestBytes,
                     lastResponseBytes,
+                    lastLeaseWaitMs,
                     lastStatusCode,
                     timeoutOccurred,
                     vendorThrottled);
@@ -362,6 +667,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
                 lastErrorMessage,
                 lastRequestBytes,
                 lastResponseBytes,
+                lastLeaseWaitMs,
                 lastStatusCode,
                 timeoutOccurred,
                 vendorThrottled);
@@ -374,6 +680,66 @@ public class OllamaAiReviewClient implements AiReviewClient {
         return null;
     }
 
+    /**
+     * @return a slot under the endpoint's adaptive limit, or {@code null} when adaptive limiting is disabled
+     */
+    private AdaptiveConcurrencyLimiter.Permit acquirePermit(String baseUrl,
+                                                            ReviewConfig config,
+                                                            String modelRole,
+                                                            MetricsRecorder metrics) throws InterruptedException {
+        if (!config.isAdaptiveModelConcurrency()) {
+            return null;
+        }
+        try {
+            AdaptiveConcurrencyLimiter.Permit permit =
+                    concurrencyLimiter.acquire(baseUrl, config.getMaxConcurrentModelRequests());
+            if (permit.getWaitMs() > 0) {
+                metrics.increment("ai.model." + modelRole + ".limiterWaits");
+                metrics.recordMetric("ai.model." + modelRole + ".limiterWaitMs", permit.getWaitMs());
+            }
+            return permit;
+        } catch (InterruptedException ex) {
+            // Keep the flag so the retry loop stops instead of backing off and trying again.
+            Thread.currentThread().interrupt();
+            throw ex;
+        }
+    }
+
+    /**
+     * Failures that say the endpoint itself is unwell and should count toward its circuit. Client errors
+     * (bad request, unknown model) and throttling do not.
+     */
+    private boolean isEndpointFailure(Exception ex) {
+        if (ex instanceof OllamaHttpException) {
+            return ((OllamaHttpException) ex).statusCode >= 500;
+        }
+        return ex instanceof IOException && !(ex instanceof ModelHttpTransport.LeaseTimeoutException);
+    }
+
+    private boolean isUnavailableEverywhere(List<String> pool, String model) {
+        for (String endpoint : pool) {
+            if (!unavailableModels.contains(modelKey(endpoint, model))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throttling, a busy server (Ollama answers 503 once its queue is full) and timeouts mean the endpoint is
+     * past its useful concurrency.
+     */
+    private boolean isOverloadSignal(Exception ex) {
+        if (ex instanceof SocketTimeoutException) {
+            return true;
+        }
+        if (ex instanceof OllamaHttpException) {
+            int statusCode = ((OllamaHttpException) ex).statusCode;
+            return statusCode == 429 || statusCode == 503;
+        }
+        return false;
+    }
+
     private void recordChunkInvocation(MetricsRecorder metrics,
                                        ReviewChunk chunk,
                                        String model,
@@ -386,6 +752,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
                                        String lastErrorMessage,
                                        long requestBytes,
                                        long responseBytes,
+                                       long leaseWaitMs,
                                        Integer statusCode,
                                        boolean timeout,
                                        boolean throttled) {
@@ -400,6 +767,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
         entry.put("success", success);
         entry.put("requestBytes", Math.max(0, requestBytes));
         entry.put("responseBytes", Math.max(0, responseBytes));
+        entry.put("leaseWaitMs", Math.max(0, leaseWaitMs));
         entry.put("timeout", timeout);
         entry.put("throttled", throttled);
         if (statusCode != null) {
@@ -415,13 +783,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
     }
 
     private void recordBreakerMetrics(MetricsRecorder metrics) {
-        Map<String, Object> snapshot = new LinkedHashMap<>();
-        snapshot.put("state", circuitBreaker.getState());
-        snapshot.put("failureCount", circuitBreaker.getFailureCount());
-        snapshot.put("openEvents", circuitBreaker.getOpenEvents());
-        snapshot.put("blockedCalls", circuitBreaker.getBlockedCalls());
-        snapshot.put("succeededCalls", circuitBreaker.getSucceededCalls());
-        snapshot.put("failedCalls", circuitBreaker.getFailedCalls());
+        Map<String, Object> snapshot = new LinkedHashMap<>(balancer.circuitSummary());
         snapshot.put("clientBlockedCalls", circuitBlockedCalls.get());
         snapshot.put("clientHardFailures", hardFailures.get());
         metrics.recordMetric("ai.model.circuit.snapshot", snapshot);
@@ -438,17 +800,140 @@ public class OllamaAiReviewClient implements AiReviewClient {
         return trimmed.substring(0, Math.max(0, maxLength));
     }
 
+    /**
+     * A hedged fallback is cancelled by interrupting its thread; the primary runs on the caller's thread, which is
+     * never interrupted, so it is cancelled through its call handle instead.
+     */
+    private static boolean isCallCancelled() {
+        return Thread.currentThread().isInterrupted() || ModelHttpTransport.isCurrentCallAborted();
+    }
+
+    /**
+     * Sleeps between retries in short slices so an aborted primary stops backing off promptly.
+     *
+     * @return {@code false} if the call was cancelled before the backoff elapsed
+     */
+    private static boolean backOff(long sleepMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sleepMs);
+        while (!isCallCancelled()) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                return true;
+            }
+            Thread.sleep(Math.min(BACKOFF_SLICE_MS, remainingMs));
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        hedgeTimer.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+
+    private static final class HedgedResult {
+        private final List<ReviewFinding> findings;
+        private final boolean fallbackAttempted;
+
+        private HedgedResult(List<ReviewFinding> findings, boolean fallbackAttempted) {
+            this.findings = findings;
+            this.fallbackAttempted = fallbackAttempted;
+        }
+    }
+
+    /**
+     * One primary/fallback race. The lock orders firing the hedge against the primary finishing, so a hedge is never
+     * started for a primary that has already answered.
+     */
+    private static final class HedgeRace {
+        private final ModelHttpTransport.CallHandle primaryHandle = new ModelHttpTransport.CallHandle();
+        private final ModelHttpTransport.CallHandle fallbackHandle = new ModelHttpTransport.CallHandle();
+        private boolean primaryDone;
+        private Future<List<ReviewFinding>> fallback;
+
+        synchronized Future<List<ReviewFinding>> primaryFinished() {
+            primaryDone = true;
+            return fallback;
+        }
+
+        /** The fallback answered first: abort the primary so the caller stops waiting on it. */
+        void fallbackAnswered() {
+            boolean abortPrimary;
+            synchronized (this) {
+                abortPrimary = !primaryDone;
+            }
+            if (abortPrimary) {
+                primaryHandle.abort();
+            }
+        }
+    }
+
+    /**
+     * Each hedged chunk earns {@code percent / 100} of a hedge; firing one spends a whole hedge. The cap bounds
+     * how many hedges a burst of slow calls can fire at once.
+     */
+    private static final class HedgeBudget {
+        private static final int MAX_HEDGES = 10;
+        private static final double MAX_TOKENS = MAX_HEDGES;
+        private double tokens;
+
+        synchronized void deposit(int percent) {
+            tokens = Math.min(MAX_TOKENS, tokens + Math.max(0, percent) / 100d);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1d) {
+                return false;
+            }
+            tokens -= 1d;
+            return true;
+        }
+
+        /** Returns a withdrawn hedge that could not be started. */
+        synchronized void refund() {
+            tokens = Math.min(MAX_TOKENS, tokens + 1d);
+        }
+
+        synchronized double tokens() {
+            return tokens;
+        }
+    }
+
     private static final class ChatResponse {
         private final String body;
+        private final Map<String, Object> content;
         private final int statusCode;
         private final long requestBytes;
         private final long responseBytes;
-
-        private ChatResponse(String body, int statusCode, long requestBytes, long responseBytes) {
+        private final long leaseWaitMs;
+        /** {@code prompt_eval_count} reported by the model, or {@code 0} when the response did not include it. */
+        private final int promptTokens;
+
+        private ChatResponse(String body,
+                             Map<String, Object> content,
+                             int statusCode,
+                             long requestBytes,
+                             long responseBytes,
+                             long leaseWaitMs,
+                             int promptTokens) {
             this.body = body;
+            this.content = content;
             this.statusCode = statusCode;
             this.requestBytes = requestBytes;
             this.responseBytes = responseBytes;
+            this.leaseWaitMs = leaseWaitMs;
+            this.promptTokens = promptTokens;
+        }
+    }
+
+    private static final class ChunkRequest {
+        private final String payload;
+        /** Raw {@link TokenEstimator} estimate of the prompt messages. */
+        private final int estimatedTokens;
+
+        private ChunkRequest(String payload, int estimatedTokens) {
+            this.payload = payload;
+            this.estimatedTokens = estimatedTokens;
         }
     }
 
@@ -497,12 +982,14 @@ public class OllamaAiReviewClient implements AiReviewClient {
         return message != null && message.contains("model '") && message.contains("not found");
     }
 
-    private String buildChunkRequest(ReviewChunk chunk,
-                                     String overview,
-                                     ReviewContext context,
-                                     String model,
-                                     String diffContent,
-                                     boolean truncated) {
+    private ChunkRequest buildChunkRequest(ReviewChunk chunk,
+                                           String overview,
+                                           ReviewContext context,
+                                           String model,
+                                           String diffContent,
+                                           boolean truncated,
+                                           boolean stream,
+                                           int contextWindow) {
         if (diffContent == null) {
             diffContent = "";
         }
@@ -521,16 +1008,22 @@ public class OllamaAiReviewClient implements AiReviewClient {
 
         Map<String, Object> request = new LinkedHashMap<>();
         request.put("model", model);
-        request.put("stream", Boolean.FALSE);
+        request.put("stream", stream);
         request.put("format", buildResponseFormat(chunk));
+        if (contextWindow > 0) {
+            // Chunks were packed for this window; without it the server would apply its own default.
+            request.put("options", Collections.singletonMap("num_ctx", contextWindow));
+        }
 
         List<Map<String, Object>> messages = new ArrayList<>();
         messages.add(message("system", templates.getSystemPrompt()));
         messages.add(message("user", userPrompt));
         request.put("messages", messages);
 
+        TokenEstimator estimator = contextBudget.getEstimator();
+        int estimatedTokens = estimator.estimateTokens(templates.getSystemPrompt()) + estimator.estimateTokens(userPrompt);
         try {
-            return OBJECT_MAPPER.writeValueAsString(request);
+            return new ChunkRequest(OBJECT_MAPPER.writeValueAsString(request), estimatedTokens);
         } catch (Exception ex) {
             throw new IllegalStateException("Failed to serialise request", ex);
         }
@@ -629,35 +1122,188 @@ public class OllamaAiReviewClient implements AiReviewClient {
 
     private ChatResponse executeChat(String baseUrl,
                                      byte[] payloadBytes,
-                                     ReviewConfig config) throws Exception {
-        String normalized = baseUrl.endsWith("/") ? baseUrl + "api/chat" : baseUrl + "/api/chat";
-        URI chatUri = URI.create(normalized);
-        HttpURLConnection connection = (HttpURLConnection) chatUri.toURL().openConnection();
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json");
-        connection.setRequestProperty("Connection", "close");
-        connection.setRequestProperty("Content-Length", Integer.toString(payloadBytes.length));
-        connection.setConnectTimeout(Math.max(5_000, config.getConnectTimeoutMs()));
-        connection.setReadTimeout(Math.max(30_000, config.getRequestTimeoutMs()));
-        connection.setDoOutput(true);
-        connection.setDoInput(true);
-        connection.setFixedLengthStreamingMode(payloadBytes.length);
-
-        try (OutputStream os = connection.getOutputStream()) {
-            os.write(payloadBytes);
-            os.flush();
-        }
-
-        int status = connection.getResponseCode();
-        if (status >= 400) {
-            String error = readStream(connection, true);
-            long errorBytes = error != null ? error.getBytes(StandardCharsets.UTF_8).length : 0;
-            throw new OllamaHttpException(status, error, payloadBytes.length, errorBytes);
+                                     ReviewConfig config,
+                                     String modelRole,
+                                     MetricsRecorder metrics) throws Exception {
+        ModelHttpTransport.Response response = transport.postJson(
+                modelRole,
+                chatUri(baseUrl),
+                payloadBytes,
+                maxConnections(config, modelRole),
+                Math.max(5_000, config.getConnectTimeoutMs()),
+                Math.max(30_000, config.getRequestTimeoutMs()));
+        int status = recordTransport(response, payloadBytes, metrics);
+        return new ChatResponse(response.getBody(), null, status, payloadBytes.length, response.getResponseBytes(),
+                response.getLeaseWaitMs(), promptEvalCount(response.getBody()));
+    }
+
+    /**
+     * Streams the chat response as NDJSON frames and parses the content tokens as they arrive. Reading
+     * stops once the {@code issues} array is closed, which drops the connection and ends generation on
+     * the server; a body larger than {@link ReviewConfig#getMaxResponseBytes()} is cut off and fails the
+     * attempt.
+     */
+    private ChatResponse executeStreamingChat(String baseUrl,
+                                              byte[] payloadBytes,
+                                              ReviewConfig config,
+                                              String modelRole,
+                                              ReviewChunk chunk,
+                                              MetricsRecorder metrics) throws Exception {
+        StreamingIssuesParser parser = new StreamingIssuesParser(OBJECT_MAPPER);
+        AtomicInteger promptTokens = new AtomicInteger();
+        Instant requestStart = Instant.now();
+        ModelHttpTransport.Response response;
+        try {
+            response = transport.postJsonStreaming(
+                    modelRole,
+                    chatUri(baseUrl),
+                    payloadBytes,
+                    maxConnections(config, modelRole),
+                    Math.max(5_000, config.getConnectTimeoutMs()),
+                    Math.max(30_000, config.getRequestTimeoutMs()),
+                    config.getMaxResponseBytes(),
+                    body -> readChatStream(body, parser, promptTokens, requestStart, metrics));
+        } catch (ModelHttpTransport.ResponseTooLargeException ex) {
+            metrics.increment("ai.chunk.response.tooLarge");
+            LogSupport.warn(log, "ollama.response_too_large", "Model response exceeded size limit",
+                    "chunkId", chunk.getId(),
+                    "limitBytes", ex.getLimitBytes(),
+                    "contentChars", parser.getRawLength());
+            throw ex;
+        }
+        int status = recordTransport(response, payloadBytes, metrics);
+        if (response.isStoppedEarly()) {
+            metrics.increment("ai.chunk.stream.earlyStop");
+        }
+        Map<String, Object> content;
+        if (parser.isComplete()) {
+            content = parser.result(MAP_TYPE);
+        } else {
+            if (parser.isFailed()) {
+                metrics.increment("ai.chunk.stream.fallbackParse");
+            }
+            String raw = parser.getRawText();
+            content = raw.trim().isEmpty() ? Collections.emptyMap() : parseJsonMap(raw, "content", chunk);
+        }
+        return new ChatResponse(null, content, status, payloadBytes.length, response.getResponseBytes(),
+                response.getLeaseWaitMs(), promptTokens.get());
+    }
+
+    /**
+     * @param promptTokens receives {@code prompt_eval_count} from the final frame; streams stopped early
+     *                     never see it
+     * @return {@code false} when the issues array closed before the end of the stream
+     */
+    private boolean readChatStream(InputStream body,
+                                   StreamingIssuesParser parser,
+                                   AtomicInteger promptTokens,
+                                   Instant requestStart,
+                                   MetricsRecorder metrics) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        boolean firstToken = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Map<String, Object> frame = OBJECT_MAPPER.readValue(line, MAP_TYPE);
+            Object error = frame.get("error");
+            if (error != null) {
+                throw new IOException(error.toString());
+            }
+            String token = extractContent(frame);
+            if (token != null && !token.isEmpty()) {
+                if (firstToken) {
+                    metrics.recordEnd("ai.chunk.ttft", requestStart);
+                    firstToken = false;
+                }
+                if (parser.feed(token)) {
+                    return false;
+                }
+            }
+            if (Boolean.TRUE.equals(frame.get("done"))) {
+                promptTokens.set(parseInt(frame.get("prompt_eval_count"), 0));
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads {@code prompt_eval_count} from a chat envelope without parsing it again. The field name cannot
+     * occur unescaped inside the message content, so the last occurrence is the envelope's.
+     */
+    private static int promptEvalCount(String body) {
+        if (body == null) {
+            return 0;
+        }
+        int index = body.lastIndexOf(PROMPT_EVAL_COUNT_FIELD);
+        if (index < 0) {
+            return 0;
+        }
+        int i = index + PROMPT_EVAL_COUNT_FIELD.length();
+        while (i < body.length() && body.charAt(i) == ' ') {
+            i++;
+        }
+        long value = 0;
+        while (i < body.length() && Character.isDigit(body.charAt(i)) && value < Integer.MAX_VALUE) {
+            value = value * 10 + (body.charAt(i++) - '0');
+        }
+        return (int) Math.min(Integer.MAX_VALUE, value);
+    }
+
+    /**
+     * Feeds the model's prompt token count back into the estimator calibration and flags prompts the server
+     * had to cut to fit its window.
+     */
+    private void recordPromptTokens(MetricsRecorder metrics,
+                                    ReviewChunk chunk,
+                                    String model,
+                                    int contextWindow,
+                                    int estimatedTokens,
+                                    int promptTokens) {
+        if (promptTokens <= 0) {
+            return;
+        }
+        metrics.recordMetric("ai.model.promptTokens", promptTokens);
+        if (contextWindow > 0 && promptTokens >= contextWindow - contextWindow / 50) {
+            metrics.increment("ai.model.promptTruncated");
+            LogSupport.warn(log, "ollama.prompt_truncated", "Prompt filled the model context window",
+                    "model", model,
+                    "chunkId", chunk.getId(),
+                    "promptTokens", promptTokens,
+                    "contextTokens", contextWindow,
+                    "estimatedTokens", estimatedTokens);
+            return;
+        }
+        contextBudget.recordPromptTokens(model, estimatedTokens, promptTokens);
+    }
+
+    private URI chatUri(String baseUrl) {
+        return URI.create(baseUrl.endsWith("/") ? baseUrl + "api/chat" : baseUrl + "/api/chat");
+    }
+
+    private int maxConnections(ReviewConfig config, String modelRole) {
+        return "fallback".equals(modelRole)
+                ? config.getFallbackModelMaxConnections()
+                : config.getPrimaryModelMaxConnections();
+    }
+
+    private int recordTransport(ModelHttpTransport.Response response,
+                                byte[] payloadBytes,
+                                MetricsRecorder metrics) {
+        metrics.increment(response.isConnectionReused()
+                ? "ai.http.connection.reused"
+                : "ai.http.connection.opened");
+        if (response.getLeaseWaitMs() > 0) {
+            metrics.increment("ai.http.pool.waits");
         }
 
-        String body = readStream(connection, false);
-        long responseBytes = body != null ? body.getBytes(StandardCharsets.UTF_8).length : 0;
-        return new ChatResponse(body, status, payloadBytes.length, responseBytes);
+        int status = response.getStatusCode();
+        if (status >= 400) {
+            throw new OllamaHttpException(status, response.getBody(), payloadBytes.length, response.getResponseBytes());
+        }
+        return status;
     }
 
     private List<ReviewFinding> parseFindings(String response, ReviewChunk chunk) throws Exception {
@@ -674,7 +1320,10 @@ public class OllamaAiReviewClient implements AiReviewClient {
             return Collections.emptyList();
         }
 
-        Map<String, Object> parsed = parseJsonMap(content, "content", chunk);
+        return toFindings(parseJsonMap(content, "content", chunk), chunk);
+    }
+
+    private List<ReviewFinding> toFindings(Map<String, Object> parsed, ReviewChunk chunk) {
         if (parsed.isEmpty()) {
             LogSupport.warn(log, "ollama.issues_missing", "Model response content empty",
                     "chunkId", chunk.getId());
@@ -689,11 +1338,13 @@ public class OllamaAiReviewClient implements AiReviewClient {
 
         List<?> rawIssues = (List<?>) issuesObj;
         List<ReviewFinding> findings = new ArrayList<>();
+        // Chunk text is decoded from the diff on each access, so do it once for all snippet checks.
+        String chunkContent = rawIssues.isEmpty() ? "" : chunk.getContent();
         for (Object obj : rawIssues) {
             if (!(obj instanceof Map)) {
                 continue;
             }
-            ReviewFinding finding = toFinding((Map<?, ?>) obj, chunk);
+            ReviewFinding finding = toFinding((Map<?, ?>) obj, chunk, chunkContent);
             if (finding != null) {
                 findings.add(finding);
             }
@@ -701,7 +1352,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
         return findings;
     }
 
-    private ReviewFinding toFinding(Map<?, ?> map, ReviewChunk chunk) {
+    private ReviewFinding toFinding(Map<?, ?> map, ReviewChunk chunk, String chunkContent) {
         try {
             Object pathObj = map.get("path");
             String path = pathObj != null ? pathObj.toString() : "";
@@ -747,7 +1398,7 @@ public class OllamaAiReviewClient implements AiReviewClient {
             int lineStart = parseInt(problematic.get("lineStart"), -1);
             int lineEnd = parseInt(problematic.get("lineEnd"), lineStart);
 
-            if (!snippetMatchesChunk(snippet, chunk.getContent())) {
+            if (!snippetMatchesChunk(snippet, chunkContent)) {
                 LogSupport.warn(log, "ollama.issue_snippet_mismatch", "Discarding issue snippet mismatch",
                         "chunkId", chunk.getId(),
                         "path", path);
@@ -1038,17 +1689,4 @@ public class OllamaAiReviewClient implements AiReviewClient {
 
         return sanitized.trim();
     }
-
-    private String readStream(HttpURLConnection connection, boolean error) throws Exception {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-                error ? connection.getErrorStream() : connection.getInputStream(),
-                StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-            return sb.toString();
-        }
-    }
 }
@@ -0,0 +1,406 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of the file selection settings ({@code reviewExtensions}, {@code ignorePatterns},
+ * {@code ignorePaths} and the generated/test profile switches), shared by the chunk planner and the
+ * filter diagnostics of the review service.
+ * <p>
+ * Each path is lowercased once and scanned once per matcher: all {@code ignorePaths} and the generated/test
+ * keywords go through a single Aho-Corasick automaton, all {@code ignorePatterns} globs are simulated
+ * together as one automaton, and the extension is a hash lookup. Compiled filters are cached by their
+ * settings, so a review only compiles when the configuration changed.
+ */
+public final class PathFilter {
+
+    /**
+     * Outcome for one path. Checks run in declaration order and the first failing one is reported.
+     */
+    public enum Verdict {
+        REVIEW,
+        IGNORED_PATH,
+        IGNORED_PATTERN,
+        NO_EXTENSION,
+        EXTENSION_NOT_ALLOWED,
+        GENERATED,
+        TEST
+    }
+
+    private static final int MAX_CACHED_FILTERS = 64;
+    private static final Map<Key, PathFilter> CACHE = new ConcurrentHashMap<>();
+
+    private static final int IGNORE_PATH = 1;
+    private static final int GENERATED = 2;
+    private static final int TEST = 4;
+    private static final List<String> GENERATED_KEYWORDS = Arrays.asList("generated", "build/");
+    private static final List<String> TEST_KEYWORDS = Arrays.asList("test", "spec", "fixture");
+
+    private final Set<String> allowedExtensions;
+    private final boolean skipGenerated;
+    private final boolean reviewTests;
+    private final SubstringMatcher substrings;
+    private final GlobMatcher globs;
+
+    private PathFilter(Key key) {
+        this.allowedExtensions = key.extensions;
+        this.skipGenerated = key.skipGenerated;
+        this.reviewTests = key.reviewTests;
+        SubstringMatcher.Builder builder = new SubstringMatcher.Builder();
+        key.ignorePaths.forEach(path -> builder.add(path, IGNORE_PATH));
+        if (skipGenerated) {
+            GENERATED_KEYWORDS.forEach(keyword -> builder.add(keyword, GENERATED));
+        }
+        if (!reviewTests) {
+            TEST_KEYWORDS.forEach(keyword -> builder.add(keyword, TEST));
+        }
+        this.substrings = builder.build();
+        this.globs = new GlobMatcher(key.ignorePatterns);
+    }
+
+    /**
+     * @return the compiled filter for {@code config}'s file selection settings
+     */
+    @Nonnull
+    public static PathFilter forConfig(@Nonnull ReviewConfig config) {
+        Objects.requireNonNull(config, "config");
+        return compile(config.getReviewableExtensions(),
+                config.getIgnorePatterns(),
+                config.getIgnorePaths(),
+                config.getProfile().isSkipGeneratedFiles(),
+                config.getProfile().isReviewTests());
+    }
+
+    @Nonnull
+    public static PathFilter compile(@Nonnull Collection<String> reviewableExtensions,
+                                     @Nonnull Collection<String> ignorePatterns,
+                                     @Nonnull Collection<String> ignorePaths,
+                                     boolean skipGeneratedFiles,
+                                     boolean reviewTests) {
+        Key key = new Key(lowercased(reviewableExtensions), lowercased(ignorePatterns), lowercased(ignorePaths),
+                skipGeneratedFiles, reviewTests);
+        PathFilter filter = CACHE.get(key);
+        if (filter == null) {
+            if (CACHE.size() >= MAX_CACHED_FILTERS) {
+                CACHE.clear();
+            }
+            filter = CACHE.computeIfAbsent(key, PathFilter::new);
+        }
+        return filter;
+    }
+
+    public boolean accepts(@Nonnull String path) {
+        return classify(path) == Verdict.REVIEW;
+    }
+
+    @Nonnull
+    public Verdict classify(@Nonnull String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        int keywords = substrings.match(lower);
+        if ((keywords & IGNORE_PATH) != 0) {
+            return Verdict.IGNORED_PATH;
+        }
+        if (globs.matchesAny(lower)) {
+            return Verdict.IGNORED_PATTERN;
+        }
+        int dot = lower.lastIndexOf('.');
+        if (dot < 0) {
+            return Verdict.NO_EXTENSION;
+        }
+        if (!allowedExtensions.isEmpty() && !allowedExtensions.contains(lower.substring(dot + 1))) {
+            return Verdict.EXTENSION_NOT_ALLOWED;
+        }
+        if (skipGenerated && ((keywords & GENERATED) != 0 || lower.endsWith(".g.dart"))) {
+            return Verdict.GENERATED;
+        }
+        if (!reviewTests && (keywords & TEST) != 0) {
+            return Verdict.TEST;
+        }
+        return Verdict.REVIEW;
+    }
+
+    private static List<String> lowercased(Collection<String> values) {
+        Set<String> normalized = new TreeSet<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            String trimmed = value.trim().toLowerCase(Locale.ROOT);
+            if (!trimmed.isEmpty()) {
+                normalized.add(trimmed);
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    private static final class Key {
+        final Set<String> extensions;
+        final List<String> ignorePatterns;
+        final List<String> ignorePaths;
+        final boolean skipGenerated;
+        final boolean reviewTests;
+
+        Key(List<String> extensions, List<String> ignorePatterns, List<String> ignorePaths,
+            boolean skipGenerated, boolean reviewTests) {
+            this.extensions = new HashSet<>(extensions);
+            this.ignorePatterns = ignorePatterns;
+            this.ignorePaths = ignorePaths;
+            this.skipGenerated = skipGenerated;
+            this.reviewTests = reviewTests;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return skipGenerated == other.skipGenerated
+                    && reviewTests == other.reviewTests
+                    && extensions.equals(other.extensions)
+                    && ignorePatterns.equals(other.ignorePatterns)
+                    && ignorePaths.equals(other.ignorePaths);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(extensions, ignorePatterns, ignorePaths, skipGenerated, reviewTests);
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton reporting the union of the tags of every keyword occurring in the text.
+     */
+    static final class SubstringMatcher {
+        /** Symbols of ASCII characters, so the common case avoids boxing. */
+        private final int[] asciiSymbols = new int[128];
+        private final Map<Character, Integer> otherSymbols = new HashMap<>();
+        /** {@code transitions[state * alphabet + symbol]}, complete over the keyword alphabet. */
+        private final int[] transitions;
+        private final int alphabet;
+        private final int[] tags;
+
+        private SubstringMatcher(Map<Character, Integer> symbols, int[] transitions, int alphabet, int[] tags) {
+            symbols.forEach((c, symbol) -> {
+                if (c < asciiSymbols.length) {
+                    asciiSymbols[c] = symbol;
+                } else {
+                    otherSymbols.put(c, symbol);
+                }
+            });
+            this.transitions = transitions;
+            this.alphabet = alphabet;
+            this.tags = tags;
+        }
+
+        int match(String text) {
+            if (tags.length == 1) {
+                return 0;
+            }
+            int state = 0;
+            int found = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int symbol = c < asciiSymbols.length ? asciiSymbols[c] : otherSymbols.getOrDefault(c, 0);
+                state = transitions[state * alphabet + symbol];
+                found |= tags[state];
+            }
+            return found;
+        }
+
+        static final class Builder {
+            private final Map<Character, Integer> symbols = new HashMap<>();
+            private final List<Map<Integer, Integer>> trie = new ArrayList<>();
+            private final List<Integer> tags = new ArrayList<>();
+
+            Builder() {
+                newState();
+            }
+
+            Builder add(String keyword, int tag) {
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int symbol = symbols.computeIfAbsent(keyword.charAt(i), ignored -> symbols.size() + 1);
+                    Integer next = trie.get(state).get(symbol);
+                    if (next == null) {
+                        next = newState();
+                        trie.get(state).put(symbol, next);
+                    }
+                    state = next;
+                }
+                tags.set(state, tags.get(state) | tag);
+                return this;
+            }
+
+            SubstringMatcher build() {
+                // Symbol 0 stands for every character outside the keywords and always leads back to the root.
+                int alphabet = symbols.size() + 1;
+                int states = trie.size();
+                int[] transitions = new int[states * alphabet];
+                int[] fail = new int[states];
+                int[] outputs = new int[states];
+                int[] queue = new int[states];
+                int head = 0;
+                int tail = 0;
+                outputs[0] = tags.get(0);
+                for (int symbol = 1; symbol < alphabet; symbol++) {
+                    Integer child = trie.get(0).get(symbol);
+                    if (child != null) {
+                        transitions[symbol] = child;
+                        queue[tail++] = child;
+                    }
+                }
+                while (head < tail) {
+                    int state = queue[head++];
+                    outputs[state] = tags.get(state) | outputs[fail[state]];
+                    for (int symbol = 1; symbol < alphabet; symbol++) {
+                        Integer child = trie.get(state).get(symbol);
+                        int fallback = transitions[fail[state] * alphabet + symbol];
+                        if (child != null) {
+                            fail[child] = fallback;
+                            transitions[state * alphabet + symbol] = child;
+                            queue[tail++] = child;
+                        } else {
+                            transitions[state * alphabet + symbol] = fallback;
+                        }
+                    }
+                }
+                return new SubstringMatcher(symbols, transitions, alphabet, outputs);
+            }
+
+            private int newState() {
+                trie.add(new HashMap<>());
+                tags.add(0);
+                return trie.size() - 1;
+            }
+        }
+    }
+
+    /**
+     * Runs all globs as one automaton over the whole path: {@code *} matches any run of characters
+     * (including {@code /}), {@code ?} any single character, everything else itself. Each glob
+     * contributes one state per token plus an accepting state, and the active states of every glob are
+     * advanced together, one bit per state.
+     */
+    static final class GlobMatcher {
+        private static final int STAR = -1;
+        private static final int ANY = -2;
+        private static final int ACCEPT = -3;
+
+        /** Token consumed by each state: a character, {@link #STAR}, {@link #ANY} or {@link #ACCEPT}. */
+        private final int[] tokens;
+        private final long[] start;
+
+        GlobMatcher(List<String> globs) {
+            List<Integer> compiled = new ArrayList<>();
+            List<Integer> starts = new ArrayList<>();
+            for (String glob : globs) {
+                int first = compiled.size();
+                starts.add(first);
+                for (int i = 0; i < glob.length(); i++) {
+                    char c = glob.charAt(i);
+                    int token = c == '*' ? STAR : c == '?' ? ANY : c;
+                    // Consecutive stars match the same as one.
+                    if (token == STAR && compiled.size() > first && compiled.get(compiled.size() - 1) == STAR) {
+                        continue;
+                    }
+                    compiled.add(token);
+                }
+                compiled.add(ACCEPT);
+            }
+            this.tokens = new int[compiled.size()];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = compiled.get(i);
+            }
+            this.start = new long[(tokens.length + 63) >>> 6];
+            for (int state : starts) {
+                set(start, state);
+            }
+            closeOverStars(start);
+        }
+
+        boolean matchesAny(String text) {
+            if (tokens.length == 0) {
+                return false;
+            }
+            long[] current = start.clone();
+            long[] next = new long[current.length];
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                Arrays.fill(next, 0L);
+                boolean alive = false;
+                for (int word = 0; word < current.length; word++) {
+                    long bits = current[word];
+                    while (bits != 0) {
+                        int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+                        int token = tokens[state];
+                        if (token == STAR) {
+                            set(next, state);
+                            alive = true;
+                        } else if (token != ACCEPT && (token == ANY || token == c)) {
+                            set(next, state + 1);
+                            alive = true;
+                        }
+                    }
+                }
+                if (!alive) {
+                    return false;
+                }
+                closeOverStars(next);
+                long[] swap = current;
+                current = next;
+                next = swap;
+            }
+            for (int word = 0; word < current.length; word++) {
+                long bits = current[word];
+                while (bits != 0) {
+                    int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (tokens[state] == ACCEPT) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * A star may match nothing, so a state on a star also activates the state after it. Stars are never
+         * consecutive, so one step is enough.
+         */
+        private void closeOverStars(long[] states) {
+            for (int word = 0; word < states.length; word++) {
+                long bits = states[word];
+                while (bits != 0) {
+                    int state = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (tokens[state] == STAR) {
+                        set(states, state + 1);
+                    }
+                }
+            }
+        }
+
+        private static void set(long[] states, int state) {
+            states[state >>> 6] |= 1L << state;
+        }
+    }
+}
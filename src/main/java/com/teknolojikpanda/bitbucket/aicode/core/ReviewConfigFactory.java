@@ -1,6 +1,7 @@
 package com.teknolojikpanda.bitbucket.aicode.core;
 
 import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkStrategyType;
 import com.teknolojikpanda.bitbucket.aicode.model.PromptTemplates;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
@@ -12,10 +13,12 @@ import javax.annotation.Nonnull;
 import javax.inject.Named;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,17 +37,32 @@ public class ReviewConfigFactory {
     public ReviewConfig from(@Nonnull Map<String, Object> config) {
         ReviewConfig.Builder builder = ReviewConfig.builder();
 
-        builder.primaryModelEndpoint(toUri(config.getOrDefault("ollamaUrl", "http://0.0.0.0:11434")));
+        URI ollamaUrl = toUri(config.getOrDefault("ollamaUrl", "http://0.0.0.0:11434"));
+        List<URI> primaryEndpoints = toUris(config.get("primaryModelEndpoints"));
+        List<URI> fallbackEndpoints = toUris(config.get("fallbackModelEndpoints"));
+        builder.primaryModelEndpoint(primaryEndpoints.isEmpty() ? ollamaUrl : primaryEndpoints.get(0));
+        builder.primaryModelEndpoints(primaryEndpoints);
         builder.primaryModel(stringValue(config.get("ollamaModel"), "qwen3-coder:30b"));
-        builder.fallbackModelEndpoint(toUri(config.getOrDefault("ollamaUrl", "http://0.0.0.0:11434")));
+        builder.fallbackModelEndpoint(fallbackEndpoints.isEmpty() ? ollamaUrl : fallbackEndpoints.get(0));
+        builder.fallbackModelEndpoints(fallbackEndpoints);
         builder.fallbackModel(stringValue(config.get("fallbackModel"), "qwen3-coder:7b"));
 
         builder.maxCharsPerChunk(intValue(config.get("maxCharsPerChunk"), 60_000));
+        builder.modelContextTokens(intValue(config.get("modelContextTokens"), 0));
+        builder.chunkStrategy(ChunkStrategyType.fromConfig(config.get("chunkStrategy")));
         builder.maxFilesPerChunk(intValue(config.get("maxFilesPerChunk"), 3));
         builder.maxChunks(intValue(config.get("maxChunks"), 20));
         builder.parallelThreads(intValue(config.get("parallelThreads"), 4));
         builder.requestTimeoutMs(intValue(config.get("ollamaTimeout"), 300_000));
         builder.connectTimeoutMs(intValue(config.get("connectTimeout"), 10_000));
+        builder.primaryModelMaxConnections(intValue(config.get("primaryModelMaxConnections"), 8));
+        builder.fallbackModelMaxConnections(intValue(config.get("fallbackModelMaxConnections"), 4));
+        builder.streamResponses(booleanValue(config.get("streamModelResponses"), false));
+        builder.chunkResultCacheEnabled(booleanValue(config.get("chunkResultCacheEnabled"), true));
+        builder.incrementalReReview(booleanValue(config.get("incrementalReReview"), false));
+        builder.maxResponseBytes(intValue(config.get("maxModelResponseBytes"), 2_000_000));
+        builder.maxConcurrentModelRequests(intValue(config.get("maxConcurrentModelRequests"), 16));
+        builder.adaptiveModelConcurrency(booleanValue(config.get("adaptiveModelConcurrency"), true));
         int chunkMaxRetries = intValue(config.containsKey("chunkMaxRetries")
                 ? config.get("chunkMaxRetries")
                 : config.get("maxRetries"), 3);
@@ -64,11 +82,18 @@ public class ReviewConfigFactory {
                 chunkRetryDelay > 0 ? chunkRetryDelay : 1_500);
         builder.overviewRetryDelayMs(overviewRetryDelay);
         builder.maxDiffBytes(intValue(config.get("maxDiffSize"), 10_000_000));
+        builder.diffSpillThresholdBytes(intValue(config.get("diffSpillThreshold"), 0));
 
         builder.reviewableExtensions(splitToSet(config.get("reviewExtensions")));
         builder.ignorePatterns(splitToList(config.get("ignorePatterns")));
         builder.ignorePaths(splitToList(config.get("ignorePaths")));
         builder.skipPrimaryModel(booleanValue(config.get("skipPrimaryModel"), false));
+        builder.hedgeDelayMs(intValue(config.get("hedgeDelayMs"), 0));
+        builder.hedgeBudgetPercent(intValue(config.get("hedgeBudgetPercent"), 10));
+        builder.modelRateLimitPerSecond(intValue(config.get("modelRateLimitPerSecond"), 10));
+        builder.modelEndpointRateLimits(toEndpointRates(config.get("modelEndpointRateLimits")));
+        builder.modelCircuitFailureThreshold(intValue(config.get("modelCircuitFailureThreshold"), 5));
+        builder.modelCircuitOpenSeconds(intValue(config.get("modelCircuitOpenSeconds"), 60));
 
         builder.profile(buildProfile(config));
         builder.promptTemplates(loadPromptTemplates(config));
@@ -140,6 +165,39 @@ public class ReviewConfigFactory {
         return list.isEmpty() ? Collections.emptySet() : new HashSet<>(list);
     }
 
+    private List<URI> toUris(Object value) {
+        List<URI> uris = new ArrayList<>();
+        for (String entry : splitToList(value)) {
+            try {
+                uris.add(new URI(entry));
+            } catch (URISyntaxException e) {
+                log.warn("Ignoring invalid model endpoint '{}'", entry);
+            }
+        }
+        return uris;
+    }
+
+    private Map<String, Integer> toEndpointRates(Object value) {
+        Map<String, Integer> rates = new LinkedHashMap<>();
+        if (!(value instanceof String)) {
+            return rates;
+        }
+        for (String entry : ((String) value).split("[,\\n]")) {
+            int idx = entry.lastIndexOf('=');
+            if (idx <= 0) {
+                continue;
+            }
+            String endpoint = entry.substring(0, idx).trim();
+            int rate = intValue(entry.substring(idx + 1).trim(), 0);
+            if (!endpoint.isEmpty() && rate > 0) {
+                rates.put(endpoint, rate);
+            } else {
+                log.warn("Ignoring invalid model endpoint rate limit '{}'", entry.trim());
+            }
+        }
+        return rates;
+    }
+
     private List<String> splitToList(Object value) {
         if (value instanceof String && !((String) value).trim().isEmpty()) {
             return Arrays.stream(((String) value).split(","))
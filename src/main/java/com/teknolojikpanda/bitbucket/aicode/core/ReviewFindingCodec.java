@@ -0,0 +1,77 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teknolojikpanda.bitbucket.aicode.model.IssueCategory;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact JSON form of {@link ReviewFinding} lists, used wherever findings outlive a single review
+ * (cached chunk results, review history).
+ */
+public final class ReviewFindingCodec {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Map<String, Object>>> LIST_TYPE =
+            new TypeReference<List<Map<String, Object>>>() {};
+
+    private ReviewFindingCodec() {
+    }
+
+    @Nonnull
+    public static String toJson(@Nonnull List<ReviewFinding> findings) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(findings.size());
+        for (ReviewFinding finding : findings) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("path", finding.getFilePath());
+            LineRange range = finding.getLineRange();
+            if (range != null) {
+                row.put("start", range.getStart());
+                row.put("end", range.getEnd());
+            }
+            row.put("severity", finding.getSeverity().name());
+            row.put("category", finding.getCategory().name());
+            row.put("summary", finding.getSummary());
+            row.put("details", finding.getDetails());
+            row.put("fix", finding.getFix());
+            row.put("snippet", finding.getSnippet());
+            rows.add(row);
+        }
+        return OBJECT_MAPPER.writeValueAsString(rows);
+    }
+
+    /**
+     * Rebuilds findings with fresh ids so every review owns its own finding instances.
+     */
+    @Nonnull
+    public static List<ReviewFinding> fromJson(@Nonnull String payload) throws IOException {
+        List<Map<String, Object>> rows = OBJECT_MAPPER.readValue(payload, LIST_TYPE);
+        List<ReviewFinding> findings = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            ReviewFinding.Builder builder = ReviewFinding.builder()
+                    .filePath((String) row.get("path"))
+                    .severity(SeverityLevel.valueOf((String) row.get("severity")))
+                    .category(IssueCategory.valueOf((String) row.get("category")))
+                    .summary((String) row.get("summary"))
+                    .details((String) row.get("details"))
+                    .fix((String) row.get("fix"))
+                    .snippet((String) row.get("snippet"));
+            Object start = row.get("start");
+            Object end = row.get("end");
+            if (start instanceof Number && end instanceof Number) {
+                builder.lineRange(LineRange.of(((Number) start).intValue(), ((Number) end).intValue()));
+            }
+            findings.add(builder.build());
+        }
+        return findings;
+    }
+}
@@ -0,0 +1,685 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.DiffContentSource;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffHunk;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffLineSpan;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.InMemoryDiffContentSource;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Byte-oriented unified diff scanner used while streaming pull request diffs.
+ * <p>
+ * Incoming slices are appended to a single growable buffer and scanned for line feeds in place.
+ * File headers and {@code +}/{@code -} prefixes are detected on raw bytes, so no per-line
+ * {@link String} or regex matcher is allocated. Hunk headers are parsed in the same pass, so the
+ * resulting {@link DiffModel} (files, hunks and line spans) is available without re-reading the text.
+ * Per-file content is tracked as byte ranges and decoded to UTF-8 only when requested.
+ * <p>
+ * When a spill threshold is configured and the diff grows beyond it, bytes are appended to a temp file
+ * instead of the heap buffer; only the line currently being scanned stays in memory. On
+ * {@link #finish()} the file is memory-mapped and the model reads its views from the mapping.
+ */
+public final class StreamingDiffAccumulator extends OutputStream {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingDiffAccumulator.class);
+
+    private static final byte[] DIFF_HEADER = ascii("diff --git");
+    private static final byte[] HUNK_HEADER = ascii("@@");
+    private static final byte[] BINARY_FILES = ascii("Binary files");
+    private static final byte[] GIT_BINARY_PATCH = ascii("GIT binary patch");
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final long maxBytes;
+    private final long spillThresholdBytes;
+    private final Path spillDirectory;
+    private final Map<String, FileState> files = new LinkedHashMap<>();
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    /** Absolute diff offset of {@code data[0]}; only advances once the diff spills to disk. */
+    private int base;
+    private int size;
+    private int lineStart;
+    private FileChannel spillChannel;
+    private int spilledBytes;
+    private DiffContentSource spilledSource;
+    private long totalBytes;
+    private int totalLines;
+    private FileState currentFile;
+    private int currentFileStart = -1;
+    private HunkState currentHunk;
+    private boolean finished;
+    private DiffModel model;
+
+    public StreamingDiffAccumulator(long maxBytes) {
+        this(maxBytes, 0, null);
+    }
+
+    /**
+     * @param maxBytes            hard limit for the diff size, {@code 0} for unlimited
+     * @param spillThresholdBytes size above which bytes are spilled to disk, {@code 0} to stay in memory
+     * @param spillDirectory      directory for spill files, defaults to {@code java.io.tmpdir}
+     */
+    public StreamingDiffAccumulator(long maxBytes, long spillThresholdBytes, @Nullable Path spillDirectory) {
+        this.maxBytes = maxBytes;
+        this.spillThresholdBytes = Math.max(0, spillThresholdBytes);
+        this.spillDirectory = spillDirectory != null
+                ? spillDirectory
+                : Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+
+    @Override
+    public void write(int b) {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(@Nonnull byte[] b, int off, int len) {
+        if (len <= 0) {
+            return;
+        }
+        if (finished) {
+            throw new IllegalStateException("Accumulator already finished");
+        }
+        totalBytes += len;
+        if (maxBytes > 0 && totalBytes > maxBytes) {
+            discard();
+            throw new DiffTooLargeException(totalBytes, maxBytes);
+        }
+        ensureCapacity(size + len);
+        int scanFrom = size;
+        System.arraycopy(b, off, data, size, len);
+        size += len;
+        scan(scanFrom);
+        if (spillChannel == null && spillThresholdBytes > 0 && totalBytes > spillThresholdBytes) {
+            startSpill();
+        }
+        if (spillChannel != null) {
+            flushAndCompact();
+        }
+    }
+
+    /**
+     * Flushes any trailing partial line. Must be called once after the last write.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (lineStart < size) {
+            handleLine(lineStart, size);
+            lineStart = size;
+        }
+        closeCurrentFile(base + size);
+        if (spillChannel != null) {
+            flushAndCompact();
+            spilledSource = mapSpillFile();
+            data = new byte[0];
+            base = 0;
+            size = 0;
+            lineStart = 0;
+        }
+    }
+
+    /**
+     * Releases the spill file of an accumulator that was abandoned before {@link #finish()}; a finished
+     * accumulator has already handed its bytes over to the mapping. {@link #close()} is left a no-op
+     * because the diff service closes the stream before the accumulator is finished.
+     */
+    public void discard() {
+        FileChannel channel = spillChannel;
+        spillChannel = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LogSupport.warn(log, "diff.spill_close_failed", "Failed to release diff spill file",
+                        "error", e.getMessage());
+            }
+        }
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    /**
+     * @return {@code true} when the diff exceeded the spill threshold and lives in a mapped temp file
+     */
+    public boolean isSpilled() {
+        return spilledSource != null || spillChannel != null;
+    }
+
+    /**
+     * @return the full diff decoded as UTF-8; for spilled diffs this materialises the whole file
+     * @throws IllegalStateException when a spilled diff is too large to decode into one string
+     */
+    @Nonnull
+    public String getRawDiff() {
+        if (spilledSource != null) {
+            long spilledSize = spilledSource.size();
+            if (spilledSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Spilled diff of " + spilledSize
+                        + " bytes is too large to decode as text; read it through getDiffModel()");
+            }
+            return spilledSource.read(0, (int) spilledSize);
+        }
+        return new String(data, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a complete diff held in memory, e.g. when a context was built without a streamed model.
+     */
+    @Nonnull
+    public static DiffModel parse(@Nonnull String diff) {
+        Objects.requireNonNull(diff, "diff");
+        byte[] payload = diff.getBytes(StandardCharsets.UTF_8);
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(0);
+        accumulator.write(payload, 0, payload.length);
+        accumulator.finish();
+        return accumulator.getDiffModel();
+    }
+
+    /**
+     * @return the structured diff; only available once {@link #finish()} has been called
+     */
+    @Nonnull
+    public DiffModel getDiffModel() {
+        if (!finished) {
+            throw new IllegalStateException("Accumulator not finished");
+        }
+        if (model == null) {
+            DiffContentSource source = spilledSource != null
+                    ? spilledSource
+                    : new InMemoryDiffContentSource(data, size);
+            DiffModel.Builder builder = DiffModel.builder()
+                    .source(source)
+                    .totalBytes(totalBytes)
+                    .totalLines(totalLines);
+            for (Map.Entry<String, FileState> entry : files.entrySet()) {
+                builder.addFile(entry.getValue().build(entry.getKey(), source));
+            }
+            model = builder.build();
+        }
+        return model;
+    }
+
+    /**
+     * @return per-file diff content (header included) in diff order
+     */
+    @Nonnull
+    public Map<String, String> getFileDiffs() {
+        return getDiffModel().toFileDiffs();
+    }
+
+    /**
+     * @return per-file addition/deletion statistics in diff order
+     */
+    @Nonnull
+    public Map<String, ReviewOverview.FileStats> getFileStats() {
+        return getDiffModel().toFileStats();
+    }
+
+    private void scan(int from) {
+        byte[] buf = data;
+        int end = size;
+        for (int i = from; i < end; i++) {
+            if (buf[i] == '\n') {
+                handleLine(lineStart, i + 1);
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Processes the line {@code [start, end)}; {@code end} includes the trailing line feed when present.
+     */
+    private void handleLine(int start, int end) {
+        totalLines++;
+        int contentEnd = end;
+        if (contentEnd > start && data[contentEnd - 1] == '\n') {
+            contentEnd--;
+        }
+
+        if (startsWith(start, contentEnd, DIFF_HEADER) && switchCurrentFile(start, contentEnd)) {
+            return;
+        }
+
+        FileState file = currentFile;
+        if (file == null) {
+            return;
+        }
+        HunkState hunk = currentHunk;
+        if (hunk != null) {
+            if (consumeHunkLine(file, hunk, start, contentEnd)) {
+                return;
+            }
+            closeCurrentHunk(base + start);
+        }
+        if (startsWith(start, contentEnd, HUNK_HEADER) && openHunk(file, start, contentEnd)) {
+            return;
+        }
+        if (startsWith(start, contentEnd, BINARY_FILES) || startsWith(start, contentEnd, GIT_BINARY_PATCH)) {
+            file.binary = true;
+        }
+    }
+
+    /**
+     * Accounts a hunk body line. While the header counts are not exhausted an empty line is read as
+     * blank context; afterwards only prefixed lines extend the hunk so malformed counts stay tolerated.
+     *
+     * @return {@code false} when the line terminates the hunk
+     */
+    private boolean consumeHunkLine(FileState file, HunkState hunk, int start, int contentEnd) {
+        boolean expectingBody = hunk.remainingOld > 0 || hunk.remainingNew > 0;
+        byte first = contentEnd > start ? data[start] : (expectingBody ? (byte) ' ' : 0);
+        switch (first) {
+            case '+':
+                file.additions++;
+                hunk.builder.span(DiffLineSpan.Type.ADDED, hunk.oldLine, hunk.newLine, 1);
+                hunk.newLine++;
+                hunk.remainingNew--;
+                return true;
+            case '-':
+                file.deletions++;
+                hunk.builder.span(DiffLineSpan.Type.REMOVED, hunk.oldLine, hunk.newLine, 1);
+                hunk.oldLine++;
+                hunk.remainingOld--;
+                return true;
+            case ' ':
+                hunk.builder.span(DiffLineSpan.Type.CONTEXT, hunk.oldLine, hunk.newLine, 1);
+                hunk.oldLine++;
+                hunk.newLine++;
+                hunk.remainingOld--;
+                hunk.remainingNew--;
+                return true;
+            case '\\':
+                // "\ No newline at end of file"
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses {@code @@ -a[,b] +c[,d] @@[ context]} in place.
+     *
+     * @return {@code false} when the line is not a well-formed hunk header
+     */
+    private boolean openHunk(FileState file, int start, int end) {
+        int[] cursor = {start + HUNK_HEADER.length};
+        if (!expect(cursor, end, ' ', '-')) {
+            return false;
+        }
+        int oldStart = parseNumber(cursor, end);
+        if (oldStart < 0) {
+            return false;
+        }
+        int oldCount = 1;
+        if (cursor[0] < end && data[cursor[0]] == ',') {
+            cursor[0]++;
+            oldCount = parseNumber(cursor, end);
+            if (oldCount < 0) {
+                return false;
+            }
+        }
+        if (!expect(cursor, end, ' ', '+')) {
+            return false;
+        }
+        int newStart = parseNumber(cursor, end);
+        if (newStart < 0) {
+            return false;
+        }
+        int newCount = 1;
+        if (cursor[0] < end && data[cursor[0]] == ',') {
+            cursor[0]++;
+            newCount = parseNumber(cursor, end);
+            if (newCount < 0) {
+                return false;
+            }
+        }
+        if (!expect(cursor, end, ' ', '@') || cursor[0] >= end || data[cursor[0]] != '@') {
+            return false;
+        }
+
+        if (file.headerEnd < 0) {
+            file.headerEnd = base + start;
+        }
+        HunkState hunk = new HunkState(base + start, oldStart, oldCount, newStart, newCount);
+        currentHunk = hunk;
+        return true;
+    }
+
+    /**
+     * Skips spaces, then requires {@code marker}; the cursor ends just past the marker.
+     */
+    private boolean expect(int[] cursor, int end, char separator, char marker) {
+        int i = cursor[0];
+        int spaces = 0;
+        while (i < end && data[i] == separator) {
+            i++;
+            spaces++;
+        }
+        if (spaces == 0 || i >= end || data[i] != marker) {
+            return false;
+        }
+        cursor[0] = i + 1;
+        return true;
+    }
+
+    private int parseNumber(int[] cursor, int end) {
+        int i = cursor[0];
+        int value = 0;
+        int digits = 0;
+        while (i < end && data[i] >= '0' && data[i] <= '9') {
+            if (value > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            value = value * 10 + (data[i] - '0');
+            i++;
+            digits++;
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        cursor[0] = i;
+        return value;
+    }
+
+    private void closeCurrentHunk(int end) {
+        HunkState hunk = currentHunk;
+        if (hunk != null && currentFile != null) {
+            hunk.builder.offset(hunk.start).length(end - hunk.start);
+            currentFile.hunks.add(hunk.builder);
+        }
+        currentHunk = null;
+    }
+
+    /**
+     * Parses a {@code diff --git <a> <b>} header in place.
+     *
+     * @return {@code false} when the line is not a well-formed header and should be treated as content
+     */
+    private boolean switchCurrentFile(int start, int end) {
+        int cursor = start + DIFF_HEADER.length;
+        int afterPrefix = cursor;
+        while (cursor < end && isWhitespace(data[cursor])) {
+            cursor++;
+        }
+        if (cursor == afterPrefix || cursor >= end) {
+            return false;
+        }
+        int firstStart = cursor;
+        while (cursor < end && !isWhitespace(data[cursor])) {
+            cursor++;
+        }
+        int firstEnd = cursor;
+        while (cursor < end && isWhitespace(data[cursor])) {
+            cursor++;
+        }
+        if (firstEnd == cursor || cursor >= end) {
+            return false;
+        }
+
+        closeCurrentFile(base + start);
+
+        String pathA = normalizeDiffPath(decode(firstStart, firstEnd));
+        String pathB = normalizeDiffPath(decode(cursor, end));
+        String key = (pathB == null || isDevNull(pathB)) ? pathA : pathB;
+        if (key == null || key.isEmpty()) {
+            key = pathA != null ? pathA : pathB;
+        }
+        if (key == null || key.isEmpty()) {
+            LogSupport.debug(log, "diff.skip_header", "Skipping diff header with unresolved path",
+                    "header", decode(start, end));
+            currentFile = null;
+            return true;
+        }
+        currentFile = files.computeIfAbsent(key, __ -> new FileState());
+        currentFileStart = base + start;
+        if (currentFile.headerStart < 0) {
+            currentFile.headerStart = currentFileStart;
+        }
+        return true;
+    }
+
+    private void closeCurrentFile(int end) {
+        closeCurrentHunk(end);
+        FileState file = currentFile;
+        if (file != null && currentFileStart >= 0 && end > currentFileStart) {
+            file.builder.addRange(currentFileStart, end);
+            if (file.headerEnd < 0 && file.headerStart == currentFileStart) {
+                file.headerEnd = end;
+            }
+        }
+        currentFileStart = -1;
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) {
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private void startSpill() {
+        Path file = null;
+        try {
+            Files.createDirectories(spillDirectory);
+            file = Files.createTempFile(spillDirectory, "ai-review-diff-", ".tmp");
+            spillChannel = FileChannel.open(file,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            spilledBytes = base;
+            LogSupport.info(log, "diff.spill_started", "Diff exceeded in-memory threshold; spilling to disk",
+                    "thresholdBytes", spillThresholdBytes,
+                    "file", file);
+        } catch (IOException e) {
+            LogSupport.warn(log, "diff.spill_unavailable", "Unable to create diff spill file; keeping diff in memory",
+                    "directory", spillDirectory,
+                    "error", e.getMessage());
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // best effort
+                }
+            }
+            spillChannel = null;
+        }
+    }
+
+    /**
+     * Appends every byte not yet on disk to the spill file, then drops all fully scanned lines from the
+     * heap buffer so only the pending partial line is retained.
+     */
+    private void flushAndCompact() {
+        int from = spilledBytes - base;
+        if (from < size) {
+            try {
+                ByteBuffer pending = ByteBuffer.wrap(data, from, size - from);
+                while (pending.hasRemaining()) {
+                    spillChannel.write(pending);
+                }
+            } catch (IOException e) {
+                discard();
+                throw new UncheckedIOException("Failed to spill diff to disk", e);
+            }
+            spilledBytes = base + size;
+        }
+        if (lineStart > 0) {
+            int remaining = size - lineStart;
+            if (data.length > INITIAL_CAPACITY * 4 && remaining < INITIAL_CAPACITY) {
+                data = Arrays.copyOfRange(data, lineStart, lineStart + INITIAL_CAPACITY);
+            } else {
+                System.arraycopy(data, lineStart, data, 0, remaining);
+            }
+            base += lineStart;
+            size = remaining;
+            lineStart = 0;
+        }
+    }
+
+    private DiffContentSource mapSpillFile() {
+        FileChannel channel = spillChannel;
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, spilledBytes);
+            return new MappedDiffContentSource(mapped, spilledBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map spilled diff", e);
+        } finally {
+            // DELETE_ON_CLOSE unlinks the file now; the mapping stays readable until it is collected
+            discard();
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required < 0 || (long) base + required > Integer.MAX_VALUE - 8) {
+            discard();
+            throw new DiffTooLargeException(totalBytes, maxBytes);
+        }
+        if (required <= data.length) {
+            return;
+        }
+        int newCapacity = Math.max(required, data.length << 1);
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        data = Arrays.copyOf(data, newCapacity);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    static String normalizeDiffPath(String rawPath) {
+        if (rawPath == null) {
+            return null;
+        }
+        String path = rawPath.trim();
+        if (path.startsWith("\"") && path.endsWith("\"")) {
+            path = path.substring(1, path.length() - 1);
+        }
+        if (path.startsWith("a/") || path.startsWith("b/")) {
+            path = path.substring(2);
+        }
+        int schemeIdx = path.indexOf("://");
+        if (schemeIdx >= 0) {
+            path = path.substring(schemeIdx + 3);
+        }
+        if (path.startsWith("./")) {
+            path = path.substring(2);
+        }
+        return path;
+    }
+
+    static boolean isDevNull(String path) {
+        if (path == null) {
+            return true;
+        }
+        String normalized = path.replace('\\', '/');
+        return "/dev/null".equals(normalized) || "dev/null".equals(normalized);
+    }
+
+    private static final class FileState {
+        final DiffFile.Builder builder = DiffFile.builder();
+        final List<DiffHunk.Builder> hunks = new ArrayList<>();
+        int headerStart = -1;
+        int headerEnd = -1;
+        int additions;
+        int deletions;
+        boolean binary;
+
+        DiffFile build(String path, DiffContentSource source) {
+            DiffFile.Builder file = builder
+                    .path(path)
+                    .source(source)
+                    .header(headerStart, Math.max(0, headerEnd - headerStart))
+                    .additions(additions)
+                    .deletions(deletions)
+                    .binary(binary);
+            for (DiffHunk.Builder hunk : hunks) {
+                file.addHunk(hunk.source(source).build());
+            }
+            return file.build();
+        }
+    }
+
+    private static final class HunkState {
+        final int start;
+        final DiffHunk.Builder builder;
+        int oldLine;
+        int newLine;
+        int remainingOld;
+        int remainingNew;
+
+        HunkState(int start, int oldStart, int oldCount, int newStart, int newCount) {
+            this.start = start;
+            this.builder = DiffHunk.builder()
+                    .oldRange(oldStart, oldCount)
+                    .newRange(newStart, newCount);
+            // "-0,0" / "+0,0" denote an empty side; the first real line is 1
+            this.oldLine = Math.max(1, oldStart);
+            this.newLine = Math.max(1, newStart);
+            this.remainingOld = oldCount;
+            this.remainingNew = newCount;
+        }
+    }
+
+    static final class DiffTooLargeException extends IllegalStateException {
+        final long actualBytes;
+        final long maxBytes;
+
+        DiffTooLargeException(long actualBytes, long maxBytes) {
+            super(String.format(Locale.ENGLISH,
+                    "Diff size %,.2f MB exceeds limit of %,.2f MB",
+                    actualBytes / (1024.0 * 1024.0),
+                    maxBytes / (1024.0 * 1024.0)));
+            this.actualBytes = actualBytes;
+            this.maxBytes = maxBytes;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Incremental parser for the JSON document a model streams as chat tokens.
+ * <p>
+ * Tokens go through Jackson's non-blocking parser and are recorded as JSON events, so the document is
+ * parsed exactly once while it arrives. It is complete as soon as the top-level {@code issues} array
+ * closes (or the root object ends), which lets the caller stop reading the stream. Text before the
+ * first {@code '{'} (e.g. a code fence) is skipped; anything else the parser rejects marks it failed
+ * and the caller falls back to parsing {@link #getRawText()}.
+ */
+final class StreamingIssuesParser {
+
+    private static final String ISSUES_FIELD = "issues";
+
+    private final ObjectMapper mapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final TokenBuffer events;
+    private final StringBuilder raw = new StringBuilder();
+    private boolean started;
+    private int depth;
+    private boolean issuesField;
+    private boolean issuesOpen;
+    private boolean complete;
+    private boolean failed;
+
+    StreamingIssuesParser(@Nonnull ObjectMapper mapper) {
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+        try {
+            this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.events = new TokenBuffer(mapper, false);
+    }
+
+    /**
+     * Feeds the next content token.
+     *
+     * @return {@code true} once the document is complete; further tokens are ignored
+     */
+    boolean feed(@Nonnull String token) {
+        if (complete || token.isEmpty()) {
+            return complete;
+        }
+        raw.append(token);
+        if (failed) {
+            return false;
+        }
+        String text = token;
+        if (!started) {
+            int brace = token.indexOf('{');
+            if (brace < 0) {
+                return false;
+            }
+            started = true;
+            text = token.substring(brace);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            JsonToken event;
+            while ((event = parser.nextToken()) != null && event != JsonToken.NOT_AVAILABLE) {
+                events.copyCurrentEvent(parser);
+                if (onToken(event)) {
+                    complete = true;
+                    parser.close();
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            failed = true;
+        }
+        return false;
+    }
+
+    private boolean onToken(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                depth++;
+                issuesField = false;
+                return false;
+            case START_ARRAY:
+                depth++;
+                if (issuesField && depth == 2) {
+                    issuesOpen = true;
+                }
+                issuesField = false;
+                return false;
+            case END_ARRAY:
+                depth--;
+                if (issuesOpen && depth == 1) {
+                    // Close the root ourselves; anything the model writes after the issues is not needed.
+                    events.writeEndObject();
+                    return true;
+                }
+                return false;
+            case END_OBJECT:
+                depth--;
+                return depth == 0;
+            case FIELD_NAME:
+                issuesField = depth == 1 && ISSUES_FIELD.equals(parser.getCurrentName());
+                return false;
+            default:
+                issuesField = false;
+                return false;
+        }
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return every token fed so far, including text skipped before the document
+     */
+    @Nonnull
+    String getRawText() {
+        return raw.toString();
+    }
+
+    int getRawLength() {
+        return raw.length();
+    }
+
+    /**
+     * Materialises the recorded events; only valid once {@link #isComplete()} is true.
+     */
+    @Nonnull
+    Map<String, Object> result(@Nonnull TypeReference<Map<String, Object>> type) throws IOException {
+        if (!complete) {
+            throw new IllegalStateException("Document not complete");
+        }
+        try (JsonParser replay = events.asParser(mapper)) {
+            return mapper.readValue(replay, type);
+        }
+    }
+}
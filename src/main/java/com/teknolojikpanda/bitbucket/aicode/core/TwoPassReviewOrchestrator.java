@@ -9,6 +9,7 @@ import com.teknolojikpanda.bitbucket.aicode.api.ReviewOrchestrator;
 import com.teknolojikpanda.bitbucket.aicode.model.ChunkReviewResult;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewPreparation;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewSummary;
 import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
@@ -21,12 +22,11 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -39,10 +39,16 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
     private static final Logger log = LoggerFactory.getLogger(TwoPassReviewOrchestrator.class);
 
     private final AiReviewClient aiClient;
+    private final ChunkResultCache chunkResultCache;
+    private final ChunkExecutionEngine executionEngine;
 
     @Inject
-    public TwoPassReviewOrchestrator(AiReviewClient aiClient) {
+    public TwoPassReviewOrchestrator(AiReviewClient aiClient,
+                                     ChunkResultCache chunkResultCache,
+                                     ChunkExecutionEngine executionEngine) {
         this.aiClient = Objects.requireNonNull(aiClient, "aiClient");
+        this.chunkResultCache = Objects.requireNonNull(chunkResultCache, "chunkResultCache");
+        this.executionEngine = Objects.requireNonNull(executionEngine, "executionEngine");
     }
 
     @Nonnull
@@ -65,33 +71,41 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
         metrics.recordEnd("ai.overview", overviewStart);
 
         int totalChunks = preparation.getChunks().size();
-        int parallelism = Math.max(1, Math.min(
-                preparation.getContext().getConfig().getParallelThreads(),
-                totalChunks));
+        ReviewConfig config = preparation.getContext().getConfig();
+        int parallelism = Math.max(1, Math.min(config.getParallelThreads(), totalChunks));
         if (log.isInfoEnabled()) {
             log.info("Starting AI review with {} chunk(s) (parallelism = {})", totalChunks, parallelism);
         }
-        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        // Chunks run on the node-wide engine, which shares its in-flight limit fairly between reviews.
+        ChunkExecutionEngine.Batch batch = executionEngine.open(
+                "PR #" + preparation.getContext().getPullRequest().getId(),
+                parallelism);
 
-        List<Future<ChunkReviewResult>> futures = new ArrayList<>();
+        // Riskiest chunks go first so their findings arrive before a deadline or a newer push cancels the review;
+        // results are still collected in planned order.
+        List<Integer> dispatchOrder = ChunkRiskScorer.dispatchOrder(
+                preparation.getChunks(), preparation.getContext().getFileMetadata());
+        metrics.recordMetric("ai.chunk.firstDispatched", preparation.getChunks().get(dispatchOrder.get(0)).getId());
+        List<Future<ChunkReviewResult>> futures = new ArrayList<>(Collections.nCopies(totalChunks, null));
         try {
-            for (int i = 0; i < preparation.getChunks().size(); i++) {
-                final int index = i;
-                futures.add(executor.submit(new ChunkTask(index, totalChunks, preparation, overview, metrics, chunkListener)));
+            for (int index : dispatchOrder) {
+                futures.set(index, batch.submit(new ChunkTask(index, totalChunks, preparation, overview, metrics, chunkListener)));
             }
 
             List<ReviewFinding> findings = new ArrayList<>();
+            List<ReviewChunk> reviewedChunks = new ArrayList<>();
             EnumMap<SeverityLevel, Integer> counts = new EnumMap<>(SeverityLevel.class);
 
-            for (Future<ChunkReviewResult> future : futures) {
+            for (int i = 0; i < totalChunks; i++) {
                 ChunkReviewResult result;
                 try {
-                    result = future.get();
+                    result = futures.get(i).get();
                 } catch (InterruptedException ie) {
                     Thread.currentThread().interrupt();
                     throw new ReviewCanceledException(null, "Review execution interrupted");
                 } catch (Exception e) {
                     log.error("Chunk execution failed: {}", e.getMessage(), e);
+                    metrics.increment("chunks.failed");
                     continue;
                 }
 
@@ -100,6 +114,7 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
                     continue;
                 }
 
+                reviewedChunks.add(preparation.getChunks().get(i));
                 findings.addAll(result.getFindings());
                 for (ReviewFinding finding : result.getFindings()) {
                     counts.merge(finding.getSeverity(), 1, Integer::sum);
@@ -108,11 +123,14 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
 
             ReviewSummary.Builder builder = ReviewSummary.builder()
                     .findings(findings)
+                    .reviewedChunks(reviewedChunks)
                     .truncated(preparation.isTruncated());
             counts.forEach(builder::addCount);
             return builder.build();
         } finally {
-            executor.shutdownNow();
+            batch.close();
+            metrics.recordMetric("ai.chunk.queue.waitMs", batch.getTotalWaitMs());
+            metrics.recordMetric("ai.chunk.queue.maxWaitMs", batch.getMaxWaitMs());
         }
     }
 
@@ -150,36 +168,32 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
                         total,
                         chunk.getId(),
                         chunk.getFiles().size(),
-                        chunk.getContent() != null ? chunk.getContent().length() : 0);
+                        chunk.getContentLength());
             }
             notifyChunkStarted(chunk);
             metrics.increment("chunks.started");
             Instant start = metrics.recordStart("ai.chunk." + index);
             boolean success = false;
             try {
-                ChunkReviewResult result = aiClient.reviewChunk(
-                        chunk,
-                        overview,
-                        preparation.getContext(),
-                        metrics);
+                ChunkReviewResult result = reviewOrReuse(chunk);
                 metrics.recordEnd("ai.chunk." + index, start);
-                if (log.isInfoEnabled()) {
-                    if (result.isSuccess()) {
-                        metrics.increment("chunks.succeeded");
+                if (result.isSuccess()) {
+                    metrics.increment("chunks.succeeded");
+                    success = true;
+                    if (log.isInfoEnabled()) {
                         log.info("Chunk {}/{} [{}] completed with {} finding(s)",
                                 index + 1,
                                 total,
                                 chunk.getId(),
                                 result.getFindings().size());
-                        success = true;
-                    } else {
-                        metrics.increment("chunks.failed");
-                        log.warn("Chunk {}/{} [{}] returned failure: {}",
-                                index + 1,
-                                total,
-                                chunk.getId(),
-                                result.getError());
                     }
+                } else {
+                    metrics.increment("chunks.failed");
+                    log.warn("Chunk {}/{} [{}] returned failure: {}",
+                            index + 1,
+                            total,
+                            chunk.getId(),
+                            result.getError());
                 }
                 return result;
             } catch (Exception ex) {
@@ -205,6 +219,31 @@ public class TwoPassReviewOrchestrator implements ReviewOrchestrator {
             }
         }
 
+        private ChunkReviewResult reviewOrReuse(ReviewChunk chunk) {
+            ReviewConfig config = preparation.getContext().getConfig();
+            String cacheKey = config.isChunkResultCacheEnabled() ? chunkResultCache.buildKey(chunk, config) : null;
+            if (cacheKey != null) {
+                List<ReviewFinding> cached = chunkResultCache.get(cacheKey, metrics);
+                if (cached != null) {
+                    log.debug("Chunk {} reused {} cached finding(s)", chunk.getId(), cached.size());
+                    return ChunkReviewResult.builder()
+                            .chunk(chunk)
+                            .findings(cached)
+                            .success(true)
+                            .build();
+                }
+            }
+            ChunkReviewResult result = aiClient.reviewChunk(
+                    chunk,
+                    overview,
+                    preparation.getContext(),
+                    metrics);
+            if (cacheKey != null && result.isSuccess()) {
+                chunkResultCache.put(cacheKey, config.getPrimaryModel(), result.getFindings());
+            }
+            return result;
+        }
+
         private void notifyChunkStarted(ReviewChunk chunk) {
             if (chunkListener == null) {
                 return;
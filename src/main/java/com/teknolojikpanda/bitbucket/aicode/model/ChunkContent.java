@@ -0,0 +1,147 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Text of a {@link ReviewChunk} described as literal fragments and views over a
+ * {@link DiffContentSource}. Nothing is decoded until {@link #materialize()} is called, so planned
+ * chunks do not hold a second copy of the diff while they wait to be sent to the model.
+ */
+public final class ChunkContent {
+
+    private static final ChunkContent EMPTY = new ChunkContent(Collections.emptyList(), 0);
+
+    private final List<Segment> segments;
+    private final int length;
+
+    private ChunkContent(List<Segment> segments, int length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    @Nonnull
+    public static ChunkContent empty() {
+        return EMPTY;
+    }
+
+    @Nonnull
+    public static ChunkContent of(@Nonnull String text) {
+        Objects.requireNonNull(text, "text");
+        return text.isEmpty() ? EMPTY : builder().append(text).build();
+    }
+
+    /**
+     * @return number of chars {@link #materialize()} returns
+     */
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Decodes the content; each call produces a fresh string.
+     */
+    @Nonnull
+    public String materialize() {
+        if (segments.size() == 1 && segments.get(0).text != null) {
+            return segments.get(0).text;
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (Segment segment : segments) {
+            builder.append(segment.text != null
+                    ? segment.text
+                    : segment.source.read(segment.offset, segment.byteLength));
+        }
+        return builder.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static final class Segment {
+        final String text;
+        final DiffContentSource source;
+        final long offset;
+        final int byteLength;
+
+        Segment(String text, DiffContentSource source, long offset, int byteLength) {
+            this.text = text;
+            this.source = source;
+            this.offset = offset;
+            this.byteLength = byteLength;
+        }
+    }
+
+    public static final class Builder {
+        private final List<Segment> segments = new ArrayList<>();
+        private int length;
+
+        public Builder append(@Nonnull String text) {
+            Objects.requireNonNull(text, "text");
+            if (!text.isEmpty()) {
+                segments.add(new Segment(text, null, 0, 0));
+                length += text.length();
+            }
+            return this;
+        }
+
+        /**
+         * Appends a view; views continuing the previous one on the same source are merged.
+         *
+         * @param charLength decoded length of the range, see {@link DiffContentSource#charLength(long, int)}
+         */
+        public Builder append(@Nonnull DiffContentSource source, long offset, int byteLength, int charLength) {
+            Objects.requireNonNull(source, "source");
+            if (byteLength <= 0) {
+                return this;
+            }
+            int last = segments.size() - 1;
+            if (last >= 0) {
+                Segment previous = segments.get(last);
+                if (previous.source == source && previous.offset + previous.byteLength == offset) {
+                    segments.set(last, new Segment(null, source, previous.offset, previous.byteLength + byteLength));
+                    length += charLength;
+                    return this;
+                }
+            }
+            segments.add(new Segment(null, source, offset, byteLength));
+            length += charLength;
+            return this;
+        }
+
+        public Builder append(@Nonnull ChunkContent content) {
+            Objects.requireNonNull(content, "content");
+            for (Segment segment : content.segments) {
+                if (segment.text != null) {
+                    append(segment.text);
+                } else {
+                    int chars = segment.source.charLength(segment.offset, segment.byteLength);
+                    append(segment.source, segment.offset, segment.byteLength, chars);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return chars appended so far
+         */
+        public int length() {
+            return length;
+        }
+
+        public ChunkContent build() {
+            if (segments.isEmpty()) {
+                return EMPTY;
+            }
+            return new ChunkContent(Collections.unmodifiableList(new ArrayList<>(segments)), length);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * How the chunk planner packs hunks into chunks. Selected with the {@code chunkStrategy} setting.
+ */
+public enum ChunkStrategyType {
+    /** Single greedy pass in file order; a chunk closes as soon as the next hunk overflows it. */
+    SIZE_FIRST("size-first"),
+    /** First-fit-decreasing bin packing, which fills chunks more evenly and produces fewer of them. */
+    BIN_PACKING("bin-packing");
+
+    public static final ChunkStrategyType DEFAULT = SIZE_FIRST;
+
+    private final String configValue;
+
+    ChunkStrategyType(String configValue) {
+        this.configValue = configValue;
+    }
+
+    @Nonnull
+    public String toConfigValue() {
+        return configValue;
+    }
+
+    /**
+     * @return the strategy for the given setting, or {@code null} if the value is not recognised
+     */
+    @Nullable
+    public static ChunkStrategyType parse(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.toString().trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (ChunkStrategyType type : values()) {
+            if (type.configValue.equals(normalized)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    public static ChunkStrategyType fromConfig(@Nullable Object value) {
+        ChunkStrategyType type = parse(value);
+        return type != null ? type : DEFAULT;
+    }
+}
@@ -0,0 +1,50 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Backing store for the raw diff bytes referenced by {@link DiffModel} views.
+ * <p>
+ * Files and hunks only keep offsets into the source; text is decoded on demand. Sources are either
+ * heap backed or, for very large diffs, a memory-mapped spill file.
+ */
+public interface DiffContentSource {
+
+    /**
+     * @return number of bytes held by the source
+     */
+    long size();
+
+    /**
+     * Decodes {@code length} bytes starting at {@code offset} as UTF-8.
+     */
+    @Nonnull
+    String read(long offset, int length);
+
+    /**
+     * @return the raw byte at {@code offset}
+     */
+    byte byteAt(long offset);
+
+    /**
+     * Number of UTF-16 chars {@link #read(long, int)} would return for the same range, computed without
+     * decoding.
+     */
+    int charLength(long offset, int length);
+
+    /**
+     * @return {@code true} when the bytes live outside the heap
+     */
+    boolean isSpilled();
+
+    /**
+     * Counts UTF-16 units for well-formed UTF-8: every non-continuation byte starts one char and
+     * four-byte sequences need a surrogate pair.
+     */
+    static int utf16Length(byte b) {
+        if ((b & 0xC0) == 0x80) {
+            return 0;
+        }
+        return (b & 0xF8) == 0xF0 ? 2 : 1;
+    }
+}
@@ -0,0 +1,211 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Per-file slice of a {@link DiffModel}: the extended header plus its hunks, with addition/deletion
+ * counts derived from the hunk bodies.
+ */
+public final class DiffFile {
+
+    private final String path;
+    private final DiffContentSource source;
+    private final long headerOffset;
+    private final int headerLength;
+    private final long[] ranges;
+    private final List<DiffHunk> hunks;
+    private final int additions;
+    private final int deletions;
+    private final boolean binary;
+
+    private DiffFile(Builder builder) {
+        this.path = Objects.requireNonNull(builder.path, "path");
+        this.source = Objects.requireNonNull(builder.source, "source");
+        this.headerOffset = builder.headerOffset;
+        this.headerLength = builder.headerLength;
+        this.ranges = Arrays.copyOf(builder.ranges, builder.rangeCount * 2);
+        this.hunks = Collections.unmodifiableList(new ArrayList<>(builder.hunks));
+        this.additions = builder.additions;
+        this.deletions = builder.deletions;
+        this.binary = builder.binary;
+    }
+
+    @Nonnull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the {@code diff --git} line and extended header lines preceding the first hunk
+     */
+    @Nonnull
+    public String getHeader() {
+        return source.read(headerOffset, headerLength);
+    }
+
+    public long getHeaderOffset() {
+        return headerOffset;
+    }
+
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    @Nonnull
+    public DiffContentSource getSource() {
+        return source;
+    }
+
+    /**
+     * @return the complete per-file diff text, header included
+     */
+    @Nonnull
+    public String getContent() {
+        int count = ranges.length / 2;
+        if (count == 1) {
+            return source.read(ranges[0], (int) (ranges[1] - ranges[0]));
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(source.read(ranges[i * 2], (int) (ranges[i * 2 + 1] - ranges[i * 2])));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return encoded size of the per-file diff in bytes
+     */
+    public long getContentLength() {
+        long total = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            total += ranges[i + 1] - ranges[i];
+        }
+        return total;
+    }
+
+    @Nonnull
+    public List<DiffHunk> getHunks() {
+        return hunks;
+    }
+
+    public int getAdditions() {
+        return additions;
+    }
+
+    public int getDeletions() {
+        return deletions;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    @Nonnull
+    public ReviewOverview.FileStats toFileStats() {
+        return new ReviewOverview.FileStats(additions, deletions, binary);
+    }
+
+    /**
+     * Resolves whether a destination line is visible in the diff.
+     *
+     * @return {@link DiffLineSpan.Type#ADDED}, {@link DiffLineSpan.Type#CONTEXT} or {@code null}
+     */
+    public DiffLineSpan.Type newLineType(int newLine) {
+        int low = 0;
+        int high = hunks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            DiffHunk hunk = hunks.get(mid);
+            if (newLine < hunk.getNewStart()) {
+                high = mid - 1;
+            } else if (newLine >= hunk.getNewStart() + Math.max(hunk.getNewCount(), 1)) {
+                low = mid + 1;
+            } else {
+                return hunk.newLineType(newLine);
+            }
+        }
+        return null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private String path;
+        private DiffContentSource source;
+        private long headerOffset;
+        private int headerLength;
+        private long[] ranges = new long[2];
+        private int rangeCount;
+        private final List<DiffHunk> hunks = new ArrayList<>();
+        private int additions;
+        private int deletions;
+        private boolean binary;
+
+        public Builder path(@Nonnull String value) {
+            this.path = Objects.requireNonNull(value, "path");
+            return this;
+        }
+
+        public Builder source(@Nonnull DiffContentSource value) {
+            this.source = Objects.requireNonNull(value, "source");
+            return this;
+        }
+
+        public Builder header(long offset, int length) {
+            this.headerOffset = offset;
+            this.headerLength = length;
+            return this;
+        }
+
+        /**
+         * Adds a byte range {@code [start, end)} of the file's diff text; adjacent ranges are merged.
+         */
+        public Builder addRange(long start, long end) {
+            if (end <= start) {
+                return this;
+            }
+            if (rangeCount > 0 && ranges[rangeCount * 2 - 1] == start) {
+                ranges[rangeCount * 2 - 1] = end;
+                return this;
+            }
+            if (rangeCount * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[rangeCount * 2] = start;
+            ranges[rangeCount * 2 + 1] = end;
+            rangeCount++;
+            return this;
+        }
+
+        public Builder addHunk(@Nonnull DiffHunk hunk) {
+            hunks.add(Objects.requireNonNull(hunk, "hunk"));
+            return this;
+        }
+
+        public Builder additions(int value) {
+            this.additions = value;
+            return this;
+        }
+
+        public Builder deletions(int value) {
+            this.deletions = value;
+            return this;
+        }
+
+        public Builder binary(boolean value) {
+            this.binary = value;
+            return this;
+        }
+
+        public DiffFile build() {
+            return new DiffFile(this);
+        }
+    }
+}
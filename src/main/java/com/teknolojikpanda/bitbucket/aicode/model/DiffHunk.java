@@ -0,0 +1,242 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Single {@code @@ -a,b +c,d @@} hunk of a {@link DiffFile}.
+ * <p>
+ * Content (header line included) is a view over the shared {@link DiffContentSource}; line spans are
+ * stored packed and only materialised when {@link #getLineSpans()} is called.
+ */
+public final class DiffHunk {
+
+    private static final int SPAN_WIDTH = 4;
+    private static final DiffLineSpan.Type[] TYPES = DiffLineSpan.Type.values();
+
+    private final DiffContentSource source;
+    private final long offset;
+    private final int length;
+    private final int oldStart;
+    private final int oldCount;
+    private final int newStart;
+    private final int newCount;
+    private final int[] spans;
+    private final int spanCount;
+    private volatile int charLength = -1;
+
+    private DiffHunk(Builder builder) {
+        this.source = Objects.requireNonNull(builder.source, "source");
+        this.offset = builder.offset;
+        this.length = builder.length;
+        this.oldStart = builder.oldStart;
+        this.oldCount = builder.oldCount;
+        this.newStart = builder.newStart;
+        this.newCount = builder.newCount;
+        this.spans = Arrays.copyOf(builder.spans, builder.spanCount * SPAN_WIDTH);
+        this.spanCount = builder.spanCount;
+    }
+
+    public int getOldStart() {
+        return oldStart;
+    }
+
+    public int getOldCount() {
+        return oldCount;
+    }
+
+    public int getNewStart() {
+        return newStart;
+    }
+
+    public int getNewCount() {
+        return newCount;
+    }
+
+    /**
+     * @return byte offset of the hunk header within the backing source
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return encoded size of the hunk in bytes, header line included
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the hunk text starting with its {@code @@} header line
+     */
+    @Nonnull
+    public String getContent() {
+        return source.read(offset, length);
+    }
+
+    /**
+     * @return {@code getContent().length()}, computed from the raw bytes without decoding them
+     */
+    public int getCharLength() {
+        int cached = charLength;
+        if (cached < 0) {
+            cached = source.charLength(offset, length);
+            charLength = cached;
+        }
+        return cached;
+    }
+
+    public boolean endsWithNewline() {
+        return length > 0 && source.byteAt(offset + length - 1) == '\n';
+    }
+
+    @Nonnull
+    public DiffContentSource getSource() {
+        return source;
+    }
+
+    /**
+     * Destination line range covered by the hunk, clamped to a valid 1-based range so pure deletions
+     * still map to the line they precede.
+     */
+    @Nonnull
+    public LineRange getNewRange() {
+        int start = Math.max(1, newStart);
+        int end = Math.max(start, start + Math.max(newCount - 1, 0));
+        return LineRange.of(start, end);
+    }
+
+    public int getSpanCount() {
+        return spanCount;
+    }
+
+    @Nonnull
+    public List<DiffLineSpan> getLineSpans() {
+        if (spanCount == 0) {
+            return Collections.emptyList();
+        }
+        List<DiffLineSpan> result = new ArrayList<>(spanCount);
+        for (int i = 0; i < spanCount; i++) {
+            result.add(spanAt(i));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    @Nonnull
+    public DiffLineSpan spanAt(int index) {
+        if (index < 0 || index >= spanCount) {
+            throw new IndexOutOfBoundsException("span " + index + " of " + spanCount);
+        }
+        int base = index * SPAN_WIDTH;
+        return DiffLineSpan.of(TYPES[spans[base]], spans[base + 1], spans[base + 2], spans[base + 3]);
+    }
+
+    /**
+     * Resolves the type of a destination line without materialising spans.
+     *
+     * @return {@code null} when the line is not part of this hunk's new side
+     */
+    public DiffLineSpan.Type newLineType(int newLine) {
+        for (int i = 0; i < spanCount; i++) {
+            int base = i * SPAN_WIDTH;
+            DiffLineSpan.Type type = TYPES[spans[base]];
+            if (type == DiffLineSpan.Type.REMOVED) {
+                continue;
+            }
+            int start = spans[base + 2];
+            if (newLine < start) {
+                return null;
+            }
+            if (newLine < start + spans[base + 3]) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private DiffContentSource source;
+        private long offset;
+        private int length;
+        private int oldStart;
+        private int oldCount;
+        private int newStart;
+        private int newCount;
+        private int[] spans = new int[SPAN_WIDTH * 4];
+        private int spanCount;
+
+        public Builder source(@Nonnull DiffContentSource value) {
+            this.source = Objects.requireNonNull(value, "source");
+            return this;
+        }
+
+        public Builder offset(long value) {
+            this.offset = value;
+            return this;
+        }
+
+        public Builder length(int value) {
+            this.length = value;
+            return this;
+        }
+
+        public Builder oldRange(int start, int count) {
+            this.oldStart = start;
+            this.oldCount = count;
+            return this;
+        }
+
+        public Builder newRange(int start, int count) {
+            this.newStart = start;
+            this.newCount = count;
+            return this;
+        }
+
+        /**
+         * Appends a span; a span continuing the previous one with the same type is merged into it.
+         */
+        public Builder span(@Nonnull DiffLineSpan.Type type, int spanOldStart, int spanNewStart, int spanLength) {
+            Objects.requireNonNull(type, "type");
+            if (spanLength <= 0) {
+                return this;
+            }
+            if (spanCount > 0) {
+                int last = (spanCount - 1) * SPAN_WIDTH;
+                int lastLength = spans[last + 3];
+                if (spans[last] == type.ordinal()
+                        && advance(type, DiffLineSpan.Type.ADDED, spans[last + 1], lastLength) == spanOldStart
+                        && advance(type, DiffLineSpan.Type.REMOVED, spans[last + 2], lastLength) == spanNewStart) {
+                    spans[last + 3] = lastLength + spanLength;
+                    return this;
+                }
+            }
+            if ((spanCount + 1) * SPAN_WIDTH > spans.length) {
+                spans = Arrays.copyOf(spans, spans.length * 2);
+            }
+            int base = spanCount * SPAN_WIDTH;
+            spans[base] = type.ordinal();
+            spans[base + 1] = spanOldStart;
+            spans[base + 2] = spanNewStart;
+            spans[base + 3] = spanLength;
+            spanCount++;
+            return this;
+        }
+
+        private static int advance(DiffLineSpan.Type type, DiffLineSpan.Type stationary, int start, int length) {
+            return type == stationary ? start : start + length;
+        }
+
+        public DiffHunk build() {
+            return new DiffHunk(this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Run of consecutive hunk lines sharing the same {@link Type}.
+ * <p>
+ * {@code oldStart}/{@code newStart} are the 1-based source and destination line counters at the first
+ * line of the span. Only the sides a span touches advance: added lines keep {@code oldStart} fixed and
+ * removed lines keep {@code newStart} fixed.
+ */
+public final class DiffLineSpan {
+
+    public enum Type {
+        CONTEXT,
+        ADDED,
+        REMOVED
+    }
+
+    private final Type type;
+    private final int oldStart;
+    private final int newStart;
+    private final int length;
+
+    private DiffLineSpan(Type type, int oldStart, int newStart, int length) {
+        this.type = Objects.requireNonNull(type, "type");
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be >= 1");
+        }
+        this.oldStart = oldStart;
+        this.newStart = newStart;
+        this.length = length;
+    }
+
+    public static DiffLineSpan of(@Nonnull Type type, int oldStart, int newStart, int length) {
+        return new DiffLineSpan(type, oldStart, newStart, length);
+    }
+
+    @Nonnull
+    public Type getType() {
+        return type;
+    }
+
+    public int getOldStart() {
+        return oldStart;
+    }
+
+    public int getNewStart() {
+        return newStart;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return {@code true} when the span contributes lines to the destination file
+     */
+    public boolean isNewSide() {
+        return type != Type.REMOVED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiffLineSpan)) return false;
+        DiffLineSpan that = (DiffLineSpan) o;
+        return oldStart == that.oldStart && newStart == that.newStart
+                && length == that.length && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, oldStart, newStart, length);
+    }
+
+    @Override
+    public String toString() {
+        return type + "[-" + oldStart + " +" + newStart + " x" + length + "]";
+    }
+}
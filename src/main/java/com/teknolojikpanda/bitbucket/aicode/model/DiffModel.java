@@ -0,0 +1,133 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable structured view of a unified diff (files, hunks and line spans), built once while the
+ * diff is streamed so the planner and the comment validator do not re-parse the text.
+ */
+public final class DiffModel {
+
+    private static final DiffModel EMPTY = builder().source(InMemoryDiffContentSource.empty()).build();
+
+    private final DiffContentSource source;
+    private final Map<String, DiffFile> files;
+    private final List<DiffFile> fileList;
+    private final long totalBytes;
+    private final int totalLines;
+
+    private DiffModel(Builder builder) {
+        this.source = Objects.requireNonNull(builder.source, "source");
+        this.files = Collections.unmodifiableMap(new LinkedHashMap<>(builder.files));
+        this.fileList = Collections.unmodifiableList(new ArrayList<>(builder.files.values()));
+        this.totalBytes = builder.totalBytes;
+        this.totalLines = builder.totalLines;
+    }
+
+    @Nonnull
+    public static DiffModel empty() {
+        return EMPTY;
+    }
+
+    @Nonnull
+    public DiffContentSource getSource() {
+        return source;
+    }
+
+    /**
+     * @return files in diff order
+     */
+    @Nonnull
+    public List<DiffFile> getFiles() {
+        return fileList;
+    }
+
+    @Nullable
+    public DiffFile getFile(@Nullable String path) {
+        return path == null ? null : files.get(path);
+    }
+
+    @Nonnull
+    public Map<String, DiffFile> getFilesByPath() {
+        return files;
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    /**
+     * @return per-file statistics in diff order
+     */
+    @Nonnull
+    public Map<String, ReviewOverview.FileStats> toFileStats() {
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        files.forEach((path, file) -> stats.put(path, file.toFileStats()));
+        return stats;
+    }
+
+    /**
+     * @return per-file diff text in diff order
+     */
+    @Nonnull
+    public Map<String, String> toFileDiffs() {
+        Map<String, String> diffs = new LinkedHashMap<>();
+        files.forEach((path, file) -> diffs.put(path, file.getContent()));
+        return diffs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private DiffContentSource source;
+        private final Map<String, DiffFile> files = new LinkedHashMap<>();
+        private long totalBytes;
+        private int totalLines;
+
+        public Builder source(@Nonnull DiffContentSource value) {
+            this.source = Objects.requireNonNull(value, "source");
+            return this;
+        }
+
+        public Builder addFile(@Nonnull DiffFile file) {
+            Objects.requireNonNull(file, "file");
+            files.put(file.getPath(), file);
+            return this;
+        }
+
+        public Builder totalBytes(long value) {
+            this.totalBytes = value;
+            return this;
+        }
+
+        public Builder totalLines(int value) {
+            this.totalLines = value;
+            return this;
+        }
+
+        public DiffModel build() {
+            return new DiffModel(this);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * {@link DiffContentSource} over a heap byte array. The array is shared, not copied, so callers
+ * must not modify it after handing it over.
+ */
+public final class InMemoryDiffContentSource implements DiffContentSource {
+
+    private static final InMemoryDiffContentSource EMPTY = new InMemoryDiffContentSource(new byte[0], 0);
+
+    private final byte[] data;
+    private final int length;
+
+    public InMemoryDiffContentSource(@Nonnull byte[] data, int length) {
+        this.data = Objects.requireNonNull(data, "data");
+        if (length < 0 || length > data.length) {
+            throw new IllegalArgumentException("length must be within [0, " + data.length + "]");
+        }
+        this.length = length;
+    }
+
+    @Nonnull
+    public static InMemoryDiffContentSource empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public long size() {
+        return length;
+    }
+
+    @Nonnull
+    @Override
+    public String read(long offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + count + ", size=" + length);
+        }
+        if (count == 0) {
+            return "";
+        }
+        return new String(data, (int) offset, count, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte byteAt(long offset) {
+        if (offset < 0 || offset >= length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", size=" + length);
+        }
+        return data[(int) offset];
+    }
+
+    @Override
+    public int charLength(long offset, int count) {
+        if (offset < 0 || count < 0 || offset + count > length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + count + ", size=" + length);
+        }
+        int chars = 0;
+        int end = (int) offset + count;
+        for (int i = (int) offset; i < end; i++) {
+            chars += DiffContentSource.utf16Length(data[i]);
+        }
+        return chars;
+    }
+
+    @Override
+    public boolean isSpilled() {
+        return false;
+    }
+}
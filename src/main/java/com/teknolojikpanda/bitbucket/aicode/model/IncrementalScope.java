@@ -0,0 +1,234 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Lines changed since the previously reviewed head of a pull request.
+ * <p>
+ * Built from the zero-context interdiff between the last reviewed source commit and the current one. Both the
+ * interdiff and the full pull request diff describe the current head on their new side, so touched ranges can
+ * be compared directly with {@link ReviewChunk#getPrimaryRanges()}. The old side describes the previously
+ * reviewed head and is used to shift earlier findings onto current line numbers.
+ */
+public final class IncrementalScope {
+
+    private final String sinceCommit;
+    private final Map<String, List<Edit>> editsByPath;
+
+    private IncrementalScope(String sinceCommit, Map<String, List<Edit>> editsByPath) {
+        this.sinceCommit = sinceCommit;
+        this.editsByPath = editsByPath;
+    }
+
+    @Nonnull
+    public static IncrementalScope fromInterdiff(@Nonnull String sinceCommit, @Nonnull DiffModel interdiff) {
+        Objects.requireNonNull(sinceCommit, "sinceCommit");
+        Objects.requireNonNull(interdiff, "interdiff");
+        Map<String, List<Edit>> edits = new LinkedHashMap<>();
+        for (DiffFile file : interdiff.getFiles()) {
+            List<Edit> fileEdits = new ArrayList<>(file.getHunks().size());
+            for (DiffHunk hunk : file.getHunks()) {
+                fileEdits.add(new Edit(hunk.getOldStart(), hunk.getOldCount(), hunk.getNewStart(), hunk.getNewCount()));
+            }
+            edits.put(file.getPath(), Collections.unmodifiableList(fileEdits));
+        }
+        return new IncrementalScope(sinceCommit, Collections.unmodifiableMap(edits));
+    }
+
+    @Nonnull
+    public String getSinceCommit() {
+        return sinceCommit;
+    }
+
+    @Nonnull
+    public Set<String> getTouchedFiles() {
+        return editsByPath.keySet();
+    }
+
+    public boolean touchesFile(@Nullable String path) {
+        return path != null && editsByPath.containsKey(path);
+    }
+
+    /**
+     * @return {@code true} when any edit since the reviewed commit falls inside {@code range} of the current head
+     */
+    public boolean touches(@Nonnull String path, @Nonnull LineRange range) {
+        List<Edit> edits = editsByPath.get(path);
+        if (edits == null) {
+            return false;
+        }
+        // Binary files, renames and mode changes carry no hunks but still count as a change to the file.
+        if (edits.isEmpty()) {
+            return true;
+        }
+        for (Edit edit : edits) {
+            if (edit.newFirst() <= range.getEnd() && edit.newLast() >= range.getStart()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} when the chunk covers at least one touched line and therefore needs a fresh review
+     */
+    public boolean intersects(@Nonnull ReviewChunk chunk) {
+        Map<String, List<LineRange>> primaryRanges = chunk.getPrimaryRanges();
+        for (String file : chunk.getFiles()) {
+            if (!touchesFile(file)) {
+                continue;
+            }
+            List<LineRange> ranges = primaryRanges.get(file);
+            if (ranges == null || ranges.isEmpty()) {
+                return true;
+            }
+            for (LineRange range : ranges) {
+                if (touches(file, range)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maps a line of the previously reviewed head onto the current head.
+     *
+     * @return the shifted line, or {@code null} when the line itself was modified or removed
+     */
+    @Nullable
+    public Integer mapLine(@Nonnull String path, int oldLine) {
+        List<Edit> edits = editsByPath.get(path);
+        if (edits == null) {
+            return oldLine;
+        }
+        int delta = 0;
+        for (Edit edit : edits) {
+            if (edit.oldCount == 0) {
+                // Pure insertion after oldStart.
+                if (oldLine <= edit.oldStart) {
+                    break;
+                }
+            } else {
+                if (oldLine < edit.oldStart) {
+                    break;
+                }
+                if (oldLine < edit.oldStart + edit.oldCount) {
+                    return null;
+                }
+            }
+            delta += edit.newCount - edit.oldCount;
+        }
+        return oldLine + delta;
+    }
+
+    /**
+     * Selects the previous findings that are still valid for the current head: the file is still part of the
+     * pull request, the finding's lines were not edited, and the region was not re-reviewed by one of
+     * {@code reviewedChunks}. Carried findings are re-anchored to current line numbers.
+     */
+    @Nonnull
+    public List<ReviewFinding> carryForward(@Nonnull Collection<ReviewFinding> previous,
+                                            @Nonnull Collection<ReviewChunk> reviewedChunks,
+                                            @Nonnull Set<String> currentFiles) {
+        Map<String, List<LineRange>> reviewed = new HashMap<>();
+        for (ReviewChunk chunk : reviewedChunks) {
+            for (String file : chunk.getFiles()) {
+                List<LineRange> ranges = chunk.getPrimaryRanges().get(file);
+                List<LineRange> target = reviewed.computeIfAbsent(file, ignored -> new ArrayList<>());
+                if (ranges == null || ranges.isEmpty()) {
+                    target.add(null);
+                } else {
+                    target.addAll(ranges);
+                }
+            }
+        }
+
+        List<ReviewFinding> carried = new ArrayList<>();
+        for (ReviewFinding finding : previous) {
+            String path = finding.getFilePath();
+            if (!currentFiles.contains(path)) {
+                continue;
+            }
+            LineRange range = finding.getLineRange();
+            LineRange mapped = null;
+            if (range != null) {
+                Integer start = mapLine(path, range.getStart());
+                Integer end = mapLine(path, range.getEnd());
+                if (start == null || end == null || end < start || start < 1) {
+                    continue;
+                }
+                if (touches(path, LineRange.of(start, end))) {
+                    continue;
+                }
+                mapped = LineRange.of(start, end);
+            } else if (touchesFile(path)) {
+                continue;
+            }
+            if (isReviewed(reviewed.get(path), mapped)) {
+                continue;
+            }
+            carried.add(ReviewFinding.builder()
+                    .filePath(path)
+                    .lineRange(mapped)
+                    .severity(finding.getSeverity())
+                    .category(finding.getCategory())
+                    .summary(finding.getSummary())
+                    .details(finding.getDetails())
+                    .fix(finding.getFix())
+                    .snippet(finding.getSnippet())
+                    .build());
+        }
+        return carried;
+    }
+
+    private static boolean isReviewed(@Nullable List<LineRange> reviewedRanges, @Nullable LineRange range) {
+        if (reviewedRanges == null) {
+            return false;
+        }
+        for (LineRange reviewed : reviewedRanges) {
+            if (reviewed == null || range == null) {
+                return true;
+            }
+            if (reviewed.getStart() <= range.getEnd() && reviewed.getEnd() >= range.getStart()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Edit {
+        private final int oldStart;
+        private final int oldCount;
+        private final int newStart;
+        private final int newCount;
+
+        private Edit(int oldStart, int oldCount, int newStart, int newCount) {
+            this.oldStart = oldStart;
+            this.oldCount = oldCount;
+            this.newStart = newStart;
+            this.newCount = newCount;
+        }
+
+        int newFirst() {
+            return newCount == 0 ? Math.max(1, newStart) : newStart;
+        }
+
+        /**
+         * A pure deletion has no new lines; treat the lines on either side of the gap as touched.
+         */
+        int newLast() {
+            return newCount == 0 ? newStart + 1 : newStart + newCount - 1;
+        }
+    }
+}
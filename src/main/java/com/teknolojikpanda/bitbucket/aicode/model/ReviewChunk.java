@@ -14,7 +14,7 @@ public final class ReviewChunk {
 
     private final String id;
     private final int index;
-    private final String content;
+    private final ChunkContent content;
     private final List<String> files;
     private final Map<String, List<LineRange>> primaryRanges;
 
@@ -38,9 +38,20 @@ public final class ReviewChunk {
         return index;
     }
 
+    /**
+     * Decodes the chunk text. Content planned from a {@link DiffModel} is a set of views over the diff
+     * source and is only materialised here, right before it is sent to the model.
+     */
     @Nonnull
     public String getContent() {
-        return content;
+        return content.materialize();
+    }
+
+    /**
+     * @return length of {@link #getContent()} without decoding it
+     */
+    public int getContentLength() {
+        return content.length();
     }
 
     @Nonnull
@@ -60,7 +71,7 @@ public final class ReviewChunk {
     public static final class Builder {
         private String id;
         private int index;
-        private String content = "";
+        private ChunkContent content = ChunkContent.empty();
         private List<String> files = new java.util.ArrayList<>();
         private Map<String, List<LineRange>> primaryRanges = new LinkedHashMap<>();
 
@@ -75,6 +86,11 @@ public final class ReviewChunk {
         }
 
         public Builder content(@Nonnull String content) {
+            this.content = ChunkContent.of(Objects.requireNonNull(content, "content"));
+            return this;
+        }
+
+        public Builder content(@Nonnull ChunkContent content) {
             this.content = Objects.requireNonNull(content, "content");
             return this;
         }
@@ -2,8 +2,11 @@ package com.teknolojikpanda.bitbucket.aicode.model;
 
 import javax.annotation.Nonnull;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -16,12 +19,30 @@ public final class ReviewConfig {
     private final String primaryModel;
     private final URI fallbackModelEndpoint;
     private final String fallbackModel;
+    private final List<URI> primaryModelEndpoints;
+    private final List<URI> fallbackModelEndpoints;
     private final int maxCharsPerChunk;
+    private final int modelContextTokens;
+    private final ChunkStrategyType chunkStrategy;
     private final int maxFilesPerChunk;
     private final int maxChunks;
     private final int parallelThreads;
     private final int requestTimeoutMs;
     private final int connectTimeoutMs;
+    private final int primaryModelMaxConnections;
+    private final int fallbackModelMaxConnections;
+    private final boolean streamResponses;
+    private final int maxResponseBytes;
+    private final int maxConcurrentModelRequests;
+    private final boolean chunkResultCacheEnabled;
+    private final boolean incrementalReReview;
+    private final boolean adaptiveModelConcurrency;
+    private final long hedgeDelayMs;
+    private final int hedgeBudgetPercent;
+    private final int modelRateLimitPerSecond;
+    private final Map<String, Integer> modelEndpointRateLimits;
+    private final int modelCircuitFailureThreshold;
+    private final int modelCircuitOpenSeconds;
     private final int chunkMaxRetries;
     private final int chunkRetryDelayMs;
     private final int overviewMaxRetries;
@@ -31,6 +52,7 @@ public final class ReviewConfig {
     private final List<String> ignorePatterns;
     private final List<String> ignorePaths;
     private final int maxDiffBytes;
+    private final int diffSpillThresholdBytes;
     private final ReviewProfile profile;
     private final PromptTemplates promptTemplates;
 
@@ -39,12 +61,34 @@ public final class ReviewConfig {
         this.primaryModel = builder.primaryModel;
         this.fallbackModelEndpoint = builder.fallbackModelEndpoint;
         this.fallbackModel = builder.fallbackModel;
+        this.primaryModelEndpoints = builder.primaryModelEndpoints.isEmpty()
+                ? Collections.singletonList(builder.primaryModelEndpoint)
+                : Collections.unmodifiableList(builder.primaryModelEndpoints);
+        this.fallbackModelEndpoints = builder.fallbackModelEndpoints.isEmpty()
+                ? Collections.singletonList(builder.fallbackModelEndpoint)
+                : Collections.unmodifiableList(builder.fallbackModelEndpoints);
         this.maxCharsPerChunk = builder.maxCharsPerChunk;
+        this.modelContextTokens = builder.modelContextTokens;
+        this.chunkStrategy = builder.chunkStrategy;
         this.maxFilesPerChunk = builder.maxFilesPerChunk;
         this.maxChunks = builder.maxChunks;
         this.parallelThreads = builder.parallelThreads;
         this.requestTimeoutMs = builder.requestTimeoutMs;
         this.connectTimeoutMs = builder.connectTimeoutMs;
+        this.primaryModelMaxConnections = builder.primaryModelMaxConnections;
+        this.fallbackModelMaxConnections = builder.fallbackModelMaxConnections;
+        this.streamResponses = builder.streamResponses;
+        this.maxResponseBytes = builder.maxResponseBytes;
+        this.maxConcurrentModelRequests = builder.maxConcurrentModelRequests;
+        this.chunkResultCacheEnabled = builder.chunkResultCacheEnabled;
+        this.incrementalReReview = builder.incrementalReReview;
+        this.adaptiveModelConcurrency = builder.adaptiveModelConcurrency;
+        this.hedgeDelayMs = builder.hedgeDelayMs;
+        this.hedgeBudgetPercent = builder.hedgeBudgetPercent;
+        this.modelRateLimitPerSecond = builder.modelRateLimitPerSecond;
+        this.modelEndpointRateLimits = Collections.unmodifiableMap(new LinkedHashMap<>(builder.modelEndpointRateLimits));
+        this.modelCircuitFailureThreshold = builder.modelCircuitFailureThreshold;
+        this.modelCircuitOpenSeconds = builder.modelCircuitOpenSeconds;
         this.chunkMaxRetries = builder.chunkMaxRetries;
         this.chunkRetryDelayMs = builder.chunkRetryDelayMs;
         this.overviewMaxRetries = builder.overviewMaxRetries;
@@ -54,6 +98,7 @@ public final class ReviewConfig {
         this.ignorePatterns = Collections.unmodifiableList(builder.ignorePatterns);
         this.ignorePaths = Collections.unmodifiableList(builder.ignorePaths);
         this.maxDiffBytes = builder.maxDiffBytes;
+        this.diffSpillThresholdBytes = builder.diffSpillThresholdBytes;
         this.profile = builder.profile;
         this.promptTemplates = builder.promptTemplates;
     }
@@ -78,10 +123,39 @@ public final class ReviewConfig {
         return fallbackModel;
     }
 
+    /**
+     * @return hosts serving the primary model; never empty, defaults to {@link #getPrimaryModelEndpoint()}
+     */
+    @Nonnull
+    public List<URI> getPrimaryModelEndpoints() {
+        return primaryModelEndpoints;
+    }
+
+    /**
+     * @return hosts serving the fallback model; never empty, defaults to {@link #getFallbackModelEndpoint()}
+     */
+    @Nonnull
+    public List<URI> getFallbackModelEndpoints() {
+        return fallbackModelEndpoints;
+    }
+
     public int getMaxCharsPerChunk() {
         return maxCharsPerChunk;
     }
 
+    /**
+     * @return context window in tokens to plan chunks for and request from the model, or {@code 0} to read it
+     * from the model endpoint
+     */
+    public int getModelContextTokens() {
+        return modelContextTokens;
+    }
+
+    @Nonnull
+    public ChunkStrategyType getChunkStrategy() {
+        return chunkStrategy;
+    }
+
     public int getMaxFilesPerChunk() {
         return maxFilesPerChunk;
     }
@@ -102,6 +176,114 @@ public final class ReviewConfig {
         return connectTimeoutMs;
     }
 
+    /**
+     * @return size of the persistent connection pool kept for the primary model endpoint
+     */
+    public int getPrimaryModelMaxConnections() {
+        return primaryModelMaxConnections;
+    }
+
+    /**
+     * @return size of the persistent connection pool kept for the fallback model endpoint
+     */
+    public int getFallbackModelMaxConnections() {
+        return fallbackModelMaxConnections;
+    }
+
+    /**
+     * @return whether chat calls consume the model's NDJSON stream instead of one buffered response
+     */
+    public boolean isStreamResponses() {
+        return streamResponses;
+    }
+
+    /**
+     * @return upper bound on the streamed response size before the call is cut off
+     */
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * @return node-wide cap on chunk model requests in flight across all running reviews
+     */
+    public int getMaxConcurrentModelRequests() {
+        return maxConcurrentModelRequests;
+    }
+
+    /**
+     * @return whether chunks with unchanged content reuse previously stored findings
+     */
+    public boolean isChunkResultCacheEnabled() {
+        return chunkResultCacheEnabled;
+    }
+
+    /**
+     * @return whether update reviews only re-review chunks touched since the previously reviewed commit
+     */
+    public boolean isIncrementalReReview() {
+        return incrementalReReview;
+    }
+
+    /**
+     * @return whether each model endpoint's concurrency adapts to its observed latency and overload signals
+     */
+    public boolean isAdaptiveModelConcurrency() {
+        return adaptiveModelConcurrency;
+    }
+
+    /**
+     * @return how long to wait on the primary model before hedging the chunk to the fallback model;
+     * {@code 0} disables hedging. Derived at review start from recent primary latencies.
+     */
+    public long getHedgeDelayMs() {
+        return hedgeDelayMs;
+    }
+
+    /**
+     * @return upper bound on hedged requests as a percentage of hedge-eligible chunk calls
+     */
+    public int getHedgeBudgetPercent() {
+        return hedgeBudgetPercent;
+    }
+
+    /**
+     * @return requests per second allowed for each endpoint and model pair without a per-endpoint override
+     */
+    public int getModelRateLimitPerSecond() {
+        return modelRateLimitPerSecond;
+    }
+
+    /**
+     * @return per-endpoint request rate overrides keyed by endpoint URL without trailing slash
+     */
+    @Nonnull
+    public Map<String, Integer> getModelEndpointRateLimits() {
+        return modelEndpointRateLimits;
+    }
+
+    /**
+     * @return requests per second allowed for {@code endpoint}, falling back to {@link #getModelRateLimitPerSecond()}
+     */
+    public int modelRateLimitPerSecond(@Nonnull String endpoint) {
+        Integer override = modelEndpointRateLimits.get(trimTrailingSlash(endpoint));
+        return override != null ? override : modelRateLimitPerSecond;
+    }
+
+    /**
+     * @return consecutive endpoint failures that open the circuit of an endpoint and model pair
+     */
+    public int getModelCircuitFailureThreshold() {
+        return modelCircuitFailureThreshold;
+    }
+
+    /**
+     * @return seconds an open endpoint circuit waits before letting a trial call through
+     */
+    public int getModelCircuitOpenSeconds() {
+        return modelCircuitOpenSeconds;
+    }
+
     public int getMaxRetries() {
         return getChunkMaxRetries();
     }
@@ -149,6 +331,14 @@ public final class ReviewConfig {
         return maxDiffBytes;
     }
 
+    /**
+     * @return diff size above which the streamed diff is kept in a temp file instead of the heap,
+     * {@code 0} to always stay in memory
+     */
+    public int getDiffSpillThresholdBytes() {
+        return diffSpillThresholdBytes;
+    }
+
     @Nonnull
     public ReviewProfile getProfile() {
         return profile;
@@ -163,17 +353,43 @@ public final class ReviewConfig {
         return new Builder();
     }
 
+    private static String trimTrailingSlash(String endpoint) {
+        String trimmed = endpoint.trim();
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
     public static final class Builder {
         private URI primaryModelEndpoint;
         private String primaryModel;
         private URI fallbackModelEndpoint;
         private String fallbackModel;
+        private List<URI> primaryModelEndpoints = Collections.emptyList();
+        private List<URI> fallbackModelEndpoints = Collections.emptyList();
         private int maxCharsPerChunk = 60_000;
+        private int modelContextTokens;
+        private ChunkStrategyType chunkStrategy = ChunkStrategyType.DEFAULT;
         private int maxFilesPerChunk = 3;
         private int maxChunks = 20;
         private int parallelThreads = 4;
         private int requestTimeoutMs = 300_000;
         private int connectTimeoutMs = 15_000;
+        private int primaryModelMaxConnections = 8;
+        private int fallbackModelMaxConnections = 4;
+        private boolean streamResponses = false;
+        private int maxResponseBytes = 2_000_000;
+        private int maxConcurrentModelRequests = 16;
+        private boolean chunkResultCacheEnabled = true;
+        private boolean incrementalReReview = false;
+        private boolean adaptiveModelConcurrency = true;
+        private long hedgeDelayMs;
+        private int hedgeBudgetPercent = 10;
+        private int modelRateLimitPerSecond = 10;
+        private Map<String, Integer> modelEndpointRateLimits = Collections.emptyMap();
+        private int modelCircuitFailureThreshold = 5;
+        private int modelCircuitOpenSeconds = 60;
         private int chunkMaxRetries = 3;
         private int chunkRetryDelayMs = 1_000;
         private int overviewMaxRetries = 2;
@@ -183,6 +399,7 @@ public final class ReviewConfig {
         private List<String> ignorePatterns = Collections.emptyList();
         private List<String> ignorePaths = Collections.emptyList();
         private int maxDiffBytes = 10_000_000;
+        private int diffSpillThresholdBytes;
         private ReviewProfile profile = ReviewProfile.builder().build();
         private PromptTemplates promptTemplates = PromptTemplates.loadDefaults();
 
@@ -206,11 +423,31 @@ public final class ReviewConfig {
             return this;
         }
 
+        public Builder primaryModelEndpoints(@Nonnull List<URI> values) {
+            this.primaryModelEndpoints = new ArrayList<>(Objects.requireNonNull(values, "values"));
+            return this;
+        }
+
+        public Builder fallbackModelEndpoints(@Nonnull List<URI> values) {
+            this.fallbackModelEndpoints = new ArrayList<>(Objects.requireNonNull(values, "values"));
+            return this;
+        }
+
         public Builder maxCharsPerChunk(int value) {
             this.maxCharsPerChunk = value;
             return this;
         }
 
+        public Builder modelContextTokens(int value) {
+            this.modelContextTokens = Math.max(0, value);
+            return this;
+        }
+
+        public Builder chunkStrategy(@Nonnull ChunkStrategyType value) {
+            this.chunkStrategy = Objects.requireNonNull(value, "chunkStrategy");
+            return this;
+        }
+
         public Builder maxFilesPerChunk(int value) {
             this.maxFilesPerChunk = value;
             return this;
@@ -236,6 +473,82 @@ public final class ReviewConfig {
             return this;
         }
 
+        public Builder primaryModelMaxConnections(int value) {
+            this.primaryModelMaxConnections = Math.max(1, value);
+            return this;
+        }
+
+        public Builder fallbackModelMaxConnections(int value) {
+            this.fallbackModelMaxConnections = Math.max(1, value);
+            return this;
+        }
+
+        public Builder streamResponses(boolean value) {
+            this.streamResponses = value;
+            return this;
+        }
+
+        public Builder maxResponseBytes(int value) {
+            this.maxResponseBytes = value;
+            return this;
+        }
+
+        public Builder maxConcurrentModelRequests(int value) {
+            this.maxConcurrentModelRequests = value;
+            return this;
+        }
+
+        public Builder chunkResultCacheEnabled(boolean value) {
+            this.chunkResultCacheEnabled = value;
+            return this;
+        }
+
+        public Builder incrementalReReview(boolean value) {
+            this.incrementalReReview = value;
+            return this;
+        }
+
+        public Builder adaptiveModelConcurrency(boolean value) {
+            this.adaptiveModelConcurrency = value;
+            return this;
+        }
+
+        public Builder hedgeDelayMs(long value) {
+            this.hedgeDelayMs = Math.max(0L, value);
+            return this;
+        }
+
+        public Builder hedgeBudgetPercent(int value) {
+            this.hedgeBudgetPercent = value;
+            return this;
+        }
+
+        public Builder modelRateLimitPerSecond(int value) {
+            this.modelRateLimitPerSecond = Math.max(1, value);
+            return this;
+        }
+
+        public Builder modelEndpointRateLimits(@Nonnull Map<String, Integer> values) {
+            Map<String, Integer> normalized = new LinkedHashMap<>();
+            Objects.requireNonNull(values, "values").forEach((endpoint, rate) -> {
+                if (endpoint != null && rate != null) {
+                    normalized.put(trimTrailingSlash(endpoint), Math.max(1, rate));
+                }
+            });
+            this.modelEndpointRateLimits = normalized;
+            return this;
+        }
+
+        public Builder modelCircuitFailureThreshold(int value) {
+            this.modelCircuitFailureThreshold = Math.max(1, value);
+            return this;
+        }
+
+        public Builder modelCircuitOpenSeconds(int value) {
+            this.modelCircuitOpenSeconds = Math.max(1, value);
+            return this;
+        }
+
         public Builder chunkMaxRetries(int value) {
             this.chunkMaxRetries = value;
             return this;
@@ -297,6 +610,11 @@ public final class ReviewConfig {
             return this;
         }
 
+        public Builder diffSpillThresholdBytes(int value) {
+            this.diffSpillThresholdBytes = Math.max(0, value);
+            return this;
+        }
+
         public Builder profile(@Nonnull ReviewProfile value) {
             this.profile = Objects.requireNonNull(value, "value");
             return this;
@@ -20,6 +20,8 @@ public final class ReviewContext {
     private final Map<String, ReviewOverview.FileStats> fileStats;
     private final Map<String, String> fileDiffs;
     private final Map<String, ReviewFileMetadata> fileMetadata;
+    private final DiffModel diffModel;
+    private final IncrementalScope incrementalScope;
     private final Instant collectedAt;
 
     private ReviewContext(Builder builder) {
@@ -35,6 +37,8 @@ public final class ReviewContext {
         this.fileMetadata = builder.fileMetadata != null
                 ? Collections.unmodifiableMap(builder.fileMetadata)
                 : Collections.emptyMap();
+        this.diffModel = builder.diffModel;
+        this.incrementalScope = builder.incrementalScope;
         this.collectedAt = builder.collectedAt != null ? builder.collectedAt : Instant.now();
     }
 
@@ -48,6 +52,10 @@ public final class ReviewContext {
         return config;
     }
 
+    /**
+     * @return the diff text the context was assembled from, or {@code null} when it was built from a
+     * {@link DiffModel}; such a diff may be spilled to disk and is only read through {@link #getDiffModel()}
+     */
     @Nullable
     public String getRawDiff() {
         return rawDiff;
@@ -58,6 +66,10 @@ public final class ReviewContext {
         return fileStats;
     }
 
+    /**
+     * @return per-file diff text when it was supplied; contexts built from a {@link DiffModel} read files
+     * through {@link #getDiffModel()} instead
+     */
     @Nonnull
     public Map<String, String> getFileDiffs() {
         return fileDiffs;
@@ -68,11 +80,47 @@ public final class ReviewContext {
         return fileMetadata;
     }
 
+    /**
+     * @return the structured diff captured while streaming, or {@code null} when the context was
+     * assembled from text only
+     */
+    @Nullable
+    public DiffModel getDiffModel() {
+        return diffModel;
+    }
+
+    /**
+     * @return the lines changed since the previously reviewed commit when only those should be re-reviewed,
+     * or {@code null} for a full review
+     */
+    @Nullable
+    public IncrementalScope getIncrementalScope() {
+        return incrementalScope;
+    }
+
     @Nonnull
     public Instant getCollectedAt() {
         return collectedAt;
     }
 
+    /**
+     * @return a copy of this context restricted to {@code scope}
+     */
+    @Nonnull
+    public ReviewContext withIncrementalScope(@Nullable IncrementalScope scope) {
+        return builder()
+                .pullRequest(pullRequest)
+                .config(config)
+                .rawDiff(rawDiff)
+                .fileStats(fileStats)
+                .fileDiffs(fileDiffs)
+                .fileMetadata(fileMetadata)
+                .diffModel(diffModel)
+                .incrementalScope(scope)
+                .collectedAt(collectedAt)
+                .build();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -84,6 +132,8 @@ public final class ReviewContext {
         private Map<String, ReviewOverview.FileStats> fileStats;
         private Map<String, String> fileDiffs;
         private Map<String, ReviewFileMetadata> fileMetadata;
+        private DiffModel diffModel;
+        private IncrementalScope incrementalScope;
         private Instant collectedAt;
 
         public Builder pullRequest(@Nonnull PullRequest value) {
@@ -116,6 +166,16 @@ public final class ReviewContext {
             return this;
         }
 
+        public Builder diffModel(@Nullable DiffModel value) {
+            this.diffModel = value;
+            return this;
+        }
+
+        public Builder incrementalScope(@Nullable IncrementalScope value) {
+            this.incrementalScope = value;
+            return this;
+        }
+
         public Builder collectedAt(@Nonnull Instant value) {
             this.collectedAt = Objects.requireNonNull(value, "value");
             return this;
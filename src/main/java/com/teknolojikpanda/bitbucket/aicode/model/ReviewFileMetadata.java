@@ -17,6 +17,7 @@ public final class ReviewFileMetadata {
     private final int additions;
     private final int deletions;
     private final boolean testFile;
+    private final boolean securitySensitive;
 
     private ReviewFileMetadata(Builder builder) {
         this.path = Objects.requireNonNull(builder.path, "path");
@@ -27,6 +28,7 @@ public final class ReviewFileMetadata {
         this.additions = builder.additions;
         this.deletions = builder.deletions;
         this.testFile = builder.testFile;
+        this.securitySensitive = builder.securitySensitive;
     }
 
     @Nonnull
@@ -69,6 +71,13 @@ public final class ReviewFileMetadata {
         return testFile;
     }
 
+    /**
+     * @return whether the path points at authentication, authorisation, crypto or secret handling code
+     */
+    public boolean isSecuritySensitive() {
+        return securitySensitive;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -82,6 +91,7 @@ public final class ReviewFileMetadata {
         private int additions;
         private int deletions;
         private boolean testFile;
+        private boolean securitySensitive;
 
         public Builder path(@Nonnull String value) {
             this.path = Objects.requireNonNull(value, "value");
@@ -123,6 +133,11 @@ public final class ReviewFileMetadata {
             return this;
         }
 
+        public Builder securitySensitive(boolean value) {
+            this.securitySensitive = value;
+            return this;
+        }
+
         public ReviewFileMetadata build() {
             return new ReviewFileMetadata(this);
         }
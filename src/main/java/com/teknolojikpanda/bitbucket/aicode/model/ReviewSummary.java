@@ -14,11 +14,13 @@ public final class ReviewSummary {
     private final Map<SeverityLevel, Integer> counts;
     private final boolean truncated;
     private final List<ReviewFinding> findings;
+    private final List<ReviewChunk> reviewedChunks;
 
     private ReviewSummary(Builder builder) {
         this.counts = new EnumMap<>(builder.counts);
         this.truncated = builder.truncated;
         this.findings = java.util.Collections.unmodifiableList(builder.findings);
+        this.reviewedChunks = java.util.Collections.unmodifiableList(builder.reviewedChunks);
     }
 
     @Nonnull
@@ -35,6 +37,14 @@ public final class ReviewSummary {
         return findings;
     }
 
+    /**
+     * @return the chunks whose review completed; failed chunks are left out, so their regions count as unreviewed
+     */
+    @Nonnull
+    public List<ReviewChunk> getReviewedChunks() {
+        return reviewedChunks;
+    }
+
     public int totalCount() {
         return findings.size();
     }
@@ -51,6 +61,7 @@ public final class ReviewSummary {
         private final Map<SeverityLevel, Integer> counts = new EnumMap<>(SeverityLevel.class);
         private boolean truncated;
         private List<ReviewFinding> findings = new java.util.ArrayList<>();
+        private List<ReviewChunk> reviewedChunks = new java.util.ArrayList<>();
 
         public Builder addCount(@Nonnull SeverityLevel severity, int count) {
             counts.merge(Objects.requireNonNull(severity, "severity"), count, Integer::sum);
@@ -67,6 +78,11 @@ public final class ReviewSummary {
             return this;
         }
 
+        public Builder reviewedChunks(@Nonnull List<ReviewChunk> value) {
+            this.reviewedChunks = new java.util.ArrayList<>(Objects.requireNonNull(value, "value"));
+            return this;
+        }
+
         public ReviewSummary build() {
             return new ReviewSummary(this);
         }
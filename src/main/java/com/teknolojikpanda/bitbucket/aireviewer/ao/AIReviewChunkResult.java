@@ -0,0 +1,42 @@
+package com.teknolojikpanda.bitbucket.aireviewer.ao;
+
+import net.java.ao.Entity;
+import net.java.ao.schema.Indexed;
+import net.java.ao.schema.NotNull;
+import net.java.ao.schema.StringLength;
+import net.java.ao.schema.Table;
+
+/**
+ * Active Objects entity holding the findings of a reviewed chunk, keyed by a content hash so unchanged
+ * chunks can be answered without a model call.
+ */
+@Table("AI_CHUNK_RESULT")
+public interface AIReviewChunkResult extends Entity {
+
+    @NotNull
+    @Indexed
+    @StringLength(64)
+    String getCacheKey();
+    void setCacheKey(String cacheKey);
+
+    @StringLength(255)
+    String getModel();
+    void setModel(String model);
+
+    @StringLength(StringLength.UNLIMITED)
+    String getFindingsJson();
+    void setFindingsJson(String findingsJson);
+
+    int getFindingCount();
+    void setFindingCount(int findingCount);
+
+    long getCreatedAt();
+    void setCreatedAt(long createdAt);
+
+    @Indexed
+    long getLastUsedAt();
+    void setLastUsedAt(long lastUsedAt);
+
+    int getHitCount();
+    void setHitCount(int hitCount);
+}
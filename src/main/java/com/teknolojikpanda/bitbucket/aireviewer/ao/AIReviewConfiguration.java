@@ -29,6 +29,18 @@ public interface AIReviewConfiguration extends Entity {
     String getFallbackModel();
     void setFallbackModel(String model);
 
+    @StringLength(StringLength.UNLIMITED)
+    String getPrimaryModelEndpoints();
+    void setPrimaryModelEndpoints(String endpoints);
+
+    @StringLength(StringLength.UNLIMITED)
+    String getFallbackModelEndpoints();
+    void setFallbackModelEndpoints(String endpoints);
+
+    @StringLength(StringLength.UNLIMITED)
+    String getModelEndpointRateLimits();
+    void setModelEndpointRateLimits(String limits);
+
     // Chunking Configuration
     int getMaxCharsPerChunk();
     void setMaxCharsPerChunk(int maxChars);
@@ -49,6 +61,40 @@ public interface AIReviewConfiguration extends Entity {
     int getOllamaTimeout();
     void setOllamaTimeout(int timeout);
 
+    int getPrimaryModelMaxConnections();
+    void setPrimaryModelMaxConnections(int value);
+
+    int getFallbackModelMaxConnections();
+    void setFallbackModelMaxConnections(int value);
+
+    int getMaxModelResponseBytes();
+    void setMaxModelResponseBytes(int value);
+
+    int getMaxConcurrentModelRequests();
+    void setMaxConcurrentModelRequests(int value);
+
+    int getHedgePercentile();
+    void setHedgePercentile(int value);
+
+    int getHedgeBudgetPercent();
+    void setHedgeBudgetPercent(int value);
+
+    int getModelRateLimitPerSecond();
+    void setModelRateLimitPerSecond(int value);
+
+    int getModelCircuitFailureThreshold();
+    void setModelCircuitFailureThreshold(int value);
+
+    int getModelCircuitOpenSeconds();
+    void setModelCircuitOpenSeconds(int value);
+
+    int getRescopeQuietPeriodSeconds();
+    void setRescopeQuietPeriodSeconds(int value);
+
+    @StringLength(32)
+    String getQueueAdmissionPolicy();
+    void setQueueAdmissionPolicy(String policy);
+
     // Review Configuration
     int getMaxIssuesPerFile();
     void setMaxIssuesPerFile(int maxIssues);
@@ -62,6 +108,15 @@ public interface AIReviewConfiguration extends Entity {
     int getMaxDiffSize();
     void setMaxDiffSize(int maxSize);
 
+    int getDiffSpillThreshold();
+    void setDiffSpillThreshold(int thresholdBytes);
+
+    int getModelContextTokens();
+    void setModelContextTokens(int tokens);
+
+    String getChunkStrategy();
+    void setChunkStrategy(String strategy);
+
     // Retry Configuration
     int getMaxRetries();
     void setMaxRetries(int maxRetries);
@@ -195,6 +250,21 @@ public interface AIReviewConfiguration extends Entity {
     boolean isAutoApprove();
     void setAutoApprove(boolean autoApprove);
 
+    boolean isStreamModelResponses();
+    void setStreamModelResponses(boolean value);
+
+    boolean isChunkResultCacheEnabled();
+    void setChunkResultCacheEnabled(boolean value);
+
+    boolean isIncrementalReReview();
+    void setIncrementalReReview(boolean value);
+
+    boolean isAdaptiveModelConcurrency();
+    void setAdaptiveModelConcurrency(boolean value);
+
+    boolean isHedgeRequests();
+    void setHedgeRequests(boolean value);
+
     boolean isProgressPanelEnabled();
     void setProgressPanelEnabled(boolean enabled);
 
@@ -224,6 +294,10 @@ public interface AIReviewConfiguration extends Entity {
     long getModifiedDate();
     void setModifiedDate(long timestamp);
 
+    /** Incremented on every global or repository configuration change so other nodes can detect it. */
+    long getConfigVersion();
+    void setConfigVersion(long version);
+
     @StringLength(255)
     String getModifiedBy();
     void setModifiedBy(String username);
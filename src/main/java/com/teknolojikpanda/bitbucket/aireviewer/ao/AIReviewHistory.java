@@ -160,6 +160,11 @@ public interface AIReviewHistory extends Entity {
     int getNewIssuesCount();
     void setNewIssuesCount(int count);
 
+    // Validated findings, carried forward by incremental re-reviews
+    @StringLength(StringLength.UNLIMITED)
+    String getFindingsJson();
+    void setFindingsJson(String json);
+
     // Error Information
     @StringLength(StringLength.UNLIMITED)
     String getErrorMessage();
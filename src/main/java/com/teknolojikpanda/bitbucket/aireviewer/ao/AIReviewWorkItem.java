@@ -0,0 +1,76 @@
+package com.teknolojikpanda.bitbucket.aireviewer.ao;
+
+import net.java.ao.Entity;
+import net.java.ao.Preload;
+import net.java.ao.schema.Indexed;
+import net.java.ao.schema.NotNull;
+import net.java.ao.schema.StringLength;
+import net.java.ao.schema.Table;
+import net.java.ao.schema.Unique;
+
+/**
+ * Review run in the cluster-wide work queue. Rows stay {@code QUEUED} until a node leases them
+ * (see {@link AIReviewWorkLease}) and return to {@code QUEUED} when the lease expires before the run completes.
+ */
+@Preload
+@Table("AI_REVIEW_WORK_ITEM")
+public interface AIReviewWorkItem extends Entity {
+
+    @Unique
+    @NotNull
+    @StringLength(64)
+    String getRunId();
+    void setRunId(String runId);
+
+    @NotNull
+    @Indexed
+    @StringLength(16)
+    String getStatus();
+    void setStatus(String status);
+
+    @StringLength(255)
+    String getProjectKey();
+    void setProjectKey(String projectKey);
+
+    @StringLength(255)
+    String getRepositorySlug();
+    void setRepositorySlug(String repositorySlug);
+
+    int getRepositoryId();
+    void setRepositoryId(int repositoryId);
+
+    long getPullRequestId();
+    void setPullRequestId(long pullRequestId);
+
+    boolean isManualRun();
+    void setManualRun(boolean manualRun);
+
+    boolean isUpdateRun();
+    void setUpdateRun(boolean updateRun);
+
+    boolean isForceRun();
+    void setForceRun(boolean forceRun);
+
+    @StringLength(255)
+    String getRequestedBy();
+    void setRequestedBy(String requestedBy);
+
+    @StringLength(255)
+    String getOriginNode();
+    void setOriginNode(String originNode);
+
+    @StringLength(255)
+    String getLeaseOwner();
+    void setLeaseOwner(String leaseOwner);
+
+    int getAttempts();
+    void setAttempts(int attempts);
+
+    @Indexed
+    long getEnqueuedAt();
+    void setEnqueuedAt(long enqueuedAt);
+
+    @Indexed
+    long getUpdatedAt();
+    void setUpdatedAt(long updatedAt);
+}
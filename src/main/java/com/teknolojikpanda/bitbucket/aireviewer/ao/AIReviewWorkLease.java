@@ -0,0 +1,40 @@
+package com.teknolojikpanda.bitbucket.aireviewer.ao;
+
+import net.java.ao.Entity;
+import net.java.ao.Preload;
+import net.java.ao.schema.Indexed;
+import net.java.ao.schema.NotNull;
+import net.java.ao.schema.StringLength;
+import net.java.ao.schema.Table;
+import net.java.ao.schema.Unique;
+
+/**
+ * One of the cluster-wide review slots. The unique slot number caps how many reviews run across all nodes and
+ * the unique run id makes sure only one node can hold a given run; both are enforced by the database.
+ */
+@Preload
+@Table("AI_REVIEW_WORK_LEASE")
+public interface AIReviewWorkLease extends Entity {
+
+    @Unique
+    int getSlotNumber();
+    void setSlotNumber(int slotNumber);
+
+    @Unique
+    @NotNull
+    @StringLength(64)
+    String getRunId();
+    void setRunId(String runId);
+
+    @Indexed
+    @StringLength(255)
+    String getNodeId();
+    void setNodeId(String nodeId);
+
+    long getAcquiredAt();
+    void setAcquiredAt(long acquiredAt);
+
+    @Indexed
+    long getExpiresAt();
+    void setExpiresAt(long expiresAt);
+}
@@ -29,6 +29,11 @@ public interface GuardrailsRateBucket extends Entity {
     String getIdentifier();
     void setIdentifier(String identifier);
 
+    @Indexed
+    @StringLength(255)
+    String getNodeId();
+    void setNodeId(String nodeId);
+
     @Indexed
     long getWindowStart();
     void setWindowStart(long windowStart);
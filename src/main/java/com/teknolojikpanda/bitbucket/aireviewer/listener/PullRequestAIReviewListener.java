@@ -6,9 +6,9 @@ import com.atlassian.bitbucket.pull.PullRequest;
 import com.atlassian.event.api.EventListener;
 import com.atlassian.event.api.EventPublisher;
 import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
-import com.teknolojikpanda.bitbucket.aireviewer.dto.ReviewResult;
-import com.teknolojikpanda.bitbucket.aireviewer.service.AIReviewService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.AIReviewerConfigService;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewEventDispatcher;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewRescopeCoalescer;
 import com.teknolojikpanda.bitbucket.aireviewer.util.LogContext;
 import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
 import org.slf4j.Logger;
@@ -29,7 +29,9 @@ import java.util.Objects;
  * - PullRequestOpenedEvent - When a new PR is created
  * - PullRequestRescopedEvent - When a PR is updated (new commits pushed)
  *
- * Reviews are executed asynchronously to avoid blocking the PR creation/update.
+ * Reviews are handed to {@link ReviewEventDispatcher} so the event thread returns immediately instead of
+ * waiting for the review to finish. Rescope events go through {@link ReviewRescopeCoalescer} first so a
+ * burst of pushes results in one review of the latest commit.
  */
 @Named
 public class PullRequestAIReviewListener implements DisposableBean, InitializingBean {
@@ -37,17 +39,20 @@ public class PullRequestAIReviewListener implements DisposableBean, Initializing
     private static final Logger log = LoggerFactory.getLogger(PullRequestAIReviewListener.class);
 
     private final EventPublisher eventPublisher;
-    private final AIReviewService reviewService;
+    private final ReviewEventDispatcher eventDispatcher;
     private final AIReviewerConfigService configService;
+    private final ReviewRescopeCoalescer rescopeCoalescer;
 
     @Inject
     public PullRequestAIReviewListener(
             @ComponentImport EventPublisher eventPublisher,
-            AIReviewService reviewService,
-            AIReviewerConfigService configService) {
+            ReviewEventDispatcher eventDispatcher,
+            AIReviewerConfigService configService,
+            ReviewRescopeCoalescer rescopeCoalescer) {
         this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher cannot be null");
-        this.reviewService = Objects.requireNonNull(reviewService, "reviewService cannot be null");
+        this.eventDispatcher = Objects.requireNonNull(eventDispatcher, "eventDispatcher cannot be null");
         this.configService = Objects.requireNonNull(configService, "configService cannot be null");
+        this.rescopeCoalescer = Objects.requireNonNull(rescopeCoalescer, "rescopeCoalescer cannot be null");
         LogSupport.debug(log, "listener.constructed", "PullRequest listener constructed");
     }
 
@@ -137,42 +142,30 @@ public class PullRequestAIReviewListener implements DisposableBean, Initializing
                 }
             }
 
+            if (rescopeCoalescer.isEnabled()) {
+                LogSupport.debug(log, "review.deferred", "Review deferred until pushes settle",
+                        "pullRequestId", pullRequest.getId());
+                rescopeCoalescer.submit(pullRequest);
+                return;
+            }
+
             executeReview(pullRequest, true);
         }
     }
 
     /**
-     * Executes a review synchronously to maintain authentication context.
+     * Queues the review and returns without waiting for it. Progress and the outcome are recorded by the
+     * review service in the progress and history stores.
      *
      * @param pullRequest the pull request to review
      * @param isUpdate true if this is a re-review (PR update), false if new PR
      */
     private void executeReview(@Nonnull PullRequest pullRequest, boolean isUpdate) {
-        try (LogContext ignored = LogContext.forPullRequest(pullRequest);
-             LogContext modeCtx = LogContext.scoped("review.mode", isUpdate ? "update" : "initial")) {
-            LogSupport.info(log, "review.start", "Starting AI review",
-                    "mode", isUpdate ? "update" : "initial",
-                    "pullRequestId", pullRequest.getId());
-
-            ReviewResult result = isUpdate
-                    ? reviewService.reReviewPullRequest(pullRequest)
-                    : reviewService.reviewPullRequest(pullRequest);
-
-            LogSupport.info(log, "review.complete", "Review completed",
-                    "pullRequestId", pullRequest.getId(),
-                    "status", result.getStatus(),
-                    "issueCount", result.getIssueCount(),
-                    "filesReviewed", result.getFilesReviewed());
-
-            if (result.hasCriticalIssues()) {
-                LogSupport.warn(log, "review.critical_issues", "Critical issues detected",
-                        "pullRequestId", pullRequest.getId());
-            }
-
-        } catch (Exception e) {
-            LogSupport.error(log, "review.failed", "Review execution failed", e,
-                    "pullRequestId", pullRequest.getId());
-        }
+        boolean dispatched = eventDispatcher.dispatch(pullRequest, isUpdate);
+        LogSupport.info(log, dispatched ? "review.dispatched" : "review.dispatch_failed",
+                dispatched ? "AI review queued" : "AI review could not be queued",
+                "mode", isUpdate ? "update" : "initial",
+                "pullRequestId", pullRequest.getId());
     }
 
     /**
@@ -46,6 +46,36 @@ public class MonitoringResource {
         return Response.ok(payload).build();
     }
 
+    @GET
+    @Path("/model-concurrency")
+    public Response getModelConcurrency(@Context HttpServletRequest request) {
+        Access access = requireSystemAdmin(request);
+        if (!access.allowed) {
+            return access.response;
+        }
+        return Response.ok(telemetryService.collectModelConcurrencySnapshot()).build();
+    }
+
+    @GET
+    @Path("/model-endpoints")
+    public Response getModelEndpoints(@Context HttpServletRequest request) {
+        Access access = requireSystemAdmin(request);
+        if (!access.allowed) {
+            return access.response;
+        }
+        return Response.ok(telemetryService.collectModelEndpointSnapshot()).build();
+    }
+
+    @GET
+    @Path("/model-connection-pools")
+    public Response getModelConnectionPools(@Context HttpServletRequest request) {
+        Access access = requireSystemAdmin(request);
+        if (!access.allowed) {
+            return access.response;
+        }
+        return Response.ok(telemetryService.collectModelConnectionPoolSnapshot()).build();
+    }
+
     private Access requireSystemAdmin(HttpServletRequest request) {
         UserProfile profile = userManager.getRemoteUser(request);
         if (profile == null) {
@@ -13,6 +13,8 @@ import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewHistory;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressEvent;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressRegistry;
 import com.teknolojikpanda.bitbucket.aireviewer.service.Page;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewAdmissionPolicy;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewAdmissionSimulator;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewHistoryService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewSchedulerStateService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController;
@@ -39,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
@@ -67,6 +70,7 @@ public class ProgressResource {
     private static final int HTTP_TOO_MANY_REQUESTS = 429;
     private static final long DEFAULT_REVIEW_DURATION_MS = TimeUnit.MINUTES.toMillis(2);
     private static final int DURATION_SAMPLE_SIZE = 200;
+    private static final int MAX_SIMULATION_ACTIONS = 500;
 
     private final UserManager userManager;
     private final UserService userService;
@@ -76,6 +80,7 @@ public class ProgressResource {
     private final ReviewHistoryService reviewHistoryService;
     private final ReviewSchedulerStateService schedulerStateService;
     private final ReviewConcurrencyController concurrencyController;
+    private final ReviewAdmissionSimulator admissionSimulator;
 
     @Inject
     public ProgressResource(@ComponentImport UserManager userManager,
@@ -85,7 +90,8 @@ public class ProgressResource {
                             ProgressRegistry progressRegistry,
                             ReviewHistoryService reviewHistoryService,
                             ReviewSchedulerStateService schedulerStateService,
-                            ReviewConcurrencyController concurrencyController) {
+                            ReviewConcurrencyController concurrencyController,
+                            ReviewAdmissionSimulator admissionSimulator) {
         this.userManager = Objects.requireNonNull(userManager, "userManager");
         this.userService = Objects.requireNonNull(userService, "userService");
         this.repositoryService = Objects.requireNonNull(repositoryService, "repositoryService");
@@ -94,6 +100,7 @@ public class ProgressResource {
         this.reviewHistoryService = Objects.requireNonNull(reviewHistoryService, "reviewHistoryService");
         this.schedulerStateService = Objects.requireNonNull(schedulerStateService, "schedulerStateService");
         this.concurrencyController = Objects.requireNonNull(concurrencyController, "concurrencyController");
+        this.admissionSimulator = Objects.requireNonNull(admissionSimulator, "admissionSimulator");
     }
 
     @GET
@@ -243,6 +250,18 @@ public class ProgressResource {
         return Response.ok(payload).build();
     }
 
+    @GET
+    @Path("/admin/queue/simulation")
+    public Response simulateAdmissionPolicies(@Context HttpServletRequest request,
+                                              @QueryParam("limit") Integer limitParam) {
+        Access admin = requireSystemAdmin(request);
+        if (!admin.allowed) {
+            return admin.response;
+        }
+        int limit = limitParam != null ? Math.max(1, Math.min(limitParam, MAX_SIMULATION_ACTIONS)) : MAX_SIMULATION_ACTIONS;
+        return Response.ok(admissionSimulator.replayRecentTraffic(limit)).build();
+    }
+
     @POST
     @Path("/admin/scheduler/pause")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -582,12 +601,13 @@ public class ProgressResource {
         }
         List<Map<String, Object>> list = new ArrayList<>();
         long now = System.currentTimeMillis();
-        long cumulativeMs = 0;
+        // Entries arrive in admission order; each starts on whichever slot frees up first.
+        PriorityQueue<Long> slotFreeAt = initialSlotFreeTimes(stats, durationStats, now);
         for (int i = 0; i < entries.size(); i++) {
             ReviewConcurrencyController.QueueStats.QueueEntry entry = entries.get(i);
             long estimatedDuration = estimateEntryDuration(durationStats, entry);
-            long eta = now + cumulativeMs;
-            cumulativeMs += estimatedDuration;
+            long eta = slotFreeAt.poll();
+            slotFreeAt.add(eta + estimatedDuration);
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("position", i + 1);
             map.put("runId", entry.getRunId());
@@ -597,6 +617,8 @@ public class ProgressResource {
             map.put("manual", entry.isManual());
             map.put("update", entry.isUpdate());
             map.put("force", entry.isForce());
+            map.put("priorityClass", entry.getPriorityClass());
+            map.put("headStartMs", entry.getHeadStartMs());
             map.put("requestedBy", entry.getRequestedBy());
             map.put("waitingSince", entry.getWaitingSince());
             long waitingMs = Math.max(0, now - entry.getWaitingSince());
@@ -659,11 +681,40 @@ public class ProgressResource {
         map.put("repoWaiters", scopeStatsToList(stats.getTopRepoWaiters()));
         map.put("projectWaiters", scopeStatsToList(stats.getTopProjectWaiters()));
         map.put("activeRuns", convertActiveRuns(stats.getActiveRuns()));
+        ReviewAdmissionPolicy policy = concurrencyController.getAdmissionPolicy();
+        map.put("admissionPolicy", (policy != null ? policy : ReviewAdmissionPolicy.DEFAULT).toConfigValue());
         return map;
     }
 
+    private PriorityQueue<Long> initialSlotFreeTimes(ReviewConcurrencyController.QueueStats stats,
+                                                     ReviewHistoryService.DurationStats durationStats,
+                                                     long now) {
+        int slots = Math.max(1, stats != null ? stats.getMaxConcurrent() : 1);
+        PriorityQueue<Long> freeAt = new PriorityQueue<>(slots);
+        List<ReviewConcurrencyController.QueueStats.ActiveRunEntry> running = stats != null
+                ? stats.getActiveRuns()
+                : Collections.emptyList();
+        for (ReviewConcurrencyController.QueueStats.ActiveRunEntry run : running) {
+            if (freeAt.size() == slots) {
+                break;
+            }
+            double expected = durationStats != null
+                    ? durationStats.estimate(run.getProjectKey(), run.getRepositorySlug(), DEFAULT_REVIEW_DURATION_MS)
+                    : DEFAULT_REVIEW_DURATION_MS;
+            long elapsed = Math.max(0L, now - run.getStartedAt());
+            freeAt.add(now + Math.max(0L, Math.round(expected) - elapsed));
+        }
+        while (freeAt.size() < slots) {
+            freeAt.add(now);
+        }
+        return freeAt;
+    }
+
     private long estimateEntryDuration(ReviewHistoryService.DurationStats stats,
                                        ReviewConcurrencyController.QueueStats.QueueEntry entry) {
+        if (entry.getEstimatedDurationMs() > 0) {
+            return Math.max(1000L, entry.getEstimatedDurationMs());
+        }
         double fallback = DEFAULT_REVIEW_DURATION_MS;
         if (stats == null) {
             return Math.round(fallback);
@@ -74,6 +74,18 @@ public interface AIReviewService {
     @Nonnull
     ReviewResult manualReview(@Nonnull PullRequest pullRequest, boolean force, boolean treatAsUpdate);
 
+    /**
+     * Runs a review that was queued on any cluster node and is now leased by this node.
+     *
+     * The caller must hold the run's slot (see {@link ReviewConcurrencyController#claimQueuedRun()})
+     * and close it when this method returns.
+     *
+     * @param item the leased run
+     * @return review result
+     */
+    @Nonnull
+    ReviewResult runLeasedReview(@Nonnull ReviewWorkQueueService.WorkItem item);
+
     /**
      * Tests connectivity and functionality of the Ollama service.
      *
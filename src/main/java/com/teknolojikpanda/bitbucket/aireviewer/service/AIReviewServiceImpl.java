@@ -43,7 +43,15 @@ import com.teknolojikpanda.bitbucket.aicode.api.ReviewOrchestrator;
 import com.teknolojikpanda.bitbucket.aicode.core.DiffPositionResolver;
 import com.teknolojikpanda.bitbucket.aicode.core.IssueFingerprintUtil;
 import com.teknolojikpanda.bitbucket.aicode.core.MetricsRecorderAdapter;
+import com.teknolojikpanda.bitbucket.aicode.core.PathFilter;
 import com.teknolojikpanda.bitbucket.aicode.core.ReviewConfigFactory;
+import com.teknolojikpanda.bitbucket.aicode.core.ReviewFindingCodec;
+import com.teknolojikpanda.bitbucket.aicode.core.StreamingDiffAccumulator;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.IncrementalScope;
+import com.teknolojikpanda.bitbucket.aicode.model.IssueCategory;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
@@ -60,11 +68,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
@@ -97,7 +103,6 @@ import com.teknolojikpanda.bitbucket.aireviewer.util.ChunkTelemetryUtil;
 public class AIReviewServiceImpl implements AIReviewService {
 
     private static final Logger log = LoggerFactory.getLogger(AIReviewServiceImpl.class);
-    private static final Set<String> TEST_KEYWORDS = new HashSet<>(Arrays.asList("test", "spec", "fixture"));
     private static final String IMPERSONATION_REASON = "AI Reviewer service operation";
     private static final int MAX_CHUNK_PREVIEW_ENTRIES = 12;
     private static final String CIRCUIT_SNAPSHOT_GAUGE = "ai.model.circuit.snapshot";
@@ -288,10 +293,67 @@ public class AIReviewServiceImpl implements AIReviewService {
                         "pullRequestId", pullRequest.getId());
                 Thread.currentThread().interrupt();
                 return buildQueueInterruptedResult(pullRequest.getId());
+            } catch (ReviewDelegatedException ex) {
+                recordProgress("review.delegated", 0, progressDetails(
+                        "runId", ex.getRunId(),
+                        "nodeId", ex.getNodeId()));
+                LogSupport.info(log, "review.delegated", "Queued AI review picked up by another node",
+                        "pullRequestId", pullRequest.getId(),
+                        "runId", ex.getRunId(),
+                        "nodeId", ex.getNodeId());
+                return buildDelegatedResult(pullRequest.getId(), ex);
+            } catch (ReviewCanceledException ex) {
+                LogSupport.info(log, "review.queue_canceled", "Queued AI review canceled before it started",
+                        "pullRequestId", pullRequest.getId(),
+                        "runId", ex.getRunId());
+                Map<String, Object> metrics = instantReviewMetrics("canceled");
+                metrics.put("review.canceled.reason", ex.getMessage());
+                return buildCanceledResult(pullRequest.getId(), ex.getMessage(), metrics);
             }
         }
     }
 
+    @Nonnull
+    @Override
+    public ReviewResult runLeasedReview(@Nonnull ReviewWorkQueueService.WorkItem item) {
+        Objects.requireNonNull(item, "item");
+        PullRequest pullRequest;
+        try {
+            pullRequest = securityService.withPermission(Permission.SYS_ADMIN, IMPERSONATION_REASON)
+                    .call(() -> pullRequestService.getById(item.getRepositoryId(), item.getPullRequestId()));
+        } catch (Exception ex) {
+            LogSupport.warn(log, "review.leased.lookup_failed", "Unable to load pull request for leased review", ex,
+                    "runId", item.getRunId(),
+                    "repositoryId", item.getRepositoryId(),
+                    "pullRequestId", item.getPullRequestId());
+            pullRequest = null;
+        }
+        if (pullRequest == null || !pullRequest.isOpen()) {
+            LogSupport.info(log, "review.leased.skipped", "Leased review skipped; pull request no longer open",
+                    "runId", item.getRunId(),
+                    "projectKey", item.getProjectKey(),
+                    "repositorySlug", item.getRepositorySlug(),
+                    "pullRequestId", item.getPullRequestId());
+            return buildSkippedResult(item.getPullRequestId(), "Pull request is no longer open.",
+                    instantReviewMetrics("pull-request-closed"));
+        }
+        final PullRequest leasedPullRequest = pullRequest;
+        Map<String, String> runContext = new LinkedHashMap<>();
+        runContext.put("review.entryPoint", "service.leased");
+        runContext.put("review.runId", item.getRunId());
+        runContext.put("review.originNode", String.valueOf(item.getOriginNode()));
+        try (LogContext prContext = LogContext.forPullRequest(leasedPullRequest);
+             LogContext runCtx = LogContext.scoped(runContext)) {
+            ReviewRun run = ReviewRun.leased(leasedPullRequest, item);
+            run.applyRollout(rolloutService.evaluate(run.getProjectKey(), run.getRepositorySlug(), run.runId));
+            ReviewConcurrencyController.ReviewExecutionRequest request = run.toExecutionRequest();
+            Callable<ReviewResult> task = buildWorkerCallable(run, () -> reviewPullRequestInternal(leasedPullRequest));
+            Future<ReviewResult> future = workerPool.submit(task);
+            concurrencyController.registerActiveRun(request, future);
+            return joinRun(run, request, future);
+        }
+    }
+
     private void maybeAutoSnoozeRateLimit(@Nullable ReviewRun run) {
         if (run == null) {
             return;
@@ -528,6 +590,7 @@ public class AIReviewServiceImpl implements AIReviewService {
                 metrics.setGauge("model.fallback.status", "unconfigured");
             }
             metrics.setGauge("model.health.failoverApplied", modelHealthResult.isFailoverApplied() ? 1 : 0);
+            metrics.setGauge("model.hedgeDelayMs", modelHealthResult.getHedgeDelayMs());
             boolean degraded = degradationResult.isDegraded();
             metrics.setGauge("config.workerDegradationActive", degraded ? 1 : 0);
             if (degraded) {
@@ -594,24 +657,22 @@ public class AIReviewServiceImpl implements AIReviewService {
                 diffTimeline.failure(ex.getMessage());
                 throw ex;
             }
-            String rawDiff = context.getRawDiff();
-            long diffBytes = 0;
-            long diffLines = 0;
-            if (rawDiff != null) {
-                diffBytes = rawDiff.getBytes(StandardCharsets.UTF_8).length;
-                diffLines = rawDiff.chars().filter(ch -> ch == '\n').count();
-                metrics.setGauge("diff.sizeBytes", diffBytes);
-                metrics.setGauge("diff.lineCount", diffLines);
-            }
+            // Read sizes from the model so a spilled diff is never decoded just for bookkeeping.
+            DiffModel diffModel = resolveDiffModel(context);
+            long diffBytes = diffModel.getTotalBytes();
+            long diffLines = diffModel.getTotalLines();
+            boolean hasDiff = !diffModel.isEmpty();
+            metrics.setGauge("diff.sizeBytes", diffBytes);
+            metrics.setGauge("diff.lineCount", diffLines);
             diffTimeline.success(progressDetails(
-                    "hasDiff", rawDiff != null && !rawDiff.trim().isEmpty(),
+                    "hasDiff", hasDiff,
                     "diffBytes", diffBytes,
                     "diffLines", diffLines));
             recordProgress("diff.collected", 20, progressDetails(
-                    "hasDiff", rawDiff != null && !rawDiff.trim().isEmpty(),
+                    "hasDiff", hasDiff,
                     "diffBytes", diffBytes,
                     "diffLines", diffLines));
-            if (rawDiff == null || rawDiff.trim().isEmpty()) {
+            if (!hasDiff) {
                 recordProgress("review.skipped.diff", 25, progressDetails(
                         "reason", "empty-diff"));
                 recordProgress("review.completed", 100, progressDetails(
@@ -623,6 +684,16 @@ public class AIReviewServiceImpl implements AIReviewService {
                 return skipped;
             }
 
+            IncrementalBaseline baseline = resolveIncrementalBaseline(run, pullRequest, reviewConfig, actingUser, recorder);
+            metrics.setGauge("review.incremental", baseline != null ? 1 : 0);
+            if (baseline != null) {
+                context = context.withIncrementalScope(baseline.scope);
+                recordProgress("review.incremental", 30, progressDetails(
+                        "sinceCommit", baseline.scope.getSinceCommit(),
+                        "touchedFiles", baseline.scope.getTouchedFiles().size(),
+                        "previousFindings", baseline.previousFindings.size()));
+            }
+
             TimelineRecorder.TimelineScope chunkPlanTimeline = timeline.begin(
                     "timeline.chunks.prepare",
                     35,
@@ -648,7 +719,7 @@ public class AIReviewServiceImpl implements AIReviewService {
                     "filesReviewable", preparation.getOverview().getTotalFiles(),
                     "truncated", preparation.isTruncated()));
 
-            if (preparation.getChunks().isEmpty()) {
+            if (preparation.getChunks().isEmpty() && baseline == null) {
                 LogSupport.warn(log, "review.no_chunks", "No reviewable chunks generated",
                         "pullRequestId", pullRequestId,
                         "filesWithoutHunks", preparation.getSkippedFiles().size());
@@ -695,12 +766,36 @@ public class AIReviewServiceImpl implements AIReviewService {
                             "parallelThreads", reviewConfig.getParallelThreads()));
             ReviewSummary summary;
             try {
-                summary = reviewOrchestrator.runReview(preparation, recorder, chunkListener);
+                // An incremental re-review may have nothing left to analyse when only untouched regions changed.
+                summary = preparation.getChunks().isEmpty()
+                        ? ReviewSummary.builder().findings(Collections.emptyList()).build()
+                        : reviewOrchestrator.runReview(preparation, recorder, chunkListener);
             } catch (Exception ex) {
                 analysisTimeline.failure(ex.getMessage());
                 throw ex;
             }
-            List<ReviewIssue> issues = convertFindings(summary.getFindings());
+            recordModelCallLatencies(metrics);
+            List<ReviewFinding> findings = summary.getFindings();
+            Set<String> carriedFingerprints = Collections.emptySet();
+            if (baseline != null) {
+                // Only chunks the model actually answered replace earlier findings; failed ones keep them.
+                List<ReviewFinding> carried = baseline.scope.carryForward(
+                        baseline.previousFindings, summary.getReviewedChunks(), diffModel.getFilesByPath().keySet());
+                metrics.setGauge("issues.carriedForward", carried.size());
+                metrics.setGauge("issues.carriedDropped", baseline.previousFindings.size() - carried.size());
+                LogSupport.info(log, "review.incremental_carried", "Carried forward findings from previous review",
+                        "pullRequestId", pullRequestId,
+                        "sinceCommit", baseline.scope.getSinceCommit(),
+                        "carried", carried.size(),
+                        "previous", baseline.previousFindings.size());
+                carriedFingerprints = new HashSet<>();
+                for (ReviewIssue carriedIssue : convertFindings(carried)) {
+                    carriedFingerprints.add(IssueFingerprintUtil.fingerprint(carriedIssue));
+                }
+                findings = new ArrayList<>(findings);
+                findings.addAll(carried);
+            }
+            List<ReviewIssue> issues = convertFindings(findings);
             metrics.setGauge("issues.truncated", summary.isTruncated());
             if (summary.totalCount() == 0) {
                 LogSupport.info(log, "review.no_findings", "AI returned no findings",
@@ -727,10 +822,9 @@ public class AIReviewServiceImpl implements AIReviewService {
 
             List<ReviewIssue> validated = new ArrayList<>();
             int invalidIssues = 0;
-            Map<String, String> fileDiffs = context.getFileDiffs();
             Map<String, DiffPositionResolver.DiffPositionIndex> diffIndexCache = new HashMap<>();
             for (ReviewIssue issue : issues) {
-                if (isValidIssue(issue, fileDiffs, diffIndexCache)) {
+                if (isValidIssue(issue, diffModel, diffIndexCache)) {
                     validated.add(issue);
                 } else {
                     invalidIssues++;
@@ -739,7 +833,7 @@ public class AIReviewServiceImpl implements AIReviewService {
             recordIssueMetrics(validated, invalidIssues, metrics);
 
             ReviewComparison comparison = compareWithPreviousReview(pullRequest, validated, metrics);
-            int commentsPosted = postCommentsIfNeeded(validated, fileChanges, pullRequest,
+            int commentsPosted = postCommentsIfNeeded(validated, carriedFingerprints, fileChanges, pullRequest,
                     overallStart, comparison, metrics, timeline, configMap, reviewerUser, actingUser);
             recordProgress("comments.completed", 85, progressDetails(
                     "commentsPosted", commentsPosted,
@@ -897,6 +991,7 @@ public class AIReviewServiceImpl implements AIReviewService {
     }
     
     private int postCommentsIfNeeded(@Nonnull List<ReviewIssue> issues,
+                                     @Nonnull Set<String> carriedFingerprints,
                                      @Nonnull Map<String, FileChange> fileChanges,
                                      @Nonnull PullRequest pr,
                                      @Nonnull Instant overallStart,
@@ -927,7 +1022,13 @@ public class AIReviewServiceImpl implements AIReviewService {
                         ensureReviewerParticipant(pr, reviewerUser);
                     }
 
-                    int posted = postIssueComments(issues, pr, configMap, commenter);
+                    // Carried-forward issues were commented on by the review that found them.
+                    List<ReviewIssue> toComment = carriedFingerprints.isEmpty()
+                            ? issues
+                            : issues.stream()
+                            .filter(issue -> !carriedFingerprints.contains(IssueFingerprintUtil.fingerprint(issue)))
+                            .collect(Collectors.toList());
+                    int posted = postIssueComments(toComment, pr, configMap, commenter);
                     LogSupport.info(log, "comments.posted", "Issue comments posted",
                             "pullRequestId", pr.getId(),
                             "count", posted);
@@ -1008,6 +1109,26 @@ public class AIReviewServiceImpl implements AIReviewService {
         return approved;
     }
     
+    /**
+     * Feeds the latency of chunk calls that succeeded on their first attempt into model health, so the hedge
+     * delay follows real review traffic rather than probes alone.
+     */
+    private void recordModelCallLatencies(@Nonnull MetricsCollector metrics) {
+        for (Map<String, Object> entry : ChunkTelemetryUtil.extractEntries(metrics.getMetrics())) {
+            Object attempts = entry.get("attempts");
+            Object durationMs = entry.get("durationMs");
+            if (!Boolean.TRUE.equals(entry.get("success"))
+                    || !(attempts instanceof Number) || ((Number) attempts).intValue() != 1
+                    || !(durationMs instanceof Number)) {
+                continue;
+            }
+            modelHealthService.recordCallLatency(
+                    Objects.toString(entry.get("endpoint"), null),
+                    Objects.toString(entry.get("model"), null),
+                    ((Number) durationMs).longValue());
+        }
+    }
+
     private Map<String, Object> finalizeMetricsSnapshot(@Nonnull MetricsCollector metrics, @Nonnull Instant overallStart) {
         long startMillis = overallStart.toEpochMilli();
         Object existingStart = metrics.getGauge("review.startEpochMs");
@@ -1070,6 +1191,15 @@ public class AIReviewServiceImpl implements AIReviewService {
         return buildSkippedResult(pullRequestId, ex.getUserMessage(), metrics);
     }
 
+    private ReviewResult buildDelegatedResult(long pullRequestId, ReviewDelegatedException ex) {
+        Map<String, Object> metrics = instantReviewMetrics("delegated");
+        metrics.put("queue.delegatedTo", ex.getNodeId());
+        metrics.put("queue.runId", ex.getRunId());
+        return buildSkippedResult(pullRequestId,
+                "Review is running on cluster node " + ex.getNodeId() + ".",
+                metrics);
+    }
+
     private ReviewResult buildQueueInterruptedResult(long pullRequestId) {
         Map<String, Object> metrics = instantReviewMetrics("queue-interrupted");
         return buildFailedResult(pullRequestId,
@@ -1214,6 +1344,106 @@ public class AIReviewServiceImpl implements AIReviewService {
         return trimmed.substring(0, Math.max(0, maxLength - 3)) + "...";
     }
     
+    /**
+     * Decides whether an update run can re-review only what changed since the last finished review and, if
+     * so, loads that review's findings together with the interdiff scope.
+     *
+     * @return the baseline, or {@code null} when a full review is required
+     */
+    @Nullable
+    private IncrementalBaseline resolveIncrementalBaseline(@Nonnull ReviewRun run,
+                                                           @Nonnull PullRequest pullRequest,
+                                                           @Nonnull ReviewConfig reviewConfig,
+                                                           @Nullable ApplicationUser actingUser,
+                                                           @Nonnull MetricsRecorderAdapter recorder) {
+        if (!run.update || run.force || !reviewConfig.isIncrementalReReview()) {
+            return null;
+        }
+        String headCommit = pullRequest.getFromRef() != null ? pullRequest.getFromRef().getLatestCommit() : null;
+        if (headCommit == null || headCommit.isEmpty()) {
+            return null;
+        }
+        try {
+            Optional<AIReviewHistory> latest = reviewHistoryService.findLatestForPullRequest(pullRequest.getId());
+            if (!latest.isPresent()) {
+                return null;
+            }
+            AIReviewHistory history = latest.get();
+            String sinceCommit = history.getFromCommit();
+            String findingsJson = history.getFindingsJson();
+            // PARTIAL only means the review found high-severity issues; what matters is that every chunk ran.
+            // Chunks that failed or were dropped by maxChunks left edits unreviewed that the next interdiff
+            // would no longer contain, so such a review cannot anchor an incremental one.
+            if (!isFinishedReview(ReviewResult.Status.fromString(history.getReviewStatus()))
+                    || history.getFailedChunks() > 0
+                    || isTruncatedReview(history)
+                    || sinceCommit == null || sinceCommit.isEmpty()
+                    || sinceCommit.equals(headCommit)
+                    || findingsJson == null) {
+                return null;
+            }
+            List<ReviewFinding> previous = ReviewFindingCodec.fromJson(LargeFieldCompression.decompress(findingsJson));
+            DiffModel interdiff = runWithUser(actingUser, () ->
+                    diffProvider.collectInterdiff(pullRequest, sinceCommit, headCommit, reviewConfig, recorder));
+            LogSupport.info(log, "review.incremental", "Re-reviewing changes since previous review",
+                    "pullRequestId", pullRequest.getId(),
+                    "sinceCommit", sinceCommit,
+                    "headCommit", headCommit,
+                    "touchedFiles", interdiff.getFileCount());
+            return new IncrementalBaseline(IncrementalScope.fromInterdiff(sinceCommit, interdiff), previous);
+        } catch (Exception ex) {
+            recorder.increment("review.incremental.fallback");
+            LogSupport.warn(log, "review.incremental_unavailable", "Falling back to full re-review",
+                    "pullRequestId", pullRequest.getId(),
+                    "error", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code true} for a review that ran to completion, whatever the severity of its findings
+     */
+    private static boolean isFinishedReview(@Nullable ReviewResult.Status status) {
+        return status == ReviewResult.Status.SUCCESS || status == ReviewResult.Status.PARTIAL;
+    }
+
+    private static boolean isTruncatedReview(@Nonnull AIReviewHistory history) {
+        Object truncated = ChunkTelemetryUtil.readMetricsMap(history.getMetricsJson()).get("chunks.truncated");
+        return Boolean.TRUE.equals(truncated) || "true".equals(truncated);
+    }
+
+    @Nonnull
+    private List<ReviewFinding> toFindings(@Nonnull List<ReviewIssue> issues) {
+        List<ReviewFinding> findings = new ArrayList<>(issues.size());
+        for (ReviewIssue issue : issues) {
+            ReviewFinding.Builder builder = ReviewFinding.builder()
+                    .filePath(issue.getPath())
+                    .severity(SeverityLevel.fromString(issue.getSeverity().getValue()))
+                    .category(IssueCategory.fromString(issue.getType()))
+                    .summary(issue.getSummary())
+                    .details(issue.getDetails())
+                    .fix(issue.getFix())
+                    .snippet(issue.getProblematicCode());
+            Integer start = issue.getLineStart();
+            if (start != null && start > 0) {
+                Integer end = issue.getLineEnd();
+                builder.lineRange(LineRange.of(start, end != null ? Math.max(start, end) : start));
+            }
+            findings.add(builder.build());
+        }
+        return findings;
+    }
+
+    private static final class IncrementalBaseline {
+        final IncrementalScope scope;
+        final List<ReviewFinding> previousFindings;
+
+        IncrementalBaseline(@Nonnull IncrementalScope scope, @Nonnull List<ReviewFinding> previousFindings) {
+            this.scope = scope;
+            this.previousFindings = previousFindings;
+        }
+    }
+
     private static class ReviewComparison {
         final List<ReviewIssue> resolvedIssues;
         final List<ReviewIssue> newIssues;
@@ -1239,6 +1469,15 @@ public class AIReviewServiceImpl implements AIReviewService {
         private boolean guardrailsEnabled = true;
 
         private ReviewRun(@Nonnull PullRequest pullRequest, boolean update, boolean force, boolean manual) {
+            this(pullRequest, update, force, manual, UUID.randomUUID().toString(), null);
+        }
+
+        private ReviewRun(@Nonnull PullRequest pullRequest,
+                          boolean update,
+                          boolean force,
+                          boolean manual,
+                          String runId,
+                          @Nullable String requestedBy) {
             this.update = update;
             this.force = force;
             this.manual = manual;
@@ -1246,8 +1485,8 @@ public class AIReviewServiceImpl implements AIReviewService {
             this.repository = pullRequest.getToRef() != null ? pullRequest.getToRef().getRepository() : null;
             this.projectKey = repository != null && repository.getProject() != null ? repository.getProject().getKey() : null;
             this.repositorySlug = repository != null ? repository.getSlug() : null;
-            this.runId = UUID.randomUUID().toString();
-            this.requestedBy = resolveRequestedBy(pullRequest);
+            this.runId = runId;
+            this.requestedBy = requestedBy != null ? requestedBy : resolveRequestedBy(pullRequest);
             this.cohortKey = null;
         }
 
@@ -1267,6 +1506,14 @@ public class AIReviewServiceImpl implements AIReviewService {
             return new ReviewRun(pullRequest, true, force, true);
         }
 
+        /**
+         * Run queued by another node and leased by this one; keeps the original run id.
+         */
+        static ReviewRun leased(@Nonnull PullRequest pullRequest, @Nonnull ReviewWorkQueueService.WorkItem item) {
+            return new ReviewRun(pullRequest, item.isUpdate(), item.isForce(), item.isManual(),
+                    item.getRunId(), item.getRequestedBy());
+        }
+
         String getProjectKey() {
             return projectKey;
         }
@@ -1287,7 +1534,8 @@ public class AIReviewServiceImpl implements AIReviewService {
                     requestedBy,
                     cohortKey,
                     rolloutMode,
-                    guardrailsEnabled);
+                    guardrailsEnabled,
+                    repository != null ? repository.getId() : -1);
         }
 
         ProgressRegistry.ProgressMetadata toProgressMetadata() {
@@ -1362,125 +1610,6 @@ public class AIReviewServiceImpl implements AIReviewService {
         }
     }
 
-    /**
-     * Validates that the PR size is within configured limits.
-     *
-     * @param diff the PR diff
-     * @return validation result with size metrics
-     */
-    @Nonnull
-    private PRSizeValidation validatePRSize(@Nonnull String diff) {
-        int sizeBytes = diff.getBytes(StandardCharsets.UTF_8).length;
-        double sizeMB = sizeBytes / (1024.0 * 1024.0);
-        int lines = diff.split("\n").length;
-
-        int maxDiffSize = (int) configService.getConfigurationAsMap().get("maxDiffSize");
-        double maxSizeMB = maxDiffSize / (1024.0 * 1024.0);
-
-        if (sizeBytes > maxDiffSize) {
-            String message = String.format("Diff too large: %.2f MB exceeds %.2f MB limit", sizeMB, maxSizeMB);
-            return PRSizeValidation.invalid(message, sizeBytes, sizeMB, lines);
-        }
-
-        return PRSizeValidation.valid(sizeBytes, sizeMB, lines);
-    }
-
-    /**
-     * Analyzes diff to extract file changes (additions/deletions per file).
-     *
-     * @param diffText the diff text
-     * @return map of file path to FileChange
-     */
-    @Nonnull
-    private Map<String, FileChange> analyzeDiffForSummary(@Nonnull String diffText) {
-        Map<String, FileChange> fileChanges = new HashMap<>();
-        String currentFile = null;
-        int additions = 0;
-        int deletions = 0;
-
-        for (String line : diffText.split("\n")) {
-            if (line.startsWith("diff --git ")) {
-                if (currentFile != null) {
-                    fileChanges.put(currentFile, new FileChange(currentFile, additions, deletions));
-                }
-                String[] parts = line.split(" ");
-                if (parts.length >= 3) {
-                    currentFile = parts[2].substring(2);
-                    additions = 0;
-                    deletions = 0;
-                }
-            } else if (line.startsWith("+") && !line.startsWith("+++")) {
-                additions++;
-            } else if (line.startsWith("-") && !line.startsWith("---")) {
-                deletions++;
-            }
-        }
-
-        if (currentFile != null) {
-            fileChanges.put(currentFile, new FileChange(currentFile, additions, deletions));
-        }
-
-        return fileChanges;
-    }
-
-    /**
-     * Filters files based on extension and ignore patterns.
-     *
-     * @param files set of file paths
-     * @return filtered set of files to review
-     */
-    @Nonnull
-    private Set<String> filterFilesForReview(@Nonnull Set<String> files) {
-        Map<String, Object> config = configService.getConfigurationAsMap();
-        String reviewExtensions = (String) config.get("reviewExtensions");
-        String ignorePatterns = (String) config.get("ignorePatterns");
-        String ignorePaths = (String) config.get("ignorePaths");
-
-        Set<String> allowedExtensions = new HashSet<>(Arrays.asList(reviewExtensions.split(",")));
-        List<String> ignorePatternList = Arrays.asList(ignorePatterns.split(","));
-        List<String> ignorePathList = Arrays.asList(ignorePaths.split(","));
-
-        return files.stream().filter(file -> {
-            // Check ignore paths
-            for (String path : ignorePathList) {
-                if (file.contains(path.trim())) {
-                    LogSupport.debug(log, "filter.ignore_path", "Ignoring file in excluded path",
-                            "filePath", file);
-                    return false;
-                }
-            }
-
-            // Check ignore patterns
-            String fileName = file.substring(file.lastIndexOf('/') + 1);
-            for (String pattern : ignorePatternList) {
-                String regex = pattern.trim().replace("*", ".*");
-                if (fileName.matches(regex)) {
-                    LogSupport.debug(log, "filter.ignore_pattern", "Ignoring file by pattern",
-                            "filePath", file,
-                            "pattern", pattern);
-                    return false;
-                }
-            }
-
-            // Check extension
-            int lastDot = file.lastIndexOf('.');
-            if (lastDot == -1) {
-                LogSupport.debug(log, "filter.no_extension", "Ignoring file with no extension",
-                        "filePath", file);
-                return false;
-            }
-
-            String extension = file.substring(lastDot + 1).toLowerCase();
-            if (!allowedExtensions.contains(extension)) {
-                LogSupport.debug(log, "filter.unsupported_extension", "Ignoring file with non-reviewable extension",
-                        "filePath", file,
-                        "extension", extension);
-                return false;
-            }
-
-            return true;
-        }).collect(Collectors.toSet());
-    }
     /**
      * Maps ReviewIssue.Severity to CommentSeverity for Bitbucket comments.
      * CRITICAL and HIGH severity issues are marked as BLOCKER comments.
@@ -1901,10 +2030,10 @@ public class AIReviewServiceImpl implements AIReviewService {
     }
 
     /**
-     * Validates issue compliance with rules - now leveraging per-file diffs.
+     * Validates issue compliance with rules using the line spans of the streamed diff model.
      */
     private boolean isValidIssue(@Nonnull ReviewIssue issue,
-                                 @Nonnull Map<String, String> fileDiffs,
+                                 @Nonnull DiffModel diffModel,
                                  @Nonnull Map<String, DiffPositionResolver.DiffPositionIndex> diffIndexCache) {
         String path = issue.getPath();
         Integer lineStart = issue.getLineStart();
@@ -1925,8 +2054,8 @@ public class AIReviewServiceImpl implements AIReviewService {
             return false;
         }
 
-        String diff = lookupFileDiff(fileDiffs, path);
-        if (diff == null || diff.isEmpty()) {
+        DiffFile diffFile = lookupDiffFile(diffModel, path);
+        if (diffFile == null || diffFile.getHunks().isEmpty()) {
             LogSupport.warn(log, "validation.diff_missing", "Diff not found for issue",
                     "filePath", path);
             return false;
@@ -1934,7 +2063,7 @@ public class AIReviewServiceImpl implements AIReviewService {
 
         String canonical = canonicalPath(path);
         DiffPositionResolver.DiffPositionIndex index = diffIndexCache.computeIfAbsent(canonical,
-                key -> DiffPositionResolver.index(diff));
+                key -> DiffPositionResolver.index(diffFile));
 
         if (!index.containsLine(anchorLine)) {
             LogSupport.warn(log, "validation.line_missing", "Line not found in diff",
@@ -1946,20 +2075,33 @@ public class AIReviewServiceImpl implements AIReviewService {
         return true;
     }
 
-    private String lookupFileDiff(Map<String, String> fileDiffs, String path) {
+    private DiffFile lookupDiffFile(DiffModel diffModel, String path) {
         String canonical = canonicalPath(path);
-        String direct = fileDiffs.get(canonical);
+        DiffFile direct = diffModel.getFile(canonical);
         if (direct != null) {
             return direct;
         }
-        for (Map.Entry<String, String> entry : fileDiffs.entrySet()) {
-            if (canonicalPath(entry.getKey()).equals(canonical)) {
-                return entry.getValue();
+        for (DiffFile file : diffModel.getFiles()) {
+            if (canonicalPath(file.getPath()).equals(canonical)) {
+                return file;
             }
         }
         return null;
     }
 
+    /**
+     * Returns the model captured while streaming; contexts assembled from text alone are parsed once here.
+     */
+    @Nonnull
+    private DiffModel resolveDiffModel(@Nonnull ReviewContext context) {
+        DiffModel model = context.getDiffModel();
+        if (model != null) {
+            return model;
+        }
+        String rawDiff = context.getRawDiff();
+        return rawDiff == null || rawDiff.isEmpty() ? DiffModel.empty() : StreamingDiffAccumulator.parse(rawDiff);
+    }
+
     private String canonicalPath(String input) {
         return input == null ? "" : input.replace("\\", "/").replaceAll("^/+", "");
     }
@@ -2298,6 +2440,9 @@ public class AIReviewServiceImpl implements AIReviewService {
 
                 // Store metrics snapshot as JSON string
                 history.setMetricsJson(serializeMetrics(metricsMap));
+                if (isFinishedReview(result.getStatus())) {
+                    history.setFindingsJson(serializeFindings(issues));
+                }
                 List<Map<String, Object>> progressEntries = convertProgressEvents(result.getProgressEvents());
                 history.setProgressJson(progressEntries.isEmpty() ? null : serializeProgress(progressEntries));
 
@@ -2914,6 +3059,17 @@ public class AIReviewServiceImpl implements AIReviewService {
         return LargeFieldCompression.compress(sb.toString());
     }
 
+    @Nullable
+    private String serializeFindings(@Nonnull List<ReviewIssue> issues) {
+        try {
+            return LargeFieldCompression.compress(ReviewFindingCodec.toJson(toFindings(issues)));
+        } catch (Exception ex) {
+            LogSupport.warn(log, "history.findings_serialize_failed", "Failed to serialise review findings",
+                    "error", ex.getMessage());
+            return null;
+        }
+    }
+
     private String serializeProgress(List<Map<String, Object>> events) {
         StringBuilder sb = new StringBuilder();
         appendJsonValue(sb, events);
@@ -3027,19 +3183,8 @@ public class AIReviewServiceImpl implements AIReviewService {
         reasonCounts.put("noExtension", 0);
         reasonCounts.put("noDiffHunks", 0);
 
-        Set<String> allowedExtensions = context.getConfig().getReviewableExtensions().stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
-        List<Pattern> ignorePatterns = context.getConfig().getIgnorePatterns().stream()
-                .filter(s -> !s.trim().isEmpty())
-                .map(this::globToPattern)
-                .collect(Collectors.toList());
-        List<String> ignorePaths = context.getConfig().getIgnorePaths().stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toList());
-
-        boolean skipGenerated = context.getConfig().getProfile().isSkipGeneratedFiles();
-        boolean reviewTests = context.getConfig().getProfile().isReviewTests();
+        // Same compiled filter the chunk planner selected the files with.
+        PathFilter filter = PathFilter.forConfig(context.getConfig());
         Set<String> filesWithoutHunksSet = new HashSet<>(filesWithoutHunks);
 
         context.getFileStats().keySet().forEach(file -> {
@@ -3052,67 +3197,33 @@ public class AIReviewServiceImpl implements AIReviewService {
                 return;
             }
 
-            String lower = file.toLowerCase();
-            for (String path : ignorePaths) {
-                if (!path.isEmpty() && lower.contains(path)) {
-                    reasonCounts.computeIfPresent("ignorePaths", (k, v) -> v + 1);
-                    return;
-                }
-            }
-
-            for (Pattern pattern : ignorePatterns) {
-                if (pattern.matcher(lower).matches()) {
-                    reasonCounts.computeIfPresent("ignorePatterns", (k, v) -> v + 1);
-                    return;
-                }
-            }
-
-            if (skipGenerated && looksGenerated(file)) {
-                reasonCounts.computeIfPresent("generated", (k, v) -> v + 1);
-                return;
-            }
-
-            if (!reviewTests && looksLikeTestFile(file)) {
-                reasonCounts.computeIfPresent("tests", (k, v) -> v + 1);
-                return;
-            }
-
-            int idx = file.lastIndexOf('.');
-            if (idx < 0) {
-                reasonCounts.computeIfPresent("noExtension", (k, v) -> v + 1);
-                return;
-            }
-
-            String ext = file.substring(idx + 1).toLowerCase();
-            if (!allowedExtensions.isEmpty() && !allowedExtensions.contains(ext)) {
-                reasonCounts.computeIfPresent("allowedExtensions", (k, v) -> v + 1);
-                return;
+            String reason = filterReasonKey(filter.classify(file));
+            if (reason != null) {
+                reasonCounts.computeIfPresent(reason, (k, v) -> v + 1);
             }
         });
 
         return reasonCounts;
     }
 
-    private Pattern globToPattern(String glob) {
-        String trimmed = glob.trim().toLowerCase();
-        if (trimmed.isEmpty()) {
-            return Pattern.compile("$^");
+    @Nullable
+    private static String filterReasonKey(PathFilter.Verdict verdict) {
+        switch (verdict) {
+            case IGNORED_PATH:
+                return "ignorePaths";
+            case IGNORED_PATTERN:
+                return "ignorePatterns";
+            case NO_EXTENSION:
+                return "noExtension";
+            case EXTENSION_NOT_ALLOWED:
+                return "allowedExtensions";
+            case GENERATED:
+                return "generated";
+            case TEST:
+                return "tests";
+            default:
+                return null;
         }
-        String regex = trimmed
-                .replace(".", "\\.")
-                .replace("*", ".*")
-                .replace("?", ".");
-        return Pattern.compile(regex);
-    }
-
-    private boolean looksGenerated(String file) {
-        String lower = file.toLowerCase();
-        return lower.contains("generated") || lower.endsWith(".g.dart") || lower.contains("build/");
-    }
-
-    private boolean looksLikeTestFile(String file) {
-        String lower = file.toLowerCase();
-        return TEST_KEYWORDS.stream().anyMatch(lower::contains);
     }
 
     /**
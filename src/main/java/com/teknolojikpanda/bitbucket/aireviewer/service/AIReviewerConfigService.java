@@ -38,7 +38,7 @@ public interface AIReviewerConfigService {
     /**
      * Gets the configuration as a Map for REST API responses.
      *
-     * @return map of configuration key-value pairs
+     * @return unmodifiable map of configuration key-value pairs; cheap to call on hot paths
      */
     @Nonnull
     Map<String, Object> getConfigurationAsMap();
@@ -98,7 +98,7 @@ public interface AIReviewerConfigService {
      *
      * @param projectKey the Bitbucket project key
      * @param repositorySlug the repository slug
-     * @return map of effective configuration values
+     * @return unmodifiable map of effective configuration values
      */
     @Nonnull
     Map<String, Object> getEffectiveConfiguration(@Nonnull String projectKey, @Nonnull String repositorySlug);
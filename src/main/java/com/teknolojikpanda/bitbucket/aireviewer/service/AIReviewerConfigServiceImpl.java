@@ -14,6 +14,9 @@ import com.atlassian.bitbucket.user.ApplicationUser;
 import com.atlassian.bitbucket.user.UserService;
 import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
 import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkExecutionEngine;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkStrategyType;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfilePreset;
 import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewConfiguration;
 import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewRepoConfiguration;
@@ -45,12 +48,20 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.regex.Pattern;
 
 /**
  * Implementation of AIReviewerConfigService using Active Objects for persistence.
+ * <p>
+ * Reads are served from an immutable {@link ConfigurationSnapshot} held in a volatile field. Every change made
+ * through this service increments {@code CONFIG_VERSION} on the global configuration row and drops the local
+ * snapshot; other cluster nodes compare their snapshot's version with the stored one at most every
+ * {@link #VERSION_CHECK_INTERVAL_MS} and reload when it differs.
  */
 @Named
 @ExportAsService(AIReviewerConfigService.class)
@@ -63,15 +74,26 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     private final RepositoryService repositoryService;
     private final UserService userService;
     private final HttpClientUtil httpClientUtil;
+    private final ChunkExecutionEngine chunkExecutionEngine;
+    private final Object snapshotLock = new Object();
+    private final AtomicLong snapshotGeneration = new AtomicLong();
+    private final AtomicBoolean versionCheckInFlight = new AtomicBoolean();
+    private volatile ConfigurationSnapshot snapshot;
+    private volatile long versionCheckIntervalMs = VERSION_CHECK_INTERVAL_MS;
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
 
+    static final long VERSION_CHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+    /** Snapshots are rebuilt at least this often so values derived outside the table (user names) refresh. */
+    private static final long MAX_SNAPSHOT_AGE_MS = TimeUnit.MINUTES.toMillis(5);
+
     private static final String KEY_PARALLEL_THREADS = "parallelThreads";
     private static final String KEY_MAX_PARALLEL_CHUNKS = "maxParallelChunks";
 
     private static final Set<String> INTEGER_KEYS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
             "maxCharsPerChunk",
+            "modelContextTokens",
             "maxFilesPerChunk",
             "maxChunks",
             KEY_PARALLEL_THREADS,
@@ -90,9 +112,20 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             "connectTimeout",
             "readTimeout",
             "ollamaTimeout",
+            "primaryModelMaxConnections",
+            "fallbackModelMaxConnections",
+            "maxModelResponseBytes",
+            "maxConcurrentModelRequests",
+            "hedgePercentile",
+            "hedgeBudgetPercent",
+            "modelRateLimitPerSecond",
+            "modelCircuitFailureThreshold",
+            "modelCircuitOpenSeconds",
+            "rescopeQuietPeriodSeconds",
             "maxIssuesPerFile",
             "maxIssueComments",
             "maxDiffSize",
+            "diffSpillThreshold",
             "maxRetries",
             "overviewMaxRetries",
             "chunkMaxRetries",
@@ -108,6 +141,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             "skipGeneratedFiles",
             "skipTests",
             "autoApprove",
+            "streamModelResponses",
+            "chunkResultCacheEnabled",
+            "incrementalReReview",
+            "adaptiveModelConcurrency",
+            "hedgeRequests",
             "workerDegradationEnabled"
     )));
 
@@ -120,6 +158,8 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     private static final String DEFAULT_OLLAMA_URL = "http://0.0.0.0:11434";
     private static final String DEFAULT_OLLAMA_MODEL = "qwen3-coder:30b";
     private static final String DEFAULT_FALLBACK_MODEL = "qwen3-coder:7b";
+    private static final String DEFAULT_MODEL_ENDPOINTS = "";
+    private static final String DEFAULT_MODEL_ENDPOINT_RATE_LIMITS = "";
     private static final int DEFAULT_MAX_CHARS_PER_CHUNK = 60000;
     private static final int DEFAULT_MAX_FILES_PER_CHUNK = 3;
     private static final int DEFAULT_MAX_CHUNKS = 20;
@@ -136,9 +176,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
     private static final int DEFAULT_READ_TIMEOUT = 30000;
     private static final int DEFAULT_OLLAMA_TIMEOUT = 300000;
+    private static final int DEFAULT_PRIMARY_MODEL_MAX_CONNECTIONS = 8;
+    private static final int DEFAULT_FALLBACK_MODEL_MAX_CONNECTIONS = 4;
+    private static final int DEFAULT_MAX_MODEL_RESPONSE_BYTES = 2000000;
+    private static final int DEFAULT_MAX_CONCURRENT_MODEL_REQUESTS = 16;
+    private static final int DEFAULT_HEDGE_PERCENTILE = 90;
+    private static final int DEFAULT_HEDGE_BUDGET_PERCENT = 10;
+    private static final int DEFAULT_MODEL_RATE_LIMIT_PER_SECOND = 10;
+    private static final int DEFAULT_MODEL_CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final int DEFAULT_MODEL_CIRCUIT_OPEN_SECONDS = 60;
+    private static final int DEFAULT_RESCOPE_QUIET_PERIOD_SECONDS = 30;
     private static final int DEFAULT_MAX_ISSUES_PER_FILE = 50;
     private static final int DEFAULT_MAX_ISSUE_COMMENTS = 30;
     private static final int DEFAULT_MAX_DIFF_SIZE = 10000000;
+    private static final int DEFAULT_DIFF_SPILL_THRESHOLD = 0;
+    private static final int DEFAULT_MODEL_CONTEXT_TOKENS = 0;
     private static final int DEFAULT_MAX_RETRIES = 3;
     private static final int DEFAULT_BASE_RETRY_DELAY = 1000;
     private static final int DEFAULT_CHUNK_MAX_RETRIES = DEFAULT_MAX_RETRIES;
@@ -152,12 +204,19 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     private static final String DEFAULT_IGNORE_PATTERNS = "*.min.js,*.generated.*,package-lock.json,yarn.lock,*.map";
     private static final String DEFAULT_IGNORE_PATHS = "node_modules/,vendor/,build/,dist/,.git/";
     private static final String DEFAULT_REVIEW_PROFILE_KEY = ReviewProfilePreset.BALANCED.getKey();
+    private static final String DEFAULT_QUEUE_ADMISSION_POLICY = ReviewAdmissionPolicy.DEFAULT.toConfigValue();
+    private static final String DEFAULT_CHUNK_STRATEGY = ChunkStrategyType.DEFAULT.toConfigValue();
     private static final String DEFAULT_SCOPE_MODE = ScopeMode.ALL.toConfigValue();
     private static final boolean DEFAULT_ENABLED = true;
     private static final boolean DEFAULT_REVIEW_DRAFT_PRS = false;
     private static final boolean DEFAULT_SKIP_GENERATED = true;
     private static final boolean DEFAULT_SKIP_TESTS = false;
     private static final boolean DEFAULT_AUTO_APPROVE = false;
+    private static final boolean DEFAULT_STREAM_MODEL_RESPONSES = false;
+    private static final boolean DEFAULT_CHUNK_RESULT_CACHE_ENABLED = true;
+    private static final boolean DEFAULT_INCREMENTAL_RE_REVIEW = false;
+    private static final boolean DEFAULT_ADAPTIVE_MODEL_CONCURRENCY = true;
+    private static final boolean DEFAULT_HEDGE_REQUESTS = false;
     private static final boolean DEFAULT_WORKER_DEGRADATION_ENABLED = true;
     private static final String DEFAULT_PRIORITY_PROJECTS = "";
     private static final String DEFAULT_PRIORITY_REPOSITORIES = "";
@@ -174,7 +233,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
                 "ollamaUrl",
                 "ollamaModel",
                 "fallbackModel",
+                "primaryModelEndpoints",
+                "fallbackModelEndpoints",
+                "modelEndpointRateLimits",
                 "maxCharsPerChunk",
+                "modelContextTokens",
                 "maxFilesPerChunk",
                 "maxChunks",
                 KEY_PARALLEL_THREADS,
@@ -197,9 +260,20 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
                 "connectTimeout",
                 "readTimeout",
                 "ollamaTimeout",
+                "primaryModelMaxConnections",
+                "fallbackModelMaxConnections",
+                "maxModelResponseBytes",
+                "maxConcurrentModelRequests",
+                "hedgePercentile",
+                "hedgeBudgetPercent",
+                "modelRateLimitPerSecond",
+                "modelCircuitFailureThreshold",
+                "modelCircuitOpenSeconds",
+                "rescopeQuietPeriodSeconds",
                 "maxIssuesPerFile",
                 "maxIssueComments",
                 "maxDiffSize",
+                "diffSpillThreshold",
                 "maxRetries",
                 "overviewMaxRetries",
                 "chunkMaxRetries",
@@ -213,11 +287,18 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
                 "ignorePatterns",
                 "ignorePaths",
                 "reviewProfile",
+                "queueAdmissionPolicy",
+                "chunkStrategy",
                 "enabled",
                 "reviewDraftPRs",
                 "skipGeneratedFiles",
                 "skipTests",
                 "autoApprove",
+                "streamModelResponses",
+                "chunkResultCacheEnabled",
+                "incrementalReReview",
+                "adaptiveModelConcurrency",
+                "hedgeRequests",
                 "workerDegradationEnabled",
                 "aiReviewerUser",
                 "scopeMode"
@@ -230,24 +311,31 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             @ComponentImport ActiveObjects ao,
             @ComponentImport ProjectService projectService,
             @ComponentImport RepositoryService repositoryService,
-            @ComponentImport UserService userService) {
-        this(ao, projectService, repositoryService, userService, new HttpClientUtil());
+            @ComponentImport UserService userService,
+            ChunkExecutionEngine chunkExecutionEngine) {
+        this(ao, projectService, repositoryService, userService, new HttpClientUtil(), chunkExecutionEngine);
     }
 
     AIReviewerConfigServiceImpl(ActiveObjects ao) {
-        this(ao, null, null, null, new HttpClientUtil());
+        this(ao, null, null, null, new HttpClientUtil(), null);
+    }
+
+    AIReviewerConfigServiceImpl(ActiveObjects ao, @Nullable ChunkExecutionEngine chunkExecutionEngine) {
+        this(ao, null, null, null, new HttpClientUtil(), chunkExecutionEngine);
     }
 
     AIReviewerConfigServiceImpl(ActiveObjects ao,
                                 ProjectService projectService,
                                 RepositoryService repositoryService,
                                 UserService userService,
-                                HttpClientUtil httpClientUtil) {
+                                HttpClientUtil httpClientUtil,
+                                @Nullable ChunkExecutionEngine chunkExecutionEngine) {
         this.ao = Objects.requireNonNull(ao, "activeObjects cannot be null");
         this.projectService = projectService;
         this.repositoryService = repositoryService;
         this.userService = userService;
         this.httpClientUtil = httpClientUtil != null ? httpClientUtil : new HttpClientUtil();
+        this.chunkExecutionEngine = chunkExecutionEngine;
     }
 
     @Nonnull
@@ -281,12 +369,13 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         Objects.requireNonNull(configMap, "configMap cannot be null");
         validateConfiguration(configMap);
 
-        return ao.executeInTransaction(() -> {
+        return executeConfigurationChange(() -> {
             AIReviewConfiguration config = getOrCreateConfiguration();
 
             // Update all fields from the map using safe setters
             updateConfigurationFields(config, configMap);
 
+            config.setConfigVersion(config.getConfigVersion() + 1);
             config.save();
             log.info("Configuration updated successfully");
             return config;
@@ -296,8 +385,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     @Nonnull
     @Override
     public Map<String, Object> getConfigurationAsMap() {
-        AIReviewConfiguration config = getGlobalConfiguration();
-        return convertToMap(config);
+        return currentSnapshot().getGlobal();
     }
 
     @Override
@@ -322,6 +410,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         });
         validateString(configMap, "ollamaModel", true, 512, errors, null);
         validateString(configMap, "fallbackModel", true, 512, errors, null);
+        validateString(configMap, "primaryModelEndpoints", false, 4000, errors,
+                value -> validateUrlList("primaryModelEndpoints", value, errors));
+        validateString(configMap, "fallbackModelEndpoints", false, 4000, errors,
+                value -> validateUrlList("fallbackModelEndpoints", value, errors));
+        validateEndpointRateLimits(configMap, errors);
 
         String ollamaModel = trimToNull(configMap.get("ollamaModel"));
         String fallbackModel = trimToNull(configMap.get("fallbackModel"));
@@ -330,6 +423,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         }
 
         validateIntegerRange(configMap, "maxCharsPerChunk", 10_000, 100_000, errors);
+        validateIntegerRange(configMap, "modelContextTokens", 0, 1_048_576, errors);
         validateIntegerRange(configMap, "maxFilesPerChunk", 1, 10, errors);
         validateIntegerRange(configMap, "maxChunks", 1, 50, errors);
         validateIntegerRange(configMap, "parallelThreads", 1, 16, errors);
@@ -342,6 +436,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         validateIntegerRange(configMap, "projectRateLimitPerHour", 0, 2000, errors);
         validateIntegerRange(configMap, "maxIssuesPerFile", 1, 100, errors);
         validateIntegerRange(configMap, "maxIssueComments", 1, 100, errors);
+        validateIntegerRange(configMap, "diffSpillThreshold", 0, 100_000_000, errors);
         validateIntegerRange(configMap, "maxRetries", 0, 10, errors);
         validateIntegerRange(configMap, "overviewMaxRetries", 0, 10, errors);
         validateIntegerRange(configMap, "chunkMaxRetries", 0, 10, errors);
@@ -349,6 +444,16 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         validateIntegerRange(configMap, "overviewRetryDelay", 100, 120_000, errors);
         validateIntegerRange(configMap, "chunkRetryDelay", 100, 60_000, errors);
         validateIntegerRange(configMap, "ollamaTimeout", 5_000, 600_000, errors);
+        validateIntegerRange(configMap, "primaryModelMaxConnections", 1, 64, errors);
+        validateIntegerRange(configMap, "fallbackModelMaxConnections", 1, 64, errors);
+        validateIntegerRange(configMap, "maxModelResponseBytes", 10_000, 50_000_000, errors);
+        validateIntegerRange(configMap, "maxConcurrentModelRequests", 1, 256, errors);
+        validateIntegerRange(configMap, "hedgePercentile", 50, 99, errors);
+        validateIntegerRange(configMap, "hedgeBudgetPercent", 1, 100, errors);
+        validateIntegerRange(configMap, "modelRateLimitPerSecond", 1, 1000, errors);
+        validateIntegerRange(configMap, "modelCircuitFailureThreshold", 1, 100, errors);
+        validateIntegerRange(configMap, "modelCircuitOpenSeconds", 5, 3600, errors);
+        validateIntegerRange(configMap, "rescopeQuietPeriodSeconds", 0, 600, errors);
         validateIntegerRange(configMap, "connectTimeout", 1_000, 120_000, errors);
         validateString(configMap, "aiReviewerUser", false, 255, errors, null);
         validateString(configMap, "priorityProjects", false, 2000, errors,
@@ -373,6 +478,18 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             errors.put("reviewProfile", "Unknown profile preset '" + profileKey + "'");
         }
 
+        String admissionPolicy = trimToNull(configMap.get("queueAdmissionPolicy"));
+        if (admissionPolicy != null && ReviewAdmissionPolicy.parse(admissionPolicy) == null) {
+            errors.put("queueAdmissionPolicy", "Unknown admission policy '" + admissionPolicy
+                    + "'. Allowed values: fifo, priority, sjf, weighted-fair");
+        }
+
+        String chunkStrategy = trimToNull(configMap.get("chunkStrategy"));
+        if (chunkStrategy != null && ChunkStrategyType.parse(chunkStrategy) == null) {
+            errors.put("chunkStrategy", "Unknown chunk strategy '" + chunkStrategy
+                    + "'. Allowed values: size-first, bin-packing");
+        }
+
         String requireApproval = trimToNull(configMap.get("requireApprovalFor"));
         if (requireApproval != null) {
             List<String> invalid = Arrays.stream(requireApproval.split(","))
@@ -452,16 +569,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     @Nonnull
     @Override
     public AIReviewConfiguration resetToDefaults() {
-        return ao.executeInTransaction(() -> {
+        return executeConfigurationChange(() -> {
             // Delete existing configuration
             AIReviewConfiguration[] configs = ao.find(AIReviewConfiguration.class);
+            long version = 0L;
             for (AIReviewConfiguration config : configs) {
+                version = Math.max(version, config.getConfigVersion());
                 ao.delete(config);
             }
 
             // Create new default configuration
             log.info("Resetting configuration to defaults");
-            return createDefaultConfiguration();
+            AIReviewConfiguration config = createDefaultConfiguration();
+            config.setConfigVersion(version + 1);
+            config.save();
+            return config;
         });
     }
 
@@ -497,7 +619,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         defaults.put("ollamaUrl", DEFAULT_OLLAMA_URL);
         defaults.put("ollamaModel", DEFAULT_OLLAMA_MODEL);
         defaults.put("fallbackModel", DEFAULT_FALLBACK_MODEL);
+        defaults.put("primaryModelEndpoints", DEFAULT_MODEL_ENDPOINTS);
+        defaults.put("fallbackModelEndpoints", DEFAULT_MODEL_ENDPOINTS);
+        defaults.put("modelEndpointRateLimits", DEFAULT_MODEL_ENDPOINT_RATE_LIMITS);
         defaults.put("maxCharsPerChunk", DEFAULT_MAX_CHARS_PER_CHUNK);
+        defaults.put("modelContextTokens", DEFAULT_MODEL_CONTEXT_TOKENS);
         defaults.put("maxFilesPerChunk", DEFAULT_MAX_FILES_PER_CHUNK);
         defaults.put("maxChunks", DEFAULT_MAX_CHUNKS);
         defaults.put(KEY_PARALLEL_THREADS, DEFAULT_PARALLEL_THREADS);
@@ -505,9 +631,20 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         defaults.put("connectTimeout", DEFAULT_CONNECT_TIMEOUT);
         defaults.put("readTimeout", DEFAULT_READ_TIMEOUT);
         defaults.put("ollamaTimeout", DEFAULT_OLLAMA_TIMEOUT);
+        defaults.put("primaryModelMaxConnections", DEFAULT_PRIMARY_MODEL_MAX_CONNECTIONS);
+        defaults.put("fallbackModelMaxConnections", DEFAULT_FALLBACK_MODEL_MAX_CONNECTIONS);
+        defaults.put("maxModelResponseBytes", DEFAULT_MAX_MODEL_RESPONSE_BYTES);
+        defaults.put("maxConcurrentModelRequests", DEFAULT_MAX_CONCURRENT_MODEL_REQUESTS);
+        defaults.put("hedgePercentile", DEFAULT_HEDGE_PERCENTILE);
+        defaults.put("hedgeBudgetPercent", DEFAULT_HEDGE_BUDGET_PERCENT);
+        defaults.put("modelRateLimitPerSecond", DEFAULT_MODEL_RATE_LIMIT_PER_SECOND);
+        defaults.put("modelCircuitFailureThreshold", DEFAULT_MODEL_CIRCUIT_FAILURE_THRESHOLD);
+        defaults.put("modelCircuitOpenSeconds", DEFAULT_MODEL_CIRCUIT_OPEN_SECONDS);
+        defaults.put("rescopeQuietPeriodSeconds", DEFAULT_RESCOPE_QUIET_PERIOD_SECONDS);
         defaults.put("maxIssuesPerFile", DEFAULT_MAX_ISSUES_PER_FILE);
         defaults.put("maxIssueComments", DEFAULT_MAX_ISSUE_COMMENTS);
         defaults.put("maxDiffSize", DEFAULT_MAX_DIFF_SIZE);
+        defaults.put("diffSpillThreshold", DEFAULT_DIFF_SPILL_THRESHOLD);
         defaults.put("maxRetries", DEFAULT_MAX_RETRIES);
         defaults.put("chunkMaxRetries", DEFAULT_CHUNK_MAX_RETRIES);
         defaults.put("overviewMaxRetries", DEFAULT_OVERVIEW_MAX_RETRIES);
@@ -521,11 +658,18 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         defaults.put("ignorePatterns", DEFAULT_IGNORE_PATTERNS);
         defaults.put("ignorePaths", DEFAULT_IGNORE_PATHS);
         defaults.put("reviewProfile", DEFAULT_REVIEW_PROFILE_KEY);
+        defaults.put("queueAdmissionPolicy", DEFAULT_QUEUE_ADMISSION_POLICY);
+        defaults.put("chunkStrategy", DEFAULT_CHUNK_STRATEGY);
         defaults.put("enabled", DEFAULT_ENABLED);
         defaults.put("reviewDraftPRs", DEFAULT_REVIEW_DRAFT_PRS);
         defaults.put("skipGeneratedFiles", DEFAULT_SKIP_GENERATED);
         defaults.put("skipTests", DEFAULT_SKIP_TESTS);
         defaults.put("autoApprove", DEFAULT_AUTO_APPROVE);
+        defaults.put("streamModelResponses", DEFAULT_STREAM_MODEL_RESPONSES);
+        defaults.put("chunkResultCacheEnabled", DEFAULT_CHUNK_RESULT_CACHE_ENABLED);
+        defaults.put("incrementalReReview", DEFAULT_INCREMENTAL_RE_REVIEW);
+        defaults.put("adaptiveModelConcurrency", DEFAULT_ADAPTIVE_MODEL_CONCURRENCY);
+        defaults.put("hedgeRequests", DEFAULT_HEDGE_REQUESTS);
         defaults.put("workerDegradationEnabled", DEFAULT_WORKER_DEGRADATION_ENABLED);
         defaults.put("aiReviewerUser", null);
         defaults.put("priorityProjects", DEFAULT_PRIORITY_PROJECTS);
@@ -592,10 +736,9 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         Objects.requireNonNull(projectKey, "projectKey");
         Objects.requireNonNull(repositorySlug, "repositorySlug");
 
-        Map<String, Object> global = new LinkedHashMap<>(getConfigurationAsMap());
-        Map<String, Object> overrides = loadRepositoryOverrides(projectKey, repositorySlug);
-        overrides.forEach(global::put);
-        return Collections.unmodifiableMap(global);
+        return currentSnapshot()
+                .repository(projectKey, repositorySlug, this::loadRepositoryOverridesIfPresent)
+                .getEffective();
     }
 
     @Override
@@ -614,9 +757,10 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         overrideDiff.forEach(effective::put);
         validateConfiguration(effective);
 
-        ao.executeInTransaction(() -> {
+        executeConfigurationChange(() -> {
             AIReviewRepoConfiguration existing = findRepoConfiguration(projectKey, repositorySlug);
             long now = System.currentTimeMillis();
+            incrementConfigurationVersion();
 
             if (overrideDiff.isEmpty()) {
                 if (existing == null) {
@@ -657,10 +801,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         Objects.requireNonNull(projectKey, "projectKey");
         Objects.requireNonNull(repositorySlug, "repositorySlug");
 
-        ao.executeInTransaction(() -> {
+        executeConfigurationChange(() -> {
             AIReviewRepoConfiguration existing = findRepoConfiguration(projectKey, repositorySlug);
             if (existing != null) {
                 ao.delete(existing);
+                incrementConfigurationVersion();
             }
             return null;
         });
@@ -707,8 +852,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
     @Nonnull
     @Override
     public ScopeMode getScopeMode() {
-        AIReviewConfiguration config = getGlobalConfiguration();
-        return ScopeMode.fromString(config.getScopeMode());
+        return currentSnapshot().getScopeMode();
     }
 
     @Override
@@ -716,11 +860,11 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         Objects.requireNonNull(projectKey, "projectKey");
         Objects.requireNonNull(repositorySlug, "repositorySlug");
 
-        ScopeMode mode = getScopeMode();
-        if (mode == ScopeMode.ALL) {
+        ConfigurationSnapshot current = currentSnapshot();
+        if (current.getScopeMode() == ScopeMode.ALL) {
             return true;
         }
-        return ao.executeInTransaction(() -> findRepoConfiguration(projectKey, repositorySlug) != null);
+        return current.repository(projectKey, repositorySlug, this::loadRepositoryOverridesIfPresent).isPresent();
     }
 
     @Override
@@ -729,8 +873,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (normalized == null) {
             return false;
         }
-        AIReviewConfiguration config = getGlobalConfiguration();
-        return parsePriorityProjects(config.getPriorityProjects()).contains(normalized);
+        return currentSnapshot().isPriorityProject(normalized);
     }
 
     @Override
@@ -739,8 +882,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (normalized == null) {
             return false;
         }
-        AIReviewConfiguration config = getGlobalConfiguration();
-        return parsePriorityRepositories(config.getPriorityRepositories()).contains(normalized);
+        return currentSnapshot().isPriorityRepository(normalized);
     }
 
     @Override
@@ -836,7 +978,7 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         Map<String, Object> globalConfig = new LinkedHashMap<>(getConfigurationAsMap());
         long now = System.currentTimeMillis();
 
-        ao.executeInTransaction(() -> {
+        executeConfigurationChange(() -> {
             AIReviewRepoConfiguration[] existing = ao.find(AIReviewRepoConfiguration.class, Query.select());
             Map<String, AIReviewRepoConfiguration> existingMap = Arrays.stream(existing)
                     .collect(Collectors.toMap(
@@ -891,14 +1033,129 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
                 if (updatedBy != null) {
                     configuration.setModifiedBy(updatedBy);
                 }
-                configuration.save();
             }
+            configuration.setConfigVersion(configuration.getConfigVersion() + 1);
+            configuration.save();
             return null;
         });
     }
 
     // Private helper methods
 
+    /**
+     * Returns the current snapshot, reloading it when it was invalidated locally, is older than
+     * {@link #MAX_SNAPSHOT_AGE_MS}, or another node has stored a newer version. Only one caller at a time checks
+     * the stored version; everyone else keeps reading the current snapshot meanwhile.
+     */
+    private ConfigurationSnapshot currentSnapshot() {
+        ConfigurationSnapshot current = snapshot;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.getLoadedAt() >= MAX_SNAPSHOT_AGE_MS) {
+            return reloadSnapshot(current);
+        }
+        if (now - current.getCheckedAt() >= versionCheckIntervalMs && versionCheckInFlight.compareAndSet(false, true)) {
+            try {
+                if (readStoredVersion() != current.getVersion()) {
+                    return reloadSnapshot(current);
+                }
+                current.markChecked(now);
+            } catch (RuntimeException ex) {
+                log.debug("Unable to check configuration version, keeping snapshot v{}: {}",
+                        current.getVersion(), ex.getMessage());
+                current.markChecked(now);
+            } finally {
+                versionCheckInFlight.set(false);
+            }
+        }
+        return current;
+    }
+
+    private ConfigurationSnapshot reloadSnapshot(@Nullable ConfigurationSnapshot stale) {
+        synchronized (snapshotLock) {
+            ConfigurationSnapshot published = snapshot;
+            if (published != null && published != stale) {
+                // Another caller reloaded while this one waited for the lock.
+                return published;
+            }
+            long generation = snapshotGeneration.get();
+            ConfigurationSnapshot loaded = ao.executeInTransaction(() -> {
+                AIReviewConfiguration config = getGlobalConfiguration();
+                return new ConfigurationSnapshot(
+                        config.getConfigVersion(),
+                        System.currentTimeMillis(),
+                        convertToMap(config),
+                        ScopeMode.fromString(config.getScopeMode()),
+                        parsePriorityProjects(config.getPriorityProjects()),
+                        parsePriorityRepositories(config.getPriorityRepositories()));
+            });
+            // A change committed while loading may not be included, so only publish if nothing changed.
+            if (snapshotGeneration.get() == generation) {
+                snapshot = loaded;
+            }
+            applyNodeLimits(loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Sizes node-wide executors from the global configuration. Repository overrides never reach them.
+     */
+    private void applyNodeLimits(ConfigurationSnapshot loaded) {
+        if (chunkExecutionEngine == null) {
+            return;
+        }
+        try {
+            chunkExecutionEngine.setMaxInFlight(
+                    getIntValue(loaded.getGlobal(), "maxConcurrentModelRequests"));
+        } catch (RuntimeException ex) {
+            log.debug("Unable to apply maxConcurrentModelRequests to the chunk engine: {}", ex.getMessage());
+        }
+    }
+
+    private long readStoredVersion() {
+        return ao.executeInTransaction(() -> {
+            AIReviewConfiguration[] configs = ao.find(
+                    AIReviewConfiguration.class,
+                    Query.select("ID, CONFIG_VERSION").limit(1));
+            return configs.length == 0 ? -1L : configs[0].getConfigVersion();
+        });
+    }
+
+    private <T> T executeConfigurationChange(TransactionCallback<T> change) {
+        try {
+            return ao.executeInTransaction(change);
+        } finally {
+            invalidateSnapshot();
+        }
+    }
+
+    private void invalidateSnapshot() {
+        snapshotGeneration.incrementAndGet();
+        snapshot = null;
+    }
+
+    private void incrementConfigurationVersion() {
+        AIReviewConfiguration configuration = getOrCreateConfiguration();
+        configuration.setConfigVersion(configuration.getConfigVersion() + 1);
+        configuration.save();
+    }
+
+    long getSnapshotVersion() {
+        return currentSnapshot().getVersion();
+    }
+
+    void setVersionCheckIntervalMs(long intervalMs) {
+        this.versionCheckIntervalMs = Math.max(0L, intervalMs);
+    }
+
+    @Nullable
+    private Map<String, Object> loadRepositoryOverridesIfPresent(String projectKey, String repositorySlug) {
+        return ao.executeInTransaction(() -> {
+            AIReviewRepoConfiguration entity = findRepoConfiguration(projectKey, repositorySlug);
+            return entity == null ? null : parseConfigurationJson(entity.getConfigurationJson());
+        });
+    }
+
     private Map<String, Object> loadRepositoryOverrides(String projectKey, String repositorySlug) {
         return ao.executeInTransaction(() -> {
             AIReviewRepoConfiguration entity = findRepoConfiguration(projectKey, repositorySlug);
@@ -1164,6 +1421,9 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         config.setOllamaUrl(DEFAULT_OLLAMA_URL);
         config.setOllamaModel(DEFAULT_OLLAMA_MODEL);
         config.setFallbackModel(DEFAULT_FALLBACK_MODEL);
+        config.setPrimaryModelEndpoints(DEFAULT_MODEL_ENDPOINTS);
+        config.setFallbackModelEndpoints(DEFAULT_MODEL_ENDPOINTS);
+        config.setModelEndpointRateLimits(DEFAULT_MODEL_ENDPOINT_RATE_LIMITS);
         config.setMaxCharsPerChunk(DEFAULT_MAX_CHARS_PER_CHUNK);
         config.setMaxFilesPerChunk(DEFAULT_MAX_FILES_PER_CHUNK);
         config.setMaxChunks(DEFAULT_MAX_CHUNKS);
@@ -1184,9 +1444,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         config.setConnectTimeout(DEFAULT_CONNECT_TIMEOUT);
         config.setReadTimeout(DEFAULT_READ_TIMEOUT);
         config.setOllamaTimeout(DEFAULT_OLLAMA_TIMEOUT);
+        config.setPrimaryModelMaxConnections(DEFAULT_PRIMARY_MODEL_MAX_CONNECTIONS);
+        config.setFallbackModelMaxConnections(DEFAULT_FALLBACK_MODEL_MAX_CONNECTIONS);
+        config.setMaxModelResponseBytes(DEFAULT_MAX_MODEL_RESPONSE_BYTES);
+        config.setMaxConcurrentModelRequests(DEFAULT_MAX_CONCURRENT_MODEL_REQUESTS);
+        config.setHedgePercentile(DEFAULT_HEDGE_PERCENTILE);
+        config.setHedgeBudgetPercent(DEFAULT_HEDGE_BUDGET_PERCENT);
+        config.setModelRateLimitPerSecond(DEFAULT_MODEL_RATE_LIMIT_PER_SECOND);
+        config.setModelCircuitFailureThreshold(DEFAULT_MODEL_CIRCUIT_FAILURE_THRESHOLD);
+        config.setModelCircuitOpenSeconds(DEFAULT_MODEL_CIRCUIT_OPEN_SECONDS);
+        config.setRescopeQuietPeriodSeconds(DEFAULT_RESCOPE_QUIET_PERIOD_SECONDS);
         config.setMaxIssuesPerFile(DEFAULT_MAX_ISSUES_PER_FILE);
         config.setMaxIssueComments(DEFAULT_MAX_ISSUE_COMMENTS);
         config.setMaxDiffSize(DEFAULT_MAX_DIFF_SIZE);
+        config.setDiffSpillThreshold(DEFAULT_DIFF_SPILL_THRESHOLD);
+        config.setModelContextTokens(DEFAULT_MODEL_CONTEXT_TOKENS);
         config.setMaxRetries(DEFAULT_MAX_RETRIES);
         config.setBaseRetryDelayMs(DEFAULT_BASE_RETRY_DELAY);
         config.setChunkMaxRetries(DEFAULT_CHUNK_MAX_RETRIES);
@@ -1200,11 +1472,18 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         config.setIgnorePatterns(DEFAULT_IGNORE_PATTERNS);
         config.setIgnorePaths(DEFAULT_IGNORE_PATHS);
         config.setReviewProfileKey(DEFAULT_REVIEW_PROFILE_KEY);
+        config.setQueueAdmissionPolicy(DEFAULT_QUEUE_ADMISSION_POLICY);
+        config.setChunkStrategy(DEFAULT_CHUNK_STRATEGY);
         config.setEnabled(DEFAULT_ENABLED);
         config.setReviewDraftPRs(DEFAULT_REVIEW_DRAFT_PRS);
         config.setSkipGeneratedFiles(DEFAULT_SKIP_GENERATED);
         config.setSkipTests(DEFAULT_SKIP_TESTS);
         config.setAutoApprove(DEFAULT_AUTO_APPROVE);
+        config.setStreamModelResponses(DEFAULT_STREAM_MODEL_RESPONSES);
+        config.setChunkResultCacheEnabled(DEFAULT_CHUNK_RESULT_CACHE_ENABLED);
+        config.setIncrementalReReview(DEFAULT_INCREMENTAL_RE_REVIEW);
+        config.setAdaptiveModelConcurrency(DEFAULT_ADAPTIVE_MODEL_CONCURRENCY);
+        config.setHedgeRequests(DEFAULT_HEDGE_REQUESTS);
         config.setWorkerDegradationEnabled(DEFAULT_WORKER_DEGRADATION_ENABLED);
         config.setReviewerUserSlug(null);
         config.setGlobalDefault(true);
@@ -1228,9 +1507,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (configMap.containsKey("fallbackModel")) {
             config.setFallbackModel((String) configMap.get("fallbackModel"));
         }
+        if (configMap.containsKey("primaryModelEndpoints")) {
+            config.setPrimaryModelEndpoints((String) configMap.get("primaryModelEndpoints"));
+        }
+        if (configMap.containsKey("fallbackModelEndpoints")) {
+            config.setFallbackModelEndpoints((String) configMap.get("fallbackModelEndpoints"));
+        }
+        if (configMap.containsKey("modelEndpointRateLimits")) {
+            config.setModelEndpointRateLimits(normalizeOverridesValue(configMap.get("modelEndpointRateLimits")));
+        }
         if (configMap.containsKey("maxCharsPerChunk")) {
             config.setMaxCharsPerChunk(getIntValue(configMap, "maxCharsPerChunk"));
         }
+        if (configMap.containsKey("modelContextTokens")) {
+            config.setModelContextTokens(getIntValue(configMap, "modelContextTokens"));
+        }
         if (configMap.containsKey("maxFilesPerChunk")) {
             config.setMaxFilesPerChunk(getIntValue(configMap, "maxFilesPerChunk"));
         }
@@ -1294,6 +1585,36 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (configMap.containsKey("ollamaTimeout")) {
             config.setOllamaTimeout(getIntValue(configMap, "ollamaTimeout"));
         }
+        if (configMap.containsKey("primaryModelMaxConnections")) {
+            config.setPrimaryModelMaxConnections(getIntValue(configMap, "primaryModelMaxConnections"));
+        }
+        if (configMap.containsKey("fallbackModelMaxConnections")) {
+            config.setFallbackModelMaxConnections(getIntValue(configMap, "fallbackModelMaxConnections"));
+        }
+        if (configMap.containsKey("maxModelResponseBytes")) {
+            config.setMaxModelResponseBytes(getIntValue(configMap, "maxModelResponseBytes"));
+        }
+        if (configMap.containsKey("maxConcurrentModelRequests")) {
+            config.setMaxConcurrentModelRequests(getIntValue(configMap, "maxConcurrentModelRequests"));
+        }
+        if (configMap.containsKey("hedgePercentile")) {
+            config.setHedgePercentile(getIntValue(configMap, "hedgePercentile"));
+        }
+        if (configMap.containsKey("hedgeBudgetPercent")) {
+            config.setHedgeBudgetPercent(getIntValue(configMap, "hedgeBudgetPercent"));
+        }
+        if (configMap.containsKey("modelRateLimitPerSecond")) {
+            config.setModelRateLimitPerSecond(getIntValue(configMap, "modelRateLimitPerSecond"));
+        }
+        if (configMap.containsKey("modelCircuitFailureThreshold")) {
+            config.setModelCircuitFailureThreshold(getIntValue(configMap, "modelCircuitFailureThreshold"));
+        }
+        if (configMap.containsKey("modelCircuitOpenSeconds")) {
+            config.setModelCircuitOpenSeconds(getIntValue(configMap, "modelCircuitOpenSeconds"));
+        }
+        if (configMap.containsKey("rescopeQuietPeriodSeconds")) {
+            config.setRescopeQuietPeriodSeconds(getIntValue(configMap, "rescopeQuietPeriodSeconds"));
+        }
         if (configMap.containsKey("maxIssuesPerFile")) {
             config.setMaxIssuesPerFile(getIntValue(configMap, "maxIssuesPerFile"));
         }
@@ -1303,6 +1624,9 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (configMap.containsKey("maxDiffSize")) {
             config.setMaxDiffSize(getIntValue(configMap, "maxDiffSize"));
         }
+        if (configMap.containsKey("diffSpillThreshold")) {
+            config.setDiffSpillThreshold(getIntValue(configMap, "diffSpillThreshold"));
+        }
         Integer legacyMaxRetries = null;
         if (configMap.containsKey("maxRetries")) {
             legacyMaxRetries = getIntValue(configMap, "maxRetries");
@@ -1355,6 +1679,13 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             String key = (String) configMap.get("reviewProfile");
             config.setReviewProfileKey(defaultString(key, DEFAULT_REVIEW_PROFILE_KEY));
         }
+        if (configMap.containsKey("queueAdmissionPolicy")) {
+            config.setQueueAdmissionPolicy(
+                    ReviewAdmissionPolicy.fromConfig(configMap.get("queueAdmissionPolicy")).toConfigValue());
+        }
+        if (configMap.containsKey("chunkStrategy")) {
+            config.setChunkStrategy(ChunkStrategyType.fromConfig(configMap.get("chunkStrategy")).toConfigValue());
+        }
         if (configMap.containsKey("enabled")) {
             config.setEnabled(getBooleanValue(configMap, "enabled"));
         }
@@ -1370,6 +1701,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         if (configMap.containsKey("autoApprove")) {
             config.setAutoApprove(getBooleanValue(configMap, "autoApprove"));
         }
+        if (configMap.containsKey("streamModelResponses")) {
+            config.setStreamModelResponses(getBooleanValue(configMap, "streamModelResponses"));
+        }
+        if (configMap.containsKey("chunkResultCacheEnabled")) {
+            config.setChunkResultCacheEnabled(getBooleanValue(configMap, "chunkResultCacheEnabled"));
+        }
+        if (configMap.containsKey("incrementalReReview")) {
+            config.setIncrementalReReview(getBooleanValue(configMap, "incrementalReReview"));
+        }
+        if (configMap.containsKey("adaptiveModelConcurrency")) {
+            config.setAdaptiveModelConcurrency(getBooleanValue(configMap, "adaptiveModelConcurrency"));
+        }
+        if (configMap.containsKey("hedgeRequests")) {
+            config.setHedgeRequests(getBooleanValue(configMap, "hedgeRequests"));
+        }
         if (configMap.containsKey("workerDegradationEnabled")) {
             config.setWorkerDegradationEnabled(getBooleanValue(configMap, "workerDegradationEnabled"));
         }
@@ -1509,6 +1855,46 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             config.setOllamaTimeout(DEFAULT_OLLAMA_TIMEOUT);
             updated = true;
         }
+        if (config.getPrimaryModelMaxConnections() <= 0) {
+            config.setPrimaryModelMaxConnections(DEFAULT_PRIMARY_MODEL_MAX_CONNECTIONS);
+            updated = true;
+        }
+        if (config.getFallbackModelMaxConnections() <= 0) {
+            config.setFallbackModelMaxConnections(DEFAULT_FALLBACK_MODEL_MAX_CONNECTIONS);
+            updated = true;
+        }
+        if (config.getMaxModelResponseBytes() <= 0) {
+            config.setMaxModelResponseBytes(DEFAULT_MAX_MODEL_RESPONSE_BYTES);
+            updated = true;
+        }
+        if (config.getMaxConcurrentModelRequests() <= 0) {
+            config.setMaxConcurrentModelRequests(DEFAULT_MAX_CONCURRENT_MODEL_REQUESTS);
+            updated = true;
+        }
+        if (config.getHedgePercentile() <= 0) {
+            config.setHedgePercentile(DEFAULT_HEDGE_PERCENTILE);
+            updated = true;
+        }
+        if (config.getHedgeBudgetPercent() <= 0) {
+            config.setHedgeBudgetPercent(DEFAULT_HEDGE_BUDGET_PERCENT);
+            updated = true;
+        }
+        if (config.getModelRateLimitPerSecond() <= 0) {
+            config.setModelRateLimitPerSecond(DEFAULT_MODEL_RATE_LIMIT_PER_SECOND);
+            updated = true;
+        }
+        if (config.getModelCircuitFailureThreshold() <= 0) {
+            config.setModelCircuitFailureThreshold(DEFAULT_MODEL_CIRCUIT_FAILURE_THRESHOLD);
+            updated = true;
+        }
+        if (config.getModelCircuitOpenSeconds() <= 0) {
+            config.setModelCircuitOpenSeconds(DEFAULT_MODEL_CIRCUIT_OPEN_SECONDS);
+            updated = true;
+        }
+        if (config.getRescopeQuietPeriodSeconds() < 0) {
+            config.setRescopeQuietPeriodSeconds(DEFAULT_RESCOPE_QUIET_PERIOD_SECONDS);
+            updated = true;
+        }
 
         if (config.getMaxIssuesPerFile() <= 0) {
             config.setMaxIssuesPerFile(DEFAULT_MAX_ISSUES_PER_FILE);
@@ -1522,6 +1908,14 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             config.setMaxDiffSize(DEFAULT_MAX_DIFF_SIZE);
             updated = true;
         }
+        if (config.getDiffSpillThreshold() < 0) {
+            config.setDiffSpillThreshold(DEFAULT_DIFF_SPILL_THRESHOLD);
+            updated = true;
+        }
+        if (config.getModelContextTokens() < 0) {
+            config.setModelContextTokens(DEFAULT_MODEL_CONTEXT_TOKENS);
+            updated = true;
+        }
         if (config.getMaxRetries() < 0) {
             config.setMaxRetries(DEFAULT_MAX_RETRIES);
             updated = true;
@@ -1581,6 +1975,14 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
             config.setReviewProfileKey(DEFAULT_REVIEW_PROFILE_KEY);
             updated = true;
         }
+        if (isBlank(config.getQueueAdmissionPolicy())) {
+            config.setQueueAdmissionPolicy(DEFAULT_QUEUE_ADMISSION_POLICY);
+            updated = true;
+        }
+        if (isBlank(config.getChunkStrategy())) {
+            config.setChunkStrategy(DEFAULT_CHUNK_STRATEGY);
+            updated = true;
+        }
 
         if (config.getCreatedDate() == 0L) {
             config.setCreatedDate(timestamp);
@@ -1731,7 +2133,12 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         map.put("ollamaUrl", defaultString(config.getOllamaUrl(), DEFAULT_OLLAMA_URL));
         map.put("ollamaModel", defaultString(config.getOllamaModel(), DEFAULT_OLLAMA_MODEL));
         map.put("fallbackModel", defaultString(config.getFallbackModel(), DEFAULT_FALLBACK_MODEL));
+        map.put("primaryModelEndpoints", defaultString(config.getPrimaryModelEndpoints(), DEFAULT_MODEL_ENDPOINTS));
+        map.put("fallbackModelEndpoints", defaultString(config.getFallbackModelEndpoints(), DEFAULT_MODEL_ENDPOINTS));
+        map.put("modelEndpointRateLimits",
+                defaultString(config.getModelEndpointRateLimits(), DEFAULT_MODEL_ENDPOINT_RATE_LIMITS));
         map.put("maxCharsPerChunk", defaultInt(config.getMaxCharsPerChunk(), DEFAULT_MAX_CHARS_PER_CHUNK));
+        map.put("modelContextTokens", defaultIntAllowZero(config.getModelContextTokens(), DEFAULT_MODEL_CONTEXT_TOKENS));
         map.put("maxFilesPerChunk", defaultInt(config.getMaxFilesPerChunk(), DEFAULT_MAX_FILES_PER_CHUNK));
         map.put("maxChunks", defaultInt(config.getMaxChunks(), DEFAULT_MAX_CHUNKS));
         int parallel = defaultInt(config.getParallelChunkThreads(), DEFAULT_PARALLEL_THREADS);
@@ -1762,9 +2169,20 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         map.put("connectTimeout", defaultInt(config.getConnectTimeout(), DEFAULT_CONNECT_TIMEOUT));
         map.put("readTimeout", defaultInt(config.getReadTimeout(), DEFAULT_READ_TIMEOUT));
         map.put("ollamaTimeout", defaultInt(config.getOllamaTimeout(), DEFAULT_OLLAMA_TIMEOUT));
+        map.put("primaryModelMaxConnections", defaultInt(config.getPrimaryModelMaxConnections(), DEFAULT_PRIMARY_MODEL_MAX_CONNECTIONS));
+        map.put("fallbackModelMaxConnections", defaultInt(config.getFallbackModelMaxConnections(), DEFAULT_FALLBACK_MODEL_MAX_CONNECTIONS));
+        map.put("maxModelResponseBytes", defaultInt(config.getMaxModelResponseBytes(), DEFAULT_MAX_MODEL_RESPONSE_BYTES));
+        map.put("maxConcurrentModelRequests", defaultInt(config.getMaxConcurrentModelRequests(), DEFAULT_MAX_CONCURRENT_MODEL_REQUESTS));
+        map.put("hedgePercentile", defaultInt(config.getHedgePercentile(), DEFAULT_HEDGE_PERCENTILE));
+        map.put("hedgeBudgetPercent", defaultInt(config.getHedgeBudgetPercent(), DEFAULT_HEDGE_BUDGET_PERCENT));
+        map.put("modelRateLimitPerSecond", defaultInt(config.getModelRateLimitPerSecond(), DEFAULT_MODEL_RATE_LIMIT_PER_SECOND));
+        map.put("modelCircuitFailureThreshold", defaultInt(config.getModelCircuitFailureThreshold(), DEFAULT_MODEL_CIRCUIT_FAILURE_THRESHOLD));
+        map.put("modelCircuitOpenSeconds", defaultInt(config.getModelCircuitOpenSeconds(), DEFAULT_MODEL_CIRCUIT_OPEN_SECONDS));
+        map.put("rescopeQuietPeriodSeconds", defaultIntAllowZero(config.getRescopeQuietPeriodSeconds(), DEFAULT_RESCOPE_QUIET_PERIOD_SECONDS));
         map.put("maxIssuesPerFile", defaultInt(config.getMaxIssuesPerFile(), DEFAULT_MAX_ISSUES_PER_FILE));
         map.put("maxIssueComments", defaultInt(config.getMaxIssueComments(), DEFAULT_MAX_ISSUE_COMMENTS));
         map.put("maxDiffSize", defaultInt(config.getMaxDiffSize(), DEFAULT_MAX_DIFF_SIZE));
+        map.put("diffSpillThreshold", defaultIntAllowZero(config.getDiffSpillThreshold(), DEFAULT_DIFF_SPILL_THRESHOLD));
         int chunkMaxRetries = resolveChunkMaxRetries(config);
         map.put("chunkMaxRetries", chunkMaxRetries);
         map.put("maxRetries", chunkMaxRetries);
@@ -1780,11 +2198,18 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         map.put("ignorePatterns", defaultString(config.getIgnorePatterns(), DEFAULT_IGNORE_PATTERNS));
         map.put("ignorePaths", defaultString(config.getIgnorePaths(), DEFAULT_IGNORE_PATHS));
         map.put("reviewProfile", defaultString(config.getReviewProfileKey(), DEFAULT_REVIEW_PROFILE_KEY));
+        map.put("queueAdmissionPolicy", defaultString(config.getQueueAdmissionPolicy(), DEFAULT_QUEUE_ADMISSION_POLICY));
+        map.put("chunkStrategy", defaultString(config.getChunkStrategy(), DEFAULT_CHUNK_STRATEGY));
         map.put("enabled", defaultBoolean(config.isEnabled(), DEFAULT_ENABLED));
         map.put("reviewDraftPRs", defaultBoolean(config.isReviewDraftPRs(), DEFAULT_REVIEW_DRAFT_PRS));
         map.put("skipGeneratedFiles", defaultBoolean(config.isSkipGeneratedFiles(), DEFAULT_SKIP_GENERATED));
         map.put("skipTests", defaultBoolean(config.isSkipTests(), DEFAULT_SKIP_TESTS));
         map.put("autoApprove", defaultBoolean(config.isAutoApprove(), DEFAULT_AUTO_APPROVE));
+        map.put("streamModelResponses", defaultBoolean(config.isStreamModelResponses(), DEFAULT_STREAM_MODEL_RESPONSES));
+        map.put("chunkResultCacheEnabled", defaultBoolean(config.isChunkResultCacheEnabled(), DEFAULT_CHUNK_RESULT_CACHE_ENABLED));
+        map.put("incrementalReReview", defaultBoolean(config.isIncrementalReReview(), DEFAULT_INCREMENTAL_RE_REVIEW));
+        map.put("adaptiveModelConcurrency", defaultBoolean(config.isAdaptiveModelConcurrency(), DEFAULT_ADAPTIVE_MODEL_CONCURRENCY));
+        map.put("hedgeRequests", defaultBoolean(config.isHedgeRequests(), DEFAULT_HEDGE_REQUESTS));
         map.put("workerDegradationEnabled", defaultBoolean(config.isWorkerDegradationEnabled(), DEFAULT_WORKER_DEGRADATION_ENABLED));
         map.put("aiReviewerUser", trimToNull(config.getReviewerUserSlug()));
         map.put("aiReviewerUserDisplayName", resolveUserDisplayName(config.getReviewerUserSlug()));
@@ -1893,6 +2318,21 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         }
     }
 
+    private void validateUrlList(String key, String value, Map<String, String> errors) {
+        for (String entry : value.split(",")) {
+            String url = entry.trim();
+            if (url.isEmpty()) {
+                continue;
+            }
+            try {
+                validateUrl(url);
+            } catch (IllegalArgumentException e) {
+                errors.put(key, e.getMessage());
+                return;
+            }
+        }
+    }
+
     private void validateIntegerRange(Map<String, Object> configMap,
                                       String key,
                                       int min,
@@ -1973,6 +2413,34 @@ public class AIReviewerConfigServiceImpl implements AIReviewerConfigService {
         configMap.put(key, normalized);
     }
 
+    private void validateEndpointRateLimits(Map<String, Object> configMap, Map<String, String> errors) {
+        String key = "modelEndpointRateLimits";
+        if (!configMap.containsKey(key)) {
+            return;
+        }
+        String normalized = normalizeOverridesValue(configMap.get(key));
+        for (String entry : splitList(normalized)) {
+            int idx = entry.lastIndexOf('=');
+            if (idx <= 0 || idx >= entry.length() - 1) {
+                errors.put(key, "Invalid entry '" + entry + "'. Expected endpoint=requestsPerSecond.");
+                return;
+            }
+            String endpoint = entry.substring(0, idx).trim();
+            try {
+                validateUrl(endpoint);
+            } catch (IllegalArgumentException e) {
+                errors.put(key, e.getMessage());
+                return;
+            }
+            Integer rate = parseInteger(entry.substring(idx + 1).trim());
+            if (rate == null || rate < 1 || rate > 1000) {
+                errors.put(key, "Requests per second out of range for '" + endpoint + "'");
+                return;
+            }
+        }
+        configMap.put(key, normalized);
+    }
+
     private void validatePriorityScopeList(String key,
                                            @Nullable String value,
                                            boolean projects,
@@ -0,0 +1,111 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkResultStore;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewChunkResult;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import net.java.ao.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active Objects backed {@link ChunkResultStore}. Rows are shared by all cluster nodes; entries not
+ * used for {@link #RETENTION_MS} are purged opportunistically when new results are saved.
+ */
+@Named
+@Singleton
+@ExportAsService(ChunkResultStore.class)
+public class ChunkResultStoreService implements ChunkResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkResultStoreService.class);
+    private static final long RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+    private static final long PURGE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long TOUCH_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final ActiveObjects ao;
+    private final AtomicLong lastPurgeAt = new AtomicLong();
+
+    @Inject
+    public ChunkResultStoreService(@ComponentImport ActiveObjects ao) {
+        this.ao = Objects.requireNonNull(ao, "activeObjects");
+    }
+
+    @Nullable
+    @Override
+    public String load(@Nonnull String key) {
+        Objects.requireNonNull(key, "key");
+        return ao.executeInTransaction(() -> {
+            AIReviewChunkResult row = find(key);
+            if (row == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            // Hits are frequent on force-push heavy repos; only refresh the retention clock occasionally.
+            if (now - row.getLastUsedAt() > TOUCH_INTERVAL_MS) {
+                row.setLastUsedAt(now);
+                row.setHitCount(row.getHitCount() + 1);
+                row.save();
+            }
+            return row.getFindingsJson();
+        });
+    }
+
+    @Override
+    public void save(@Nonnull String key, @Nonnull String model, @Nonnull String payload, int findingCount) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(payload, "payload");
+        long now = System.currentTimeMillis();
+        ao.executeInTransaction(() -> {
+            AIReviewChunkResult row = find(key);
+            if (row == null) {
+                row = ao.create(AIReviewChunkResult.class);
+                row.setCacheKey(key);
+                row.setCreatedAt(now);
+                row.setHitCount(0);
+            }
+            row.setModel(model);
+            row.setFindingsJson(payload);
+            row.setFindingCount(Math.max(0, findingCount));
+            row.setLastUsedAt(now);
+            row.save();
+            return null;
+        });
+        purgeIfDue(now);
+    }
+
+    private AIReviewChunkResult find(String key) {
+        AIReviewChunkResult[] rows = ao.find(AIReviewChunkResult.class,
+                Query.select().where("CACHE_KEY = ?", key).limit(1));
+        return rows.length > 0 ? rows[0] : null;
+    }
+
+    private void purgeIfDue(long now) {
+        long previous = lastPurgeAt.get();
+        if (now - previous < PURGE_INTERVAL_MS || !lastPurgeAt.compareAndSet(previous, now)) {
+            return;
+        }
+        long cutoff = now - RETENTION_MS;
+        try {
+            int removed = ao.deleteWithSQL(AIReviewChunkResult.class, "LAST_USED_AT < ?", cutoff);
+            if (removed > 0) {
+                LogSupport.info(log, "chunk_cache.purged", "Purged stale cached chunk results",
+                        "removed", removed,
+                        "cutoff", cutoff);
+            }
+        } catch (RuntimeException ex) {
+            LogSupport.warn(log, "chunk_cache.purge_failed", "Failed to purge cached chunk results",
+                    "error", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Immutable view of the global configuration at one {@code CONFIG_VERSION}, as served by
+ * {@link AIReviewerConfigServiceImpl}. Repository overrides and effective configurations are resolved lazily
+ * and memoised for the lifetime of the snapshot; a configuration change produces a new snapshot rather than
+ * modifying this one.
+ */
+final class ConfigurationSnapshot {
+
+    private static final int MAX_CACHED_REPOSITORIES = 10_000;
+
+    private final long version;
+    private final long loadedAt;
+    private final Map<String, Object> global;
+    private final AIReviewerConfigService.ScopeMode scopeMode;
+    private final Set<String> priorityProjects;
+    private final Set<String> priorityRepositories;
+    private final ConcurrentHashMap<String, RepositoryOverrides> repositories = new ConcurrentHashMap<>();
+    private volatile long checkedAt;
+
+    ConfigurationSnapshot(long version,
+                          long loadedAt,
+                          @Nonnull Map<String, Object> global,
+                          @Nonnull AIReviewerConfigService.ScopeMode scopeMode,
+                          @Nonnull Set<String> priorityProjects,
+                          @Nonnull Set<String> priorityRepositories) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.global = Collections.unmodifiableMap(new LinkedHashMap<>(global));
+        this.scopeMode = scopeMode;
+        this.priorityProjects = Collections.unmodifiableSet(priorityProjects);
+        this.priorityRepositories = Collections.unmodifiableSet(priorityRepositories);
+        this.checkedAt = loadedAt;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    long getLoadedAt() {
+        return loadedAt;
+    }
+
+    long getCheckedAt() {
+        return checkedAt;
+    }
+
+    void markChecked(long timestamp) {
+        this.checkedAt = timestamp;
+    }
+
+    @Nonnull
+    Map<String, Object> getGlobal() {
+        return global;
+    }
+
+    @Nonnull
+    AIReviewerConfigService.ScopeMode getScopeMode() {
+        return scopeMode;
+    }
+
+    boolean isPriorityProject(String canonicalProjectKey) {
+        return priorityProjects.contains(canonicalProjectKey);
+    }
+
+    boolean isPriorityRepository(String canonicalRepositoryKey) {
+        return priorityRepositories.contains(canonicalRepositoryKey);
+    }
+
+    /**
+     * @param loader reads a repository's overrides from storage, returning {@code null} when the repository has
+     *               no configuration row
+     */
+    @Nonnull
+    RepositoryOverrides repository(@Nonnull String projectKey,
+                                   @Nonnull String repositorySlug,
+                                   @Nonnull BiFunction<String, String, Map<String, Object>> loader) {
+        String key = projectKey + '\n' + repositorySlug;
+        RepositoryOverrides cached = repositories.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        RepositoryOverrides loaded = new RepositoryOverrides(global, loader.apply(projectKey, repositorySlug));
+        if (repositories.size() < MAX_CACHED_REPOSITORIES) {
+            RepositoryOverrides raced = repositories.putIfAbsent(key, loaded);
+            return raced != null ? raced : loaded;
+        }
+        return loaded;
+    }
+
+    static final class RepositoryOverrides {
+        private final boolean present;
+        private final Map<String, Object> overrides;
+        private final Map<String, Object> effective;
+
+        private RepositoryOverrides(Map<String, Object> global, Map<String, Object> overrides) {
+            this.present = overrides != null;
+            this.overrides = overrides != null
+                    ? Collections.unmodifiableMap(new LinkedHashMap<>(overrides))
+                    : Collections.emptyMap();
+            if (this.overrides.isEmpty()) {
+                this.effective = global;
+            } else {
+                Map<String, Object> merged = new LinkedHashMap<>(global);
+                merged.putAll(this.overrides);
+                this.effective = Collections.unmodifiableMap(merged);
+            }
+        }
+
+        boolean isPresent() {
+            return present;
+        }
+
+        @Nonnull
+        Map<String, Object> getOverrides() {
+            return overrides;
+        }
+
+        @Nonnull
+        Map<String, Object> getEffective() {
+            return effective;
+        }
+    }
+}
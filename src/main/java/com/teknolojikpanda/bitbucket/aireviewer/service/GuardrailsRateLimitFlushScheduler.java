@@ -0,0 +1,115 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import com.atlassian.scheduler.JobRunner;
+import com.atlassian.scheduler.JobRunnerRequest;
+import com.atlassian.scheduler.JobRunnerResponse;
+import com.atlassian.scheduler.SchedulerService;
+import com.atlassian.scheduler.SchedulerServiceException;
+import com.atlassian.scheduler.config.JobConfig;
+import com.atlassian.scheduler.config.JobId;
+import com.atlassian.scheduler.config.JobRunnerKey;
+import com.atlassian.scheduler.config.RunMode;
+import com.atlassian.scheduler.config.Schedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes the in-memory review rate-limit buckets of this node to the database and pulls in the
+ * counts recorded by the other nodes. Runs on every node; the final flush happens when the plugin stops.
+ */
+@Named
+@Singleton
+public class GuardrailsRateLimitFlushScheduler implements LifecycleAware, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GuardrailsRateLimitFlushScheduler.class);
+    private static final JobRunnerKey JOB_RUNNER_KEY =
+            JobRunnerKey.of("com.teknolojikpanda.bitbucket.ai-code-reviewer:rate-limit-flush-runner");
+    private static final JobId JOB_ID =
+            JobId.of("com.teknolojikpanda.bitbucket.ai-code-reviewer:rate-limit-flush-job");
+    private static final long FLUSH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final SchedulerService schedulerService;
+    private final GuardrailsRateLimitStore rateLimitStore;
+    private final JobRunner runner = new FlushRunner();
+    private volatile boolean lifecycleStarted;
+
+    @Inject
+    public GuardrailsRateLimitFlushScheduler(@ComponentImport SchedulerService schedulerService,
+                                             GuardrailsRateLimitStore rateLimitStore) {
+        this.schedulerService = Objects.requireNonNull(schedulerService, "schedulerService");
+        this.rateLimitStore = Objects.requireNonNull(rateLimitStore, "rateLimitStore");
+    }
+
+    @Override
+    public void onStart() {
+        schedulerService.unregisterJobRunner(JOB_RUNNER_KEY);
+        schedulerService.registerJobRunner(JOB_RUNNER_KEY, runner);
+        lifecycleStarted = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public void onStop() {
+        shutdown();
+    }
+
+    @Override
+    public void destroy() {
+        shutdown();
+    }
+
+    private void scheduleFlush() {
+        if (!lifecycleStarted) {
+            return;
+        }
+        schedulerService.unscheduleJob(JOB_ID);
+        JobConfig jobConfig = JobConfig.forJobRunnerKey(JOB_RUNNER_KEY)
+                .withRunMode(RunMode.RUN_LOCALLY)
+                .withSchedule(Schedule.forInterval(
+                        FLUSH_INTERVAL_MS,
+                        new Date(System.currentTimeMillis() + FLUSH_INTERVAL_MS)));
+        try {
+            schedulerService.scheduleJob(JOB_ID, jobConfig);
+            log.debug("Scheduled rate-limit flush to run every {} seconds", FLUSH_INTERVAL_MS / 1000);
+        } catch (SchedulerServiceException ex) {
+            log.warn("Failed to schedule rate-limit flush job", ex);
+        }
+    }
+
+    private void shutdown() {
+        boolean wasStarted = lifecycleStarted;
+        lifecycleStarted = false;
+        schedulerService.unscheduleJob(JOB_ID);
+        schedulerService.unregisterJobRunner(JOB_RUNNER_KEY);
+        if (wasStarted) {
+            try {
+                rateLimitStore.flush();
+            } catch (Exception ex) {
+                log.debug("Final rate-limit flush failed: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private class FlushRunner implements JobRunner {
+        @Override
+        public JobRunnerResponse runJob(JobRunnerRequest request) {
+            try {
+                rateLimitStore.flush();
+                return JobRunnerResponse.success("Flushed rate-limit buckets");
+            } catch (Exception ex) {
+                log.debug("Rate-limit flush failed: {}", ex.getMessage(), ex);
+                return JobRunnerResponse.failed(ex);
+            }
+        }
+    }
+}
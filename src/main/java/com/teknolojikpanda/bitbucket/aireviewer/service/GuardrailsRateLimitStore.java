@@ -16,14 +16,28 @@ import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Rate-limit buckets for review admission plus throttle incident history.
+ * <p>
+ * Admission counts live in memory: one bucket per scope, identifier and window, admitted with a
+ * compare-and-set against the limit. {@link #flush()} runs periodically and writes each bucket's new
+ * admissions to this node's {@link GuardrailsRateBucket} row in one transaction. It then sums the rows
+ * written by the other nodes back into the in-memory buckets, so in a cluster every node admits against
+ * the cluster-wide count as of the last flush. Admission never waits on the database.
+ */
 @Named
 @Singleton
 public class GuardrailsRateLimitStore {
@@ -31,16 +45,32 @@ public class GuardrailsRateLimitStore {
     private static final Logger log = LoggerFactory.getLogger(GuardrailsRateLimitStore.class);
     private static final int MAX_TOP_BUCKETS = 50;
     private static final int MAX_INCIDENT_SAMPLES = 200;
+    // Rows are per node, so fetch extra rows to aggregate the top windows across the cluster.
+    private static final int TOP_ROW_FANOUT = 4;
     private static final long SNAPSHOT_TTL_MS = TimeUnit.SECONDS.toMillis(15);
     private static final long INCIDENT_TTL_MS = TimeUnit.SECONDS.toMillis(15);
 
     private final ActiveObjects ao;
+    private final Supplier<String> nodeId;
+    private final ConcurrentHashMap<String, LocalBucket> buckets = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<GuardrailsRateLimitScope, SnapshotCache> snapshotCache = new ConcurrentHashMap<>();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long lastFlushAt;
+    private volatile long lastFlushDurationMs;
     private volatile CachedIncidents recentIncidentsCache;
 
     @Inject
-    public GuardrailsRateLimitStore(@ComponentImport ActiveObjects ao) {
+    public GuardrailsRateLimitStore(@ComponentImport ActiveObjects ao, GuardrailsWorkerNodeService nodeService) {
+        this(ao, Objects.requireNonNull(nodeService, "nodeService")::resolveNodeId);
+    }
+
+    GuardrailsRateLimitStore(ActiveObjects ao, Supplier<String> nodeId) {
         this.ao = Objects.requireNonNull(ao, "activeObjects");
+        this.nodeId = Objects.requireNonNull(nodeId, "nodeId");
     }
 
     public void acquireToken(GuardrailsRateLimitScope scope,
@@ -53,24 +83,121 @@ public class GuardrailsRateLimitStore {
             return;
         }
         final String normalized = normalizeIdentifier(identifier);
-        ao.executeInTransaction(() -> {
-            GuardrailsRateBucket bucket = loadOrCreateBucket(scope, normalized, windowStart, now);
-            if (bucket.getLimitPerHour() != limitPerHour) {
-                bucket.setLimitPerHour(limitPerHour);
-            }
-            int consumed = bucket.getConsumed();
-            if (consumed >= limitPerHour) {
-                long retryAfter = Math.max(0L, (bucket.getWindowStart() + windowDurationMs) - now);
+        String key = bucketKey(scope, normalized, windowStart);
+        LocalBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key,
+                    k -> new LocalBucket(scope, normalized, windowStart, windowDurationMs));
+        }
+        bucket.limitPerHour = limitPerHour;
+        while (true) {
+            int consumed = bucket.consumed.get();
+            if (consumed + bucket.otherNodes >= limitPerHour) {
+                rejected.incrementAndGet();
+                long retryAfter = Math.max(0L, (windowStart + windowDurationMs) - now);
                 throw scope == GuardrailsRateLimitScope.REPOSITORY
                         ? RateLimitExceededException.repository(identifier, limitPerHour, retryAfter)
                         : RateLimitExceededException.project(identifier, limitPerHour, retryAfter);
             }
-            bucket.setConsumed(consumed + 1);
-            bucket.setUpdatedAt(now);
-            bucket.save();
-            snapshotCache.remove(scope);
-            return null;
-        });
+            if (bucket.consumed.compareAndSet(consumed, consumed + 1)) {
+                break;
+            }
+        }
+        bucket.updatedAt = now;
+        admitted.incrementAndGet();
+    }
+
+    /**
+     * Writes admissions made since the last flush to this node's bucket rows and refreshes the counts
+     * recorded by other nodes. Buckets whose window has ended are dropped once fully written.
+     */
+    public synchronized void flush() {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        String node = nodeId.get();
+        List<LocalBucket> active = new ArrayList<>(buckets.values());
+        Map<LocalBucket, Integer> pending = new HashMap<>();
+        long oldestWindow = Long.MAX_VALUE;
+        for (LocalBucket bucket : active) {
+            int delta = bucket.consumed.get() - bucket.flushed;
+            if (delta > 0 || bucket.limitPerHour != bucket.flushedLimit) {
+                pending.put(bucket, delta);
+            }
+            oldestWindow = Math.min(oldestWindow, bucket.windowStart);
+        }
+        final long windowFloor = oldestWindow;
+        Map<String, Integer> totals;
+        try {
+            totals = ao.executeInTransaction(() -> {
+                for (Map.Entry<LocalBucket, Integer> entry : pending.entrySet()) {
+                    LocalBucket bucket = entry.getKey();
+                    GuardrailsRateBucket row = loadOrCreateBucket(bucket, node, start);
+                    row.setConsumed(row.getConsumed() + entry.getValue());
+                    row.setLimitPerHour(bucket.limitPerHour);
+                    row.setUpdatedAt(Math.max(bucket.updatedAt, row.getUpdatedAt()));
+                    row.save();
+                }
+                GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
+                        Query.select().where("WINDOW_START >= ?", windowFloor));
+                Map<String, Integer> sums = new HashMap<>();
+                for (GuardrailsRateBucket row : rows) {
+                    GuardrailsRateLimitScope rowScope = GuardrailsRateLimitScope.fromString(row.getScope());
+                    sums.merge(bucketKey(rowScope, row.getIdentifier(), row.getWindowStart()),
+                            row.getConsumed(), Integer::sum);
+                }
+                return sums;
+            });
+        } catch (RuntimeException ex) {
+            flushFailures.incrementAndGet();
+            log.warn("Failed to flush {} rate-limit buckets: {}", pending.size(), ex.getMessage());
+            log.debug("Rate-limit bucket flush failure", ex);
+            return;
+        }
+        for (Map.Entry<LocalBucket, Integer> entry : pending.entrySet()) {
+            LocalBucket bucket = entry.getKey();
+            bucket.flushed += entry.getValue();
+            bucket.flushedLimit = bucket.limitPerHour;
+        }
+        for (LocalBucket bucket : active) {
+            // Everything persisted that this process did not write: other nodes, or this node before a restart.
+            int total = totals.getOrDefault(bucketKey(bucket.scope, bucket.identifier, bucket.windowStart), 0);
+            bucket.otherNodes = Math.max(0, total - bucket.flushed);
+            if (bucket.windowStart + bucket.windowDurationMs <= start && bucket.consumed.get() == bucket.flushed) {
+                buckets.remove(bucketKey(bucket.scope, bucket.identifier, bucket.windowStart), bucket);
+            }
+        }
+        if (!pending.isEmpty()) {
+            snapshotCache.clear();
+        }
+        flushes.incrementAndGet();
+        rowsWritten.addAndGet(pending.size());
+        lastFlushAt = start;
+        lastFlushDurationMs = System.currentTimeMillis() - start;
+        log.debug("Flushed {} rate-limit buckets ({} tracked) in {} ms",
+                pending.size(), buckets.size(), lastFlushDurationMs);
+    }
+
+    /**
+     * @return counters describing the in-memory buckets and their write-behind
+     */
+    public Map<String, Object> snapshot() {
+        int unflushed = 0;
+        for (LocalBucket bucket : buckets.values()) {
+            unflushed += bucket.consumed.get() - bucket.flushed;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("trackedBuckets", buckets.size());
+        map.put("unflushedAdmissions", unflushed);
+        map.put("admitted", admitted.get());
+        map.put("rejected", rejected.get());
+        map.put("flushes", flushes.get());
+        map.put("flushFailures", flushFailures.get());
+        map.put("rowsWritten", rowsWritten.get());
+        map.put("lastFlushAt", lastFlushAt > 0 ? lastFlushAt : null);
+        map.put("lastFlushDurationMs", lastFlushDurationMs);
+        return map;
     }
 
     public List<WindowSample> getTopWindows(GuardrailsRateLimitScope scope, int maxSamples) {
@@ -83,26 +210,38 @@ public class GuardrailsRateLimitStore {
         }
         SnapshotCache cached = snapshotCache.get(scope);
         long now = System.currentTimeMillis();
+        List<WindowSample> persisted;
         if (cached != null && cached.expiresAt > now) {
-            return cached.samples;
-        }
-        List<WindowSample> samples = ao.executeInTransaction(() -> {
-            GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
-                    Query.select()
-                            .where("SCOPE = ?", scope.name())
-                            .order("CONSUMED DESC")
-                            .limit(safeLimit));
-            if (rows.length == 0) {
-                return Collections.emptyList();
-            }
-            List<WindowSample> result = new ArrayList<>(rows.length);
-            for (GuardrailsRateBucket row : rows) {
-                result.add(windowSample(scope, row));
+            persisted = cached.samples;
+        } else {
+            persisted = ao.executeInTransaction(() -> {
+                GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
+                        Query.select()
+                                .where("SCOPE = ?", scope.name())
+                                .order("CONSUMED DESC")
+                                .limit(safeLimit * TOP_ROW_FANOUT));
+                if (rows.length == 0) {
+                    return Collections.emptyList();
+                }
+                return sumAcrossNodes(scope, rows);
+            });
+            snapshotCache.put(scope, new SnapshotCache(persisted, now + SNAPSHOT_TTL_MS));
+        }
+        Map<String, WindowSample> merged = new LinkedHashMap<>();
+        for (WindowSample sample : persisted) {
+            merged.put(bucketKey(scope, sample.getIdentifier(), sample.getWindowStart()), sample);
+        }
+        // Live buckets already include every node's flushed count plus this node's unflushed admissions.
+        for (Map.Entry<String, LocalBucket> entry : buckets.entrySet()) {
+            LocalBucket bucket = entry.getValue();
+            if (bucket.scope == scope) {
+                merged.put(entry.getKey(), bucket.toSample());
             }
-            return result;
-        });
-        snapshotCache.put(scope, new SnapshotCache(samples, now + SNAPSHOT_TTL_MS));
-        return samples;
+        }
+        return merged.values().stream()
+                .sorted(Comparator.comparingInt(WindowSample::getConsumed).reversed())
+                .limit(safeLimit)
+                .collect(Collectors.toList());
     }
 
     @Nullable
@@ -111,15 +250,31 @@ public class GuardrailsRateLimitStore {
             return null;
         }
         final String normalized = normalizeIdentifier(identifier);
-        GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
-                Query.select()
-                        .where("SCOPE = ? AND IDENTIFIER = ?", scope.name(), normalized)
-                        .order("WINDOW_START DESC")
-                        .limit(1));
-        if (rows.length == 0) {
-            return null;
+        LocalBucket latest = null;
+        for (LocalBucket bucket : buckets.values()) {
+            if (bucket.scope == scope && bucket.identifier.equals(normalized)
+                    && (latest == null || bucket.windowStart > latest.windowStart)) {
+                latest = bucket;
+            }
+        }
+        if (latest != null) {
+            return latest.toSample();
         }
-        return windowSample(scope, rows[0]);
+        return ao.executeInTransaction(() -> {
+            GuardrailsRateBucket[] newest = ao.find(GuardrailsRateBucket.class,
+                    Query.select()
+                            .where("SCOPE = ? AND IDENTIFIER = ?", scope.name(), normalized)
+                            .order("WINDOW_START DESC")
+                            .limit(1));
+            if (newest.length == 0) {
+                return null;
+            }
+            GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
+                    Query.select().where("SCOPE = ? AND IDENTIFIER = ? AND WINDOW_START = ?",
+                            scope.name(), normalized, newest[0].getWindowStart()));
+            List<WindowSample> samples = sumAcrossNodes(scope, rows);
+            return samples.isEmpty() ? null : samples.get(0);
+        });
     }
 
     public void recordIncident(GuardrailsRateLimitScope scope,
@@ -206,11 +361,8 @@ public class GuardrailsRateLimitStore {
                 .collect(Collectors.toList());
     }
 
-    private GuardrailsRateBucket loadOrCreateBucket(GuardrailsRateLimitScope scope,
-                                                    String identifier,
-                                                    long windowStart,
-                                                    long now) {
-        String bucketKey = bucketKey(scope, identifier, windowStart);
+    private GuardrailsRateBucket loadOrCreateBucket(LocalBucket bucket, String node, long now) {
+        String bucketKey = bucketKey(bucket.scope, bucket.identifier, bucket.windowStart) + ":" + node;
         GuardrailsRateBucket[] rows = ao.find(GuardrailsRateBucket.class,
                 Query.select().where("BUCKET_KEY = ?", bucketKey));
         if (rows.length > 0) {
@@ -219,9 +371,10 @@ public class GuardrailsRateLimitStore {
         try {
             return ao.create(GuardrailsRateBucket.class,
                     new DBParam("BUCKET_KEY", bucketKey),
-                    new DBParam("SCOPE", scope.name()),
-                    new DBParam("IDENTIFIER", identifier),
-                    new DBParam("WINDOW_START", windowStart),
+                    new DBParam("SCOPE", bucket.scope.name()),
+                    new DBParam("IDENTIFIER", bucket.identifier),
+                    new DBParam("NODE_ID", node),
+                    new DBParam("WINDOW_START", bucket.windowStart),
                     new DBParam("CONSUMED", 0),
                     new DBParam("LIMIT_PER_HOUR", 0),
                     new DBParam("UPDATED_AT", now));
@@ -235,14 +388,26 @@ public class GuardrailsRateLimitStore {
         }
     }
 
-    private WindowSample windowSample(GuardrailsRateLimitScope scope, GuardrailsRateBucket row) {
-        return new WindowSample(
-                scope,
-                row.getIdentifier(),
-                row.getWindowStart(),
-                row.getConsumed(),
-                row.getLimitPerHour(),
-                row.getUpdatedAt());
+    /**
+     * Folds per-node rows of the same window into one sample each, keeping the order of first appearance.
+     */
+    private List<WindowSample> sumAcrossNodes(GuardrailsRateLimitScope scope, GuardrailsRateBucket[] rows) {
+        Map<String, WindowSample> samples = new LinkedHashMap<>();
+        for (GuardrailsRateBucket row : rows) {
+            WindowSample sample = new WindowSample(
+                    scope,
+                    row.getIdentifier(),
+                    row.getWindowStart(),
+                    row.getConsumed(),
+                    row.getLimitPerHour(),
+                    row.getUpdatedAt());
+            samples.merge(bucketKey(scope, row.getIdentifier(), row.getWindowStart()), sample, (a, b) -> {
+                WindowSample latest = b.getUpdatedAt() > a.getUpdatedAt() ? b : a;
+                return new WindowSample(scope, a.getIdentifier(), a.getWindowStart(),
+                        a.getConsumed() + b.getConsumed(), latest.getLimitPerHour(), latest.getUpdatedAt());
+            });
+        }
+        return new ArrayList<>(samples.values());
     }
 
     private ThrottleIncident toIncident(GuardrailsRateIncident row) {
@@ -285,6 +450,32 @@ public class GuardrailsRateLimitStore {
         return trimmed.isEmpty() ? null : trimmed;
     }
 
+    private static final class LocalBucket {
+        private final GuardrailsRateLimitScope scope;
+        private final String identifier;
+        private final long windowStart;
+        private final long windowDurationMs;
+        private final AtomicInteger consumed = new AtomicInteger();
+        private volatile int otherNodes;
+        private volatile int limitPerHour;
+        private volatile long updatedAt;
+        // Only written by flush(), which is synchronized.
+        private volatile int flushed;
+        private int flushedLimit;
+
+        private LocalBucket(GuardrailsRateLimitScope scope, String identifier, long windowStart, long windowDurationMs) {
+            this.scope = scope;
+            this.identifier = identifier;
+            this.windowStart = windowStart;
+            this.windowDurationMs = windowDurationMs;
+        }
+
+        WindowSample toSample() {
+            return new WindowSample(scope, identifier, windowStart, consumed.get() + otherNodes, limitPerHour,
+                    updatedAt);
+        }
+    }
+
     private static final class SnapshotCache {
         private final List<WindowSample> samples;
         private final long expiresAt;
@@ -1,5 +1,9 @@
 package com.teknolojikpanda.bitbucket.aireviewer.service;
 
+import com.teknolojikpanda.bitbucket.aicode.core.AdaptiveConcurrencyLimiter;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelEndpointBalancer;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelHttpTransport;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkExecutionEngine;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController.QueueStats;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController.QueueStats.ScopeQueueStats;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewRateLimiter.RateLimitSnapshot;
@@ -43,6 +47,12 @@ public class GuardrailsTelemetryService {
     private final GuardrailsRateLimitOverrideService overrideService;
     private final GuardrailsRateLimitStore rateLimitStore;
     private final GuardrailsRolloutService rolloutService;
+    private final ChunkExecutionEngine chunkExecutionEngine;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ModelEndpointBalancer endpointBalancer;
+    private final ModelHttpTransport modelTransport;
+    private final ReviewRescopeCoalescer rescopeCoalescer;
+    private final ReviewEventDispatcher eventDispatcher;
 
     @Inject
     public GuardrailsTelemetryService(ReviewConcurrencyController concurrencyController,
@@ -59,7 +69,13 @@ public class GuardrailsTelemetryService {
                                       ReviewQueueAuditService queueAuditService,
                                       GuardrailsRateLimitOverrideService overrideService,
                                       GuardrailsRateLimitStore rateLimitStore,
-                                      GuardrailsRolloutService rolloutService) {
+                                      GuardrailsRolloutService rolloutService,
+                                      ChunkExecutionEngine chunkExecutionEngine,
+                                      AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                      ModelEndpointBalancer endpointBalancer,
+                                      ModelHttpTransport modelTransport,
+                                      ReviewRescopeCoalescer rescopeCoalescer,
+                                      ReviewEventDispatcher eventDispatcher) {
         this.concurrencyController = Objects.requireNonNull(concurrencyController, "concurrencyController");
         this.workerPool = Objects.requireNonNull(workerPool, "workerPool");
         this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
@@ -75,6 +91,12 @@ public class GuardrailsTelemetryService {
         this.overrideService = Objects.requireNonNull(overrideService, "overrideService");
         this.rateLimitStore = Objects.requireNonNull(rateLimitStore, "rateLimitStore");
         this.rolloutService = Objects.requireNonNull(rolloutService, "rolloutService");
+        this.chunkExecutionEngine = Objects.requireNonNull(chunkExecutionEngine, "chunkExecutionEngine");
+        this.concurrencyLimiter = Objects.requireNonNull(concurrencyLimiter, "concurrencyLimiter");
+        this.endpointBalancer = Objects.requireNonNull(endpointBalancer, "endpointBalancer");
+        this.modelTransport = Objects.requireNonNull(modelTransport, "modelTransport");
+        this.rescopeCoalescer = Objects.requireNonNull(rescopeCoalescer, "rescopeCoalescer");
+        this.eventDispatcher = Objects.requireNonNull(eventDispatcher, "eventDispatcher");
     }
 
     /**
@@ -95,7 +117,15 @@ public class GuardrailsTelemetryService {
         List<Map<String, Object>> workerNodeTimeline = workerNodeSnapshotsToList(workerNodes);
         payload.put("workerPool", workerPoolStatsToMap(workerSnapshot));
         payload.put("workerPoolNodes", workerNodeTimeline);
+        payload.put("chunkExecution", chunkExecutionEngine.snapshot());
+        payload.put("modelConcurrency", collectModelConcurrencySnapshot());
+        payload.put("modelEndpoints", collectModelEndpointSnapshot());
+        payload.put("modelConnectionPools", collectModelConnectionPoolSnapshot());
         payload.put("rateLimiter", rateLimitStatsToMap(rateLimiter.snapshot()));
+        payload.put("rateLimitBuckets", rateLimitStore.snapshot());
+        payload.put("clusterQueue", concurrencyController.clusterQueueSnapshot());
+        payload.put("rescopeCoalescing", rescopeCoalescer.snapshot());
+        payload.put("eventDispatch", eventDispatcher.snapshot());
         payload.put("rateLimitOverrides", overridesToList(overrideService.listOverrides(false)));
         payload.put("rollout", rolloutService.describeTelemetry());
         payload.put("scalingHints", scalingHintsToList(scalingAdvisor.evaluate(queueStats, workerNodes)));
@@ -111,6 +141,27 @@ public class GuardrailsTelemetryService {
         return payload;
     }
 
+    /**
+     * Current adaptive concurrency limit, in-flight calls and recent latency for each model endpoint.
+     */
+    public Map<String, Object> collectModelConcurrencySnapshot() {
+        return concurrencyLimiter.snapshot();
+    }
+
+    /**
+     * Routing weight, outstanding calls and circuit state for each endpoint in the model pools.
+     */
+    public Map<String, Object> collectModelEndpointSnapshot() {
+        return endpointBalancer.snapshot();
+    }
+
+    /**
+     * Occupancy, lease waits, lease timeouts and connection reuse for each model connection pool.
+     */
+    public List<Map<String, Object>> collectModelConnectionPoolSnapshot() {
+        return modelTransport.snapshot();
+    }
+
     /**
      * Exports flattened metric points alongside the richer runtime snapshot for external monitoring.
      */
@@ -129,6 +180,9 @@ public class GuardrailsTelemetryService {
         long now = System.currentTimeMillis();
         Map<String, Object> queue = asMap(runtime.get("queue"));
         Map<String, Object> worker = asMap(runtime.get("workerPool"));
+        Map<String, Object> chunkExecution = asMap(runtime.get("chunkExecution"));
+        List<Map<String, Object>> modelEndpoints = asList(asMap(runtime.get("modelConcurrency")).get("endpoints"));
+        List<Map<String, Object>> modelPool = asList(asMap(runtime.get("modelEndpoints")).get("endpoints"));
         Map<String, Object> limiter = asMap(runtime.get("rateLimiter"));
         Map<String, Object> retention = asMap(runtime.get("retention"));
         Map<String, Object> schedule = asMap(retention.get("schedule"));
@@ -165,6 +219,35 @@ public class GuardrailsTelemetryService {
         addMetric(metrics, "ai.worker.configuredSize", worker.get("configuredSize"), "count", "Configured worker pool size");
         addMetric(metrics, "ai.worker.queuedTasks", worker.get("queuedTasks"), "count", "Pending worker tasks");
 
+        addMetric(metrics, "ai.chunks.inFlight", chunkExecution.get("inFlight"), "count",
+                "Chunk model requests currently running on this node");
+        addMetric(metrics, "ai.chunks.maxInFlight", chunkExecution.get("maxInFlight"), "count",
+                "Node-wide limit on in-flight chunk model requests");
+        addMetric(metrics, "ai.chunks.queueDepth", chunkExecution.get("queueDepth"), "count",
+                "Chunks waiting for an in-flight slot");
+        addMetric(metrics, "ai.chunks.activeReviews", chunkExecution.get("activeReviews"), "count",
+                "Reviews sharing the chunk executor");
+        addMetric(metrics, "ai.chunks.wait.avgMs", chunkExecution.get("avgWaitMs"), "ms",
+                "Average time chunks waited for an in-flight slot");
+        addMetric(metrics, "ai.chunks.wait.p95Ms", chunkExecution.get("p95WaitMs"), "ms",
+                "95th percentile wait across recent chunks");
+        addMetric(metrics, "ai.chunks.maxReviewShare", maxDoubleListField(asList(chunkExecution.get("reviews")), "share"),
+                "ratio", "Largest fraction of in-flight chunk slots held by a single review");
+        addMetric(metrics, "ai.model.concurrency.limit", sumListField(modelEndpoints, "limit"), "count",
+                "Sum of adaptive concurrency limits across model endpoints");
+        addMetric(metrics, "ai.model.concurrency.inFlight", sumListField(modelEndpoints, "inFlight"), "count",
+                "Model calls holding an adaptive concurrency slot");
+        addMetric(metrics, "ai.model.concurrency.waiting", sumListField(modelEndpoints, "waiting"), "count",
+                "Model calls waiting for an endpoint's adaptive limit");
+        addMetric(metrics, "ai.model.concurrency.drops", sumListField(modelEndpoints, "drops"), "count",
+                "Throttled, busy or timed-out model calls seen by the adaptive limiter");
+        addMetric(metrics, "ai.model.endpoints.outstanding", sumListField(modelPool, "outstanding"), "count",
+                "Model calls routed to pool endpoints and not yet finished");
+        addMetric(metrics, "ai.model.endpoints.drained", countListField(modelPool, "weight", 0d), "count",
+                "Pool endpoints receiving no new calls because probes mark them down");
+        addMetric(metrics, "ai.model.endpoints.openCircuits", countListField(modelPool, "state", "OPEN"), "count",
+                "Pool endpoints whose circuit breaker is open");
+
         addMetric(metrics, "ai.rateLimiter.repoLimitPerHour", limiter.get("repoLimitPerHour"), "reviews/hour",
                 "Per-repository review budget");
         addMetric(metrics, "ai.rateLimiter.projectLimitPerHour", limiter.get("projectLimitPerHour"), "reviews/hour",
@@ -728,6 +811,19 @@ public class GuardrailsTelemetryService {
         return sum;
     }
 
+    private long countListField(List<Map<String, Object>> list, String field, Object value) {
+        if (list == null || list.isEmpty()) {
+            return 0L;
+        }
+        long count = 0L;
+        for (Map<String, Object> entry : list) {
+            if (entry != null && Objects.equals(entry.get(field), value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private double averageListField(List<Map<String, Object>> list, String field) {
         if (list == null || list.isEmpty()) {
             return 0d;
@@ -747,6 +843,23 @@ public class GuardrailsTelemetryService {
         return count == 0 ? 0d : sum / count;
     }
 
+    private double maxDoubleListField(List<Map<String, Object>> list, String field) {
+        double max = 0d;
+        if (list == null || list.isEmpty()) {
+            return max;
+        }
+        for (Map<String, Object> entry : list) {
+            if (entry == null) {
+                continue;
+            }
+            Number number = toNumber(entry.get(field));
+            if (number != null) {
+                max = Math.max(max, number.doubleValue());
+            }
+        }
+        return max;
+    }
+
     private long maxListField(List<Map<String, Object>> list, String field) {
         long max = 0L;
         if (list == null || list.isEmpty()) {
@@ -124,7 +124,10 @@ public class GuardrailsWorkerNodeService {
                 stale);
     }
 
-    private String resolveNodeId() {
+    /**
+     * @return identifier of this Bitbucket node, stable across restarts
+     */
+    public String resolveNodeId() {
         try {
             String serverId = applicationPropertiesService.getServerId();
             if (serverId != null && !serverId.trim().isEmpty()) {
@@ -110,8 +110,13 @@ public class ModelHealthProbeScheduler implements LifecycleAware, DisposableBean
             try {
                 Map<String, Object> config = configService.getConfigurationAsMap();
                 String baseUrl = stringValue(config.get("ollamaUrl"), "http://0.0.0.0:11434");
-                probeModel(baseUrl, stringValue(config.get("ollamaModel"), ""));
-                probeModel(baseUrl, stringValue(config.get("fallbackModel"), ""));
+                // Probe every pool member so the balancer can drain hosts that stop answering.
+                for (String endpoint : modelHealthService.endpoints(config.get("primaryModelEndpoints"), baseUrl)) {
+                    probeModel(endpoint, stringValue(config.get("ollamaModel"), ""));
+                }
+                for (String endpoint : modelHealthService.endpoints(config.get("fallbackModelEndpoints"), baseUrl)) {
+                    probeModel(endpoint, stringValue(config.get("fallbackModel"), ""));
+                }
                 return JobRunnerResponse.success("Model health probes executed");
             } catch (Exception ex) {
                 log.debug("Model health probe failed: {}", ex.getMessage(), ex);
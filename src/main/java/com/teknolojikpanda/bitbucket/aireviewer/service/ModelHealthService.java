@@ -1,8 +1,13 @@
 package com.teknolojikpanda.bitbucket.aireviewer.service;
 
+import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
+import com.teknolojikpanda.bitbucket.aicode.api.ModelEndpointHealth;
+
+import javax.annotation.Nonnull;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -19,14 +24,21 @@ import java.util.concurrent.TimeUnit;
  */
 @Named
 @Singleton
-public class ModelHealthService {
+@ExportAsService(ModelEndpointHealth.class)
+public class ModelHealthService implements ModelEndpointHealth {
 
     private static final int DEGRADED_FAILURE_THRESHOLD = 2;
     private static final int FAILED_FAILURE_THRESHOLD = 5;
     private static final long STALE_AFTER_MS = TimeUnit.MINUTES.toMillis(10);
     private static final String DEFAULT_ENDPOINT = "http://0.0.0.0:11434";
+    private static final int LATENCY_SAMPLE_SIZE = 128;
+    static final int MIN_HEDGE_SAMPLES = 10;
+    private static final int DEFAULT_HEDGE_PERCENTILE = 90;
+    private static final double DEGRADED_ROUTING_WEIGHT = 0.25d;
+    private static final double MIN_LATENCY_WEIGHT = 0.1d;
 
     private final ConcurrentMap<ModelKey, HealthState> states = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ModelKey, LatencyWindow> latencies = new ConcurrentHashMap<>();
 
     /**
      * Records a successful probe and clears any degraded status for the model.
@@ -37,8 +49,66 @@ public class ModelHealthService {
         if (normalizedModel.isEmpty()) {
             return;
         }
-        states.compute(ModelKey.of(normalizedEndpoint, normalizedModel),
-                (key, state) -> HealthState.success(latencyMs));
+        ModelKey key = ModelKey.of(normalizedEndpoint, normalizedModel);
+        states.compute(key, (ignored, state) -> HealthState.success(latencyMs));
+        latencies.computeIfAbsent(key, ignored -> new LatencyWindow()).add(latencyMs);
+    }
+
+    /**
+     * Records the latency of a successful model call made during a review. Unlike a probe this leaves the
+     * health status alone; it only feeds the latency percentiles used for hedging.
+     */
+    public void recordCallLatency(String endpoint, String model, long latencyMs) {
+        String normalizedModel = normalizeModel(model);
+        if (normalizedModel.isEmpty() || latencyMs < 0) {
+            return;
+        }
+        latencies.computeIfAbsent(ModelKey.of(normalizeEndpoint(endpoint), normalizedModel),
+                ignored -> new LatencyWindow()).add(latencyMs);
+    }
+
+    /**
+     * @param percentile between 1 and 99
+     * @return the percentile over recent successful calls and probes, or {@code -1} while too few samples exist
+     */
+    public long latencyPercentile(String endpoint, String model, int percentile) {
+        LatencyWindow window = latencies.get(ModelKey.of(normalizeEndpoint(endpoint), normalizeModel(model)));
+        return window != null ? window.percentile(percentile) : -1L;
+    }
+
+    /**
+     * Weighs an endpoint by its probe status (failed endpoints drain, degraded ones get a quarter share) and
+     * by how its median latency compares with the fastest endpoint serving the same model.
+     */
+    @Override
+    public double routingWeight(@Nonnull String endpoint, @Nonnull String model) {
+        String normalizedEndpoint = normalizeEndpoint(endpoint);
+        String normalizedModel = normalizeModel(model);
+        HealthSnapshot health = snapshot(normalizedEndpoint, normalizedModel);
+        double weight;
+        switch (health.getStatus()) {
+            case FAILED:
+                return 0d;
+            case DEGRADED:
+                weight = DEGRADED_ROUTING_WEIGHT;
+                break;
+            default:
+                weight = 1d;
+        }
+        long own = latencyPercentile(normalizedEndpoint, normalizedModel, 50);
+        if (own <= 0) {
+            return weight;
+        }
+        long best = own;
+        for (Map.Entry<ModelKey, LatencyWindow> entry : latencies.entrySet()) {
+            if (entry.getKey().model.equals(normalizedModel)) {
+                long median = entry.getValue().percentile(50);
+                if (median > 0) {
+                    best = Math.min(best, median);
+                }
+            }
+        }
+        return weight * Math.max(MIN_LATENCY_WEIGHT, Math.min(1d, (double) best / own));
     }
 
     /**
@@ -66,18 +136,33 @@ public class ModelHealthService {
         String primaryModel = normalizeModel(configuration.get("ollamaModel"));
         String fallbackModel = normalizeModel(configuration.get("fallbackModel"));
 
-        HealthSnapshot primarySnapshot = snapshot(endpoint, primaryModel);
-        HealthSnapshot fallbackSnapshot = fallbackModel.isEmpty() ? null : snapshot(endpoint, fallbackModel);
+        HealthSnapshot primarySnapshot = poolSnapshot(
+                endpoints(configuration.get("primaryModelEndpoints"), endpoint), primaryModel);
+        HealthSnapshot fallbackSnapshot = fallbackModel.isEmpty() ? null : poolSnapshot(
+                endpoints(configuration.get("fallbackModelEndpoints"), endpoint), fallbackModel);
 
         Map<String, Object> mutated = configuration;
         boolean failoverApplied = false;
+        long hedgeDelayMs = 0L;
         if (primarySnapshot.isDegraded() && fallbackSnapshot != null && fallbackSnapshot.isHealthy()) {
             mutated = new LinkedHashMap<>(configuration);
             mutated.put("skipPrimaryModel", true);
             mutated.put("primaryModelDegraded", true);
             failoverApplied = true;
+        } else if (isEnabled(configuration.get("hedgeRequests"))
+                && fallbackSnapshot != null
+                && fallbackSnapshot.isHealthy()
+                && !fallbackModel.equals(primaryModel)) {
+            int percentile = Math.max(1, Math.min(99,
+                    intValue(configuration.get("hedgePercentile"), DEFAULT_HEDGE_PERCENTILE)));
+            long delay = latencyPercentile(primarySnapshot.endpoint, primaryModel, percentile);
+            if (delay > 0) {
+                mutated = new LinkedHashMap<>(configuration);
+                mutated.put("hedgeDelayMs", delay);
+                hedgeDelayMs = delay;
+            }
         }
-        return new Result(mutated, failoverApplied, primarySnapshot, fallbackSnapshot);
+        return new Result(mutated, failoverApplied, primarySnapshot, fallbackSnapshot, hedgeDelayMs);
     }
 
     /**
@@ -106,6 +191,72 @@ public class ModelHealthService {
         return HealthSnapshot.fromState(endpoint, model, state, System.currentTimeMillis());
     }
 
+    /**
+     * A pool is only as unhealthy as its healthiest member: the balancer routes around the others.
+     */
+    private HealthSnapshot poolSnapshot(List<String> endpoints, String model) {
+        HealthSnapshot best = null;
+        for (String endpoint : endpoints) {
+            HealthSnapshot candidate = snapshot(endpoint, model);
+            if (best == null || rank(candidate.status) < rank(best.status)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static int rank(HealthStatus status) {
+        switch (status) {
+            case HEALTHY:
+                return 0;
+            case UNKNOWN:
+                return 1;
+            case DEGRADED:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    /**
+     * @return the comma-separated endpoints in {@code value}, or {@code defaultEndpoint} when none are configured
+     */
+    public List<String> endpoints(Object value, String defaultEndpoint) {
+        List<String> endpoints = new ArrayList<>();
+        if (value != null) {
+            for (String entry : value.toString().split(",")) {
+                if (!entry.trim().isEmpty()) {
+                    endpoints.add(normalizeEndpoint(entry));
+                }
+            }
+        }
+        if (endpoints.isEmpty()) {
+            endpoints.add(normalizeEndpoint(defaultEndpoint));
+        }
+        return endpoints;
+    }
+
+    private static boolean isEnabled(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return value != null && Boolean.parseBoolean(value.toString().trim());
+    }
+
+    private static int intValue(Object value, int defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException ignored) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
     private String normalizeEndpoint(Object value) {
         String raw = value == null ? "" : value.toString().trim();
         if (raw.isEmpty()) {
@@ -152,6 +303,31 @@ public class ModelHealthService {
         }
     }
 
+    /**
+     * Ring of the most recent latencies for one model.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLE_SIZE];
+        private int count;
+        private int cursor;
+
+        synchronized void add(long latencyMs) {
+            samples[cursor] = latencyMs;
+            cursor = (cursor + 1) % samples.length;
+            count = Math.min(samples.length, count + 1);
+        }
+
+        synchronized long percentile(int percentile) {
+            if (count < MIN_HEDGE_SAMPLES) {
+                return -1L;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100d * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
     private static final class HealthState {
         private final HealthStatus status;
         private final long updatedAt;
@@ -288,19 +464,22 @@ public class ModelHealthService {
         private final boolean failoverApplied;
         private final HealthSnapshot primarySnapshot;
         private final HealthSnapshot fallbackSnapshot;
+        private final long hedgeDelayMs;
 
         private Result(Map<String, Object> configuration,
                        boolean failoverApplied,
                        HealthSnapshot primarySnapshot,
-                       HealthSnapshot fallbackSnapshot) {
+                       HealthSnapshot fallbackSnapshot,
+                       long hedgeDelayMs) {
             this.configuration = configuration;
             this.failoverApplied = failoverApplied;
             this.primarySnapshot = primarySnapshot;
             this.fallbackSnapshot = fallbackSnapshot;
+            this.hedgeDelayMs = hedgeDelayMs;
         }
 
         public static Result passThrough(Map<String, Object> configuration) {
-            return new Result(configuration, false, null, null);
+            return new Result(configuration, false, null, null, 0L);
         }
 
         public Map<String, Object> getConfiguration() {
@@ -322,5 +501,12 @@ public class ModelHealthService {
         public HealthSnapshot getFallbackSnapshot() {
             return fallbackSnapshot;
         }
+
+        /**
+         * @return how long a chunk waits on the primary before hedging to the fallback, or {@code 0} when off
+         */
+        public long getHedgeDelayMs() {
+            return hedgeDelayMs;
+        }
     }
 }
@@ -0,0 +1,100 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes the admission key of a waiting run under a {@link ReviewAdmissionPolicy}; waiting runs are
+ * admitted lowest key first. Keys are in epoch milliseconds so they can be compared with arrival times:
+ * <ul>
+ *     <li>{@code fifo}: the arrival time.</li>
+ *     <li>{@code priority}: arrival minus the {@link ReviewQueuePriority} head start.</li>
+ *     <li>{@code sjf}: arrival minus the manual/priority-scope head start plus
+ *     {@link #SJF_COST_WEIGHT} times the estimated duration, capped at {@link #MAX_SJF_DELAY_MS}. Short runs
+ *     go first, but a run can only be overtaken by runs arriving less than that cap after it.</li>
+ *     <li>{@code weighted-fair}: the virtual finish time of the run in its repository's lane, i.e.
+ *     {@code max(arrival, previous finish) + estimate / weight}, where manual runs weigh
+ *     {@link #MANUAL_WEIGHT} and priority-scope runs {@link #PRIORITY_SCOPE_WEIGHT}. A repository that
+ *     submits a burst of runs therefore cannot hold back the others.</li>
+ * </ul>
+ * The same instance is used by the controller and by {@link ReviewAdmissionSimulator}, so replayed traffic is
+ * ranked exactly as live traffic would be. Instances are thread safe.
+ */
+public final class ReviewAdmissionOrder {
+
+    static final double SJF_COST_WEIGHT = 2D;
+    static final long MAX_SJF_DELAY_MS = TimeUnit.MINUTES.toMillis(60);
+    static final double MANUAL_WEIGHT = 4D;
+    static final double PRIORITY_SCOPE_WEIGHT = 2D;
+    /** Cost assumed for runs without any duration history. */
+    static final long DEFAULT_COST_MS = TimeUnit.MINUTES.toMillis(2);
+    private static final int MAX_TRACKED_LANES = 1024;
+
+    private final Map<String, Long> laneFinish = new HashMap<>();
+
+    /**
+     * @param scopeKey    lane used by {@code weighted-fair}, normally the repository
+     * @param estimatedMs expected duration of this run, or a non-positive value if unknown
+     * @param typicalMs   expected duration of a typical run, or a non-positive value if unknown
+     */
+    public long admissionKey(@Nonnull ReviewAdmissionPolicy policy,
+                             long arrivalMs,
+                             boolean manual,
+                             boolean priorityScope,
+                             @Nullable String scopeKey,
+                             double estimatedMs,
+                             double typicalMs) {
+        Objects.requireNonNull(policy, "policy");
+        switch (policy) {
+            case FIFO:
+                return arrivalMs;
+            case SHORTEST_JOB_FIRST: {
+                long flags = ReviewQueuePriority.headStartMs(manual, priorityScope, 0D, 0D);
+                long delay = Math.min(MAX_SJF_DELAY_MS, Math.round(SJF_COST_WEIGHT * cost(estimatedMs, typicalMs)));
+                return arrivalMs - flags + delay;
+            }
+            case WEIGHTED_FAIR:
+                return nextFinish(scopeKey != null ? scopeKey : "", arrivalMs,
+                        Math.round(cost(estimatedMs, typicalMs) / weight(manual, priorityScope)));
+            case PRIORITY:
+            default:
+                return arrivalMs - ReviewQueuePriority.headStartMs(manual, priorityScope, estimatedMs, typicalMs);
+        }
+    }
+
+    private synchronized long nextFinish(String lane, long arrivalMs, long serviceMs) {
+        Long previous = laneFinish.get(lane);
+        long start = previous != null ? Math.max(arrivalMs, previous) : arrivalMs;
+        long finish = start + Math.max(1L, serviceMs);
+        laneFinish.put(lane, finish);
+        if (laneFinish.size() > MAX_TRACKED_LANES) {
+            // Lanes whose virtual finish has passed start again from the arrival time anyway.
+            Iterator<Long> it = laneFinish.values().iterator();
+            while (it.hasNext()) {
+                if (it.next() < arrivalMs) {
+                    it.remove();
+                }
+            }
+        }
+        return finish;
+    }
+
+    private static double cost(double estimatedMs, double typicalMs) {
+        if (estimatedMs > 0) {
+            return estimatedMs;
+        }
+        return typicalMs > 0 ? typicalMs : DEFAULT_COST_MS;
+    }
+
+    private static double weight(boolean manual, boolean priorityScope) {
+        if (manual) {
+            return MANUAL_WEIGHT;
+        }
+        return priorityScope ? PRIORITY_SCOPE_WEIGHT : 1D;
+    }
+}
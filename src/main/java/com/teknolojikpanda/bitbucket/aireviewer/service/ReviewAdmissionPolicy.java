@@ -0,0 +1,56 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * How {@link ReviewConcurrencyController} orders runs waiting for a slot. Selected with the
+ * {@code queueAdmissionPolicy} setting; see {@link ReviewAdmissionOrder} for how each policy ranks runs.
+ */
+public enum ReviewAdmissionPolicy {
+    /** First come, first served. */
+    FIFO("fifo"),
+    /** Bounded head starts for manual, priority-scope and cheap runs ({@link ReviewQueuePriority}). */
+    PRIORITY("priority"),
+    /** Shortest estimated run first, with waiting time still counting so costly runs are not starved. */
+    SHORTEST_JOB_FIRST("sjf"),
+    /** Weighted fair queueing across repositories, weighted by manual and priority-scope flags. */
+    WEIGHTED_FAIR("weighted-fair");
+
+    public static final ReviewAdmissionPolicy DEFAULT = PRIORITY;
+
+    private final String configValue;
+
+    ReviewAdmissionPolicy(String configValue) {
+        this.configValue = configValue;
+    }
+
+    @Nonnull
+    public String toConfigValue() {
+        return configValue;
+    }
+
+    /**
+     * @return the policy for the given setting, or {@code null} if the value is not recognised
+     */
+    @Nullable
+    public static ReviewAdmissionPolicy parse(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.toString().trim().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (ReviewAdmissionPolicy policy : values()) {
+            if (policy.configValue.equals(normalized) || policy.name().toLowerCase(Locale.ROOT).replace('_', '-').equals(normalized)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    @Nonnull
+    public static ReviewAdmissionPolicy fromConfig(@Nullable Object value) {
+        ReviewAdmissionPolicy policy = parse(value);
+        return policy != null ? policy : DEFAULT;
+    }
+}
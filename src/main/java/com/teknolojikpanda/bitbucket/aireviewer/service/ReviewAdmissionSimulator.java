@@ -0,0 +1,365 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recorded queue traffic against every {@link ReviewAdmissionPolicy} so administrators can compare
+ * wait times before switching policy.
+ * <p>
+ * Runs are rebuilt from the queue audit trail: a run arrives when it was {@code enqueued} (or when it
+ * {@code started} or was {@code claimed}, if it never waited) and is served for the duration of the matching
+ * review in the history, falling back to the estimate when no review matches. Runs canceled before they
+ * started are left out. Each policy is then simulated with {@code maxConcurrentReviews} slots and the same
+ * estimates the controller would have used.
+ */
+@Named
+@Singleton
+public class ReviewAdmissionSimulator {
+
+    static final int DEFAULT_SAMPLE_SIZE = 500;
+    private static final int DURATION_SAMPLE_SIZE = 200;
+    private static final int DEFAULT_SLOTS = 2;
+    private static final long TIMING_MATCH_WINDOW_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewAdmissionSimulator.class);
+
+    private final ReviewQueueAuditService queueAuditService;
+    private final ReviewHistoryService historyService;
+    private final AIReviewerConfigService configService;
+
+    @Inject
+    public ReviewAdmissionSimulator(ReviewQueueAuditService queueAuditService,
+                                    ReviewHistoryService historyService,
+                                    AIReviewerConfigService configService) {
+        this.queueAuditService = Objects.requireNonNull(queueAuditService, "queueAuditService");
+        this.historyService = Objects.requireNonNull(historyService, "historyService");
+        this.configService = Objects.requireNonNull(configService, "configService");
+    }
+
+    /**
+     * Replays up to {@code sampleSize} recent queue actions and reports wait percentiles per policy.
+     */
+    @Nonnull
+    public Map<String, Object> replayRecentTraffic(int sampleSize) {
+        List<ReviewConcurrencyController.QueueStats.QueueAction> actions =
+                queueAuditService.listRecentActions(sampleSize > 0 ? sampleSize : DEFAULT_SAMPLE_SIZE);
+        Map<String, Object> config = fetchConfigSafely();
+        int slots = resolveSlots(config.get("maxConcurrentReviews"));
+        ReviewAdmissionPolicy active = ReviewAdmissionPolicy.fromConfig(config.get("queueAdmissionPolicy"));
+
+        long earliest = Long.MAX_VALUE;
+        for (ReviewConcurrencyController.QueueStats.QueueAction action : actions) {
+            earliest = Math.min(earliest, action.getTimestamp());
+        }
+        List<ReviewHistoryService.ReviewTiming> timings = earliest == Long.MAX_VALUE
+                ? Collections.emptyList()
+                : historyService.getReviewTimingsSince(earliest - TIMING_MATCH_WINDOW_MS, sampleSize * 2);
+        ReviewHistoryService.DurationStats stats = historyService.getRecentDurationStats(DURATION_SAMPLE_SIZE);
+        List<Job> jobs = buildJobs(actions, timings, stats);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("activePolicy", active.toConfigValue());
+        payload.put("slots", slots);
+        payload.put("actionsScanned", actions.size());
+        payload.put("runs", jobs.size());
+        payload.put("runsWithMeasuredDuration", jobs.stream().filter(job -> job.measured).count());
+        if (!jobs.isEmpty()) {
+            payload.put("windowStart", jobs.get(0).arrivalMs);
+            payload.put("windowEnd", jobs.get(jobs.size() - 1).arrivalMs);
+        }
+        payload.put("recorded", recordedWaits(jobs).toMap());
+        List<Map<String, Object>> policies = new ArrayList<>();
+        for (ReviewAdmissionPolicy policy : ReviewAdmissionPolicy.values()) {
+            Map<String, Object> entry = simulate(jobs, slots, policy).toMap();
+            entry.put("policy", policy.toConfigValue());
+            entry.put("active", policy == active);
+            policies.add(entry);
+        }
+        payload.put("policies", policies);
+        payload.put("generatedAt", System.currentTimeMillis());
+        return payload;
+    }
+
+    List<Job> buildJobs(List<ReviewConcurrencyController.QueueStats.QueueAction> actions,
+                        List<ReviewHistoryService.ReviewTiming> timings,
+                        ReviewHistoryService.DurationStats stats) {
+        Map<String, Long> enqueuedAt = new HashMap<>();
+        Map<String, ReviewConcurrencyController.QueueStats.QueueAction> startedBy = new LinkedHashMap<>();
+        List<ReviewConcurrencyController.QueueStats.QueueAction> chronological = new ArrayList<>(actions);
+        chronological.sort(Comparator.comparingLong(ReviewConcurrencyController.QueueStats.QueueAction::getTimestamp));
+        for (ReviewConcurrencyController.QueueStats.QueueAction action : chronological) {
+            String runId = action.getRunId();
+            String type = action.getAction() != null ? action.getAction().toLowerCase(Locale.ROOT) : "";
+            if (runId == null) {
+                continue;
+            }
+            if ("enqueued".equals(type)) {
+                enqueuedAt.putIfAbsent(runId, action.getTimestamp());
+            } else if ("started".equals(type) || "claimed".equals(type)) {
+                startedBy.putIfAbsent(runId, action);
+            }
+        }
+
+        Map<String, List<ReviewHistoryService.ReviewTiming>> timingsByPullRequest = new HashMap<>();
+        for (ReviewHistoryService.ReviewTiming timing : timings) {
+            timingsByPullRequest.computeIfAbsent(
+                    pullRequestKey(timing.getProjectKey(), timing.getRepositorySlug(), timing.getPullRequestId()),
+                    key -> new ArrayList<>()).add(timing);
+        }
+        double typicalMs = stats.getSamples() > 0 ? stats.estimate(null, null, 0D) : 0D;
+
+        List<Job> jobs = new ArrayList<>(startedBy.size());
+        for (ReviewConcurrencyController.QueueStats.QueueAction start : startedBy.values()) {
+            long startedAt = start.getTimestamp();
+            long arrival = Math.min(enqueuedAt.getOrDefault(start.getRunId(), startedAt), startedAt);
+            double estimatedMs = stats.getSamples() > 0
+                    ? stats.estimate(start.getProjectKey(), start.getRepositorySlug(), start.getPullRequestId(), 0D)
+                    : 0D;
+            ReviewHistoryService.ReviewTiming timing = takeClosestTiming(timingsByPullRequest.get(
+                    pullRequestKey(start.getProjectKey(), start.getRepositorySlug(), start.getPullRequestId())), startedAt);
+            long serviceMs;
+            if (timing != null) {
+                serviceMs = timing.getDurationMs();
+            } else if (estimatedMs > 0) {
+                serviceMs = Math.round(estimatedMs);
+            } else {
+                serviceMs = typicalMs > 0 ? Math.round(typicalMs) : ReviewAdmissionOrder.DEFAULT_COST_MS;
+            }
+            jobs.add(new Job(
+                    arrival,
+                    startedAt - arrival,
+                    serviceMs,
+                    timing != null,
+                    estimatedMs,
+                    typicalMs,
+                    start.isManual(),
+                    isPriorityScope(start.getProjectKey(), start.getRepositorySlug()),
+                    pullRequestKey(start.getProjectKey(), start.getRepositorySlug(), -1)));
+        }
+        jobs.sort(Comparator.comparingLong(job -> job.arrivalMs));
+        return jobs;
+    }
+
+    /**
+     * Simulates {@code slots} servers admitting the given runs in {@code policy} order.
+     */
+    static WaitSummary simulate(List<Job> jobs, int slots, ReviewAdmissionPolicy policy) {
+        if (jobs.isEmpty()) {
+            return WaitSummary.of(new long[0]);
+        }
+        ReviewAdmissionOrder order = new ReviewAdmissionOrder();
+        PriorityQueue<Long> slotFreeAt = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, slots); i++) {
+            slotFreeAt.add(Long.MIN_VALUE);
+        }
+        PriorityQueue<Waiting> waiting = new PriorityQueue<>(
+                Comparator.comparingLong((Waiting w) -> w.key).thenComparingLong(w -> w.sequence));
+        long[] waits = new long[jobs.size()];
+        int waitCount = 0;
+        int next = 0;
+        long clock = Long.MIN_VALUE;
+        while (next < jobs.size() || !waiting.isEmpty()) {
+            if (waiting.isEmpty()) {
+                Job job = jobs.get(next);
+                waiting.add(new Waiting(job, next, order.admissionKey(policy, job.arrivalMs, job.manual,
+                        job.priorityScope, job.scopeKey, job.estimatedMs, job.typicalMs)));
+                clock = Math.max(clock, job.arrivalMs);
+                next++;
+                continue;
+            }
+            long startAt = Math.max(slotFreeAt.peek(), clock);
+            if (next < jobs.size() && jobs.get(next).arrivalMs <= startAt) {
+                // Runs arriving before a slot frees up compete for it.
+                Job job = jobs.get(next);
+                waiting.add(new Waiting(job, next, order.admissionKey(policy, job.arrivalMs, job.manual,
+                        job.priorityScope, job.scopeKey, job.estimatedMs, job.typicalMs)));
+                clock = Math.max(clock, job.arrivalMs);
+                next++;
+                continue;
+            }
+            Waiting admitted = waiting.poll();
+            slotFreeAt.poll();
+            slotFreeAt.add(startAt + admitted.job.serviceMs);
+            waits[waitCount++] = startAt - admitted.job.arrivalMs;
+            clock = startAt;
+        }
+        return WaitSummary.of(waits);
+    }
+
+    static WaitSummary recordedWaits(List<Job> jobs) {
+        long[] waits = new long[jobs.size()];
+        for (int i = 0; i < jobs.size(); i++) {
+            waits[i] = jobs.get(i).recordedWaitMs;
+        }
+        return WaitSummary.of(waits);
+    }
+
+    private ReviewHistoryService.ReviewTiming takeClosestTiming(List<ReviewHistoryService.ReviewTiming> candidates,
+                                                               long startedAt) {
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        ReviewHistoryService.ReviewTiming best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (ReviewHistoryService.ReviewTiming candidate : candidates) {
+            long distance = Math.abs(candidate.getStartTime() - startedAt);
+            if (distance <= TIMING_MATCH_WINDOW_MS && distance < bestDistance) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        if (best != null) {
+            candidates.remove(best);
+        }
+        return best;
+    }
+
+    private boolean isPriorityScope(String projectKey, String repositorySlug) {
+        try {
+            return configService.isPriorityRepository(projectKey, repositorySlug)
+                    || configService.isPriorityProject(projectKey);
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private Map<String, Object> fetchConfigSafely() {
+        try {
+            Map<String, Object> map = configService.getConfigurationAsMap();
+            return map != null ? map : Collections.emptyMap();
+        } catch (RuntimeException ex) {
+            log.debug("Unable to load configuration for queue simulation: {}", ex.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private static int resolveSlots(Object value) {
+        if (value instanceof Number) {
+            return Math.max(1, ((Number) value).intValue());
+        }
+        if (value != null) {
+            try {
+                return Math.max(1, Integer.parseInt(value.toString().trim()));
+            } catch (NumberFormatException ignored) {
+                // fall through to the default
+            }
+        }
+        return DEFAULT_SLOTS;
+    }
+
+    private static String pullRequestKey(String projectKey, String repositorySlug, long pullRequestId) {
+        String project = projectKey != null ? projectKey.trim().toLowerCase(Locale.ROOT) : "";
+        String repo = repositorySlug != null ? repositorySlug.trim().toLowerCase(Locale.ROOT) : "";
+        return pullRequestId >= 0 ? project + "/" + repo + "#" + pullRequestId : project + "/" + repo;
+    }
+
+    static final class Job {
+        final long arrivalMs;
+        final long recordedWaitMs;
+        final long serviceMs;
+        final boolean measured;
+        final double estimatedMs;
+        final double typicalMs;
+        final boolean manual;
+        final boolean priorityScope;
+        final String scopeKey;
+
+        Job(long arrivalMs,
+            long recordedWaitMs,
+            long serviceMs,
+            boolean measured,
+            double estimatedMs,
+            double typicalMs,
+            boolean manual,
+            boolean priorityScope,
+            String scopeKey) {
+            this.arrivalMs = arrivalMs;
+            this.recordedWaitMs = recordedWaitMs;
+            this.serviceMs = serviceMs;
+            this.measured = measured;
+            this.estimatedMs = estimatedMs;
+            this.typicalMs = typicalMs;
+            this.manual = manual;
+            this.priorityScope = priorityScope;
+            this.scopeKey = scopeKey;
+        }
+    }
+
+    private static final class Waiting {
+        final Job job;
+        final long sequence;
+        final long key;
+
+        Waiting(Job job, long sequence, long key) {
+            this.job = job;
+            this.sequence = sequence;
+            this.key = key;
+        }
+    }
+
+    static final class WaitSummary {
+        final int runs;
+        final long meanMs;
+        final long p50Ms;
+        final long p95Ms;
+        final long maxMs;
+
+        private WaitSummary(int runs, long meanMs, long p50Ms, long p95Ms, long maxMs) {
+            this.runs = runs;
+            this.meanMs = meanMs;
+            this.p50Ms = p50Ms;
+            this.p95Ms = p95Ms;
+            this.maxMs = maxMs;
+        }
+
+        static WaitSummary of(long[] waits) {
+            if (waits.length == 0) {
+                return new WaitSummary(0, 0L, 0L, 0L, 0L);
+            }
+            long[] sorted = waits.clone();
+            Arrays.sort(sorted);
+            long total = 0L;
+            for (long wait : sorted) {
+                total += wait;
+            }
+            return new WaitSummary(sorted.length,
+                    total / sorted.length,
+                    percentile(sorted, 0.50D),
+                    percentile(sorted, 0.95D),
+                    sorted[sorted.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, double quantile) {
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("runs", runs);
+            map.put("meanWaitMs", meanMs);
+            map.put("p50WaitMs", p50Ms);
+            map.put("p95WaitMs", p95Ms);
+            map.put("maxWaitMs", maxMs);
+            return map;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.atlassian.plugin.spring.scanner.annotation.export.ExportAsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.teknolojikpanda.bitbucket.aicode.api.ReviewCanceledException;
 import com.teknolojikpanda.bitbucket.aireviewer.service.GuardrailsRolloutService.RolloutMode;
 
 import javax.annotation.Nonnull;
@@ -19,17 +20,29 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Coordinates how many AI review runs may execute concurrently and how many requests
  * may wait for a slot before being rejected.
+ * <p>
+ * With a {@link ReviewWorkQueueService} a run also needs one of the cluster-wide leases, so
+ * {@code maxConcurrentReviews} caps the whole cluster. Requests that have to wait are visible to every node:
+ * an idle node may lease and run them, in which case the waiting caller is released with a
+ * {@link ReviewDelegatedException}.
+ * <p>
+ * Waiting runs are admitted in the order of the configured {@link ReviewAdmissionPolicy} ({@link ReviewQueuePriority}
+ * head starts by default), using recent review durations and diff sizes from {@link ReviewHistoryService} as the
+ * cost estimate.
  */
 @Named
 @Singleton
@@ -42,6 +55,9 @@ public class ReviewConcurrencyController {
     private static final int DEFAULT_MAX_QUEUE_PER_PROJECT = 15;
     private static final int TOP_SCOPE_SAMPLE_LIMIT = 5;
     private static final long REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(15);
+    private static final long CLUSTER_POLL_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final long ADMISSION_RECHECK_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final int DURATION_SAMPLE_SIZE = 200;
 
     private final AIReviewerConfigService configService;
     private final ReviewSchedulerStateService schedulerStateService;
@@ -50,10 +66,21 @@ public class ReviewConcurrencyController {
     private final ConcurrentHashMap<String, AtomicInteger> waitingByRepo = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, AtomicInteger> waitingByProject = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, QueuedPermit> waitingByRunId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<QueuedPermit> admissionOrder = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(QueuedPermit::getVirtualArrival).thenComparingLong(QueuedPermit::getSequence));
+    private final AtomicLong permitSequence = new AtomicLong();
+    private final Object admissionLock = new Object();
     private final ConcurrentHashMap<String, ActiveRun> activeRuns = new ConcurrentHashMap<>();
     private final ConcurrentLinkedDeque<QueueStats.QueueAction> queueActions = new ConcurrentLinkedDeque<>();
     private static final int MAX_QUEUE_ACTIONS = 200;
     private final ReviewQueueAuditService queueAuditService;
+    @Nullable
+    private final ReviewWorkQueueService workQueue;
+    @Nullable
+    private final ReviewHistoryService historyService;
+    private volatile ReviewHistoryService.DurationStats durationStats = ReviewHistoryService.DurationStats.empty();
+    private final ReviewAdmissionOrder admissionKeys = new ReviewAdmissionOrder();
+    private volatile ReviewAdmissionPolicy admissionPolicy = ReviewAdmissionPolicy.DEFAULT;
 
     private volatile int maxConcurrent;
     private volatile int maxQueueSize;
@@ -63,13 +90,33 @@ public class ReviewConcurrencyController {
 
     private static final Logger log = LoggerFactory.getLogger(ReviewConcurrencyController.class);
 
-    @Inject
+    /**
+     * Creates a controller that only limits runs on this node.
+     */
     public ReviewConcurrencyController(AIReviewerConfigService configService,
                                        ReviewSchedulerStateService schedulerStateService,
                                        ReviewQueueAuditService queueAuditService) {
+        this(configService, schedulerStateService, queueAuditService, null);
+    }
+
+    public ReviewConcurrencyController(AIReviewerConfigService configService,
+                                       ReviewSchedulerStateService schedulerStateService,
+                                       ReviewQueueAuditService queueAuditService,
+                                       @Nullable ReviewWorkQueueService workQueue) {
+        this(configService, schedulerStateService, queueAuditService, workQueue, null);
+    }
+
+    @Inject
+    public ReviewConcurrencyController(AIReviewerConfigService configService,
+                                       ReviewSchedulerStateService schedulerStateService,
+                                       ReviewQueueAuditService queueAuditService,
+                                       @Nullable ReviewWorkQueueService workQueue,
+                                       @Nullable ReviewHistoryService historyService) {
         this.configService = Objects.requireNonNull(configService, "configService");
         this.schedulerStateService = Objects.requireNonNull(schedulerStateService, "schedulerStateService");
         this.queueAuditService = Objects.requireNonNull(queueAuditService, "queueAuditService");
+        this.workQueue = workQueue;
+        this.historyService = historyService;
         this.maxConcurrent = DEFAULT_MAX_CONCURRENT;
         this.maxQueueSize = DEFAULT_MAX_QUEUE;
         this.maxQueuedPerRepo = DEFAULT_MAX_QUEUE_PER_REPO;
@@ -90,7 +137,10 @@ public class ReviewConcurrencyController {
             throw new ReviewSchedulerPausedException(schedulerState);
         }
         refreshLimitsIfNeeded();
-        if (semaphore.tryAcquire()) {
+        if (workQueue != null && enqueueClustered(request)) {
+            return acquireClustered(request);
+        }
+        if (admissionOrder.isEmpty() && semaphore.tryAcquire()) {
             return new Slot();
         }
         QueuedPermit permit = registerQueuedWaiter(request);
@@ -98,7 +148,11 @@ public class ReviewConcurrencyController {
             throw new ReviewQueueFullException(buildQueueMessage(request), maxConcurrent, maxQueueSize, waitingCount.get());
         }
         try {
-            semaphore.acquire();
+            while (!awaitTurn(permit, ADMISSION_RECHECK_MS)) {
+                if (permit.isReleased()) {
+                    throw new ReviewCanceledException(permit.getRunId(), "Queued review canceled by administrator.");
+                }
+            }
             recordQueueAction("started", permit.getRunId(), permit.getRequest(), null, null);
             permit.release();
             return new Slot();
@@ -115,6 +169,39 @@ public class ReviewConcurrencyController {
         }
     }
 
+    /**
+     * Leases the oldest run queued anywhere in the cluster if this node has a free slot and no local waiters
+     * of its own. The returned slot holds both the local permit and the lease; closing it completes the run.
+     *
+     * @return the claimed run, or {@code null} when nothing can be claimed right now
+     */
+    @Nullable
+    public ClaimedRun claimQueuedRun() {
+        if (workQueue == null || !schedulerStateService.getState().isAcceptingNewRuns()) {
+            return null;
+        }
+        refreshLimitsIfNeeded();
+        // Local waiters are already queued cluster-wide and claim their own runs; do not compete with them.
+        if (waitingCount.get() > 0 || !semaphore.tryAcquire()) {
+            return null;
+        }
+        Optional<ReviewWorkQueueService.WorkItem> item;
+        try {
+            item = workQueue.claimNext(maxConcurrent);
+        } catch (RuntimeException ex) {
+            releaseCapacity();
+            throw ex;
+        }
+        if (!item.isPresent()) {
+            releaseCapacity();
+            return null;
+        }
+        ReviewWorkQueueService.WorkItem workItem = item.get();
+        recordQueueAction("claimed", workItem.getRunId(), workItem.toExecutionRequest(), null,
+                "Queued on node " + workItem.getOriginNode());
+        return new ClaimedRun(new Slot(workItem.getRunId()), workItem);
+    }
+
     public int getMaxConcurrent() {
         return maxConcurrent;
     }
@@ -151,14 +238,35 @@ public class ReviewConcurrencyController {
                 activeRunEntries);
     }
 
+    /**
+     * @return state of the cluster work queue, empty when runs are only limited on this node
+     */
+    public Map<String, Object> clusterQueueSnapshot() {
+        return workQueue != null ? workQueue.snapshot() : Collections.emptyMap();
+    }
+
+    /**
+     * @return the policy currently used to order waiting runs
+     */
+    @Nonnull
+    public ReviewAdmissionPolicy getAdmissionPolicy() {
+        refreshLimitsIfNeeded();
+        return admissionPolicy;
+    }
+
+    /**
+     * @return runs waiting on this node, in the order they will be admitted
+     */
     public List<QueueStats.QueueEntry> getQueuedRequests() {
+        List<QueuedPermit> permits = new ArrayList<>(waitingByRunId.values());
+        permits.sort(admissionOrder.comparator());
         List<QueueStats.QueueEntry> entries = new ArrayList<>();
-        waitingByRunId.forEach((runId, permit) -> {
+        permits.forEach(permit -> {
             ReviewExecutionRequest req = permit.getRequest();
             int repoWaiting = permit.getRepoCounter() != null ? permit.getRepoCounter().get() : 0;
             int projectWaiting = permit.getProjectCounter() != null ? permit.getProjectCounter().get() : 0;
             entries.add(new QueueStats.QueueEntry(
-                    runId,
+                    permit.getRunId(),
                     req.getProjectKey(),
                     req.getRepositorySlug(),
                     req.getPullRequestId(),
@@ -170,9 +278,11 @@ public class ReviewConcurrencyController {
                     projectWaiting,
                     req.getRequestedBy(),
                     req.getCohortKey(),
-                    req.getRolloutMode()));
+                    req.getRolloutMode(),
+                    permit.getPriorityClass(),
+                    permit.getHeadStartMs(),
+                    permit.getEstimatedDurationMs()));
         });
-        entries.sort(Comparator.comparingLong(QueueStats.QueueEntry::getWaitingSince));
         return entries;
     }
 
@@ -207,6 +317,7 @@ public class ReviewConcurrencyController {
             return false;
         }
         permit.release();
+        cancelClusteredRun(runId);
         log.info("Canceled queued AI review run {} for {}/{} PR #{}", runId,
                 permit.getRequest().getProjectKey(),
                 permit.getRequest().getRepositorySlug(),
@@ -233,6 +344,7 @@ public class ReviewConcurrencyController {
             }
             if (waitingByRunId.remove(permit.getRunId(), permit)) {
                 permit.release();
+                cancelClusteredRun(permit.getRunId());
                 recordQueueAction("bulk-canceled", permit.getRunId(), permit.getRequest(), actor, note);
                 canceled.add(permit.getRunId());
             }
@@ -293,6 +405,53 @@ public class ReviewConcurrencyController {
         return new BulkCancelResult(canceled, 0);
     }
 
+    /**
+     * Cancels the automatic runs of a pull request, queued or executing, because a newer commit made them
+     * obsolete. Manual runs are left alone.
+     *
+     * @return the number of runs canceled
+     */
+    public int supersedeRuns(@Nonnull String projectKey,
+                             @Nonnull String repositorySlug,
+                             long pullRequestId,
+                             @Nullable String note) {
+        List<String> queued = new ArrayList<>();
+        waitingByRunId.forEach((runId, permit) -> {
+            if (isAutomaticRunFor(permit.getRequest(), projectKey, repositorySlug, pullRequestId)) {
+                queued.add(runId);
+            }
+        });
+        List<String> active = new ArrayList<>();
+        activeRuns.forEach((runId, run) -> {
+            if (isAutomaticRunFor(run.getRequest(), projectKey, repositorySlug, pullRequestId)) {
+                active.add(runId);
+            }
+        });
+        int canceled = 0;
+        for (String runId : queued) {
+            if (cancelQueuedRun(runId, null, note)) {
+                canceled++;
+            }
+        }
+        for (String runId : active) {
+            if (cancelActiveRun(runId, null, note)) {
+                canceled++;
+            }
+        }
+        return canceled;
+    }
+
+    private static boolean isAutomaticRunFor(ReviewExecutionRequest request,
+                                             String projectKey,
+                                             String repositorySlug,
+                                             long pullRequestId) {
+        return request != null
+                && !request.isManual()
+                && request.getPullRequestId() == pullRequestId
+                && projectKey.equals(request.getProjectKey())
+                && repositorySlug.equals(request.getRepositorySlug());
+    }
+
     private void recordQueueAction(String action,
                                    String runId,
                                    ReviewExecutionRequest request,
@@ -320,6 +479,193 @@ public class ReviewConcurrencyController {
         }
     }
 
+    /**
+     * Records the run in the cluster work queue.
+     *
+     * @return {@code false} if the queue is unavailable and the run should be admitted on local capacity only
+     */
+    private boolean enqueueClustered(ReviewExecutionRequest request) {
+        if (request.getRunId() == null || request.getRunId().trim().isEmpty()) {
+            return false;
+        }
+        try {
+            workQueue.enqueue(request);
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Cluster work queue unavailable; admitting run {} on local capacity only: {}",
+                    request.getRunId(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private Slot acquireClustered(ReviewExecutionRequest request) {
+        String runId = request.getRunId();
+        if (admissionOrder.isEmpty() && semaphore.tryAcquire()) {
+            Slot slot = leaseOrRelease(runId);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        QueuedPermit permit = registerQueuedWaiter(request);
+        if (permit == null) {
+            cancelClusteredRun(runId);
+            throw new ReviewQueueFullException(buildQueueMessage(request), maxConcurrent, maxQueueSize, waitingCount.get());
+        }
+        String localNode = workQueue.getNodeId();
+        try {
+            while (true) {
+                if (permit.isReleased()) {
+                    throw new ReviewCanceledException(runId, "Queued review canceled by administrator.");
+                }
+                if (awaitTurn(permit, CLUSTER_POLL_MS)) {
+                    Slot slot = leaseOrRelease(runId);
+                    if (slot != null) {
+                        recordQueueAction("started", runId, request, null, null);
+                        return slot;
+                    }
+                    // Free locally but the cluster is at its limit; keep our place and back off before asking again.
+                    if (!permit.isReleased()) {
+                        admissionOrder.add(permit);
+                    }
+                    TimeUnit.MILLISECONDS.sleep(CLUSTER_POLL_MS);
+                }
+                String owner = leaseOwner(runId);
+                if (owner != null && !owner.equals(localNode)) {
+                    recordQueueAction("delegated", runId, request, null, "Leased by node " + owner);
+                    throw new ReviewDelegatedException(runId, owner);
+                }
+                stopIfFinished(runId, request);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelClusteredRun(runId);
+            throw new ReviewSchedulingInterruptedException("Interrupted while waiting for AI review capacity", e);
+        } finally {
+            permit.release();
+        }
+    }
+
+    /**
+     * Takes the cluster lease for a run that already holds a local permit, or gives the permit back.
+     * <p>
+     * The run is already in the cluster queue, so it never starts without its lease: if the queue cannot be
+     * reached the permit is given back and the caller retries on its next poll, rather than risking another
+     * node's scheduler running the same review.
+     */
+    @Nullable
+    private Slot leaseOrRelease(String runId) {
+        boolean leased;
+        try {
+            leased = workQueue.claim(runId, maxConcurrent);
+        } catch (RuntimeException ex) {
+            log.warn("Cluster work queue unavailable; run {} keeps waiting for its lease: {}", runId, ex.getMessage());
+            leased = false;
+        }
+        if (leased) {
+            return new Slot(runId);
+        }
+        releaseCapacity();
+        return null;
+    }
+
+    @Nullable
+    /**
+     * Ends the wait of a run that can no longer be leased: another node already ran it, or it was canceled or
+     * abandoned in the cluster queue.
+     */
+    private void stopIfFinished(String runId, ReviewExecutionRequest request) {
+        ReviewWorkQueueService.RunStatus status;
+        try {
+            status = workQueue.status(runId);
+        } catch (RuntimeException ex) {
+            log.debug("Unable to read the queue status of run {}: {}", runId, ex.getMessage());
+            return;
+        }
+        if (status == null) {
+            return;
+        }
+        if (status.isDone()) {
+            String owner = status.getLeaseOwner();
+            recordQueueAction("delegated", runId, request, null, "Completed by node " + owner);
+            throw new ReviewDelegatedException(runId, owner);
+        }
+        if (status.isCanceled()) {
+            throw new ReviewCanceledException(runId, "Queued review canceled in the cluster queue.");
+        }
+        if (status.isAbandoned()) {
+            throw new ReviewCanceledException(runId, "Review abandoned after its lease expired "
+                    + ReviewWorkQueueService.MAX_ATTEMPTS + " times.");
+        }
+    }
+
+    private String leaseOwner(String runId) {
+        try {
+            return workQueue.leaseOwner(runId);
+        } catch (RuntimeException ex) {
+            log.debug("Unable to read the lease owner of run {}: {}", runId, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Waits until the permit is first in admission order and a local slot is free, then takes the slot.
+     *
+     * @return {@code true} if the slot was taken, {@code false} if the permit was released or the wait timed out
+     */
+    private boolean awaitTurn(QueuedPermit permit, long maxWaitMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        synchronized (admissionLock) {
+            while (!permit.isReleased()) {
+                QueuedPermit next = nextInLine();
+                if (next == permit && semaphore.tryAcquire()) {
+                    admissionOrder.remove(permit);
+                    // More than one slot may be free; let the next waiter check.
+                    admissionLock.notifyAll();
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(admissionLock, remaining);
+            }
+            return false;
+        }
+    }
+
+    @Nullable
+    private QueuedPermit nextInLine() {
+        for (QueuedPermit candidate : admissionOrder) {
+            if (!candidate.isReleased()) {
+                return candidate;
+            }
+            admissionOrder.remove(candidate);
+        }
+        return null;
+    }
+
+    private void releaseCapacity() {
+        semaphore.release();
+        signalAdmission();
+    }
+
+    private void signalAdmission() {
+        synchronized (admissionLock) {
+            admissionLock.notifyAll();
+        }
+    }
+
+    private void cancelClusteredRun(String runId) {
+        if (workQueue == null) {
+            return;
+        }
+        try {
+            workQueue.cancel(runId);
+        } catch (RuntimeException ex) {
+            log.debug("Unable to cancel run {} in the cluster work queue: {}", runId, ex.getMessage());
+        }
+    }
+
     private void refreshLimitsIfNeeded() {
         long now = System.currentTimeMillis();
         if (now - lastRefreshTimestamp < REFRESH_INTERVAL_MS) {
@@ -341,10 +687,24 @@ public class ReviewConcurrencyController {
             this.maxQueueSize = desiredQueue;
             this.maxQueuedPerRepo = desiredPerRepo;
             this.maxQueuedPerProject = desiredPerProject;
+            this.admissionPolicy = ReviewAdmissionPolicy.fromConfig(map.get("queueAdmissionPolicy"));
+            this.durationStats = fetchDurationStatsSafely();
             this.lastRefreshTimestamp = now;
         }
     }
 
+    private ReviewHistoryService.DurationStats fetchDurationStatsSafely() {
+        if (historyService == null) {
+            return ReviewHistoryService.DurationStats.empty();
+        }
+        try {
+            return historyService.getRecentDurationStats(DURATION_SAMPLE_SIZE);
+        } catch (Exception ex) {
+            log.debug("Unable to load review durations for queue ordering: {}", ex.getMessage());
+            return durationStats;
+        }
+    }
+
     private QueuedPermit registerQueuedWaiter(ReviewExecutionRequest request) {
         int globalQueued = waitingCount.incrementAndGet();
         String repoKey = normalizeKey(request.getRepositorySlug(), "__repo__");
@@ -365,12 +725,35 @@ public class ReviewConcurrencyController {
 
         String runId = resolveRunId(request);
         long waitingSince = System.currentTimeMillis();
-        QueuedPermit permit = new QueuedPermit(runId, request, repoKey, repoCounter, projectKey, projectCounter, waitingSince);
+        boolean priorityScope = isPriorityScope(request);
+        ReviewHistoryService.DurationStats stats = durationStats;
+        double estimatedMs = stats.getSamples() > 0
+                ? stats.estimate(request.getProjectKey(), request.getRepositorySlug(), request.getPullRequestId(), 0D)
+                : 0D;
+        double typicalMs = stats.getSamples() > 0 ? stats.estimate(null, null, 0D) : 0D;
+        long admissionKey = admissionKeys.admissionKey(admissionPolicy, waitingSince, request.isManual(), priorityScope,
+                projectKey + "/" + repoKey, estimatedMs, typicalMs);
+        QueuedPermit permit = new QueuedPermit(runId, request, repoKey, repoCounter, projectKey, projectCounter, waitingSince,
+                ReviewQueuePriority.priorityClass(request.isManual(), priorityScope),
+                waitingSince - admissionKey,
+                Math.round(estimatedMs));
         waitingByRunId.put(runId, permit);
+        admissionOrder.add(permit);
         recordQueueAction("enqueued", runId, request, request.getRequestedBy(), null);
         return permit;
     }
 
+    private boolean isPriorityScope(ReviewExecutionRequest request) {
+        try {
+            return configService.isPriorityRepository(request.getProjectKey(), request.getRepositorySlug())
+                    || configService.isPriorityProject(request.getProjectKey());
+        } catch (RuntimeException ex) {
+            log.debug("Unable to resolve priority scope for {}/{}: {}", request.getProjectKey(),
+                    request.getRepositorySlug(), ex.getMessage());
+            return false;
+        }
+    }
+
     private AtomicInteger incrementCounter(ConcurrentHashMap<String, AtomicInteger> map, String key) {
         if (key == null) {
             return null;
@@ -458,6 +841,7 @@ public class ReviewConcurrencyController {
     private void adjustSemaphore(int delta) {
         if (delta > 0) {
             semaphore.release(delta);
+            signalAdmission();
         } else if (delta < 0) {
             semaphore.shrink(-delta);
         }
@@ -504,6 +888,7 @@ public class ReviewConcurrencyController {
         @Nullable
         private final RolloutMode rolloutMode;
         private final boolean guardrailsEnabled;
+        private final int repositoryId;
 
         public ReviewExecutionRequest(String projectKey,
                                       String repositorySlug,
@@ -516,6 +901,22 @@ public class ReviewConcurrencyController {
                                       @Nullable String cohortKey,
                                       @Nullable RolloutMode rolloutMode,
                                       boolean guardrailsEnabled) {
+            this(projectKey, repositorySlug, pullRequestId, manual, update, force, runId, requestedBy,
+                    cohortKey, rolloutMode, guardrailsEnabled, -1);
+        }
+
+        public ReviewExecutionRequest(String projectKey,
+                                      String repositorySlug,
+                                      long pullRequestId,
+                                      boolean manual,
+                                      boolean update,
+                                      boolean force,
+                                      String runId,
+                                      String requestedBy,
+                                      @Nullable String cohortKey,
+                                      @Nullable RolloutMode rolloutMode,
+                                      boolean guardrailsEnabled,
+                                      int repositoryId) {
             this.projectKey = projectKey;
             this.repositorySlug = repositorySlug;
             this.pullRequestId = pullRequestId;
@@ -527,6 +928,7 @@ public class ReviewConcurrencyController {
             this.cohortKey = cohortKey;
             this.rolloutMode = rolloutMode;
             this.guardrailsEnabled = guardrailsEnabled;
+            this.repositoryId = repositoryId;
         }
 
         public String getProjectKey() {
@@ -575,12 +977,26 @@ public class ReviewConcurrencyController {
         public boolean isGuardrailsEnabled() {
             return guardrailsEnabled;
         }
+
+        /**
+         * @return id of the pull request's target repository, or {@code -1} when unknown
+         */
+        public int getRepositoryId() {
+            return repositoryId;
+        }
     }
 
     public final class Slot implements AutoCloseable {
+        @Nullable
+        private final String leasedRunId;
         private boolean released;
 
         private Slot() {
+            this(null);
+        }
+
+        private Slot(@Nullable String leasedRunId) {
+            this.leasedRunId = leasedRunId;
         }
 
         @Override
@@ -589,7 +1005,35 @@ public class ReviewConcurrencyController {
                 return;
             }
             released = true;
-            semaphore.release();
+            releaseCapacity();
+            if (leasedRunId != null && workQueue != null) {
+                try {
+                    workQueue.complete(leasedRunId);
+                } catch (RuntimeException ex) {
+                    log.warn("Unable to release cluster lease for run {}: {}", leasedRunId, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Run leased from the cluster work queue together with the slot it runs in.
+     */
+    public static final class ClaimedRun {
+        private final Slot slot;
+        private final ReviewWorkQueueService.WorkItem workItem;
+
+        private ClaimedRun(Slot slot, ReviewWorkQueueService.WorkItem workItem) {
+            this.slot = slot;
+            this.workItem = workItem;
+        }
+
+        public Slot getSlot() {
+            return slot;
+        }
+
+        public ReviewWorkQueueService.WorkItem getWorkItem() {
+            return workItem;
         }
     }
 
@@ -807,6 +1251,9 @@ public class ReviewConcurrencyController {
             private final String cohortKey;
             @Nullable
             private final RolloutMode rolloutMode;
+            private final String priorityClass;
+            private final long headStartMs;
+            private final long estimatedDurationMs;
 
             public QueueEntry(String runId,
                               String projectKey,
@@ -821,6 +1268,27 @@ public class ReviewConcurrencyController {
                               String requestedBy,
                               @Nullable String cohortKey,
                               @Nullable RolloutMode rolloutMode) {
+                this(runId, projectKey, repositorySlug, pullRequestId, manual, update, force, waitingSince,
+                        repoWaiting, projectWaiting, requestedBy, cohortKey, rolloutMode,
+                        ReviewQueuePriority.priorityClass(manual, false), 0L, 0L);
+            }
+
+            public QueueEntry(String runId,
+                              String projectKey,
+                              String repositorySlug,
+                              long pullRequestId,
+                              boolean manual,
+                              boolean update,
+                              boolean force,
+                              long waitingSince,
+                              int repoWaiting,
+                              int projectWaiting,
+                              String requestedBy,
+                              @Nullable String cohortKey,
+                              @Nullable RolloutMode rolloutMode,
+                              String priorityClass,
+                              long headStartMs,
+                              long estimatedDurationMs) {
                 this.runId = runId;
                 this.projectKey = projectKey;
                 this.repositorySlug = repositorySlug;
@@ -834,6 +1302,9 @@ public class ReviewConcurrencyController {
                 this.requestedBy = requestedBy;
                 this.cohortKey = cohortKey;
                 this.rolloutMode = rolloutMode;
+                this.priorityClass = priorityClass;
+                this.headStartMs = headStartMs;
+                this.estimatedDurationMs = estimatedDurationMs;
             }
 
             public String getRunId() {
@@ -868,6 +1339,24 @@ public class ReviewConcurrencyController {
                 return waitingSince;
             }
 
+            public String getPriorityClass() {
+                return priorityClass;
+            }
+
+            /**
+             * @return how far the run was moved forward (positive) or back (negative) in admission order
+             */
+            public long getHeadStartMs() {
+                return headStartMs;
+            }
+
+            /**
+             * @return expected run time used for ordering, or {@code 0} if no history was available
+             */
+            public long getEstimatedDurationMs() {
+                return estimatedDurationMs;
+            }
+
             public int getRepoWaiting() {
                 return repoWaiting;
             }
@@ -1101,7 +1590,11 @@ public class ReviewConcurrencyController {
         private final String projectKey;
         private final AtomicInteger projectCounter;
         private final long waitingSince;
-        private boolean released;
+        private final String priorityClass;
+        private final long headStartMs;
+        private final long estimatedDurationMs;
+        private final long sequence;
+        private volatile boolean released;
 
         private QueuedPermit(String runId,
                              ReviewExecutionRequest request,
@@ -1109,7 +1602,10 @@ public class ReviewConcurrencyController {
                              AtomicInteger repoCounter,
                              String projectKey,
                              AtomicInteger projectCounter,
-                             long waitingSince) {
+                             long waitingSince,
+                             String priorityClass,
+                             long headStartMs,
+                             long estimatedDurationMs) {
             this.runId = runId;
             this.request = request;
             this.repoKey = repoKey;
@@ -1117,6 +1613,10 @@ public class ReviewConcurrencyController {
             this.projectKey = projectKey;
             this.projectCounter = projectCounter;
             this.waitingSince = waitingSince;
+            this.priorityClass = priorityClass;
+            this.headStartMs = headStartMs;
+            this.estimatedDurationMs = estimatedDurationMs;
+            this.sequence = permitSequence.incrementAndGet();
         }
 
         void release() {
@@ -1128,12 +1628,19 @@ public class ReviewConcurrencyController {
             releaseCounter(waitingByRepo, repoKey, repoCounter);
             releaseCounter(waitingByProject, projectKey, projectCounter);
             waitingByRunId.remove(runId, this);
+            if (admissionOrder.remove(this)) {
+                signalAdmission();
+            }
         }
 
         String getRunId() {
             return runId;
         }
 
+        boolean isReleased() {
+            return released;
+        }
+
         ReviewExecutionRequest getRequest() {
             return request;
         }
@@ -1142,6 +1649,26 @@ public class ReviewConcurrencyController {
             return waitingSince;
         }
 
+        long getVirtualArrival() {
+            return waitingSince - headStartMs;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        String getPriorityClass() {
+            return priorityClass;
+        }
+
+        long getHeadStartMs() {
+            return headStartMs;
+        }
+
+        long getEstimatedDurationMs() {
+            return estimatedDurationMs;
+        }
+
         AtomicInteger getRepoCounter() {
             return repoCounter;
         }
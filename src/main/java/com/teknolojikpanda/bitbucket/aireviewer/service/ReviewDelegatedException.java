@@ -0,0 +1,25 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+/**
+ * Thrown to a caller waiting for review capacity when another cluster node leased its run and is
+ * executing it there.
+ */
+public class ReviewDelegatedException extends RuntimeException {
+
+    private final String runId;
+    private final String nodeId;
+
+    public ReviewDelegatedException(String runId, String nodeId) {
+        super("AI review run " + runId + " is running on node " + nodeId);
+        this.runId = runId;
+        this.nodeId = nodeId;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
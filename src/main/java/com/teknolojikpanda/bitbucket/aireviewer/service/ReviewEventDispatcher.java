@@ -0,0 +1,193 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.bitbucket.permission.Permission;
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestService;
+import com.atlassian.bitbucket.user.SecurityService;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.teknolojikpanda.bitbucket.aireviewer.dto.ReviewResult;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogContext;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Runs event-triggered reviews off the event thread. Only the pull request identifiers are handed over; the
+ * worker reloads the pull request with system permission, so the review sees its current state and does not
+ * depend on the security context of the thread that published the event. Outcomes are reported through the
+ * progress and history records written by the review service.
+ */
+@Named
+@Singleton
+public class ReviewEventDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewEventDispatcher.class);
+    private static final String LOOKUP_REASON = "AI Reviewer event dispatch";
+
+    private final AIReviewService reviewService;
+    private final BiFunction<Integer, Long, PullRequest> pullRequestLoader;
+    private final ExecutorService executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Inject
+    public ReviewEventDispatcher(AIReviewService reviewService,
+                                 @ComponentImport SecurityService securityService,
+                                 @ComponentImport PullRequestService pullRequestService) {
+        this(reviewService,
+                loaderFor(Objects.requireNonNull(securityService, "securityService"),
+                        Objects.requireNonNull(pullRequestService, "pullRequestService")),
+                newExecutor());
+    }
+
+    ReviewEventDispatcher(AIReviewService reviewService,
+                          BiFunction<Integer, Long, PullRequest> pullRequestLoader,
+                          ExecutorService executor) {
+        this.reviewService = Objects.requireNonNull(reviewService, "reviewService");
+        this.pullRequestLoader = Objects.requireNonNull(pullRequestLoader, "pullRequestLoader");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /**
+     * Schedules a review of the pull request and returns immediately.
+     *
+     * @param update {@code true} to re-review after new commits, {@code false} for the initial review
+     * @return {@code false} if the dispatcher has been shut down
+     */
+    public boolean dispatch(@Nonnull PullRequest pullRequest, boolean update) {
+        Objects.requireNonNull(pullRequest, "pullRequest");
+        if (pullRequest.getToRef() == null || pullRequest.getToRef().getRepository() == null) {
+            LogSupport.warn(log, "review.dispatch.no_repository", "Pull request without target repository ignored",
+                    "pullRequestId", pullRequest.getId());
+            return false;
+        }
+        int repositoryId = pullRequest.getToRef().getRepository().getId();
+        long pullRequestId = pullRequest.getId();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        try {
+            executor.execute(() -> run(repositoryId, pullRequestId, update, context));
+        } catch (RejectedExecutionException ex) {
+            LogSupport.warn(log, "review.dispatch.rejected", "Review dispatcher stopped; event dropped",
+                    "pullRequestId", pullRequestId);
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("inFlight", inFlight.get());
+        map.put("submitted", submitted.get());
+        map.put("completed", completed.get());
+        map.put("skipped", skipped.get());
+        map.put("failed", failed.get());
+        return map;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void run(int repositoryId, long pullRequestId, boolean update, @Nullable Map<String, String> context) {
+        inFlight.incrementAndGet();
+        try (LogContext ignored = LogContext.scoped(context)) {
+            PullRequest pullRequest = load(repositoryId, pullRequestId);
+            if (pullRequest == null || !pullRequest.isOpen()) {
+                skipped.incrementAndGet();
+                LogSupport.info(log, "review.dispatch.skipped", "Pull request no longer open; review skipped",
+                        "repositoryId", repositoryId,
+                        "pullRequestId", pullRequestId);
+                return;
+            }
+            review(pullRequest, update);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void review(PullRequest pullRequest, boolean update) {
+        try (LogContext ignored = LogContext.forPullRequest(pullRequest);
+             LogContext modeCtx = LogContext.scoped("review.mode", update ? "update" : "initial")) {
+            LogSupport.info(log, "review.start", "Starting AI review",
+                    "mode", update ? "update" : "initial",
+                    "pullRequestId", pullRequest.getId());
+
+            ReviewResult result = update
+                    ? reviewService.reReviewPullRequest(pullRequest)
+                    : reviewService.reviewPullRequest(pullRequest);
+            completed.incrementAndGet();
+
+            LogSupport.info(log, "review.complete", "Review completed",
+                    "pullRequestId", pullRequest.getId(),
+                    "status", result.getStatus(),
+                    "issueCount", result.getIssueCount(),
+                    "filesReviewed", result.getFilesReviewed());
+
+            if (result.hasCriticalIssues()) {
+                LogSupport.warn(log, "review.critical_issues", "Critical issues detected",
+                        "pullRequestId", pullRequest.getId());
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            LogSupport.error(log, "review.failed", "Review execution failed", e,
+                    "pullRequestId", pullRequest.getId());
+        }
+    }
+
+    @Nullable
+    private PullRequest load(int repositoryId, long pullRequestId) {
+        try {
+            return pullRequestLoader.apply(repositoryId, pullRequestId);
+        } catch (RuntimeException ex) {
+            LogSupport.warn(log, "review.dispatch.lookup_failed", "Unable to load pull request for review", ex,
+                    "repositoryId", repositoryId,
+                    "pullRequestId", pullRequestId);
+            return null;
+        }
+    }
+
+    private static BiFunction<Integer, Long, PullRequest> loaderFor(SecurityService securityService,
+                                                                    PullRequestService pullRequestService) {
+        return (repositoryId, pullRequestId) -> {
+            try {
+                return securityService.withPermission(Permission.SYS_ADMIN, LOOKUP_REASON)
+                        .call(() -> pullRequestService.getById(repositoryId, pullRequestId));
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    private static ExecutorService newExecutor() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ai-review-event-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1151,6 +1151,8 @@ public class ReviewHistoryService {
             RunningStats global = new RunningStats();
             Map<String, RunningStats> repoStats = new HashMap<>();
             Map<String, RunningStats> projectStats = new HashMap<>();
+            Map<String, RunningStats> repoDiffStats = new HashMap<>();
+            Map<String, Long> pullRequestDiffBytes = new HashMap<>();
 
             for (AIReviewHistory history : histories) {
                 long start = history.getReviewStartTime();
@@ -1163,6 +1165,12 @@ public class ReviewHistoryService {
                 String repoKey = repoKey(history.getProjectKey(), history.getRepositorySlug());
                 if (repoKey != null) {
                     repoStats.computeIfAbsent(repoKey, key -> new RunningStats()).add(duration);
+                    long diffSize = history.getDiffSize();
+                    if (diffSize > 0) {
+                        repoDiffStats.computeIfAbsent(repoKey, key -> new RunningStats()).add(diffSize);
+                        // Rows are newest first, so the first size seen is the pull request's latest.
+                        pullRequestDiffBytes.putIfAbsent(repoKey + "#" + history.getPullRequestId(), diffSize);
+                    }
                 }
                 String projectKey = normalizeKey(history.getProjectKey());
                 if (projectKey != null) {
@@ -1176,7 +1184,38 @@ public class ReviewHistoryService {
                     global.getAverage(),
                     toAverageMap(repoStats),
                     toAverageMap(projectStats),
-                    global.getSamples());
+                    global.getSamples(),
+                    toAverageMap(repoDiffStats),
+                    Collections.unmodifiableMap(pullRequestDiffBytes));
+        });
+    }
+
+    /**
+     * Returns start and end times of completed reviews that started at or after {@code sinceEpochMs},
+     * oldest first.
+     */
+    @Nonnull
+    public List<ReviewTiming> getReviewTimingsSince(long sinceEpochMs, int limit) {
+        final int fetch = Math.min(Math.max(limit, 1), 2000);
+        return ao.executeInTransaction(() -> {
+            Query query = Query.select()
+                    .where("REVIEW_START_TIME >= ? AND REVIEW_END_TIME > 0", Math.max(0L, sinceEpochMs))
+                    .order("REVIEW_START_TIME ASC")
+                    .limit(fetch);
+            AIReviewHistory[] histories = ao.find(AIReviewHistory.class, query);
+            List<ReviewTiming> timings = new ArrayList<>(histories.length);
+            for (AIReviewHistory history : histories) {
+                if (history.getReviewEndTime() <= history.getReviewStartTime()) {
+                    continue;
+                }
+                timings.add(new ReviewTiming(
+                        history.getProjectKey(),
+                        history.getRepositorySlug(),
+                        history.getPullRequestId(),
+                        history.getReviewStartTime(),
+                        history.getReviewEndTime()));
+            }
+            return timings;
         });
     }
 
@@ -1543,20 +1582,101 @@ public class ReviewHistoryService {
         }
     }
 
+    public static final class ReviewTiming {
+        private final String projectKey;
+        private final String repositorySlug;
+        private final long pullRequestId;
+        private final long startTime;
+        private final long endTime;
+
+        public ReviewTiming(String projectKey,
+                            String repositorySlug,
+                            long pullRequestId,
+                            long startTime,
+                            long endTime) {
+            this.projectKey = projectKey;
+            this.repositorySlug = repositorySlug;
+            this.pullRequestId = pullRequestId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public String getProjectKey() {
+            return projectKey;
+        }
+
+        public String getRepositorySlug() {
+            return repositorySlug;
+        }
+
+        public long getPullRequestId() {
+            return pullRequestId;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public long getDurationMs() {
+            return endTime - startTime;
+        }
+    }
+
     public static final class DurationStats {
+        /** Bounds on how far a pull request's diff size may scale its repository's average duration. */
+        static final double MIN_DIFF_SCALE = 0.25D;
+        static final double MAX_DIFF_SCALE = 4D;
+
         private final double globalAverageMs;
         private final Map<String, Double> repoAverageMs;
         private final Map<String, Double> projectAverageMs;
         private final int samples;
+        private final Map<String, Double> repoAverageDiffBytes;
+        private final Map<String, Long> pullRequestDiffBytes;
 
         DurationStats(double globalAverageMs,
                       Map<String, Double> repoAverageMs,
                       Map<String, Double> projectAverageMs,
                       int samples) {
+            this(globalAverageMs, repoAverageMs, projectAverageMs, samples, null, null);
+        }
+
+        DurationStats(double globalAverageMs,
+                      Map<String, Double> repoAverageMs,
+                      Map<String, Double> projectAverageMs,
+                      int samples,
+                      Map<String, Double> repoAverageDiffBytes,
+                      Map<String, Long> pullRequestDiffBytes) {
             this.globalAverageMs = globalAverageMs;
             this.repoAverageMs = repoAverageMs != null ? repoAverageMs : Collections.emptyMap();
             this.projectAverageMs = projectAverageMs != null ? projectAverageMs : Collections.emptyMap();
             this.samples = samples;
+            this.repoAverageDiffBytes = repoAverageDiffBytes != null ? repoAverageDiffBytes : Collections.emptyMap();
+            this.pullRequestDiffBytes = pullRequestDiffBytes != null ? pullRequestDiffBytes : Collections.emptyMap();
+        }
+
+        /**
+         * Estimates the duration of a review of the given pull request: the repository (or project, or global)
+         * average, scaled by how the pull request's most recently reviewed diff compares to the repository's
+         * average diff. The scale is bounded by {@link #MIN_DIFF_SCALE} and {@link #MAX_DIFF_SCALE}.
+         */
+        public double estimate(String projectKey, String repositorySlug, long pullRequestId, double fallbackMs) {
+            double base = estimate(projectKey, repositorySlug, fallbackMs);
+            String repoKey = key(projectKey, repositorySlug);
+            if (base <= 0 || repoKey == null) {
+                return base;
+            }
+            Long diffBytes = pullRequestDiffBytes.get(repoKey + "#" + pullRequestId);
+            Double averageDiffBytes = repoAverageDiffBytes.get(repoKey);
+            if (diffBytes == null || averageDiffBytes == null || averageDiffBytes <= 0) {
+                return base;
+            }
+            double scale = Math.max(MIN_DIFF_SCALE, Math.min(MAX_DIFF_SCALE, diffBytes / averageDiffBytes));
+            return base * scale;
         }
 
         public double estimate(String projectKey, String repositorySlug, double fallbackMs) {
@@ -0,0 +1,59 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default admission order ({@link ReviewAdmissionPolicy#PRIORITY}) for review runs waiting on
+ * {@link ReviewConcurrencyController}.
+ * <p>
+ * When a run starts waiting it is given a head start, expressed as time it is treated as having already
+ * waited: manual runs and runs for priority projects or repositories move forward by a fixed amount, and
+ * runs expected to finish faster than a typical review move forward by half the time they save (slower ones
+ * move back the same way). Waiting runs are then admitted by earliest virtual arrival, i.e. arrival time
+ * minus head start.
+ * <p>
+ * This is aging by construction: every waiting run gains priority at the same rate, and since head starts
+ * are bounded a run can only be overtaken by runs that arrive less than {@link #MAX_SPREAD_MS} after it.
+ */
+public final class ReviewQueuePriority {
+
+    static final long MANUAL_HEAD_START_MS = TimeUnit.MINUTES.toMillis(10);
+    static final long PRIORITY_SCOPE_HEAD_START_MS = TimeUnit.MINUTES.toMillis(5);
+    static final long MAX_COST_ADJUSTMENT_MS = TimeUnit.MINUTES.toMillis(5);
+    /** Largest difference in head start between two runs. */
+    static final long MAX_SPREAD_MS = MANUAL_HEAD_START_MS + PRIORITY_SCOPE_HEAD_START_MS + 2 * MAX_COST_ADJUSTMENT_MS;
+
+    public static final String CLASS_MANUAL = "manual";
+    public static final String CLASS_PRIORITY = "priority";
+    public static final String CLASS_NORMAL = "normal";
+
+    private ReviewQueuePriority() {
+    }
+
+    /**
+     * @param estimatedMs expected duration of this run, or a non-positive value if unknown
+     * @param typicalMs   expected duration of a typical run, or a non-positive value if unknown
+     * @return head start in milliseconds; may be negative for runs expected to be expensive
+     */
+    public static long headStartMs(boolean manual, boolean priorityScope, double estimatedMs, double typicalMs) {
+        long headStart = 0L;
+        if (manual) {
+            headStart += MANUAL_HEAD_START_MS;
+        }
+        if (priorityScope) {
+            headStart += PRIORITY_SCOPE_HEAD_START_MS;
+        }
+        if (estimatedMs > 0 && typicalMs > 0) {
+            long saved = Math.round((typicalMs - estimatedMs) / 2d);
+            headStart += Math.max(-MAX_COST_ADJUSTMENT_MS, Math.min(MAX_COST_ADJUSTMENT_MS, saved));
+        }
+        return headStart;
+    }
+
+    public static String priorityClass(boolean manual, boolean priorityScope) {
+        if (manual) {
+            return CLASS_MANUAL;
+        }
+        return priorityScope ? CLASS_PRIORITY : CLASS_NORMAL;
+    }
+}
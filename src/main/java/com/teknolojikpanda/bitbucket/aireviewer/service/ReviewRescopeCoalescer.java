@@ -0,0 +1,200 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aireviewer.util.LogSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Debounces rescope events per pull request. Pushes that arrive within the configured quiet period of each
+ * other collapse into a single review of the latest head, and automatic runs still queued or executing for
+ * an older head are canceled as soon as a newer commit arrives. The review itself runs on
+ * {@link ReviewEventDispatcher}.
+ */
+@Named
+@Singleton
+public class ReviewRescopeCoalescer implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewRescopeCoalescer.class);
+    static final String QUIET_PERIOD_KEY = "rescopeQuietPeriodSeconds";
+    static final int DEFAULT_QUIET_PERIOD_SECONDS = 30;
+
+    private final ReviewEventDispatcher eventDispatcher;
+    private final AIReviewerConfigService configService;
+    private final ReviewConcurrencyController concurrencyController;
+    private final ScheduledExecutorService timer;
+    private final ConcurrentHashMap<String, PendingRescope> pending = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+
+    @Inject
+    public ReviewRescopeCoalescer(ReviewEventDispatcher eventDispatcher,
+                                  AIReviewerConfigService configService,
+                                  ReviewConcurrencyController concurrencyController) {
+        this.eventDispatcher = Objects.requireNonNull(eventDispatcher, "eventDispatcher");
+        this.configService = Objects.requireNonNull(configService, "configService");
+        this.concurrencyController = Objects.requireNonNull(concurrencyController, "concurrencyController");
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ai-review-rescope-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return {@code true} if rescope events are held for a quiet period instead of being reviewed at once
+     */
+    public boolean isEnabled() {
+        return resolveQuietPeriodSeconds() > 0;
+    }
+
+    /**
+     * Records a rescope of the pull request. Automatic runs for an older head are canceled right away; the
+     * review of the new head starts once no further push has arrived for the quiet period.
+     */
+    public void submit(@Nonnull PullRequest pullRequest) {
+        submit(pullRequest, TimeUnit.SECONDS.toMillis(resolveQuietPeriodSeconds()));
+    }
+
+    void submit(@Nonnull PullRequest pullRequest, long quietPeriodMs) {
+        Objects.requireNonNull(pullRequest, "pullRequest");
+        received.incrementAndGet();
+        String key = keyOf(pullRequest);
+        String headCommit = headCommitOf(pullRequest);
+        PendingRescope next = new PendingRescope(pullRequest, headCommit);
+        PendingRescope previous = pending.put(key, next);
+        if (previous != null) {
+            previous.cancel();
+            coalesced.incrementAndGet();
+            LogSupport.debug(log, "rescope.coalesced", "Rescope folded into pending review",
+                    "pullRequestId", pullRequest.getId(),
+                    "previousHead", previous.headCommit,
+                    "headCommit", headCommit);
+        }
+        supersedeRunningReviews(pullRequest, headCommit);
+        try {
+            next.schedule(timer.schedule(() -> fire(key, next), Math.max(0L, quietPeriodMs), TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException ex) {
+            pending.remove(key, next);
+            LogSupport.debug(log, "rescope.timer_stopped", "Rescope timer stopped; review dropped",
+                    "pullRequestId", pullRequest.getId());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("quietPeriodSeconds", resolveQuietPeriodSeconds());
+        map.put("pending", pending.size());
+        map.put("received", received.get());
+        map.put("coalesced", coalesced.get());
+        map.put("superseded", superseded.get());
+        map.put("dispatched", dispatched.get());
+        return map;
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+        pending.clear();
+    }
+
+    private void supersedeRunningReviews(PullRequest pullRequest, @Nullable String headCommit) {
+        if (pullRequest.getToRef() == null || pullRequest.getToRef().getRepository() == null
+                || pullRequest.getToRef().getRepository().getProject() == null) {
+            return;
+        }
+        String note = headCommit != null
+                ? "Superseded by newer commit " + headCommit
+                : "Superseded by a newer push";
+        int canceled = concurrencyController.supersedeRuns(
+                pullRequest.getToRef().getRepository().getProject().getKey(),
+                pullRequest.getToRef().getRepository().getSlug(),
+                pullRequest.getId(),
+                note);
+        if (canceled > 0) {
+            superseded.addAndGet(canceled);
+            LogSupport.info(log, "rescope.superseded", "Canceled reviews of an older head",
+                    "pullRequestId", pullRequest.getId(),
+                    "headCommit", headCommit,
+                    "canceled", canceled);
+        }
+    }
+
+    private void fire(String key, PendingRescope rescope) {
+        if (pending.remove(key, rescope) && eventDispatcher.dispatch(rescope.pullRequest, true)) {
+            dispatched.incrementAndGet();
+        }
+    }
+
+    private int resolveQuietPeriodSeconds() {
+        try {
+            Object value = configService.getConfigurationAsMap().get(QUIET_PERIOD_KEY);
+            if (value instanceof Number) {
+                return Math.max(0, ((Number) value).intValue());
+            }
+            if (value instanceof String) {
+                return Math.max(0, Integer.parseInt(((String) value).trim()));
+            }
+        } catch (Exception ex) {
+            log.debug("Unable to resolve {}: {}", QUIET_PERIOD_KEY, ex.getMessage());
+        }
+        return DEFAULT_QUIET_PERIOD_SECONDS;
+    }
+
+    private static String keyOf(PullRequest pullRequest) {
+        int repositoryId = pullRequest.getToRef() != null && pullRequest.getToRef().getRepository() != null
+                ? pullRequest.getToRef().getRepository().getId()
+                : -1;
+        return repositoryId + ":" + pullRequest.getId();
+    }
+
+    @Nullable
+    private static String headCommitOf(PullRequest pullRequest) {
+        return pullRequest.getFromRef() != null ? pullRequest.getFromRef().getLatestCommit() : null;
+    }
+
+    private static final class PendingRescope {
+        private final PullRequest pullRequest;
+        @Nullable
+        private final String headCommit;
+        private volatile ScheduledFuture<?> future;
+
+        private PendingRescope(PullRequest pullRequest, @Nullable String headCommit) {
+            this.pullRequest = pullRequest;
+            this.headCommit = headCommit;
+        }
+
+        void schedule(ScheduledFuture<?> future) {
+            this.future = future;
+        }
+
+        /**
+         * Stops the timer early. A timer that fires anyway is harmless: it no longer owns the map entry.
+         */
+        void cancel() {
+            ScheduledFuture<?> current = future;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.atlassian.sal.api.lifecycle.LifecycleAware;
+import com.atlassian.scheduler.JobRunner;
+import com.atlassian.scheduler.JobRunnerRequest;
+import com.atlassian.scheduler.JobRunnerResponse;
+import com.atlassian.scheduler.SchedulerService;
+import com.atlassian.scheduler.SchedulerServiceException;
+import com.atlassian.scheduler.config.JobConfig;
+import com.atlassian.scheduler.config.JobId;
+import com.atlassian.scheduler.config.JobRunnerKey;
+import com.atlassian.scheduler.config.RunMode;
+import com.atlassian.scheduler.config.Schedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the cluster work queue on every node: renews the leases of runs executing here, puts runs whose
+ * lease expired (their node died or stalled) back in the queue, and, while this node has idle workers,
+ * leases queued runs from any node and executes them.
+ */
+@Named
+@Singleton
+public class ReviewWorkQueueScheduler implements LifecycleAware, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewWorkQueueScheduler.class);
+    private static final JobRunnerKey JOB_RUNNER_KEY =
+            JobRunnerKey.of("com.teknolojikpanda.bitbucket.ai-code-reviewer:work-queue-runner");
+    private static final JobId JOB_ID =
+            JobId.of("com.teknolojikpanda.bitbucket.ai-code-reviewer:work-queue-job");
+    private static final long POLL_INTERVAL_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final SchedulerService schedulerService;
+    private final ReviewWorkQueueService workQueue;
+    private final ReviewConcurrencyController concurrencyController;
+    private final AIReviewService reviewService;
+    private final ExecutorService dispatcher;
+    private final JobRunner runner = new WorkQueueRunner();
+    private volatile boolean lifecycleStarted;
+
+    @Inject
+    public ReviewWorkQueueScheduler(@ComponentImport SchedulerService schedulerService,
+                                    ReviewWorkQueueService workQueue,
+                                    ReviewConcurrencyController concurrencyController,
+                                    AIReviewService reviewService) {
+        this.schedulerService = Objects.requireNonNull(schedulerService, "schedulerService");
+        this.workQueue = Objects.requireNonNull(workQueue, "workQueue");
+        this.concurrencyController = Objects.requireNonNull(concurrencyController, "concurrencyController");
+        this.reviewService = Objects.requireNonNull(reviewService, "reviewService");
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.dispatcher = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ai-review-dispatch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onStart() {
+        schedulerService.unregisterJobRunner(JOB_RUNNER_KEY);
+        schedulerService.registerJobRunner(JOB_RUNNER_KEY, runner);
+        lifecycleStarted = true;
+        schedulePolling();
+    }
+
+    @Override
+    public void onStop() {
+        shutdown();
+    }
+
+    @Override
+    public void destroy() {
+        shutdown();
+        dispatcher.shutdownNow();
+    }
+
+    private void schedulePolling() {
+        if (!lifecycleStarted) {
+            return;
+        }
+        schedulerService.unscheduleJob(JOB_ID);
+        JobConfig jobConfig = JobConfig.forJobRunnerKey(JOB_RUNNER_KEY)
+                .withRunMode(RunMode.RUN_LOCALLY)
+                .withSchedule(Schedule.forInterval(
+                        POLL_INTERVAL_MS,
+                        new Date(System.currentTimeMillis() + POLL_INTERVAL_MS)));
+        try {
+            schedulerService.scheduleJob(JOB_ID, jobConfig);
+            log.debug("Scheduled review work queue polling every {} seconds", POLL_INTERVAL_MS / 1000);
+        } catch (SchedulerServiceException ex) {
+            log.warn("Failed to schedule review work queue job", ex);
+        }
+    }
+
+    private void shutdown() {
+        lifecycleStarted = false;
+        schedulerService.unscheduleJob(JOB_ID);
+        schedulerService.unregisterJobRunner(JOB_RUNNER_KEY);
+    }
+
+    void poll() {
+        workQueue.renewLocalLeases();
+        workQueue.requeueExpired();
+        int started = 0;
+        while (lifecycleStarted) {
+            ReviewConcurrencyController.ClaimedRun claimed = concurrencyController.claimQueuedRun();
+            if (claimed == null) {
+                break;
+            }
+            dispatch(claimed);
+            started++;
+        }
+        workQueue.purgeFinished();
+        if (started > 0) {
+            log.debug("Started {} queued AI review run(s) from the cluster work queue", started);
+        }
+    }
+
+    private void dispatch(ReviewConcurrencyController.ClaimedRun claimed) {
+        ReviewWorkQueueService.WorkItem item = claimed.getWorkItem();
+        try {
+            dispatcher.execute(() -> {
+                try (ReviewConcurrencyController.Slot ignored = claimed.getSlot()) {
+                    reviewService.runLeasedReview(item);
+                } catch (Exception ex) {
+                    log.warn("Leased AI review run {} for {}/{} PR #{} failed: {}", item.getRunId(),
+                            item.getProjectKey(), item.getRepositorySlug(), item.getPullRequestId(), ex.getMessage());
+                    log.debug("Leased AI review run failure", ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            claimed.getSlot().close();
+            log.debug("Dispatcher stopped; released leased run {}", item.getRunId());
+        }
+    }
+
+    private class WorkQueueRunner implements JobRunner {
+        @Override
+        public JobRunnerResponse runJob(JobRunnerRequest request) {
+            try {
+                poll();
+                return JobRunnerResponse.success("Polled review work queue");
+            } catch (Exception ex) {
+                log.debug("Review work queue poll failed: {}", ex.getMessage(), ex);
+                return JobRunnerResponse.failed(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.plugin.spring.scanner.annotation.imports.ComponentImport;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewWorkItem;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewWorkLease;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController.ReviewExecutionRequest;
+import net.java.ao.DBParam;
+import net.java.ao.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide review work queue stored in Active Objects.
+ * <p>
+ * Every review run is recorded as an {@link AIReviewWorkItem}. A node may only execute a run while it holds one
+ * of the {@code maxConcurrentReviews} slots in {@link AIReviewWorkLease}; the unique slot and run id columns let
+ * the database arbitrate between nodes, so the limit holds for the whole cluster rather than per node. The node
+ * holding a lease renews it while the run is in progress. When a node dies its leases expire and the runs go
+ * back to the queue, where any node with idle workers picks them up.
+ */
+@Named
+@Singleton
+public class ReviewWorkQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewWorkQueueService.class);
+
+    static final long LEASE_TTL_MS = TimeUnit.SECONDS.toMillis(60);
+    static final int MAX_ATTEMPTS = 3;
+    private static final long FINISHED_RETENTION_MS = TimeUnit.HOURS.toMillis(24);
+    private static final int CLAIM_BATCH = 10;
+
+    static final String STATUS_QUEUED = "QUEUED";
+    static final String STATUS_LEASED = "LEASED";
+    static final String STATUS_DONE = "DONE";
+    static final String STATUS_CANCELED = "CANCELED";
+    static final String STATUS_ABANDONED = "ABANDONED";
+
+    private final ActiveObjects ao;
+    private final Supplier<String> nodeId;
+    private final LongSupplier clock;
+    private final Set<String> localLeases = ConcurrentHashMap.newKeySet();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong claimedFromOtherNodes = new AtomicLong();
+    private final AtomicLong slotConflicts = new AtomicLong();
+    private final AtomicLong requeued = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    private final AtomicLong lostLeases = new AtomicLong();
+
+    @Inject
+    public ReviewWorkQueueService(@ComponentImport ActiveObjects ao,
+                                  GuardrailsWorkerNodeService workerNodeService) {
+        this(ao, Objects.requireNonNull(workerNodeService, "workerNodeService")::resolveNodeId,
+                System::currentTimeMillis);
+    }
+
+    ReviewWorkQueueService(ActiveObjects ao, Supplier<String> nodeId, LongSupplier clock) {
+        this.ao = Objects.requireNonNull(ao, "activeObjects");
+        this.nodeId = Objects.requireNonNull(nodeId, "nodeId");
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    /**
+     * @return identifier this node uses as lease owner
+     */
+    @Nonnull
+    public String getNodeId() {
+        return nodeId.get();
+    }
+
+    /**
+     * Records a run in the queue so that any node can lease it. Does nothing if the run is already known.
+     */
+    public void enqueue(@Nonnull ReviewExecutionRequest request) {
+        Objects.requireNonNull(request, "request");
+        String runId = Objects.requireNonNull(request.getRunId(), "runId");
+        long now = clock.getAsLong();
+        String node = nodeId.get();
+        ao.executeInTransaction(() -> {
+            if (findItem(runId) != null) {
+                return null;
+            }
+            AIReviewWorkItem item = ao.create(AIReviewWorkItem.class,
+                    new DBParam("RUN_ID", runId),
+                    new DBParam("STATUS", STATUS_QUEUED));
+            item.setProjectKey(request.getProjectKey());
+            item.setRepositorySlug(request.getRepositorySlug());
+            item.setRepositoryId(request.getRepositoryId());
+            item.setPullRequestId(request.getPullRequestId());
+            item.setManualRun(request.isManual());
+            item.setUpdateRun(request.isUpdate());
+            item.setForceRun(request.isForce());
+            item.setRequestedBy(request.getRequestedBy());
+            item.setOriginNode(node);
+            item.setAttempts(0);
+            item.setEnqueuedAt(now);
+            item.setUpdatedAt(now);
+            item.save();
+            return null;
+        });
+    }
+
+    /**
+     * Tries to lease a queued run for this node. Runs that are already done, canceled or abandoned are never
+     * leased again.
+     *
+     * @param clusterLimit number of runs allowed across all nodes
+     * @return {@code true} if this node holds the run's lease
+     */
+    public boolean claim(@Nonnull String runId, int clusterLimit) {
+        Objects.requireNonNull(runId, "runId");
+        String node = nodeId.get();
+        int limit = Math.max(1, clusterLimit);
+        for (int pass = 0; pass < 2; pass++) {
+            long now = clock.getAsLong();
+            AIReviewWorkLease[] leases = ao.executeInTransaction(() -> ao.find(AIReviewWorkLease.class));
+            Set<Integer> taken = new HashSet<>();
+            int live = 0;
+            boolean expired = false;
+            for (AIReviewWorkLease lease : leases) {
+                if (runId.equals(lease.getRunId())) {
+                    return node.equals(lease.getNodeId());
+                }
+                taken.add(lease.getSlotNumber());
+                if (lease.getExpiresAt() > now) {
+                    live++;
+                } else {
+                    expired = true;
+                }
+            }
+            if (live >= limit) {
+                return false;
+            }
+            if (expired && pass == 0) {
+                // Expired leases still occupy their slot numbers; hand them back before picking a slot.
+                requeueExpired();
+                continue;
+            }
+            for (int slot = 0; slot < limit; slot++) {
+                if (taken.contains(slot)) {
+                    continue;
+                }
+                LeaseAttempt attempt = insertLease(slot, runId, node, now);
+                if (attempt == LeaseAttempt.LEASED) {
+                    localLeases.add(runId);
+                    claimed.incrementAndGet();
+                    return true;
+                }
+                if (attempt == LeaseAttempt.NOT_QUEUED) {
+                    return false;
+                }
+                String owner = leaseOwner(runId);
+                if (owner != null) {
+                    return node.equals(owner);
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Leases the oldest queued run for this node, whichever node queued it.
+     *
+     * @param clusterLimit number of runs allowed across all nodes
+     * @return the leased run, or empty when nothing is queued or the cluster is at its limit
+     */
+    @Nonnull
+    public Optional<WorkItem> claimNext(int clusterLimit) {
+        AIReviewWorkItem[] queued = ao.executeInTransaction(() -> ao.find(AIReviewWorkItem.class,
+                Query.select()
+                        .where("STATUS = ?", STATUS_QUEUED)
+                        .order("ENQUEUED_AT ASC")
+                        .limit(CLAIM_BATCH)));
+        String node = nodeId.get();
+        for (AIReviewWorkItem row : queued) {
+            WorkItem item = toWorkItem(row);
+            if (claim(item.getRunId(), clusterLimit)) {
+                if (!node.equals(item.getOriginNode())) {
+                    claimedFromOtherNodes.incrementAndGet();
+                }
+                return Optional.of(item);
+            }
+            if (leaseOwner(item.getRunId()) == null) {
+                // Not taken by another node, so the cluster is at its limit.
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return node holding the run's lease, or {@code null} if the run is not leased
+     */
+    @Nullable
+    public String leaseOwner(@Nonnull String runId) {
+        AIReviewWorkLease[] rows = ao.executeInTransaction(() ->
+                ao.find(AIReviewWorkLease.class, Query.select().where("RUN_ID = ?", runId)));
+        return rows.length > 0 ? rows[0].getNodeId() : null;
+    }
+
+    /**
+     * @return the run's queue status and last lease owner, or {@code null} if the run is not in the queue
+     */
+    @Nullable
+    public RunStatus status(@Nonnull String runId) {
+        Objects.requireNonNull(runId, "runId");
+        return ao.executeInTransaction(() -> {
+            AIReviewWorkItem item = findItem(runId);
+            return item != null ? new RunStatus(item.getStatus(), item.getLeaseOwner()) : null;
+        });
+    }
+
+    /**
+     * Releases the lease of a run this node finished and marks the run done.
+     */
+    public void complete(@Nonnull String runId) {
+        Objects.requireNonNull(runId, "runId");
+        localLeases.remove(runId);
+        String node = nodeId.get();
+        long now = clock.getAsLong();
+        ao.executeInTransaction(() -> {
+            ao.deleteWithSQL(AIReviewWorkLease.class, "RUN_ID = ? AND NODE_ID = ?", runId, node);
+            AIReviewWorkItem item = findItem(runId);
+            if (item != null && node.equals(item.getLeaseOwner())) {
+                item.setStatus(STATUS_DONE);
+                item.setUpdatedAt(now);
+                item.save();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Removes a run that is still waiting in the queue.
+     *
+     * @return {@code true} if the run was queued and is now canceled
+     */
+    public boolean cancel(@Nonnull String runId) {
+        long now = clock.getAsLong();
+        return ao.executeInTransaction(() -> {
+            AIReviewWorkItem item = findItem(runId);
+            if (item == null || !STATUS_QUEUED.equals(item.getStatus())) {
+                return false;
+            }
+            item.setStatus(STATUS_CANCELED);
+            item.setUpdatedAt(now);
+            item.save();
+            return true;
+        });
+    }
+
+    /**
+     * Extends the leases this node holds. Called periodically while runs are in progress.
+     *
+     * @return number of leases renewed
+     */
+    public int renewLocalLeases() {
+        if (localLeases.isEmpty()) {
+            return 0;
+        }
+        String node = nodeId.get();
+        long expiresAt = clock.getAsLong() + LEASE_TTL_MS;
+        return ao.executeInTransaction(() -> {
+            int renewed = 0;
+            for (String runId : localLeases) {
+                AIReviewWorkLease[] rows = ao.find(AIReviewWorkLease.class,
+                        Query.select().where("RUN_ID = ? AND NODE_ID = ?", runId, node));
+                if (rows.length == 0) {
+                    // Expired and reclaimed while this node was stalled; the run may now execute twice.
+                    localLeases.remove(runId);
+                    lostLeases.incrementAndGet();
+                    log.warn("Lost cluster lease for AI review run {} on node {}", runId, node);
+                    continue;
+                }
+                rows[0].setExpiresAt(expiresAt);
+                rows[0].save();
+                renewed++;
+            }
+            return renewed;
+        });
+    }
+
+    /**
+     * Drops expired leases and puts their runs back in the queue. Runs that already lost
+     * {@value #MAX_ATTEMPTS} leases are abandoned instead, so a review that keeps killing nodes stops moving.
+     *
+     * @return number of runs re-queued
+     */
+    public int requeueExpired() {
+        long now = clock.getAsLong();
+        int count = ao.executeInTransaction(() -> {
+            int requeuedNow = 0;
+            AIReviewWorkLease[] expired = ao.find(AIReviewWorkLease.class,
+                    Query.select().where("EXPIRES_AT < ?", now));
+            for (AIReviewWorkLease lease : expired) {
+                String runId = lease.getRunId();
+                String owner = lease.getNodeId();
+                // Conditional delete so a lease renewed in the meantime survives.
+                if (ao.deleteWithSQL(AIReviewWorkLease.class, "ID = ? AND EXPIRES_AT < ?", lease.getID(), now) == 0) {
+                    continue;
+                }
+                AIReviewWorkItem item = findItem(runId);
+                if (item == null || !STATUS_LEASED.equals(item.getStatus())) {
+                    continue;
+                }
+                if (item.getAttempts() >= MAX_ATTEMPTS) {
+                    item.setStatus(STATUS_ABANDONED);
+                    abandoned.incrementAndGet();
+                    log.warn("Abandoned AI review run {} for {}/{} PR #{} after {} expired leases (last owner {})",
+                            runId, item.getProjectKey(), item.getRepositorySlug(), item.getPullRequestId(),
+                            item.getAttempts(), owner);
+                } else {
+                    item.setStatus(STATUS_QUEUED);
+                    item.setLeaseOwner(null);
+                    requeuedNow++;
+                    log.info("Re-queued AI review run {} for {}/{} PR #{} after lease held by {} expired",
+                            runId, item.getProjectKey(), item.getRepositorySlug(), item.getPullRequestId(), owner);
+                }
+                item.setUpdatedAt(now);
+                item.save();
+            }
+            return requeuedNow;
+        });
+        requeued.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * Deletes finished, canceled and abandoned runs older than the retention window.
+     */
+    public int purgeFinished() {
+        long cutoff = clock.getAsLong() - FINISHED_RETENTION_MS;
+        return ao.executeInTransaction(() -> ao.deleteWithSQL(AIReviewWorkItem.class,
+                "STATUS IN (?, ?, ?) AND UPDATED_AT < ?",
+                STATUS_DONE, STATUS_CANCELED, STATUS_ABANDONED, cutoff));
+    }
+
+    /**
+     * @return queue depth, leases per node and this node's counters for telemetry
+     */
+    public Map<String, Object> snapshot() {
+        long now = clock.getAsLong();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("nodeId", nodeId.get());
+        try {
+            ao.executeInTransaction(() -> {
+                map.put("queued", ao.count(AIReviewWorkItem.class, Query.select().where("STATUS = ?", STATUS_QUEUED)));
+                Map<String, Integer> leasesByNode = new TreeMap<>();
+                int expired = 0;
+                for (AIReviewWorkLease lease : ao.find(AIReviewWorkLease.class)) {
+                    leasesByNode.merge(String.valueOf(lease.getNodeId()), 1, Integer::sum);
+                    if (lease.getExpiresAt() <= now) {
+                        expired++;
+                    }
+                }
+                map.put("leasesByNode", leasesByNode);
+                map.put("expiredLeases", expired);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            log.debug("Unable to read cluster work queue state: {}", ex.getMessage());
+        }
+        map.put("localLeases", localLeases.size());
+        map.put("claimed", claimed.get());
+        map.put("claimedFromOtherNodes", claimedFromOtherNodes.get());
+        map.put("slotConflicts", slotConflicts.get());
+        map.put("requeued", requeued.get());
+        map.put("abandoned", abandoned.get());
+        map.put("lostLeases", lostLeases.get());
+        return map;
+    }
+
+    /**
+     * Inserts the lease row and marks the run leased in one transaction, provided the run is still queued.
+     */
+    private LeaseAttempt insertLease(int slot, String runId, String node, long now) {
+        try {
+            return ao.executeInTransaction(() -> {
+                AIReviewWorkItem item = findItem(runId);
+                if (item == null || !STATUS_QUEUED.equals(item.getStatus())) {
+                    return LeaseAttempt.NOT_QUEUED;
+                }
+                ao.create(AIReviewWorkLease.class,
+                        new DBParam("SLOT_NUMBER", slot),
+                        new DBParam("RUN_ID", runId),
+                        new DBParam("NODE_ID", node),
+                        new DBParam("ACQUIRED_AT", now),
+                        new DBParam("EXPIRES_AT", now + LEASE_TTL_MS));
+                item.setStatus(STATUS_LEASED);
+                item.setLeaseOwner(node);
+                item.setAttempts(item.getAttempts() + 1);
+                item.setUpdatedAt(now);
+                item.save();
+                return LeaseAttempt.LEASED;
+            });
+        } catch (RuntimeException ex) {
+            // Unique constraint: another node took the slot or the run first.
+            slotConflicts.incrementAndGet();
+            log.debug("Lease slot {} for run {} not acquired: {}", slot, runId, ex.getMessage());
+            return LeaseAttempt.SLOT_TAKEN;
+        }
+    }
+
+    @Nullable
+    private AIReviewWorkItem findItem(String runId) {
+        AIReviewWorkItem[] rows = ao.find(AIReviewWorkItem.class, Query.select().where("RUN_ID = ?", runId));
+        return rows.length > 0 ? rows[0] : null;
+    }
+
+    private WorkItem toWorkItem(AIReviewWorkItem row) {
+        return new WorkItem(
+                row.getRunId(),
+                row.getProjectKey(),
+                row.getRepositorySlug(),
+                row.getRepositoryId(),
+                row.getPullRequestId(),
+                row.isManualRun(),
+                row.isUpdateRun(),
+                row.isForceRun(),
+                row.getRequestedBy(),
+                row.getOriginNode(),
+                row.getEnqueuedAt());
+    }
+
+    private enum LeaseAttempt {
+        LEASED,
+        SLOT_TAKEN,
+        NOT_QUEUED
+    }
+
+    /**
+     * Queue status of a run together with the node that last leased it.
+     */
+    public static final class RunStatus {
+        private final String status;
+        private final String leaseOwner;
+
+        RunStatus(String status, String leaseOwner) {
+            this.status = status;
+            this.leaseOwner = leaseOwner;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        @Nullable
+        public String getLeaseOwner() {
+            return leaseOwner;
+        }
+
+        public boolean isDone() {
+            return STATUS_DONE.equals(status);
+        }
+
+        public boolean isCanceled() {
+            return STATUS_CANCELED.equals(status);
+        }
+
+        public boolean isAbandoned() {
+            return STATUS_ABANDONED.equals(status);
+        }
+    }
+
+    /**
+     * Immutable copy of a queued run, enough for any node to start it.
+     */
+    public static final class WorkItem {
+        private final String runId;
+        private final String projectKey;
+        private final String repositorySlug;
+        private final int repositoryId;
+        private final long pullRequestId;
+        private final boolean manual;
+        private final boolean update;
+        private final boolean force;
+        private final String requestedBy;
+        private final String originNode;
+        private final long enqueuedAt;
+
+        WorkItem(String runId,
+                 String projectKey,
+                 String repositorySlug,
+                 int repositoryId,
+                 long pullRequestId,
+                 boolean manual,
+                 boolean update,
+                 boolean force,
+                 String requestedBy,
+                 String originNode,
+                 long enqueuedAt) {
+            this.runId = runId;
+            this.projectKey = projectKey;
+            this.repositorySlug = repositorySlug;
+            this.repositoryId = repositoryId;
+            this.pullRequestId = pullRequestId;
+            this.manual = manual;
+            this.update = update;
+            this.force = force;
+            this.requestedBy = requestedBy;
+            this.originNode = originNode;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        public String getRunId() {
+            return runId;
+        }
+
+        public String getProjectKey() {
+            return projectKey;
+        }
+
+        public String getRepositorySlug() {
+            return repositorySlug;
+        }
+
+        public int getRepositoryId() {
+            return repositoryId;
+        }
+
+        public long getPullRequestId() {
+            return pullRequestId;
+        }
+
+        public boolean isManual() {
+            return manual;
+        }
+
+        public boolean isUpdate() {
+            return update;
+        }
+
+        public boolean isForce() {
+            return force;
+        }
+
+        public String getRequestedBy() {
+            return requestedBy;
+        }
+
+        public String getOriginNode() {
+            return originNode;
+        }
+
+        public long getEnqueuedAt() {
+            return enqueuedAt;
+        }
+
+        ReviewExecutionRequest toExecutionRequest() {
+            return new ReviewExecutionRequest(
+                    projectKey,
+                    repositorySlug,
+                    pullRequestId,
+                    manual,
+                    update,
+                    force,
+                    runId,
+                    requestedBy,
+                    null,
+                    null,
+                    true,
+                    repositoryId);
+        }
+    }
+}
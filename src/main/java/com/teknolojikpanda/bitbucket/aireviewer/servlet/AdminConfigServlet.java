@@ -98,16 +98,33 @@ public class AdminConfigServlet extends HttpServlet {
         context.put("ollamaUrl", configValues.get("ollamaUrl"));
         context.put("ollamaModel", configValues.get("ollamaModel"));
         context.put("fallbackModel", configValues.get("fallbackModel"));
+        context.put("primaryModelEndpoints", configValues.get("primaryModelEndpoints"));
+        context.put("fallbackModelEndpoints", configValues.get("fallbackModelEndpoints"));
+        context.put("modelEndpointRateLimits", configValues.get("modelEndpointRateLimits"));
         context.put("maxCharsPerChunk", configValues.get("maxCharsPerChunk"));
+        context.put("modelContextTokens", configValues.get("modelContextTokens"));
+        context.put("chunkStrategy", configValues.getOrDefault("chunkStrategy", defaults.get("chunkStrategy")));
         context.put("maxFilesPerChunk", configValues.get("maxFilesPerChunk"));
         context.put("maxChunks", configValues.get("maxChunks"));
         context.put("parallelThreads", configValues.get("parallelThreads"));
         context.put("connectTimeout", configValues.get("connectTimeout"));
         context.put("readTimeout", configValues.get("readTimeout"));
         context.put("ollamaTimeout", configValues.get("ollamaTimeout"));
+        context.put("primaryModelMaxConnections", configValues.get("primaryModelMaxConnections"));
+        context.put("fallbackModelMaxConnections", configValues.get("fallbackModelMaxConnections"));
+        context.put("maxModelResponseBytes", configValues.get("maxModelResponseBytes"));
+        context.put("maxConcurrentModelRequests", configValues.get("maxConcurrentModelRequests"));
+        context.put("hedgePercentile", configValues.get("hedgePercentile"));
+        context.put("hedgeBudgetPercent", configValues.get("hedgeBudgetPercent"));
+        context.put("modelRateLimitPerSecond", configValues.get("modelRateLimitPerSecond"));
+        context.put("modelCircuitFailureThreshold", configValues.get("modelCircuitFailureThreshold"));
+        context.put("modelCircuitOpenSeconds", configValues.get("modelCircuitOpenSeconds"));
+        context.put("rescopeQuietPeriodSeconds", configValues.get("rescopeQuietPeriodSeconds"));
+        context.put("queueAdmissionPolicy", configValues.getOrDefault("queueAdmissionPolicy", defaults.get("queueAdmissionPolicy")));
         context.put("maxIssuesPerFile", configValues.get("maxIssuesPerFile"));
         context.put("maxIssueComments", configValues.get("maxIssueComments"));
         context.put("maxDiffSize", configValues.get("maxDiffSize"));
+        context.put("diffSpillThreshold", configValues.get("diffSpillThreshold"));
         context.put("chunkMaxRetries", configValues.getOrDefault("chunkMaxRetries", configValues.get("maxRetries")));
         context.put("chunkRetryDelay", configValues.getOrDefault("chunkRetryDelay", configValues.get("baseRetryDelay")));
         context.put("overviewMaxRetries", configValues.getOrDefault("overviewMaxRetries", configValues.get("maxRetries")));
@@ -125,6 +142,11 @@ public class AdminConfigServlet extends HttpServlet {
         context.put("skipGeneratedFiles", configValues.get("skipGeneratedFiles"));
         context.put("skipTests", configValues.get("skipTests"));
         context.put("autoApprove", configValues.get("autoApprove"));
+        context.put("streamModelResponses", configValues.get("streamModelResponses"));
+        context.put("chunkResultCacheEnabled", configValues.get("chunkResultCacheEnabled"));
+        context.put("incrementalReReview", configValues.get("incrementalReReview"));
+        context.put("adaptiveModelConcurrency", configValues.get("adaptiveModelConcurrency"));
+        context.put("hedgeRequests", configValues.get("hedgeRequests"));
         context.put("workerDegradationEnabled", configValues.getOrDefault("workerDegradationEnabled", defaults.get("workerDegradationEnabled")));
         context.put("aiReviewerUser", configValues.get("aiReviewerUser"));
         context.put("aiReviewerUserDisplayName", configValues.get("aiReviewerUserDisplayName"));
@@ -96,20 +96,41 @@ public class CircuitBreaker {
 
         try {
             T result = operation.execute();
-            onSuccess();
-            succeededCalls.incrementAndGet();
+            recordSuccess();
             return result;
         } catch (Exception e) {
             recordFailure();
-            failedCalls.incrementAndGet();
             throw e;
         }
     }
 
+    /**
+     * Checks whether a call may proceed, counting it as blocked when it may not. Callers that are allowed
+     * through must report the outcome with {@link #recordSuccess()} or {@link #recordFailure()}.
+     *
+     * @return true if the call may proceed
+     */
+    public boolean tryAcquire() {
+        if (isOpen()) {
+            blockedCalls.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a successful call and closes a half-open circuit.
+     */
+    public void recordSuccess() {
+        onSuccess();
+        succeededCalls.incrementAndGet();
+    }
+
     /**
      * Records a failure and potentially opens the circuit.
      */
     public void recordFailure() {
+        failedCalls.incrementAndGet();
         int failures = failureCount.incrementAndGet();
         lastFailureTime.set(Instant.now());
 
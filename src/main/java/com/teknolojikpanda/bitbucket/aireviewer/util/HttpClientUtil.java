@@ -16,6 +16,8 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * HTTP client utility for communicating with Ollama API.
@@ -39,8 +41,8 @@ public class HttpClientUtil {
     private final int readTimeout;
     private final int maxRetries;
     private final int baseRetryDelayMs;
-    private final CircuitBreaker circuitBreaker;
-    private final RateLimiter rateLimiter;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
 
     /**
      * Default constructor for dependency injection.
@@ -68,8 +70,6 @@ public class HttpClientUtil {
         this.readTimeout = readTimeout;
         this.maxRetries = maxRetries;
         this.baseRetryDelayMs = baseRetryDelayMs;
-        this.circuitBreaker = new CircuitBreaker("ollama-api", 5, Duration.ofMinutes(1));
-        this.rateLimiter = new RateLimiter("ollama-api", 10, Duration.ofSeconds(1));
     }
 
     /**
@@ -106,10 +106,10 @@ public class HttpClientUtil {
         for (int attempt = 0; attempt <= retries; attempt++) {
             try {
                 // Apply rate limiting
-                rateLimiter.acquire();
+                getRateLimiter(url).acquire();
 
                 // Execute with circuit breaker protection
-                return circuitBreaker.execute(() -> doPostJson(url, requestBody));
+                return getCircuitBreaker(url).execute(() -> doPostJson(url, requestBody));
 
             } catch (CircuitBreaker.CircuitBreakerOpenException e) {
                 log.error("Circuit breaker is open, refusing request to: {}", url);
@@ -281,22 +281,41 @@ public class HttpClientUtil {
     }
 
     /**
-     * Gets the circuit breaker instance.
+     * Gets the circuit breaker guarding the host of {@code url}. Each host has its own breaker so one
+     * unreachable Ollama server does not block requests to the others.
      *
+     * @param url any URL on the host
      * @return the circuit breaker
      */
     @Nonnull
-    public CircuitBreaker getCircuitBreaker() {
-        return circuitBreaker;
+    public CircuitBreaker getCircuitBreaker(@Nonnull String url) {
+        String host = hostKey(url);
+        CircuitBreaker breaker = circuitBreakers.get(host);
+        return breaker != null ? breaker : circuitBreakers.computeIfAbsent(host,
+                key -> new CircuitBreaker("ollama-api:" + key, 5, Duration.ofMinutes(1)));
     }
 
     /**
-     * Gets the rate limiter instance.
+     * Gets the rate limiter for the host of {@code url}, so traffic to one server does not use up the
+     * budget of another.
      *
+     * @param url any URL on the host
      * @return the rate limiter
      */
     @Nonnull
-    public RateLimiter getRateLimiter() {
-        return rateLimiter;
+    public RateLimiter getRateLimiter(@Nonnull String url) {
+        String host = hostKey(url);
+        RateLimiter limiter = rateLimiters.get(host);
+        return limiter != null ? limiter : rateLimiters.computeIfAbsent(host,
+                key -> new RateLimiter("ollama-api:" + key, 10, Duration.ofSeconds(1)));
+    }
+
+    private static String hostKey(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getAuthority() != null ? uri.getAuthority() : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
     }
 }
@@ -5,19 +5,21 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
- * Token bucket rate limiter implementation.
+ * Lock-free token bucket rate limiter.
  *
- * Limits the rate of operations using a sliding window algorithm.
- * Ensures that no more than maxRequests operations occur within
- * the specified time window.
+ * Implemented as the generic cell rate algorithm (GCRA): the only state is the theoretical arrival
+ * time of the next request, advanced with a compare-and-set by one emission interval
+ * ({@code timeWindow / maxRequests}) per permit. Up to maxRequests permits may be taken back to back
+ * when the limiter has been idle; after that permits are spaced one interval apart.
  *
- * Thread-safe implementation suitable for concurrent use.
+ * Callers that can schedule work instead of blocking should use {@link #reserve()}, which claims a
+ * permit and returns how long to wait before using it. No method holds a lock while waiting.
  */
 public class RateLimiter {
 
@@ -26,88 +28,67 @@ public class RateLimiter {
     private final String name;
     private final int maxRequests;
     private final Duration timeWindow;
-    private final BlockingQueue<Instant> requestTimestamps;
-    private final long minDelayMs;
-    private volatile Instant lastRequestTime;
+    private final long intervalNanos;
+    private final long windowNanos;
+    private final LongSupplier clock;
+    private final AtomicLong theoreticalArrival;
 
     /**
      * Creates a new rate limiter.
      *
      * @param name unique name for this rate limiter (for logging)
      * @param maxRequests maximum number of requests allowed in the time window
-     * @param timeWindow duration of the sliding time window
+     * @param timeWindow duration of the time window
      */
     public RateLimiter(@Nonnull String name, int maxRequests, @Nonnull Duration timeWindow) {
+        this(name, maxRequests, timeWindow, System::nanoTime);
+    }
+
+    RateLimiter(@Nonnull String name, int maxRequests, @Nonnull Duration timeWindow, @Nonnull LongSupplier clock) {
+        if (maxRequests < 1) {
+            throw new IllegalArgumentException("maxRequests must be positive: " + maxRequests);
+        }
         this.name = name;
         this.maxRequests = maxRequests;
         this.timeWindow = timeWindow;
-        this.requestTimestamps = new LinkedBlockingQueue<>();
-        this.minDelayMs = timeWindow.toMillis() / maxRequests;
+        this.windowNanos = Math.max(1L, timeWindow.toNanos());
+        this.intervalNanos = Math.max(1L, windowNanos / maxRequests);
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Claims the next permit without waiting for it.
+     *
+     * The permit is taken even if it is not usable yet; the caller must not start the operation before
+     * the returned delay has elapsed.
+     *
+     * @return nanoseconds until the permit may be used, {@code 0} if it may be used immediately
+     */
+    public long reserve() {
+        while (true) {
+            long now = clock.getAsLong();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return Math.max(0L, next - windowNanos - now);
+            }
+        }
     }
 
     /**
      * Acquires permission to proceed with an operation.
      * This method blocks until permission is granted.
      *
-     * If the rate limit has been reached, this method will sleep
-     * until the oldest request falls outside the time window.
+     * The permit is claimed before waiting, so an interrupted caller still uses up its slot.
      *
      * @throws InterruptedException if the thread is interrupted while waiting
      */
     public void acquire() throws InterruptedException {
-        try {
-            Instant now = Instant.now();
-
-            synchronized (this) {
-                // Remove timestamps outside the time window
-                cleanupOldTimestamps(now);
-
-                // If we're at the limit, wait until we can proceed
-                while (requestTimestamps.size() >= maxRequests) {
-                    Instant oldest = requestTimestamps.peek();
-                    if (oldest == null) {
-                        break;
-                    }
-
-                    // Calculate how long until the oldest request expires
-                    Instant windowStart = now.minus(timeWindow);
-                    if (oldest.isBefore(windowStart)) {
-                        // Oldest request is already outside the window, remove it
-                        requestTimestamps.poll();
-                        cleanupOldTimestamps(now);
-                    } else {
-                        // Need to wait for the oldest request to expire
-                        long waitTimeMs = Duration.between(windowStart, oldest).toMillis();
-                        if (waitTimeMs > 0) {
-                            log.debug("Rate limiter [{}] waiting {}ms (queue size: {}/{})",
-                                    name, waitTimeMs, requestTimestamps.size(), maxRequests);
-                            Thread.sleep(waitTimeMs);
-                            now = Instant.now();
-                            cleanupOldTimestamps(now);
-                        }
-                    }
-                }
-
-                // Add minimum delay between requests if configured
-                if (minDelayMs > 0 && lastRequestTime != null) {
-                    long timeSinceLastMs = Duration.between(lastRequestTime, now).toMillis();
-                    if (timeSinceLastMs < minDelayMs) {
-                        long delayMs = minDelayMs - timeSinceLastMs;
-                        log.debug("Rate limiter [{}] enforcing minimum delay of {}ms", name, delayMs);
-                        Thread.sleep(delayMs);
-                        now = Instant.now();
-                    }
-                }
-
-                // Record this request
-                requestTimestamps.offer(now);
-                lastRequestTime = now;
-                log.debug("Rate limiter [{}] acquired (queue size: {}/{})",
-                        name, requestTimestamps.size(), maxRequests);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw e;
+        long delayNanos = reserve();
+        if (delayNanos > 0) {
+            log.debug("Rate limiter [{}] waiting {}ms", name, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
         }
     }
 
@@ -116,115 +97,80 @@ public class RateLimiter {
      *
      * @return true if permission was granted, false if rate limit reached
      */
-    public synchronized boolean tryAcquire() {
-        Instant now = Instant.now();
-        cleanupOldTimestamps(now);
-
-        if (requestTimestamps.size() < maxRequests) {
-            requestTimestamps.offer(now);
-            lastRequestTime = now;
-            log.debug("Rate limiter [{}] acquired non-blocking (queue size: {}/{})",
-                    name, requestTimestamps.size(), maxRequests);
-            return true;
-        }
-
-        log.debug("Rate limiter [{}] rejected (queue full: {}/{})",
-                name, requestTimestamps.size(), maxRequests);
-        return false;
+    public boolean tryAcquire() {
+        return tryReserve(0L) >= 0L;
     }
 
     /**
      * Attempts to acquire permission with a timeout.
      *
+     * Fails fast, without claiming a permit, when the next permit is further away than the timeout.
+     *
      * @param timeout maximum time to wait
      * @param unit time unit for the timeout
-     * @return true if permission was granted, false if timeout elapsed
+     * @return true if permission was granted, false if the permit would not be available in time
      * @throws InterruptedException if the thread is interrupted while waiting
      */
     public boolean tryAcquire(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
-        long timeoutMs = unit.toMillis(timeout);
-        long startTime = System.currentTimeMillis();
-
-        synchronized (this) {
-            Instant now = Instant.now();
-            cleanupOldTimestamps(now);
-
-            while (requestTimestamps.size() >= maxRequests) {
-                long elapsedMs = System.currentTimeMillis() - startTime;
-                if (elapsedMs >= timeoutMs) {
-                    log.debug("Rate limiter [{}] timeout after {}ms", name, elapsedMs);
-                    return false;
-                }
-
-                Instant oldest = requestTimestamps.peek();
-                if (oldest == null) {
-                    break;
-                }
-
-                Instant windowStart = now.minus(timeWindow);
-                if (oldest.isBefore(windowStart)) {
-                    requestTimestamps.poll();
-                    cleanupOldTimestamps(now);
-                } else {
-                    long waitTimeMs = Math.min(
-                            Duration.between(windowStart, oldest).toMillis(),
-                            timeoutMs - elapsedMs
-                    );
-                    if (waitTimeMs > 0) {
-                        Thread.sleep(waitTimeMs);
-                        now = Instant.now();
-                        cleanupOldTimestamps(now);
-                    }
-                }
-            }
-
-            if (requestTimestamps.size() < maxRequests) {
-                requestTimestamps.offer(now);
-                lastRequestTime = now;
-                log.debug("Rate limiter [{}] acquired after {}ms (queue size: {}/{})",
-                        name, System.currentTimeMillis() - startTime,
-                        requestTimestamps.size(), maxRequests);
-                return true;
-            }
-
+        long delayNanos = tryReserve(Math.max(0L, unit.toNanos(timeout)));
+        if (delayNanos < 0L) {
+            log.debug("Rate limiter [{}] rejected, next permit beyond {}ms", name, unit.toMillis(timeout));
             return false;
         }
+        if (delayNanos > 0L) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+        return true;
     }
 
     /**
-     * Removes timestamps that fall outside the current time window.
-     *
-     * @param now current time
+     * @return nanoseconds until a permit would be available, without claiming it
      */
-    private void cleanupOldTimestamps(@Nonnull Instant now) {
-        Instant windowStart = now.minus(timeWindow);
-        while (!requestTimestamps.isEmpty()) {
-            Instant oldest = requestTimestamps.peek();
-            if (oldest != null && oldest.isBefore(windowStart)) {
-                requestTimestamps.poll();
-            } else {
-                break;
+    public long nanosUntilAvailable() {
+        long now = clock.getAsLong();
+        long current = theoreticalArrival.get();
+        return Math.max(0L, Math.max(current, now) + intervalNanos - windowNanos - now);
+    }
+
+    /**
+     * @return delay before the claimed permit may be used, or {@code -1} if none is available within
+     * {@code maxDelayNanos} (nothing is claimed then)
+     */
+    private long tryReserve(long maxDelayNanos) {
+        while (true) {
+            long now = clock.getAsLong();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long delayNanos = Math.max(0L, next - windowNanos - now);
+            if (delayNanos > maxDelayNanos) {
+                return -1L;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return delayNanos;
             }
         }
     }
 
     /**
-     * Resets the rate limiter, clearing all recorded timestamps.
+     * Resets the rate limiter so a full burst is available again.
      */
-    public synchronized void reset() {
+    public void reset() {
         log.info("Rate limiter [{}] reset", name);
-        requestTimestamps.clear();
-        lastRequestTime = null;
+        theoreticalArrival.set(clock.getAsLong());
     }
 
     /**
-     * Gets the current number of requests in the time window.
+     * Gets the number of permits taken within the last time window, including reserved permits that
+     * are not usable yet. Capped at maxRequests once callers are queued behind the limit.
      *
      * @return number of active requests
      */
-    public synchronized int getCurrentLoad() {
-        cleanupOldTimestamps(Instant.now());
-        return requestTimestamps.size();
+    public int getCurrentLoad() {
+        long ahead = theoreticalArrival.get() - clock.getAsLong();
+        if (ahead <= 0) {
+            return 0;
+        }
+        return (int) Math.min(maxRequests, (ahead + intervalNanos - 1) / intervalNanos);
     }
 
     /**
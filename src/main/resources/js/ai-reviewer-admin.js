@@ -95,16 +95,36 @@
         $('#ollama-url').val(config.ollamaUrl || '');
         $('#ollama-model').val(config.ollamaModel || '');
         $('#fallback-model').val(config.fallbackModel || '');
+        $('#primary-model-endpoints').val(config.primaryModelEndpoints || '');
+        $('#fallback-model-endpoints').val(config.fallbackModelEndpoints || '');
+        $('#model-rate-limit-per-second').val(config.modelRateLimitPerSecond || 10);
+        $('#model-endpoint-rate-limits').val(config.modelEndpointRateLimits || '');
+        $('#model-circuit-failure-threshold').val(config.modelCircuitFailureThreshold || 5);
+        $('#model-circuit-open-seconds').val(config.modelCircuitOpenSeconds || 60);
         $('#max-chars-per-chunk').val(config.maxCharsPerChunk || 60000);
+        $('#model-context-tokens').val(config.modelContextTokens != null ? config.modelContextTokens : 0);
+        $('#chunk-strategy').val(config.chunkStrategy || 'size-first');
         $('#max-files-per-chunk').val(config.maxFilesPerChunk || 3);
         $('#max-chunks').val(config.maxChunks || 20);
         $('#parallel-threads').val(config.parallelThreads || 4);
         $('#connect-timeout').val(config.connectTimeout || 10000);
         $('#read-timeout').val(config.readTimeout || 30000);
         $('#ollama-timeout').val(config.ollamaTimeout || 300000);
+        $('#primary-model-max-connections').val(config.primaryModelMaxConnections || 8);
+        $('#fallback-model-max-connections').val(config.fallbackModelMaxConnections || 4);
+        $('#stream-model-responses').prop('checked', config.streamModelResponses === true);
+        $('#max-model-response-bytes').val(config.maxModelResponseBytes || 2000000);
+        $('#max-concurrent-model-requests').val(config.maxConcurrentModelRequests || 16);
+        $('#chunk-result-cache-enabled').prop('checked', config.chunkResultCacheEnabled !== false);
+        $('#incremental-re-review').prop('checked', config.incrementalReReview === true);
+        $('#adaptive-model-concurrency').prop('checked', config.adaptiveModelConcurrency !== false);
+        $('#hedge-requests').prop('checked', config.hedgeRequests === true);
+        $('#hedge-percentile').val(config.hedgePercentile || 90);
+        $('#hedge-budget-percent').val(config.hedgeBudgetPercent || 10);
         $('#max-issues-per-file').val(config.maxIssuesPerFile || 50);
         $('#max-issue-comments').val(config.maxIssueComments || 30);
         $('#max-diff-size').val(config.maxDiffSize || 10000000);
+        $('#diff-spill-threshold').val(config.diffSpillThreshold != null ? config.diffSpillThreshold : 0);
         $('#overview-max-retries').val(config.overviewMaxRetries || config.maxRetries || 2);
         $('#overview-retry-delay').val(config.overviewRetryDelay || config.baseRetryDelay || 1500);
         $('#chunk-max-retries').val(config.chunkMaxRetries || config.maxRetries || 3);
@@ -121,6 +141,8 @@
         // Checkboxes
         $('#enabled').prop('checked', config.enabled !== false);
         $('#review-draft-prs').prop('checked', config.reviewDraftPRs === true);
+        $('#rescope-quiet-period-seconds').val(config.rescopeQuietPeriodSeconds != null ? config.rescopeQuietPeriodSeconds : 30);
+        $('#queue-admission-policy').val(config.queueAdmissionPolicy || 'priority');
         $('#skip-generated-files').prop('checked', config.skipGeneratedFiles !== false);
         $('#skip-tests').prop('checked', config.skipTests === true);
         initializeReviewerUserSelect(config);
@@ -1395,16 +1417,36 @@
             ollamaUrl: $('#ollama-url').val().trim(),
             ollamaModel: $('#ollama-model').val().trim(),
             fallbackModel: $('#fallback-model').val().trim(),
+            primaryModelEndpoints: $('#primary-model-endpoints').val().trim(),
+            fallbackModelEndpoints: $('#fallback-model-endpoints').val().trim(),
+            modelRateLimitPerSecond: parseInt($('#model-rate-limit-per-second').val()),
+            modelEndpointRateLimits: $('#model-endpoint-rate-limits').val().trim(),
+            modelCircuitFailureThreshold: parseInt($('#model-circuit-failure-threshold').val()),
+            modelCircuitOpenSeconds: parseInt($('#model-circuit-open-seconds').val()),
             maxCharsPerChunk: parseInt($('#max-chars-per-chunk').val()),
+            modelContextTokens: parseInt($('#model-context-tokens').val()) || 0,
+            chunkStrategy: $('#chunk-strategy').val(),
             maxFilesPerChunk: parseInt($('#max-files-per-chunk').val()),
             maxChunks: parseInt($('#max-chunks').val()),
             parallelThreads: parseInt($('#parallel-threads').val()),
             connectTimeout: parseInt($('#connect-timeout').val()),
             readTimeout: parseInt($('#read-timeout').val()),
             ollamaTimeout: parseInt($('#ollama-timeout').val()),
+            primaryModelMaxConnections: parseInt($('#primary-model-max-connections').val()),
+            fallbackModelMaxConnections: parseInt($('#fallback-model-max-connections').val()),
+            streamModelResponses: $('#stream-model-responses').is(':checked'),
+            maxModelResponseBytes: parseInt($('#max-model-response-bytes').val()),
+            maxConcurrentModelRequests: parseInt($('#max-concurrent-model-requests').val()),
+            chunkResultCacheEnabled: $('#chunk-result-cache-enabled').is(':checked'),
+            incrementalReReview: $('#incremental-re-review').is(':checked'),
+            adaptiveModelConcurrency: $('#adaptive-model-concurrency').is(':checked'),
+            hedgeRequests: $('#hedge-requests').is(':checked'),
+            hedgePercentile: parseInt($('#hedge-percentile').val()),
+            hedgeBudgetPercent: parseInt($('#hedge-budget-percent').val()),
             maxIssuesPerFile: parseInt($('#max-issues-per-file').val()),
             maxIssueComments: parseInt($('#max-issue-comments').val()),
             maxDiffSize: parseInt($('#max-diff-size').val()),
+            diffSpillThreshold: parseInt($('#diff-spill-threshold').val()) || 0,
             overviewMaxRetries: overviewMaxRetries,
             overviewRetryDelay: overviewRetryDelay,
             chunkMaxRetries: chunkMaxRetries,
@@ -1420,6 +1462,8 @@
             reviewProfile: $('#review-profile').val(),
             enabled: $('#enabled').is(':checked'),
             reviewDraftPRs: $('#review-draft-prs').is(':checked'),
+            rescopeQuietPeriodSeconds: parseInt($('#rescope-quiet-period-seconds').val()),
+            queueAdmissionPolicy: $('#queue-admission-policy').val(),
             skipGeneratedFiles: $('#skip-generated-files').is(':checked'),
             skipTests: $('#skip-tests').is(':checked'),
             autoApprove: $('#auto-approve').is(':checked'),
@@ -1550,16 +1594,36 @@
             ollamaUrl: 'http://10.152.98.37:11434',
             ollamaModel: 'qwen3-coder:30b',
             fallbackModel: 'qwen3-coder:7b',
+            primaryModelEndpoints: '',
+            fallbackModelEndpoints: '',
+            modelRateLimitPerSecond: 10,
+            modelEndpointRateLimits: '',
+            modelCircuitFailureThreshold: 5,
+            modelCircuitOpenSeconds: 60,
             maxCharsPerChunk: 60000,
+            modelContextTokens: 0,
+            chunkStrategy: 'size-first',
             maxFilesPerChunk: 3,
             maxChunks: 20,
             parallelThreads: 4,
             connectTimeout: 10000,
             readTimeout: 30000,
             ollamaTimeout: 300000,
+            primaryModelMaxConnections: 8,
+            fallbackModelMaxConnections: 4,
+            streamModelResponses: false,
+            maxModelResponseBytes: 2000000,
+            maxConcurrentModelRequests: 16,
+            chunkResultCacheEnabled: true,
+            incrementalReReview: false,
+            adaptiveModelConcurrency: true,
+            hedgeRequests: false,
+            hedgePercentile: 90,
+            hedgeBudgetPercent: 10,
             maxIssuesPerFile: 50,
             maxIssueComments: 30,
             maxDiffSize: 10000000,
+            diffSpillThreshold: 0,
             overviewMaxRetries: 2,
             overviewRetryDelay: 1500,
             chunkMaxRetries: 3,
@@ -1575,6 +1639,8 @@
             reviewProfile: 'balanced',
             enabled: true,
             reviewDraftPRs: false,
+            rescopeQuietPeriodSeconds: 30,
+            queueAdmissionPolicy: 'priority',
             skipGeneratedFiles: true,
             skipTests: false,
             autoApprove: false,
@@ -446,6 +446,7 @@
                 requestedBy: entry.requestedBy || '—',
                 waitingMs: waitingMs,
                 estimatedStartMs: estimatedStart,
+                priorityClass: entry.priorityClass || 'normal',
                 repoWaiting: entry.repoWaiting,
                 projectWaiting: entry.projectWaiting,
                 backpressureReason: entry.backpressureReason,
@@ -531,6 +532,9 @@
             if (entry.runId) {
                 repoHtml += '<div class="queue-meta"><code>' + escapeHtml(entry.runId) + '</code></div>';
             }
+            var waitingHtml = escapeHtml(formatDurationMs(entry.waitingMs)) +
+                '<div class="queue-meta">' + escapeHtml(entry.priorityClass) + ' priority, starts in ~' +
+                escapeHtml(formatDurationMs(Math.max(0, entry.estimatedStartMs - Date.now()))) + '</div>';
             var rolloutHtml = rolloutSummaryHtml(entry);
             var actionHtml = entry.runId
                 ? '<button type="button" class="aui-button aui-button-link queue-cancel-btn" data-run-id="' + escapeHtml(entry.runId) + '">Cancel</button>'
@@ -540,7 +544,7 @@
                 '<td>' + repoHtml + '</td>' +
                 '<td>' + rolloutHtml + '</td>' +
                 '<td>' + escapeHtml(entry.requestedBy) + '</td>' +
-                '<td>' + escapeHtml(formatDurationMs(entry.waitingMs)) + '</td>' +
+                '<td>' + waitingHtml + '</td>' +
                 '<td>' + escapeHtml(scope) + '</td>' +
                 '<td class="queue-actions-cell">' + actionHtml + '</td>' +
                 '</tr>';
@@ -0,0 +1,200 @@
+package com.teknolojikpanda.bitbucket.aireviewer.perf;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkPlanningPool;
+import com.teknolojikpanda.bitbucket.aicode.core.HeuristicTokenEstimator;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelContextBudget;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelHttpTransport;
+import com.teknolojikpanda.bitbucket.aicode.core.SizeFirstChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.core.StreamingDiffAccumulator;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning time of a thousands-of-files pull request as the file preparation (hunk extraction, measuring
+ * and splitting of oversized hunks) is spread over 1, 4 and 8 {@link ChunkPlanningPool} threads. The
+ * token budget decodes every hunk to estimate it, which is where the parallel preparation pays off; the
+ * char budget only splits oversized hunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ChunkPlanningBenchmark {
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    @Param({"4000"})
+    public int fileCount;
+
+    @Param({"chars", "tokens"})
+    public String budget;
+
+    private ChunkPlanningPool pool;
+    private ChunkStrategy strategy;
+    private ReviewContext context;
+    private Set<String> files;
+    private MetricsRecorder metrics;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = new ChunkPlanningPool(threads);
+        ModelContextBudget contextBudget = "tokens".equals(budget)
+                ? new ModelContextBudget(new HeuristicTokenEstimator(), new ModelHttpTransport())
+                : null;
+        strategy = new SizeFirstChunkStrategy(contextBudget, pool);
+        metrics = new NoopMetricsRecorder();
+
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        String diff = generate(fileCount, stats, 11L);
+        files = new LinkedHashSet<>(stats.keySet());
+        context = ReviewContext.builder()
+                .pullRequest(stubPullRequest())
+                .config(config())
+                .diffModel(StreamingDiffAccumulator.parse(diff))
+                .fileStats(stats)
+                .collectedAt(Instant.now())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.destroy();
+    }
+
+    @Benchmark
+    public ChunkStrategy.Result planThousandsOfFiles() {
+        return strategy.plan(context, "", files, metrics);
+    }
+
+    /**
+     * Mostly small edits with some medium files and a few rewrites whose hunks exceed the chunk budget.
+     */
+    private static String generate(int files, Map<String, ReviewOverview.FileStats> stats, long seed) {
+        Random random = new Random(seed);
+        StringBuilder diff = new StringBuilder();
+        for (int fileIndex = 0; fileIndex < files; fileIndex++) {
+            String path = String.format(Locale.ENGLISH, "src/main/java/module%02d/Service%04d.java",
+                    fileIndex % 40, fileIndex);
+            int roll = random.nextInt(100);
+            int hunks = roll < 70 ? 1 : roll < 95 ? 2 + random.nextInt(3) : 2;
+            int lines = roll < 70 ? 4 + random.nextInt(20) : roll < 95 ? 20 + random.nextInt(60) : 2_500;
+            diff.append("diff --git a/").append(path).append(" b/").append(path).append('\n')
+                    .append("--- a/").append(path).append('\n')
+                    .append("+++ b/").append(path).append('\n');
+            for (int hunk = 0; hunk < hunks; hunk++) {
+                int start = hunk * (lines + 20) + 1;
+                diff.append("@@ -").append(start).append(",1 +").append(start).append(',').append(lines + 1)
+                        .append(" @@\n");
+                for (int line = 0; line < lines; line++) {
+                    diff.append("+        result = handler.process(request, line").append(line).append(");\n");
+                }
+                diff.append("         return result;\n");
+            }
+            stats.put(path, new ReviewOverview.FileStats(hunks * lines, 0, false));
+        }
+        return diff.toString();
+    }
+
+    private static ReviewConfig config() throws Exception {
+        URI endpoint = new URI("http://localhost:11434");
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(endpoint)
+                .primaryModel("benchmark-model")
+                .fallbackModelEndpoint(endpoint)
+                .fallbackModel("benchmark-model-fallback")
+                .modelContextTokens(262_144)
+                .maxCharsPerChunk(60_000)
+                .maxFilesPerChunk(6)
+                .maxChunks(10_000)
+                .reviewableExtensions(new LinkedHashSet<>(Collections.singletonList("java")))
+                .ignorePatterns(Collections.emptyList())
+                .ignorePaths(Collections.emptyList())
+                .profile(ReviewProfile.builder()
+                        .minSeverity(SeverityLevel.MEDIUM)
+                        .skipGeneratedFiles(false)
+                        .reviewTests(true)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Planning only reads the pull request id, for logging.
+     */
+    private static PullRequest stubPullRequest() {
+        return (PullRequest) Proxy.newProxyInstance(PullRequest.class.getClassLoader(),
+                new Class<?>[]{PullRequest.class},
+                (proxy, method, args) -> {
+                    Class<?> type = method.getReturnType();
+                    if (type == long.class) {
+                        return 42L;
+                    }
+                    if (type == int.class) {
+                        return 0;
+                    }
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    return null;
+                });
+    }
+
+    private static final class NoopMetricsRecorder implements MetricsRecorder {
+        @Override
+        public Instant recordStart(String key) {
+            return Instant.now();
+        }
+
+        @Override
+        public void recordEnd(String key, Instant start) {
+        }
+
+        @Override
+        public void increment(String key) {
+        }
+
+        @Override
+        public void recordMetric(String key, Object value) {
+        }
+
+        @Override
+        public void addListEntry(String key, Map<String, Object> value) {
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            return Collections.emptyMap();
+        }
+    }
+}
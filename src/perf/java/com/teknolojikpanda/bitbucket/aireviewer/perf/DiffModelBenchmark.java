@@ -0,0 +1,206 @@
+package com.teknolojikpanda.bitbucket.aireviewer.perf;
+
+import com.teknolojikpanda.bitbucket.aicode.core.DiffPositionResolver;
+import com.teknolojikpanda.bitbucket.aicode.core.StreamingDiffAccumulator;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffHunk;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the former multi-parse review path with the single {@link DiffModel} built while streaming.
+ * <p>
+ * {@link #multiParse(Blackhole)} streams the diff for statistics and then re-reads the text the way the
+ * chunk strategy (regex hunk extraction), the summary analysis ({@code split("\n")}) and the comment
+ * validator ({@link DiffPositionResolver#index(String)} per file) used to. {@link #singleModel(Blackhole)}
+ * streams once and serves all three consumers from the model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class DiffModelBenchmark {
+
+    private static final Pattern DIFF_START = Pattern.compile("^diff --git\\s+(.+?)\\s+(.+)$");
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ .*\\+(\\d+)(?:,(\\d+))?.*@@");
+    private static final int SLICE_SIZE = 16 * 1024;
+
+    @Param({"32", "256"})
+    public int fileCount;
+
+    private byte[][] slices;
+
+    @Setup(Level.Trial)
+    public void setUpDiff() {
+        byte[] payload = generate(fileCount, 4, 40).getBytes(StandardCharsets.UTF_8);
+        int count = (payload.length + SLICE_SIZE - 1) / SLICE_SIZE;
+        slices = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            int start = i * SLICE_SIZE;
+            int end = Math.min(payload.length, start + SLICE_SIZE);
+            byte[] slice = new byte[end - start];
+            System.arraycopy(payload, start, slice, 0, slice.length);
+            slices[i] = slice;
+        }
+    }
+
+    @Benchmark
+    public int multiParse(Blackhole blackhole) {
+        StreamingDiffAccumulator accumulator = stream();
+        String rawDiff = accumulator.getRawDiff();
+        Map<String, String> fileDiffs = accumulator.getFileDiffs();
+        blackhole.consume(accumulator.getFileStats());
+
+        List<LineRange> ranges = new ArrayList<>();
+        List<String> hunks = legacyExtractHunks(rawDiff, ranges);
+        blackhole.consume(ranges);
+        blackhole.consume(legacyAnalyzeDiffForSummary(rawDiff));
+        int indexed = 0;
+        for (String fileDiff : fileDiffs.values()) {
+            indexed += DiffPositionResolver.index(fileDiff).getLines().size();
+        }
+        return hunks.size() + indexed;
+    }
+
+    @Benchmark
+    public int singleModel(Blackhole blackhole) {
+        StreamingDiffAccumulator accumulator = stream();
+        DiffModel model = accumulator.getDiffModel();
+        blackhole.consume(accumulator.getRawDiff());
+        blackhole.consume(model.toFileStats());
+
+        int hunks = 0;
+        int indexed = 0;
+        for (DiffFile file : model.getFiles()) {
+            blackhole.consume(file.getHeader());
+            for (DiffHunk hunk : file.getHunks()) {
+                blackhole.consume(hunk.getContent());
+                blackhole.consume(hunk.getNewRange());
+                hunks++;
+            }
+            indexed += DiffPositionResolver.index(file).getLines().size();
+        }
+        return hunks + indexed;
+    }
+
+    private StreamingDiffAccumulator stream() {
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(0);
+        for (byte[] slice : slices) {
+            accumulator.write(slice, 0, slice.length);
+        }
+        accumulator.finish();
+        return accumulator;
+    }
+
+    /**
+     * Condensed copy of the former {@code SizeFirstChunkStrategy.extractFileDiffs} text pass.
+     */
+    private static List<String> legacyExtractHunks(String diff, List<LineRange> ranges) {
+        List<String> hunks = new ArrayList<>();
+        StringBuilder header = null;
+        StringBuilder hunk = null;
+        for (String line : diff.split("\n", -1)) {
+            Matcher diffHeader = DIFF_START.matcher(line);
+            if (diffHeader.matches()) {
+                if (hunk != null) {
+                    hunks.add(hunk.toString());
+                }
+                header = new StringBuilder(line).append('\n');
+                hunk = null;
+                continue;
+            }
+            if (header == null) {
+                continue;
+            }
+            if (line.startsWith("--- ") || line.startsWith("+++ ") || line.startsWith("index ")) {
+                header.append(line).append('\n');
+                continue;
+            }
+            Matcher hunkHeader = HUNK_HEADER.matcher(line);
+            if (hunkHeader.matches()) {
+                if (hunk != null) {
+                    hunks.add(hunk.toString());
+                }
+                int start = Math.max(1, Integer.parseInt(hunkHeader.group(1)));
+                int length = hunkHeader.group(2) != null ? Integer.parseInt(hunkHeader.group(2)) : 1;
+                ranges.add(LineRange.of(start, start + Math.max(length - 1, 0)));
+                hunk = new StringBuilder(line).append('\n');
+                continue;
+            }
+            if (hunk != null) {
+                hunk.append(line).append('\n');
+            }
+        }
+        if (hunk != null) {
+            hunks.add(hunk.toString());
+        }
+        return hunks;
+    }
+
+    /**
+     * Copy of the former {@code AIReviewServiceImpl.analyzeDiffForSummary} text pass.
+     */
+    private static Map<String, int[]> legacyAnalyzeDiffForSummary(String diffText) {
+        Map<String, int[]> changes = new HashMap<>();
+        int[] current = null;
+        for (String line : diffText.split("\n")) {
+            if (line.startsWith("diff --git ")) {
+                String[] parts = line.split(" ");
+                if (parts.length >= 3) {
+                    current = new int[2];
+                    changes.put(parts[2].substring(2), current);
+                }
+            } else if (current != null && line.startsWith("+") && !line.startsWith("+++")) {
+                current[0]++;
+            } else if (current != null && line.startsWith("-") && !line.startsWith("---")) {
+                current[1]++;
+            }
+        }
+        return changes;
+    }
+
+    private static String generate(int files, int hunksPerFile, int linesPerHunk) {
+        StringBuilder diff = new StringBuilder(files * hunksPerFile * linesPerHunk * 48);
+        for (int fileIndex = 0; fileIndex < files; fileIndex++) {
+            String path = String.format(Locale.ENGLISH, "src/main/java/bench/ModelFile%03d.java", fileIndex);
+            diff.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            diff.append("index 1111111..2222222 100644\n");
+            diff.append("--- a/").append(path).append('\n');
+            diff.append("+++ b/").append(path).append('\n');
+            for (int hunkIndex = 0; hunkIndex < hunksPerFile; hunkIndex++) {
+                int start = hunkIndex * (linesPerHunk * 2) + 1;
+                diff.append(String.format(Locale.ENGLISH, "@@ -%d,%d +%d,%d @@\n",
+                        start, linesPerHunk + 1, start, linesPerHunk + 1));
+                for (int line = 0; line < linesPerHunk; line++) {
+                    diff.append("-    int value").append(line).append(" = ").append(line).append(";\n");
+                    diff.append("+    long value").append(line).append(" = ").append(line * 2L).append(";\n");
+                }
+                diff.append("     // context ").append(hunkIndex).append('\n');
+            }
+        }
+        return diff.toString();
+    }
+}
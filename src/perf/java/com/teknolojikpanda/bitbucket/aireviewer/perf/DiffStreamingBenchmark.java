@@ -1,5 +1,6 @@
 package com.teknolojikpanda.bitbucket.aireviewer.perf;
 
+import com.teknolojikpanda.bitbucket.aicode.core.StreamingDiffAccumulator;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
@@ -12,6 +13,7 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
@@ -22,6 +24,8 @@ import java.util.concurrent.TimeUnit;
 /**
  * Micro-benchmark that exercises the diff streaming accumulator logic used by {@link com.teknolojikpanda.bitbucket.aicode.core.DefaultDiffProvider}.
  * Generates synthetic unified diffs and feeds them to the accumulator in streamed chunks to capture parsing overhead.
+ * {@link #streamAccumulator()} measures the byte-level {@link StreamingDiffAccumulator}; {@link #legacyStreamAccumulator()}
+ * keeps the previous String/regex based implementation as the baseline for before/after comparisons.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
@@ -30,7 +34,7 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
 public class DiffStreamingBenchmark {
 
-    @Param({"1", "4"})
+    @Param({"1", "4", "64"})
     public int chunkMultiplier;
 
     private byte[][] diffChunks;
@@ -55,13 +59,28 @@ public class DiffStreamingBenchmark {
     }
 
     @Benchmark
-    public DiffStreamingResult streamAccumulator() {
+    public DiffStreamingResult streamAccumulator(Blackhole blackhole) {
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(maxBytes);
+        for (byte[] chunk : diffChunks) {
+            accumulator.write(chunk, 0, chunk.length);
+        }
+        accumulator.finish();
+        Map<String, ReviewOverview.FileStats> stats = accumulator.getFileStats();
+        blackhole.consume(accumulator.getRawDiff());
+        blackhole.consume(accumulator.getFileDiffs());
+        return new DiffStreamingResult(accumulator.getTotalBytes(), accumulator.getTotalLines(), stats.size());
+    }
+
+    @Benchmark
+    public DiffStreamingResult legacyStreamAccumulator(Blackhole blackhole) {
         StreamingDiffAccumulatorHarness accumulator = new StreamingDiffAccumulatorHarness(maxBytes);
         for (byte[] chunk : diffChunks) {
             accumulator.write(chunk, 0, chunk.length);
         }
         accumulator.finish();
         StreamingDiffAccumulatorHarness.DiffBundle bundle = accumulator.toBundle();
+        blackhole.consume(bundle.rawDiff);
+        blackhole.consume(bundle.fileDiffs);
         return new DiffStreamingResult(bundle.bytes, bundle.lines, bundle.fileStats.size());
     }
 
@@ -109,8 +128,8 @@ public class DiffStreamingBenchmark {
     }
 
     /**
-     * Lightweight copy of {@link com.teknolojikpanda.bitbucket.aicode.core.DefaultDiffProvider.StreamingDiffAccumulator}
-     * adapted for benchmarking purposes (no logging, public visibility).
+     * Copy of the former String-based accumulator from {@link com.teknolojikpanda.bitbucket.aicode.core.DefaultDiffProvider}
+     * (per-slice decoding, {@code StringBuilder.indexOf}/{@code delete} draining and a regex per line), kept as the baseline.
      */
     private static final class StreamingDiffAccumulatorHarness extends java.io.OutputStream {
         private static final java.util.regex.Pattern DIFF_HEADER_PATTERN = java.util.regex.Pattern.compile("^diff --git\\s+(.+?)\\s+(.+)$");
@@ -152,12 +171,14 @@ public class DiffStreamingBenchmark {
         }
 
         StreamingDiffAccumulatorHarness.DiffBundle toBundle() {
+            Map<String, String> diffs = new LinkedHashMap<>();
             Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
             for (Map.Entry<String, MutableFileState> entry : files.entrySet()) {
                 MutableFileState state = entry.getValue();
+                diffs.put(entry.getKey(), state.content.toString());
                 stats.put(entry.getKey(), new ReviewOverview.FileStats(state.additions, state.deletions, state.binary));
             }
-            return new DiffBundle(rawDiff.toString(), stats, totalBytes, totalLines);
+            return new DiffBundle(rawDiff.toString(), diffs, stats, totalBytes, totalLines);
         }
 
         private void drain(boolean flushRemainder) {
@@ -263,15 +284,18 @@ public class DiffStreamingBenchmark {
 
         private static final class DiffBundle {
             final String rawDiff;
+            final Map<String, String> fileDiffs;
             final Map<String, ReviewOverview.FileStats> fileStats;
             final long bytes;
             final int lines;
 
             DiffBundle(String rawDiff,
+                       Map<String, String> fileDiffs,
                        Map<String, ReviewOverview.FileStats> fileStats,
                        long bytes,
                        int lines) {
                 this.rawDiff = rawDiff;
+                this.fileDiffs = fileDiffs;
                 this.fileStats = fileStats;
                 this.bytes = bytes;
                 this.lines = lines;
@@ -2,14 +2,18 @@ package com.teknolojikpanda.bitbucket.aireviewer.perf;
 
 import com.atlassian.bitbucket.pull.PullRequest;
 import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.core.BinPackingChunkStrategy;
 import com.teknolojikpanda.bitbucket.aicode.core.HeuristicChunkPlanner;
 import com.teknolojikpanda.bitbucket.aicode.core.SizeFirstChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkStrategyType;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
 import com.teknolojikpanda.bitbucket.aicode.model.ReviewPreparation;
 import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
@@ -33,12 +37,16 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Micro-benchmark for {@link HeuristicChunkPlanner}. Generates synthetic diffs with many files/hunks
- * and measures the time spent to prepare review chunks.
+ * and measures the time spent to prepare review chunks with each chunk strategy. The {@code chunks} and
+ * {@code fillPercent} counters report how many chunks (model calls) the plan needs and how full they are.
+ * <p>
+ * {@code uniform} diffs have equally sized files; {@code mixed} diffs follow the shape of real pull
+ * requests: mostly small edits, some medium files, a few large rewrites, and tests next to some classes.
  */
 @State(Scope.Benchmark)
 @BenchmarkMode(Mode.AverageTime)
@@ -47,22 +55,32 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
 public class HeuristicChunkPlannerBenchmark {
 
+    private static final int MAX_CHARS_PER_CHUNK = 60_000;
+
     @Param({"32", "96"})
     public int fileCount;
 
+    @Param({"uniform", "mixed"})
+    public String shape;
+
+    @Param({"size-first", "bin-packing"})
+    public String strategy;
+
     private HeuristicChunkPlanner planner;
     private ReviewContext context;
     private MetricsRecorder metricsRecorder;
 
     @Setup(Level.Trial)
     public void setUpPlanner() {
-        planner = new HeuristicChunkPlanner(new SizeFirstChunkStrategy());
+        planner = new HeuristicChunkPlanner(new SizeFirstChunkStrategy(), new BinPackingChunkStrategy());
         metricsRecorder = new NoopMetricsRecorder();
     }
 
     @Setup(Level.Iteration)
     public void setUpContext() {
-        SyntheticDiff diff = SyntheticDiff.generate(fileCount, 3, 80);
+        SyntheticDiff diff = "mixed".equals(shape)
+                ? SyntheticDiff.generateMixed(fileCount, 7L)
+                : SyntheticDiff.generate(fileCount, 3, 80);
         context = ReviewContext.builder()
                 .pullRequest(new StubPullRequest(42L))
                 .config(buildConfig())
@@ -89,7 +107,8 @@ public class HeuristicChunkPlannerBenchmark {
                     .primaryModel("benchmark-model")
                     .fallbackModelEndpoint(endpoint)
                     .fallbackModel("benchmark-model-fallback")
-                    .maxCharsPerChunk(60_000)
+                    .maxCharsPerChunk(MAX_CHARS_PER_CHUNK)
+                    .chunkStrategy(ChunkStrategyType.fromConfig(strategy))
                     .maxFilesPerChunk(6)
                     .maxChunks(40)
                     .parallelThreads(4)
@@ -105,8 +124,32 @@ public class HeuristicChunkPlannerBenchmark {
     }
 
     @Benchmark
-    public ReviewPreparation planLargeDiff() {
-        return planner.prepare(context, metricsRecorder);
+    public ReviewPreparation planLargeDiff(PlanCounters counters) {
+        ReviewPreparation preparation = planner.prepare(context, metricsRecorder);
+        long chars = 0;
+        for (ReviewChunk chunk : preparation.getChunks()) {
+            chars += chunk.getContentLength();
+        }
+        int chunks = preparation.getChunks().size();
+        counters.chunks = chunks;
+        counters.fillPercent = chunks == 0 ? 0D : 100D * chars / ((double) MAX_CHARS_PER_CHUNK * chunks);
+        return preparation;
+    }
+
+    /**
+     * Shape of the last plan; identical for every invocation of a trial since the diff is fixed.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PlanCounters {
+        public int chunks;
+        public double fillPercent;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chunks = 0;
+            fillPercent = 0D;
+        }
     }
 
     private static final class NoopMetricsRecorder implements MetricsRecorder {
@@ -318,5 +361,85 @@ public class HeuristicChunkPlannerBenchmark {
 
             return new SyntheticDiff(diffBuilder.toString(), stats, fileDiffs, metadata);
         }
+
+        /**
+         * Roughly 70% small edits (one short hunk), 22% medium files and 8% large rewrites; a fifth of the
+         * classes come with a test in the same directory.
+         */
+        static SyntheticDiff generateMixed(int files, long seed) {
+            Random random = new Random(seed);
+            StringBuilder diffBuilder = new StringBuilder();
+            Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+            Map<String, String> fileDiffs = new HashMap<>();
+            Map<String, com.teknolojikpanda.bitbucket.aicode.model.ReviewFileMetadata> metadata = new HashMap<>();
+
+            List<String> paths = new ArrayList<>(files);
+            for (int fileIndex = 0; paths.size() < files; fileIndex++) {
+                String directory = String.format(Locale.ENGLISH, "src/main/java/module%02d", fileIndex % 12);
+                String className = String.format(Locale.ENGLISH, "Service%03d", fileIndex);
+                paths.add(directory + "/" + className + ".java");
+                if (paths.size() < files && random.nextInt(5) == 0) {
+                    paths.add(directory + "/" + className + "Test.java");
+                }
+            }
+
+            for (String path : paths) {
+                int roll = random.nextInt(100);
+                int hunks;
+                int linesPerHunk;
+                if (roll < 70) {
+                    hunks = 1;
+                    linesPerHunk = 4 + random.nextInt(20);
+                } else if (roll < 92) {
+                    hunks = 2 + random.nextInt(3);
+                    linesPerHunk = 20 + random.nextInt(60);
+                } else {
+                    hunks = 3 + random.nextInt(6);
+                    linesPerHunk = 80 + random.nextInt(160);
+                }
+                appendFile(diffBuilder, stats, fileDiffs, metadata, path, hunks, linesPerHunk);
+            }
+
+            return new SyntheticDiff(diffBuilder.toString(), stats, fileDiffs, metadata);
+        }
+
+        private static void appendFile(StringBuilder diffBuilder,
+                                       Map<String, ReviewOverview.FileStats> stats,
+                                       Map<String, String> fileDiffs,
+                                       Map<String, com.teknolojikpanda.bitbucket.aicode.model.ReviewFileMetadata> metadata,
+                                       String path,
+                                       int hunksPerFile,
+                                       int linesPerHunk) {
+            diffBuilder.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            diffBuilder.append("--- a/").append(path).append('\n');
+            diffBuilder.append("+++ b/").append(path).append('\n');
+
+            StringBuilder fileDiff = new StringBuilder();
+            for (int hunkIndex = 0; hunkIndex < hunksPerFile; hunkIndex++) {
+                int startLine = hunkIndex * (linesPerHunk + 20) + 1;
+                String header = String.format(Locale.ENGLISH, "@@ -%d,1 +%d,%d @@\n",
+                        startLine, startLine, linesPerHunk + 1);
+                fileDiff.append(header);
+                for (int line = 0; line < linesPerHunk; line++) {
+                    fileDiff.append("+        result = handler.process(request, line").append(line).append(");\n");
+                }
+                fileDiff.append("         return result;\n");
+            }
+            diffBuilder.append(fileDiff);
+
+            int slash = path.lastIndexOf('/');
+            int additions = hunksPerFile * linesPerHunk;
+            stats.put(path, new ReviewOverview.FileStats(additions, 0, false));
+            fileDiffs.put(path, fileDiff.toString());
+            metadata.put(path, com.teknolojikpanda.bitbucket.aicode.model.ReviewFileMetadata.builder()
+                    .path(path)
+                    .directory(path.substring(0, slash))
+                    .extension("java")
+                    .additions(additions)
+                    .deletions(0)
+                    .binary(false)
+                    .testFile(path.endsWith("Test.java"))
+                    .build());
+        }
     }
 }
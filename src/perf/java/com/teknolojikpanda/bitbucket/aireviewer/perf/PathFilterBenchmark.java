@@ -0,0 +1,121 @@
+package com.teknolojikpanda.bitbucket.aireviewer.perf;
+
+import com.teknolojikpanda.bitbucket.aicode.core.PathFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the former per-review file filter (globs compiled to one {@link Pattern} each, ignore paths
+ * scanned with {@code contains}, several lowercasings per path) with the cached {@link PathFilter} on a
+ * vendor bump sized diff.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class PathFilterBenchmark {
+
+    private static final List<String> TEST_KEYWORDS = Arrays.asList("test", "spec", "fixture");
+    private static final List<String> EXTENSIONS = Arrays.asList(
+            "java", "kt", "groovy", "js", "ts", "tsx", "py", "go", "rb", "cs", "xml", "yml", "json");
+
+    @Param({"30000"})
+    public int fileCount;
+
+    @Param({"8", "48"})
+    public int patternCount;
+
+    private List<String> files;
+    private List<String> ignorePatterns;
+    private List<String> ignorePaths;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        ignorePatterns = new ArrayList<>(patternCount);
+        ignorePaths = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            ignorePatterns.add(String.format(Locale.ROOT, "*.min%d.js", i));
+            ignorePaths.add(String.format(Locale.ROOT, "third_party/lib%02d/", i));
+        }
+        ignorePatterns.add("*.lock");
+        ignorePaths.add("node_modules/");
+        files = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            String root = random.nextInt(3) == 0 ? "vendor/github.com/org" + random.nextInt(200) : "src/main/module" + random.nextInt(40);
+            String extension = EXTENSIONS.get(random.nextInt(EXTENSIONS.size()));
+            files.add(String.format(Locale.ROOT, "%s/pkg%d/File%05d.%s", root, random.nextInt(50), i, extension));
+        }
+    }
+
+    @Benchmark
+    public int perReviewRegexFilter() {
+        Set<String> allowed = EXTENSIONS.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        List<Pattern> patterns = ignorePatterns.stream()
+                .map(glob -> Pattern.compile(glob.trim().toLowerCase()
+                        .replace(".", "\\.").replace("*", ".*").replace("?", ".")))
+                .collect(Collectors.toList());
+        List<String> paths = ignorePaths.stream().map(String::toLowerCase).collect(Collectors.toList());
+        Set<String> selected = new HashSet<>();
+        outer:
+        for (String file : files) {
+            String lower = file.toLowerCase();
+            for (String path : paths) {
+                if (!path.isEmpty() && lower.contains(path)) {
+                    continue outer;
+                }
+            }
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(lower).matches()) {
+                    continue outer;
+                }
+            }
+            int idx = file.lastIndexOf('.');
+            if (idx < 0 || !allowed.contains(file.substring(idx + 1).toLowerCase())) {
+                continue;
+            }
+            String lowerAgain = file.toLowerCase();
+            if (lowerAgain.contains("generated") || lowerAgain.endsWith(".g.dart") || lowerAgain.contains("build/")) {
+                continue;
+            }
+            if (TEST_KEYWORDS.stream().anyMatch(file.toLowerCase()::contains)) {
+                continue;
+            }
+            selected.add(file);
+        }
+        return selected.size();
+    }
+
+    @Benchmark
+    public int compiledPathFilter() {
+        PathFilter filter = PathFilter.compile(EXTENSIONS, ignorePatterns, ignorePaths, true, false);
+        Set<String> selected = new HashSet<>();
+        for (String file : files) {
+            if (filter.accepts(file)) {
+                selected.add(file);
+            }
+        }
+        return selected.size();
+    }
+}
@@ -0,0 +1,112 @@
+package com.teknolojikpanda.bitbucket.aireviewer.perf;
+
+import com.teknolojikpanda.bitbucket.aireviewer.util.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for {@link RateLimiter} at 1, 8 and 32 threads.
+ * <p>
+ * The {@code gcra*} methods exercise the lock-free limiter; the {@code synchronized*} methods run the former
+ * sliding-window limiter (a synchronized queue of timestamps) for comparison. Each call is a non-blocking
+ * {@code tryAcquire}, so the score is the cost of the admission decision itself: with the low limit almost
+ * every call is rejected, with the high limit most calls are granted and update the shared state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class RateLimiterBenchmark {
+
+    @Param({"1000", "100000"})
+    public int requestsPerSecond;
+
+    private RateLimiter limiter;
+    private SlidingWindowLimiter legacy;
+
+    @Setup(Level.Iteration)
+    public void setUpLimiters() {
+        limiter = new RateLimiter("benchmark", requestsPerSecond, Duration.ofSeconds(1));
+        legacy = new SlidingWindowLimiter(requestsPerSecond, Duration.ofSeconds(1));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean gcra1() {
+        return limiter.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean gcra8() {
+        return limiter.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean gcra32() {
+        return limiter.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean synchronized1() {
+        return legacy.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean synchronized8() {
+        return legacy.tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean synchronized32() {
+        return legacy.tryAcquire();
+    }
+
+    /**
+     * The sliding-window admission check the lock-free limiter replaced.
+     */
+    private static final class SlidingWindowLimiter {
+        private final int maxRequests;
+        private final Duration timeWindow;
+        private final Deque<Instant> timestamps = new ArrayDeque<>();
+
+        private SlidingWindowLimiter(int maxRequests, Duration timeWindow) {
+            this.maxRequests = maxRequests;
+            this.timeWindow = timeWindow;
+        }
+
+        synchronized boolean tryAcquire() {
+            Instant now = Instant.now();
+            Instant windowStart = now.minus(timeWindow);
+            while (!timestamps.isEmpty() && timestamps.peekFirst().isBefore(windowStart)) {
+                timestamps.pollFirst();
+            }
+            if (timestamps.size() < maxRequests) {
+                timestamps.addLast(now);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final String ENDPOINT = "http://ollama:11434";
+
+    private final AtomicLong now = new AtomicLong();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(now::get);
+
+    @Test
+    public void growsWhileLatencyStaysAtBaseline() throws Exception {
+        assertEquals(2, limit());
+        runWindow(2, 100);
+        assertEquals(4, limit());
+        runWindow(4, 100);
+        assertEquals(8, limit());
+        runWindow(8, 110);
+        assertEquals(16, limit());
+        runWindow(16, 100);
+        assertEquals("ceiling is the configured node-wide limit", 16, limit());
+    }
+
+    @Test
+    public void backsOffWhenP90LatencyRises() throws Exception {
+        runWindow(2, 100);
+        runWindow(4, 100);
+        assertEquals(8, limit());
+
+        runWindow(8, 500);
+
+        assertEquals(7, limit());
+        assertEquals("latency", endpoint().get("lastChange"));
+        assertEquals(false, endpoint().get("slowStart"));
+    }
+
+    @Test
+    public void halvesOnceForOverloadSignalsFromTheSameWindow() throws Exception {
+        runWindow(2, 100);
+        runWindow(4, 100);
+        assertEquals(8, limit());
+
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.acquire(ENDPOINT, 16));
+        }
+        advance(50);
+        for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+            permit.onDropped();
+        }
+
+        assertEquals(4, limit());
+        assertEquals(4L, endpoint().get("drops"));
+        assertEquals(1L, endpoint().get("decreases"));
+
+        // Additive increase after the first backoff.
+        runWindow(4, 100);
+        runWindow(5, 100);
+        assertEquals(6, limit());
+    }
+
+    @Test
+    public void ignoredFailuresReleaseWithoutSample() throws Exception {
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(ENDPOINT, 16);
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(ENDPOINT, 16);
+        assertEquals(2, endpoint().get("inFlight"));
+
+        first.onIgnore();
+        first.onSuccess();
+        second.onIgnore();
+
+        assertEquals(0, endpoint().get("inFlight"));
+        assertEquals(0L, endpoint().get("successes"));
+        assertEquals(2, limit());
+    }
+
+    private void runWindow(int concurrency, long latencyMs) throws InterruptedException {
+        int samples = Math.max(AdaptiveConcurrencyLimiter.MIN_WINDOW, limit());
+        int done = 0;
+        while (done < samples) {
+            int batch = Math.min(concurrency, samples - done);
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < batch; i++) {
+                permits.add(limiter.acquire(ENDPOINT, 16));
+            }
+            advance(latencyMs);
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+                permit.onSuccess();
+            }
+            done += batch;
+        }
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private int limit() {
+        Map<String, Object> endpoint = endpoint();
+        return endpoint == null ? AdaptiveConcurrencyLimiter.INITIAL_LIMIT : (Integer) endpoint.get("limit");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> endpoint() {
+        List<Map<String, Object>> endpoints = (List<Map<String, Object>>) limiter.snapshot().get("endpoints");
+        return endpoints.isEmpty() ? null : endpoints.get(0);
+    }
+}
@@ -0,0 +1,201 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BinPackingChunkStrategyTest {
+
+    private PullRequest pullRequest;
+    private MetricsRecorder metrics;
+
+    @Before
+    public void setUp() {
+        pullRequest = mock(PullRequest.class);
+        when(pullRequest.getId()).thenReturn(202L);
+        metrics = new NoOpMetricsRecorder();
+    }
+
+    @Test
+    public void packsIntoFewerChunksThanSizeFirst() throws Exception {
+        Map<String, Integer> files = new LinkedHashMap<>();
+        files.put("src/a/Alpha.java", 22);
+        files.put("src/b/Beta.java", 22);
+        files.put("src/c/Gamma.java", 12);
+        files.put("src/d/Delta.java", 12);
+        ReviewContext context = context(config(2_000, 3, 20), files);
+
+        ChunkStrategy.Result sizeFirst = new SizeFirstChunkStrategy()
+                .plan(context, context.getRawDiff(), files.keySet(), metrics);
+        ChunkStrategy.Result binPacked = new BinPackingChunkStrategy()
+                .plan(context, context.getRawDiff(), files.keySet(), metrics);
+
+        assertThat(sizeFirst.getChunks().size(), is(3));
+        assertThat(binPacked.getChunks().size(), is(2));
+        assertThat(binPacked.getChunks().get(0).getFiles(), contains("src/a/Alpha.java", "src/c/Gamma.java"));
+        assertThat(binPacked.getChunks().get(1).getFiles(), contains("src/b/Beta.java", "src/d/Delta.java"));
+        for (ReviewChunk chunk : binPacked.getChunks()) {
+            assertThat(chunk.getContent().length(), lessThanOrEqualTo(2_000));
+        }
+    }
+
+    @Test
+    public void keepsAClassWithItsTestsWhenTheyFit() throws Exception {
+        Map<String, Integer> files = new LinkedHashMap<>();
+        files.put("src/Foo.java", 12);
+        files.put("src/Bar.java", 22);
+        files.put("src/FooTest.java", 12);
+        ReviewContext context = context(config(2_000, 3, 20), files);
+
+        List<ReviewChunk> chunks = new BinPackingChunkStrategy()
+                .plan(context, context.getRawDiff(), files.keySet(), metrics)
+                .getChunks();
+
+        assertThat(chunks.size(), is(2));
+        assertThat(chunks.get(0).getFiles(), contains("src/Foo.java", "src/FooTest.java"));
+        assertThat(chunks.get(1).getFiles(), contains("src/Bar.java"));
+    }
+
+    @Test
+    public void oversizedFilesSplitIntoRunsOfHunksInDiffOrder() throws Exception {
+        String path = "src/Large.java";
+        String diff = header(path) + hunk(1, 16) + hunk(100, 16) + hunk(200, 16);
+        ReviewContext context = context(config(2_000, 3, 20), diff, Collections.singletonMap(path, 48));
+
+        List<ReviewChunk> chunks = new BinPackingChunkStrategy()
+                .plan(context, context.getRawDiff(), Collections.singleton(path), metrics)
+                .getChunks();
+
+        assertThat(chunks.size(), is(2));
+        assertThat(chunks.get(0).getPrimaryRanges().get(path).size(), is(2));
+        assertThat(chunks.get(0).getPrimaryRanges().get(path).get(0).getStart(), is(1));
+        assertThat(chunks.get(1).getPrimaryRanges().get(path).get(0).getStart(), is(200));
+        assertThat(chunks.get(1).getContent().startsWith("diff --git a/" + path), is(true));
+    }
+
+    @Test
+    public void respectsFileLimitAndTruncatesTrailingChunks() throws Exception {
+        Map<String, Integer> files = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            files.put(String.format(Locale.ROOT, "src/m%d/File%d.java", i, i), 2);
+        }
+        ReviewContext context = context(config(2_000, 2, 2), files);
+
+        ChunkStrategy.Result result = new BinPackingChunkStrategy()
+                .plan(context, context.getRawDiff(), files.keySet(), metrics);
+
+        assertThat(result.isTruncated(), is(true));
+        assertThat(result.getChunks().size(), is(2));
+        assertThat(result.getChunks().get(0).getFiles(), contains("src/m0/File0.java", "src/m1/File1.java"));
+        assertThat(result.getChunks().get(1).getFiles(), contains("src/m2/File2.java", "src/m3/File3.java"));
+    }
+
+    private ReviewContext context(ReviewConfig config, Map<String, Integer> linesPerFile) {
+        StringBuilder diff = new StringBuilder();
+        linesPerFile.forEach((path, lines) -> diff.append(header(path)).append(hunk(1, lines)));
+        return context(config, diff.toString(), linesPerFile);
+    }
+
+    private ReviewContext context(ReviewConfig config, String diff, Map<String, Integer> linesPerFile) {
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        linesPerFile.forEach((path, lines) -> stats.put(path, new ReviewOverview.FileStats(lines, 0, false)));
+        return ReviewContext.builder()
+                .pullRequest(pullRequest)
+                .config(config)
+                .rawDiff(diff)
+                .fileStats(stats)
+                .collectedAt(Instant.now())
+                .build();
+    }
+
+    private static String header(String path) {
+        return "diff --git a/" + path + " b/" + path + "\n--- a/" + path + "\n+++ b/" + path + "\n";
+    }
+
+    /**
+     * Hunk of {@code lines} added lines of 50 chars each.
+     */
+    private static String hunk(int start, int lines) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("@@ -").append(start).append(",0 +").append(start).append(',').append(lines).append(" @@\n");
+        for (int i = 0; i < lines; i++) {
+            builder.append(String.format(Locale.ROOT, "+    int value%04d = compute(%04d); // added line\n",
+                    start + i, i));
+        }
+        return builder.toString();
+    }
+
+    private static ReviewConfig config(int maxChars, int maxFiles, int maxChunks) throws Exception {
+        ReviewProfile profile = ReviewProfile.builder()
+                .minSeverity(SeverityLevel.MEDIUM)
+                .skipGeneratedFiles(false)
+                .reviewTests(true)
+                .build();
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .maxCharsPerChunk(maxChars)
+                .maxFilesPerChunk(maxFiles)
+                .maxChunks(maxChunks)
+                .reviewableExtensions(new LinkedHashSet<>(Set.of("java")))
+                .ignorePatterns(Collections.emptyList())
+                .ignorePaths(Collections.emptyList())
+                .profile(profile)
+                .build();
+    }
+
+    private static final class NoOpMetricsRecorder implements MetricsRecorder {
+        @Override
+        public Instant recordStart(String key) {
+            return Instant.now();
+        }
+
+        @Override
+        public void recordEnd(String key, Instant start) {
+        }
+
+        @Override
+        public void increment(String key) {
+        }
+
+        @Override
+        public void recordMetric(String key, Object value) {
+        }
+
+        @Override
+        public void addListEntry(String key, Map<String, Object> value) {
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ChunkExecutionEngineTest {
+
+    private final ChunkExecutionEngine engine = new ChunkExecutionEngine(1);
+
+    @After
+    public void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    public void capsInFlightTasksAcrossReviews() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        engine.setMaxInFlight(3);
+        try (ChunkExecutionEngine.Batch first = engine.open("PR #1", 4);
+             ChunkExecutionEngine.Batch second = engine.open("PR #2", 4)) {
+            for (int i = 0; i < 12; i++) {
+                ChunkExecutionEngine.Batch batch = i % 2 == 0 ? first : second;
+                futures.add(batch.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertTrue("peak was " + peak.get(), peak.get() <= 3);
+        assertEquals(12L, engine.snapshot().get("completedTasks"));
+    }
+
+    @Test
+    public void interleavesSmallReviewWithLargeOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<Object>> futures = new ArrayList<>();
+        try (ChunkExecutionEngine.Batch large = engine.open("PR #1", 4);
+             ChunkExecutionEngine.Batch small = engine.open("PR #2", 4)) {
+            futures.add(large.submit(() -> {
+                started.countDown();
+                gate.await();
+                order.add("large");
+                return null;
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 9; i++) {
+                futures.add(large.submit(() -> order.add("large")));
+            }
+            for (int i = 0; i < 2; i++) {
+                futures.add(small.submit(() -> order.add("small")));
+            }
+            assertEquals(11, engine.snapshot().get("queueDepth"));
+            gate.countDown();
+            for (Future<Object> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertTrue("order was " + order, order.lastIndexOf("small") <= 4);
+    }
+
+    @Test
+    public void reviewParallelismDoesNotResizeTheEngine() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (ChunkExecutionEngine.Batch batch = engine.open("PR #1", 8)) {
+            for (int i = 0; i < 6; i++) {
+                futures.add(batch.submit(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return 1;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals(1, peak.get());
+        assertEquals(1, engine.snapshot().get("maxInFlight"));
+        engine.setMaxInFlight(4);
+        assertEquals(4, engine.snapshot().get("maxInFlight"));
+    }
+
+    @Test
+    public void closingBatchCancelsQueuedTasks() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChunkExecutionEngine.Batch batch = engine.open("PR #3", 1);
+        Future<Object> running = batch.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        Future<Object> queued = batch.submit(() -> null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        batch.close();
+
+        assertTrue(queued.isCancelled());
+        assertTrue(running.isCancelled());
+        Map<String, Object> snapshot = engine.snapshot();
+        assertEquals(0, snapshot.get("queueDepth"));
+        assertEquals(0, snapshot.get("activeReviews"));
+    }
+}
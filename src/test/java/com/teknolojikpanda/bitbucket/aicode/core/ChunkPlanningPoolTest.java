@@ -0,0 +1,175 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkStrategy;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChunkPlanningPoolTest {
+
+    private ChunkPlanningPool pool;
+    private PullRequest pullRequest;
+    private MetricsRecorder metrics;
+
+    @Before
+    public void setUp() {
+        pool = new ChunkPlanningPool(4);
+        pullRequest = mock(PullRequest.class);
+        when(pullRequest.getId()).thenReturn(303L);
+        metrics = new NoOpMetricsRecorder();
+    }
+
+    @After
+    public void tearDown() {
+        pool.destroy();
+    }
+
+    @Test
+    public void visitsEveryIndexExactlyOnce() {
+        int count = ChunkPlanningPool.MIN_PARALLEL_FILES * 5 + 3;
+        AtomicIntegerArray visits = new AtomicIntegerArray(count);
+
+        pool.forEachIndex(count, visits::incrementAndGet);
+
+        for (int i = 0; i < count; i++) {
+            assertThat(visits.get(i), is(1));
+        }
+    }
+
+    @Test
+    public void parallelPreparationPlansExactlyLikeSerial() throws Exception {
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        String diff = generate(ChunkPlanningPool.MIN_PARALLEL_FILES * 4, stats);
+        ReviewContext context = ReviewContext.builder()
+                .pullRequest(pullRequest)
+                .config(config())
+                .diffModel(StreamingDiffAccumulator.parse(diff))
+                .fileStats(stats)
+                .collectedAt(Instant.now())
+                .build();
+        Set<String> files = new LinkedHashSet<>(stats.keySet());
+
+        assertSamePlan(new SizeFirstChunkStrategy().plan(context, "", files, metrics),
+                new SizeFirstChunkStrategy(null, pool).plan(context, "", files, metrics));
+        assertSamePlan(new BinPackingChunkStrategy().plan(context, "", files, metrics),
+                new BinPackingChunkStrategy(null, pool).plan(context, "", files, metrics));
+    }
+
+    private static void assertSamePlan(ChunkStrategy.Result serial, ChunkStrategy.Result parallel) {
+        assertThat(parallel.getChunks().size(), is(serial.getChunks().size()));
+        assertThat(parallel.isTruncated(), is(serial.isTruncated()));
+        assertThat(parallel.getSkippedFiles(), equalTo(serial.getSkippedFiles()));
+        for (int i = 0; i < serial.getChunks().size(); i++) {
+            ReviewChunk expected = serial.getChunks().get(i);
+            ReviewChunk actual = parallel.getChunks().get(i);
+            assertThat(actual.getId(), equalTo(expected.getId()));
+            assertThat(actual.getFiles(), equalTo(expected.getFiles()));
+            assertThat(actual.getPrimaryRanges(), equalTo(expected.getPrimaryRanges()));
+            assertThat(actual.getContent(), equalTo(expected.getContent()));
+        }
+    }
+
+    /**
+     * Small and medium files, files whose single hunk must be split, and a few files without hunks.
+     */
+    private static String generate(int files, Map<String, ReviewOverview.FileStats> stats) {
+        Random random = new Random(5L);
+        StringBuilder diff = new StringBuilder();
+        for (int fileIndex = 0; fileIndex < files; fileIndex++) {
+            String path = String.format(Locale.ROOT, "src/module%d/File%03d.java", fileIndex % 7, fileIndex);
+            diff.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+            if (fileIndex % 50 == 0) {
+                diff.append("old mode 100644\nnew mode 100755\n");
+                stats.put(path, new ReviewOverview.FileStats(0, 0, false));
+                continue;
+            }
+            diff.append("--- a/").append(path).append('\n').append("+++ b/").append(path).append('\n');
+            int hunks = 1 + random.nextInt(3);
+            int lines = fileIndex % 17 == 0 ? 400 : 2 + random.nextInt(30);
+            for (int hunk = 0; hunk < hunks; hunk++) {
+                int start = hunk * (lines + 10) + 1;
+                diff.append("@@ -").append(start).append(",1 +").append(start).append(',').append(lines + 1)
+                        .append(" @@\n");
+                for (int line = 0; line < lines; line++) {
+                    diff.append("+    value").append(line).append(" = compute(").append(fileIndex).append(");\n");
+                }
+                diff.append("     return value;\n");
+            }
+            stats.put(path, new ReviewOverview.FileStats(hunks * lines, 0, false));
+        }
+        return diff.toString();
+    }
+
+    private static ReviewConfig config() throws Exception {
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .maxCharsPerChunk(4_000)
+                .maxFilesPerChunk(5)
+                .maxChunks(1_000)
+                .reviewableExtensions(Set.of("java"))
+                .ignorePatterns(Collections.emptyList())
+                .ignorePaths(Collections.emptyList())
+                .profile(ReviewProfile.builder()
+                        .minSeverity(SeverityLevel.MEDIUM)
+                        .skipGeneratedFiles(false)
+                        .reviewTests(true)
+                        .build())
+                .build();
+    }
+
+    private static final class NoOpMetricsRecorder implements MetricsRecorder {
+        @Override
+        public Instant recordStart(String key) {
+            return Instant.now();
+        }
+
+        @Override
+        public void recordEnd(String key, Instant start) {
+        }
+
+        @Override
+        public void increment(String key) {
+        }
+
+        @Override
+        public void recordMetric(String key, Object value) {
+        }
+
+        @Override
+        public void addListEntry(String key, Map<String, Object> value) {
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            return Collections.emptyMap();
+        }
+    }
+}
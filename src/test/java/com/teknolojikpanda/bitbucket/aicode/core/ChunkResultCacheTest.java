@@ -0,0 +1,149 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkResultStore;
+import com.teknolojikpanda.bitbucket.aicode.model.IssueCategory;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewProfile;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import com.teknolojikpanda.bitbucket.aireviewer.util.MetricsCollector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ChunkResultCacheTest {
+
+    private InMemoryStore store;
+    private MetricsCollector collector;
+    private MetricsRecorderAdapter metrics;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore();
+        collector = new MetricsCollector("test");
+        metrics = new MetricsRecorderAdapter(collector);
+    }
+
+    @Test
+    public void returnsStoredFindingsForIdenticalChunkContent() throws Exception {
+        ChunkResultCache cache = new ChunkResultCache(store);
+        ReviewConfig config = config(SeverityLevel.MEDIUM);
+        String key = cache.buildKey(chunk("chunk-1", "+int a = 1;\n"), config);
+
+        assertNull(cache.get(key, metrics));
+        cache.put(key, "primary-model", Collections.singletonList(finding()));
+
+        String sameContentKey = cache.buildKey(chunk("chunk-7", "+int a = 1;\n"), config);
+        assertEquals(key, sameContentKey);
+        List<ReviewFinding> cached = cache.get(sameContentKey, metrics);
+        assertNotNull(cached);
+        assertEquals(1, cached.size());
+        ReviewFinding finding = cached.get(0);
+        assertEquals("src/A.java", finding.getFilePath());
+        assertEquals(LineRange.of(3, 4).getStart(), finding.getLineRange().getStart());
+        assertEquals(SeverityLevel.HIGH, finding.getSeverity());
+        assertEquals(IssueCategory.BUG, finding.getCategory());
+        assertEquals("fix it", finding.getFix());
+        assertEquals(1L, collector.getCounter("ai.chunk.cache.miss"));
+        assertEquals(1L, collector.getCounter("ai.chunk.cache.hit"));
+    }
+
+    @Test
+    public void keyChangesWithContentModelAndSeverity() throws Exception {
+        ChunkResultCache cache = new ChunkResultCache(store);
+        String base = cache.buildKey(chunk("c", "+a\n"), config(SeverityLevel.MEDIUM));
+
+        assertNotEquals(base, cache.buildKey(chunk("c", "+b\n"), config(SeverityLevel.MEDIUM)));
+        assertNotEquals(base, cache.buildKey(chunk("c", "+a\n"), config(SeverityLevel.LOW)));
+        ReviewConfig otherModel = ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("other-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .profile(ReviewProfile.builder().minSeverity(SeverityLevel.MEDIUM).build())
+                .build();
+        assertNotEquals(base, cache.buildKey(chunk("c", "+a\n"), otherModel));
+    }
+
+    @Test
+    public void fallsBackToSharedStoreAfterLocalEviction() throws Exception {
+        ChunkResultCache cache = new ChunkResultCache(store, 1, Long.MAX_VALUE);
+        ReviewConfig config = config(SeverityLevel.MEDIUM);
+        String first = cache.buildKey(chunk("c1", "+first\n"), config);
+        String second = cache.buildKey(chunk("c2", "+second\n"), config);
+
+        cache.put(first, "primary-model", Collections.emptyList());
+        cache.put(second, "primary-model", Collections.singletonList(finding()));
+        assertEquals(1, cache.size());
+
+        assertEquals(Collections.emptyList(), cache.get(first, metrics));
+        assertEquals(1L, collector.getCounter("ai.chunk.cache.storeHit"));
+        assertEquals(2, store.payloads.size());
+    }
+
+    @Test
+    public void evictsByWeight() throws Exception {
+        ChunkResultCache cache = new ChunkResultCache(store, 100, 400);
+        ReviewConfig config = config(SeverityLevel.MEDIUM);
+        for (int i = 0; i < 5; i++) {
+            cache.put(cache.buildKey(chunk("c" + i, "+line " + i + "\n"), config), "primary-model",
+                    Collections.singletonList(finding()));
+        }
+
+        assertTrue(cache.weight() <= 400);
+        assertTrue(cache.size() < 5);
+    }
+
+    private static ReviewConfig config(SeverityLevel minSeverity) throws Exception {
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .profile(ReviewProfile.builder().minSeverity(minSeverity).build())
+                .build();
+    }
+
+    private static ReviewChunk chunk(String id, String content) {
+        return ReviewChunk.builder()
+                .id(id)
+                .content("diff --git a/src/A.java b/src/A.java\n@@ -1,1 +1,1 @@\n" + content)
+                .addFile("src/A.java")
+                .build();
+    }
+
+    private static ReviewFinding finding() {
+        return ReviewFinding.builder()
+                .filePath("src/A.java")
+                .lineRange(LineRange.of(3, 4))
+                .severity(SeverityLevel.HIGH)
+                .category(IssueCategory.BUG)
+                .summary("Off by one")
+                .details("Loop bound skips the last element")
+                .fix("fix it")
+                .build();
+    }
+
+    private static final class InMemoryStore implements ChunkResultStore {
+        private final Map<String, String> payloads = new HashMap<>();
+
+        @Override
+        public String load(String key) {
+            return payloads.get(key);
+        }
+
+        @Override
+        public void save(String key, String model, String payload, int findingCount) {
+            payloads.put(key, payload);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFileMetadata;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ChunkRiskScorerTest {
+
+    private static final String AUTH = "src/main/java/org/example/auth/TokenValidator.java";
+    private static final String SERVICE = "src/main/java/org/example/orders/OrderService.java";
+    private static final String SERVICE_TEST = "src/test/java/org/example/orders/OrderServiceTest.java";
+    private static final String CONFIG = "src/main/resources/application.yml";
+
+    private final Map<String, ReviewFileMetadata> metadata = metadata(AUTH, SERVICE, SERVICE_TEST, CONFIG);
+
+    @Test
+    public void weighsSecurityAboveCodeAboveConfigurationAboveTests() {
+        double auth = ChunkRiskScorer.fileWeight(metadata.get(AUTH));
+        double service = ChunkRiskScorer.fileWeight(metadata.get(SERVICE));
+        double config = ChunkRiskScorer.fileWeight(metadata.get(CONFIG));
+        double test = ChunkRiskScorer.fileWeight(metadata.get(SERVICE_TEST));
+
+        assertThat(auth, greaterThan(service));
+        assertThat(service, greaterThan(config));
+        assertThat(config, greaterThan(test));
+    }
+
+    @Test
+    public void largerHunksScoreHigherWithinAFile() {
+        ReviewFileMetadata service = metadata.get(SERVICE);
+
+        assertThat(ChunkRiskScorer.scoreHunk(service, LineRange.of(1, 40)),
+                greaterThan(ChunkRiskScorer.scoreHunk(service, LineRange.of(1, 4))));
+    }
+
+    @Test
+    public void dispatchesRiskiestChunksFirstWithTiesInPlannedOrder() {
+        List<ReviewChunk> chunks = Arrays.asList(
+                chunk(0, SERVICE_TEST, 10),
+                chunk(1, SERVICE, 10),
+                chunk(2, AUTH, 10),
+                chunk(3, SERVICE, 10));
+
+        assertThat(ChunkRiskScorer.dispatchOrder(chunks, metadata), contains(2, 1, 3, 0));
+    }
+
+    @Test
+    public void truncationKeepsRiskiestChunksInPlannedOrder() {
+        List<ReviewChunk> chunks = Arrays.asList(
+                chunk(0, CONFIG, 10),
+                chunk(1, SERVICE_TEST, 10),
+                chunk(2, SERVICE, 10),
+                chunk(3, AUTH, 10));
+
+        List<ReviewChunk> retained = ChunkRiskScorer.retainHighestRisk(chunks, 2, metadata);
+
+        assertThat(retained.size(), is(2));
+        assertThat(retained.get(0), sameInstance(chunks.get(2)));
+        assertThat(retained.get(1), sameInstance(chunks.get(3)));
+        assertThat(ChunkRiskScorer.retainHighestRisk(chunks, 4, metadata), sameInstance(chunks));
+    }
+
+    private static ReviewChunk chunk(int index, String path, int lines) {
+        return ReviewChunk.builder()
+                .id("chunk-" + index)
+                .index(index)
+                .addFile(path)
+                .addPrimaryRange(path, LineRange.of(1, lines))
+                .build();
+    }
+
+    private static Map<String, ReviewFileMetadata> metadata(String... paths) {
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        for (String path : paths) {
+            stats.put(path, new ReviewOverview.FileStats(10, 0, false));
+        }
+        return FileMetadataExtractor.extract(stats);
+    }
+}
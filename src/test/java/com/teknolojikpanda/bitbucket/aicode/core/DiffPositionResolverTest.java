@@ -1,6 +1,7 @@
 package com.teknolojikpanda.bitbucket.aicode.core;
 
 import com.teknolojikpanda.bitbucket.aicode.core.DiffPositionResolver.DiffPositionIndex;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -35,4 +36,16 @@ public class DiffPositionResolverTest {
         DiffPositionIndex index = DiffPositionResolver.index(SAMPLE_DIFF);
         assertFalse(index.containsLine(0));
     }
+
+    @Test
+    public void indexesLinesFromDiffModel() {
+        DiffModel model = StreamingDiffAccumulator.parse(SAMPLE_DIFF);
+        DiffPositionIndex index = DiffPositionResolver.index(model.getFile("foo.txt"));
+
+        assertEquals(DiffPositionResolver.LineType.CONTEXT, index.getLineType(1));
+        assertEquals(DiffPositionResolver.LineType.ADDED, index.getLineType(2));
+        assertEquals(DiffPositionResolver.LineType.CONTEXT, index.getLineType(3));
+        assertEquals(DiffPositionResolver.LineType.ADDED, index.getLineType(4));
+        assertFalse(index.containsLine(5)); // trailing newline is not a context line
+    }
 }
@@ -16,6 +16,7 @@ public class FileMetadataExtractorTest {
         Map<String, ReviewOverview.FileStats> stats = new HashMap<>();
         stats.put("server/src/main/java/org/example/security/AuthService.java", new ReviewOverview.FileStats(10, 2, false));
         stats.put("web/test/LoginForm.test.tsx", new ReviewOverview.FileStats(5, 5, false));
+        stats.put("web/src/components/Button.tsx", new ReviewOverview.FileStats(3, 1, false));
 
         Map<String, ReviewFileMetadata> metadata = FileMetadataExtractor.extract(stats);
 
@@ -26,11 +27,18 @@ public class FileMetadataExtractorTest {
         assertEquals("Java", authMeta.getLanguage());
         assertEquals(12, authMeta.getTotalChanges());
         assertFalse(authMeta.isTestFile());
+        assertTrue(authMeta.isSecuritySensitive());
 
         ReviewFileMetadata testMeta = metadata.get("web/test/LoginForm.test.tsx");
         assertNotNull(testMeta);
         assertEquals("tsx", testMeta.getExtension());
         assertEquals("TypeScript React", testMeta.getLanguage());
         assertTrue(testMeta.isTestFile());
+        assertTrue(testMeta.isSecuritySensitive());
+
+        ReviewFileMetadata buttonMeta = metadata.get("web/src/components/Button.tsx");
+        assertNotNull(buttonMeta);
+        assertFalse(buttonMeta.isTestFile());
+        assertFalse(buttonMeta.isSecuritySensitive());
     }
 }
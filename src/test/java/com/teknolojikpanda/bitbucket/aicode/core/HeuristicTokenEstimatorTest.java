@@ -0,0 +1,55 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeuristicTokenEstimatorTest {
+
+    private final HeuristicTokenEstimator estimator = new HeuristicTokenEstimator();
+
+    @Test
+    public void shortWordsAndSingleSpacesCostOneTokenPerWord() {
+        assertEquals(0, estimator.estimateTokens(""));
+        assertEquals(3, estimator.estimateTokens("return new value"));
+        assertEquals(1, estimator.estimateTokens("    "));
+    }
+
+    @Test
+    public void longIdentifiersSplitAtCaseBoundariesAndLength() {
+        int camel = estimator.estimateTokens("maxCharsPerChunk");
+        int single = estimator.estimateTokens("supercalifragilistic");
+
+        assertEquals(4, camel);
+        assertEquals(5, single);
+    }
+
+    @Test
+    public void digitsGroupInThreesAndPunctuationPairsUp() {
+        assertEquals(3, estimator.estimateTokens("1234567"));
+        assertEquals(2, estimator.estimateTokens("();"));
+    }
+
+    @Test
+    public void minifiedCodeIsDenserThanFormattedCode() {
+        String formatted = "    public int total(List<Item> items) {\n"
+                + "        int sum = 0;\n"
+                + "        for (Item item : items) {\n"
+                + "            sum += item.price();\n"
+                + "        }\n"
+                + "        return sum;\n"
+                + "    }\n";
+        String minified = "function t(e){var n=0;for(var r=0;r<e.length;r++){n+=e[r].p()}return n}";
+
+        double formattedDensity = (double) estimator.estimateTokens(formatted) / formatted.length();
+        double minifiedDensity = (double) estimator.estimateTokens(minified) / minified.length();
+
+        assertTrue(minifiedDensity > formattedDensity);
+    }
+
+    @Test
+    public void nonAsciiTextCountsEveryCodePoint() {
+        assertEquals(4, estimator.estimateTokens("日本語😀"));
+    }
+}
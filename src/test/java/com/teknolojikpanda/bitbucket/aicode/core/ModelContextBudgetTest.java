@@ -0,0 +1,141 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class ModelContextBudgetTest {
+
+    private ModelHttpTransport transport;
+    private AtomicLong now;
+    private ModelContextBudget budget;
+
+    @Before
+    public void setUp() {
+        transport = mock(ModelHttpTransport.class);
+        now = new AtomicLong(1_000_000L);
+        budget = new ModelContextBudget(new HeuristicTokenEstimator(), transport, now::get);
+    }
+
+    @Test
+    public void numCtxParameterTakesPrecedenceOverTrainedLength() throws Exception {
+        String body = "{\"parameters\":\"temperature 0.2\\nnum_ctx 16384\\n\","
+                + "\"model_info\":{\"qwen3.context_length\":262144}}";
+
+        assertEquals(16_384, ModelContextBudget.parseContextWindow(body));
+    }
+
+    @Test
+    public void trainedLengthIsCappedWhenNoNumCtxIsSet() throws Exception {
+        assertEquals(ModelContextBudget.AUTO_CONTEXT_CAP,
+                ModelContextBudget.parseContextWindow("{\"model_info\":{\"llama.context_length\":131072}}"));
+        assertEquals(8_192,
+                ModelContextBudget.parseContextWindow("{\"model_info\":{\"llama.context_length\":8192}}"));
+        assertEquals(0, ModelContextBudget.parseContextWindow("{\"model_info\":{}}"));
+    }
+
+    @Test
+    public void configuredWindowSkipsTheEndpointLookup() throws Exception {
+        ReviewConfig config = config(12_000);
+
+        assertEquals(12_000, budget.contextWindow(config, "primary-model", config.getPrimaryModelEndpoints()));
+        verifyNoInteractions(transport);
+    }
+
+    @Test
+    public void windowIsLookedUpOnceAndFailuresAreRetriedLater() throws Exception {
+        when(transport.postJson(anyString(), any(URI.class), any(byte[].class), anyInt(), anyInt(), anyInt()))
+                .thenThrow(new IOException("connection refused"));
+        ReviewConfig config = config(0);
+
+        assertEquals(0, budget.contextWindow(config, "primary-model", config.getPrimaryModelEndpoints()));
+        assertEquals(0, budget.contextWindow(config, "primary-model", config.getPrimaryModelEndpoints()));
+        verify(transport, times(1)).postJson(anyString(), any(URI.class), any(byte[].class), anyInt(), anyInt(), anyInt());
+
+        now.addAndGet(ModelContextBudget.LOOKUP_RETRY_MS);
+        budget.contextWindow(config, "primary-model", config.getPrimaryModelEndpoints());
+        verify(transport, times(2)).postJson(anyString(), any(URI.class), any(byte[].class), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void calibrationConvergesOnReportedCountsAndIgnoresOutliers() {
+        assertEquals(1D, budget.calibration("model"), 0.0001D);
+
+        for (int i = 0; i < 40; i++) {
+            budget.recordPromptTokens("model", 1_000, 1_300);
+        }
+        assertEquals(1.3D, budget.calibration("model"), 0.01D);
+
+        budget.recordPromptTokens("model", 1_000, 40);
+        budget.recordPromptTokens("model", 100, 1_000);
+        assertEquals(1.3D, budget.calibration("model"), 0.01D);
+        assertEquals(1D, budget.calibration("other-model"), 0.0001D);
+    }
+
+    @Test
+    public void budgetSubtractsPromptOverheadAndResponseReserve() throws Exception {
+        ChunkBudget tokens = budget.budgetFor(context(config(32_768)));
+
+        int reserve = 32_768 / 8;
+        assertTrue(tokens.isTokenBased());
+        assertTrue(tokens.limit() < (32_768 - reserve) * 10 / 11);
+        assertTrue(tokens.limit() + tokens.tolerance() <= 32_768 - reserve);
+    }
+
+    @Test
+    public void smallOrUnknownWindowsFallBackToChars() throws Exception {
+        ChunkBudget small = budget.budgetFor(context(config(2_048)));
+        assertFalse(small.isTokenBased());
+        assertEquals(60_000, small.limit());
+
+        when(transport.postJson(anyString(), any(URI.class), any(byte[].class), anyInt(), anyInt(), anyInt()))
+                .thenThrow(new IOException("connection refused"));
+        assertFalse(budget.budgetFor(context(config(0))).isTokenBased());
+    }
+
+    private ReviewConfig config(int contextTokens) throws Exception {
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .modelContextTokens(contextTokens)
+                .build();
+    }
+
+    private ReviewContext context(ReviewConfig config) {
+        PullRequest pullRequest = mock(PullRequest.class);
+        when(pullRequest.getId()).thenReturn(7L);
+        Map<String, ReviewOverview.FileStats> stats =
+                Collections.singletonMap("src/main/java/App.java", new ReviewOverview.FileStats(10, 2, false));
+        return ReviewContext.builder()
+                .pullRequest(pullRequest)
+                .config(config)
+                .rawDiff("")
+                .fileStats(stats)
+                .collectedAt(Instant.now())
+                .build();
+    }
+}
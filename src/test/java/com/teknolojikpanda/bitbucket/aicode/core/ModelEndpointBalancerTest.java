@@ -0,0 +1,163 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aireviewer.util.CircuitBreaker.CircuitBreakerOpenException;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ModelEndpointBalancerTest {
+
+    private static final String MODEL = "qwen3-coder:30b";
+    private static final List<String> POOL = Arrays.asList("http://ollama-1:11434", "http://ollama-2:11434",
+            "http://ollama-3:11434");
+
+    private final Map<String, Double> weights = new HashMap<>();
+    private final ModelEndpointBalancer balancer =
+            new ModelEndpointBalancer((endpoint, model) -> weights.getOrDefault(endpoint, 1d));
+
+    @Test
+    public void spreadsOutstandingCallsAcrossThePool() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            counts.merge(balancer.acquire(POOL, MODEL, endpoint -> false).getEndpoint(), 1, Integer::sum);
+        }
+
+        for (String endpoint : POOL) {
+            assertTrue("counts were " + counts, counts.getOrDefault(endpoint, 0) >= 5);
+        }
+    }
+
+    @Test
+    public void drainsEndpointsMarkedDown() {
+        weights.put("http://ollama-2:11434", 0d);
+
+        for (int i = 0; i < 20; i++) {
+            assertNotEquals("http://ollama-2:11434", balancer.acquire(POOL, MODEL, endpoint -> false).getEndpoint());
+        }
+    }
+
+    @Test
+    public void routesToReachableEndpointWhenEveryEndpointIsDrained() {
+        POOL.forEach(endpoint -> weights.put(endpoint, 0d));
+
+        assertEquals("http://ollama-1:11434", balancer.acquire(POOL, MODEL, endpoint -> false).getEndpoint());
+    }
+
+    @Test
+    public void skipsExcludedEndpoints() {
+        for (int i = 0; i < 10; i++) {
+            ModelEndpointBalancer.Lease lease =
+                    balancer.acquire(POOL, MODEL, endpoint -> !endpoint.equals("http://ollama-3:11434"));
+            assertEquals("http://ollama-3:11434", lease.getEndpoint());
+            lease.release();
+        }
+    }
+
+    @Test
+    public void failingEndpointOpensOnlyItsOwnCircuit() {
+        List<String> pair = POOL.subList(0, 2);
+        int failures = 0;
+        while (failures < ModelEndpointBalancer.FAILURE_THRESHOLD) {
+            ModelEndpointBalancer.Lease lease = balancer.acquire(pair, MODEL, endpoint -> false);
+            if (lease.getEndpoint().equals("http://ollama-1:11434")) {
+                lease.onFailure();
+                failures++;
+            } else {
+                lease.onSuccess();
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("http://ollama-2:11434", balancer.acquire(pair, MODEL, endpoint -> false).getEndpoint());
+        }
+        assertEquals("HALF_OPEN", balancer.circuitSummary().get("state"));
+        assertEquals((long) ModelEndpointBalancer.FAILURE_THRESHOLD, balancer.circuitSummary().get("failedCalls"));
+    }
+
+    @Test
+    public void throwsWhenEveryCircuitIsOpen() {
+        List<String> single = POOL.subList(0, 1);
+        for (int i = 0; i < ModelEndpointBalancer.FAILURE_THRESHOLD; i++) {
+            balancer.acquire(single, MODEL, endpoint -> false).onFailure();
+        }
+
+        assertThrows(CircuitBreakerOpenException.class, () -> balancer.acquire(single, MODEL, endpoint -> false));
+        assertEquals("OPEN", balancer.circuitSummary().get("state"));
+    }
+
+    @Test
+    public void leaseCompletesOnce() {
+        ModelEndpointBalancer.Lease lease = balancer.acquire(POOL.subList(0, 1), MODEL, endpoint -> false);
+        lease.onFailure();
+        lease.onFailure();
+        lease.release();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> entry = ((List<Map<String, Object>>) balancer.snapshot().get("endpoints")).get(0);
+        assertEquals(0, entry.get("outstanding"));
+        assertEquals(1, entry.get("failedCalls"));
+    }
+
+    @Test
+    public void appliesConfiguredThresholdPerEndpoint() {
+        ReviewConfig config = config(2, Collections.singletonMap("http://ollama-1:11434/", 40));
+        List<String> single = POOL.subList(0, 1);
+        for (int i = 0; i < 2; i++) {
+            balancer.acquire(single, MODEL, endpoint -> false, config).onFailure();
+        }
+
+        assertThrows(CircuitBreakerOpenException.class,
+                () -> balancer.acquire(single, MODEL, endpoint -> false, config));
+        Map<String, Object> entry = entry(0);
+        assertEquals(2, entry.get("failureThreshold"));
+        assertEquals(40, entry.get("rateLimitPerSecond"));
+    }
+
+    @Test
+    public void rateLimitsEachEndpointSeparately() throws Exception {
+        ReviewConfig config = config(5, Collections.emptyMap());
+        for (String endpoint : POOL.subList(0, 2)) {
+            for (int i = 0; i < 2; i++) {
+                ModelEndpointBalancer.Lease lease =
+                        balancer.acquire(Collections.singletonList(endpoint), MODEL, e -> false, config);
+                assertEquals("each endpoint has its own budget", 0L, lease.awaitRateLimit());
+                lease.onSuccess();
+            }
+        }
+
+        ModelEndpointBalancer.Lease lease = balancer.acquire(POOL.subList(0, 1), MODEL, endpoint -> false, config);
+        lease.awaitRateLimit();
+        lease.release();
+
+        assertEquals(1L, entry(0).get("throttledCalls"));
+    }
+
+    private ReviewConfig config(int failureThreshold, Map<String, Integer> endpointRates) {
+        return ReviewConfig.builder()
+                .primaryModelEndpoint(URI.create(POOL.get(0)))
+                .primaryModel(MODEL)
+                .fallbackModelEndpoint(URI.create(POOL.get(0)))
+                .fallbackModel("qwen3-coder:7b")
+                .modelRateLimitPerSecond(2)
+                .modelEndpointRateLimits(endpointRates)
+                .modelCircuitFailureThreshold(failureThreshold)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> entry(int index) {
+        List<Map<String, Object>> endpoints = (List<Map<String, Object>>) balancer.snapshot().get("endpoints");
+        return endpoints.stream()
+                .filter(entry -> POOL.get(index).equals(entry.get("endpoint")))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
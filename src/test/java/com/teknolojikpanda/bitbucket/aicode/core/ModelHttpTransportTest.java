@@ -0,0 +1,210 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ModelHttpTransportTest {
+
+    private HttpServer server;
+    private ModelHttpTransport transport;
+    private URI chatUri;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/chat", exchange -> {
+            byte[] request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = readAll(in);
+            }
+            int status = new String(request, StandardCharsets.UTF_8).contains("fail") ? 500 : 200;
+            byte[] body = ("{\"echo\":" + request.length + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/api/stream", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 1_000; i++) {
+                    out.write(("{\"n\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (java.io.IOException ignored) {
+                // client hung up early
+            }
+        });
+        server.createContext("/api/slow", exchange -> {
+            try {
+                Thread.sleep(10_000);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException | java.io.IOException ignored) {
+                // server stopped or client aborted
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "model-http-test");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        chatUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/chat");
+        transport = new ModelHttpTransport();
+    }
+
+    @After
+    public void tearDown() {
+        transport.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    public void reusesPersistentConnectionsAcrossCalls() throws Exception {
+        byte[] payload = "{\"model\":\"m\"}".getBytes(StandardCharsets.UTF_8);
+        ModelHttpTransport.Response first = transport.postJson("primary", chatUri, payload, 2, 1_000, 5_000);
+        ModelHttpTransport.Response second = transport.postJson("primary", chatUri, payload, 2, 1_000, 5_000);
+
+        assertEquals(200, first.getStatusCode());
+        assertEquals("{\"echo\":" + payload.length + "}", first.getBody());
+        assertFalse(first.isConnectionReused());
+        assertTrue(second.isConnectionReused());
+
+        List<Map<String, Object>> snapshot = transport.snapshot();
+        assertEquals(1, snapshot.size());
+        Map<String, Object> pool = snapshot.get(0);
+        assertEquals("primary", pool.get("role"));
+        assertEquals(2, pool.get("maxConnections"));
+        assertEquals(2L, pool.get("leases"));
+        assertEquals(1L, pool.get("reusedRequests"));
+        assertEquals(0, pool.get("leased"));
+        assertEquals(1, pool.get("available"));
+    }
+
+    @Test
+    public void keepsSeparatePoolsPerRoleAndReturnsErrorBodies() throws Exception {
+        byte[] failing = "fail".getBytes(StandardCharsets.UTF_8);
+        ModelHttpTransport.Response response = transport.postJson("fallback", chatUri, failing, 1, 1_000, 5_000);
+        transport.postJson("primary", chatUri, "ok".getBytes(StandardCharsets.UTF_8), 3, 1_000, 5_000);
+
+        assertEquals(500, response.getStatusCode());
+        assertEquals("{\"echo\":4}", response.getBody());
+        assertEquals(2, transport.snapshot().size());
+    }
+
+    @Test
+    public void stopsStreamingEarlyAndDropsTheConnection() throws Exception {
+        URI streamUri = chatUri.resolve("/api/stream");
+        byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+        ModelHttpTransport.Response response = transport.postJsonStreaming("primary", streamUri, payload, 2,
+                1_000, 5_000, 0L, body -> {
+                    java.io.BufferedReader reader = new java.io.BufferedReader(
+                            new java.io.InputStreamReader(body, StandardCharsets.UTF_8));
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if ("{\"n\":2}".equals(line)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(response.isStoppedEarly());
+        Map<String, Object> pool = transport.snapshot().get(0);
+        assertEquals(1L, pool.get("stoppedEarly"));
+        assertEquals(0, pool.get("leased"));
+        assertEquals(0, pool.get("available"));
+    }
+
+    @Test(expected = ModelHttpTransport.ResponseTooLargeException.class)
+    public void rejectsStreamsOverTheSizeCap() throws Exception {
+        URI streamUri = chatUri.resolve("/api/stream");
+        transport.postJsonStreaming("primary", streamUri, "{}".getBytes(StandardCharsets.UTF_8), 1,
+                1_000, 5_000, 64L, body -> {
+                    byte[] buffer = new byte[16];
+                    while (body.read(buffer) != -1) {
+                        // drain
+                    }
+                    return true;
+                });
+    }
+
+    @Test
+    public void callHandleAbortsRequestInFlightOnAnotherThread() throws Exception {
+        URI slowUri = chatUri.resolve("/api/slow");
+        ModelHttpTransport.CallHandle handle = new ModelHttpTransport.CallHandle();
+        java.util.concurrent.CompletableFuture<Object> outcome = new java.util.concurrent.CompletableFuture<>();
+        Thread caller = new Thread(() -> {
+            try {
+                outcome.complete(ModelHttpTransport.withCallHandle(handle, () -> transport.postJson("fallback",
+                        slowUri, "{}".getBytes(StandardCharsets.UTF_8), 1, 1_000, 30_000)));
+            } catch (Exception ex) {
+                outcome.complete(ex);
+            }
+        });
+        caller.start();
+        Thread.sleep(200);
+        long started = System.nanoTime();
+
+        handle.abort();
+
+        Object result = outcome.get(5, java.util.concurrent.TimeUnit.SECONDS);
+        assertTrue("expected an IOException but got " + result, result instanceof java.io.IOException);
+        assertTrue(handle.isAborted());
+        assertTrue(System.nanoTime() - started < java.util.concurrent.TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void leaseTimeoutIsReportedSeparatelyFromReadTimeouts() throws Exception {
+        URI slowUri = chatUri.resolve("/api/slow");
+        ModelHttpTransport.CallHandle handle = new ModelHttpTransport.CallHandle();
+        Thread holder = new Thread(() -> {
+            try {
+                ModelHttpTransport.withCallHandle(handle, () -> transport.postJson("primary", slowUri,
+                        "{}".getBytes(StandardCharsets.UTF_8), 1, 1_000, 30_000));
+            } catch (Exception ignored) {
+                // aborted below
+            }
+        });
+        holder.start();
+        Thread.sleep(200);
+
+        try {
+            // The only connection stays leased by the slow call; the lease wait is capped by the short read timeout.
+            transport.postJson("primary", chatUri, "{}".getBytes(StandardCharsets.UTF_8), 1, 1_000, 300);
+            fail("expected a lease timeout");
+        } catch (ModelHttpTransport.LeaseTimeoutException expected) {
+            // a lease timeout, not a socket timeout: the endpoint was never reached
+        } finally {
+            handle.abort();
+            holder.join(5_000);
+        }
+        assertEquals(1L, transport.snapshot().get(0).get("leaseTimeouts"));
+    }
+
+    private static byte[] readAll(InputStream in) throws java.io.IOException {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
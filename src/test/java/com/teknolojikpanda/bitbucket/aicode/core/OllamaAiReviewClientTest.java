@@ -0,0 +1,167 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.sun.net.httpserver.HttpServer;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkReviewResult;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class OllamaAiReviewClientTest {
+
+    private static final String CHAT_RESPONSE = "{\"message\":{\"role\":\"assistant\",\"content\":\"{\\\"issues\\\":[]}\"},"
+            + "\"done\":true}";
+
+    private final CountDownLatch releaseSlowCalls = new CountDownLatch(1);
+    private HttpServer server;
+    private URI primaryUri;
+    private URI fallbackUri;
+    private ModelHttpTransport transport;
+    private ModelEndpointBalancer balancer;
+    private OllamaAiReviewClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow/api/chat", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+                releaseSlowCalls.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                // server stopped
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/fast/api/chat", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            byte[] body = CHAT_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            } catch (IOException ignored) {
+                // client hung up
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ollama-client-test");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        primaryUri = URI.create(base + "/slow");
+        fallbackUri = URI.create(base + "/fast");
+        transport = new ModelHttpTransport();
+        balancer = new ModelEndpointBalancer((endpoint, model) -> 1d);
+        client = new OllamaAiReviewClient(new OverviewCache(), transport, new AdaptiveConcurrencyLimiter(), balancer,
+                new ModelContextBudget(new HeuristicTokenEstimator(), transport));
+    }
+
+    @After
+    public void tearDown() {
+        releaseSlowCalls.countDown();
+        client.destroy();
+        transport.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    public void hedgeWonByFallbackDoesNotCountAgainstThePrimaryCircuit() {
+        ReviewConfig config = ReviewConfig.builder()
+                .primaryModelEndpoint(primaryUri)
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(fallbackUri)
+                .fallbackModel("fallback-model")
+                .modelContextTokens(32_768)
+                .hedgeDelayMs(50L)
+                .hedgeBudgetPercent(100)
+                .modelCircuitFailureThreshold(1)
+                .build();
+        ReviewContext context = ReviewContext.builder()
+                .pullRequest(mock(PullRequest.class))
+                .config(config)
+                .rawDiff("")
+                .collectedAt(Instant.now())
+                .build();
+        MetricsRecorder metrics = new NoOpMetricsRecorder();
+
+        for (int i = 0; i < 3; i++) {
+            ReviewChunk chunk = ReviewChunk.builder()
+                    .id("chunk-" + i)
+                    .index(i)
+                    .content("diff --git a/App.java b/App.java\n@@ -1 +1 @@\n+int x = " + i + ";\n")
+                    .addFile("App.java")
+                    .build();
+            ChunkReviewResult result = client.reviewChunk(chunk, "", context, metrics);
+            assertTrue(result.getError(), result.isSuccess());
+        }
+
+        Map<String, Object> primary = endpointState(primaryUri + "|primary-model");
+        assertEquals("CLOSED", primary.get("state"));
+        assertEquals(0L, ((Number) balancer.circuitSummary().get("failedCalls")).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> endpointState(String key) {
+        for (Map<String, Object> state : (List<Map<String, Object>>) balancer.snapshot().get("endpoints")) {
+            if (key.equals(state.get("endpoint") + "|" + state.get("model"))) {
+                return state;
+            }
+        }
+        throw new AssertionError("no routing state for " + key);
+    }
+
+    private static final class NoOpMetricsRecorder implements MetricsRecorder {
+        @Override
+        public Instant recordStart(String key) {
+            return Instant.now();
+        }
+
+        @Override
+        public void recordEnd(String key, Instant start) {
+        }
+
+        @Override
+        public void increment(String key) {
+        }
+
+        @Override
+        public void recordMetric(String key, Object value) {
+        }
+
+        @Override
+        public void addListEntry(String key, Map<String, Object> value) {
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.core.PathFilter.Verdict;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PathFilterTest {
+
+    private static final List<String> EXTENSIONS = Arrays.asList("java", "ts", "JS");
+
+    @Test
+    public void ignorePathsMatchAnywhereIgnoringCase() {
+        PathFilter filter = PathFilter.compile(EXTENSIONS, Collections.emptyList(),
+                Arrays.asList("node_modules/", "Vendor/", "third_party/libfoo"), false, true);
+
+        assertThat(filter.classify("web/node_modules/react/index.js"), is(Verdict.IGNORED_PATH));
+        assertThat(filter.classify("VENDOR/github.com/x/Client.java"), is(Verdict.IGNORED_PATH));
+        assertThat(filter.classify("third_party/libfoobar/Util.java"), is(Verdict.IGNORED_PATH));
+        assertThat(filter.classify("third_party/libbar/Util.java"), is(Verdict.REVIEW));
+        assertThat(filter.classify("src/vendors/Client.java"), is(Verdict.REVIEW));
+    }
+
+    @Test
+    public void globsMatchTheWholePath() {
+        PathFilter filter = PathFilter.compile(EXTENSIONS,
+                Arrays.asList("*.min.js", "**/dist/**", "src/gen?/*", "docs/*.JAVA"), Collections.emptyList(),
+                false, true);
+
+        assertThat(filter.classify("static/app.min.js"), is(Verdict.IGNORED_PATTERN));
+        assertThat(filter.classify("web/dist/bundle.js"), is(Verdict.IGNORED_PATTERN));
+        assertThat(filter.classify("src/gen1/Model.java"), is(Verdict.IGNORED_PATTERN));
+        assertThat(filter.classify("docs/Example.java"), is(Verdict.IGNORED_PATTERN));
+        assertThat(filter.classify("static/app.minXjs"), is(Verdict.EXTENSION_NOT_ALLOWED));
+        assertThat(filter.classify("src/generated/Model.java"), is(Verdict.REVIEW));
+        assertThat(filter.classify("static/app.js"), is(Verdict.REVIEW));
+    }
+
+    @Test
+    public void checksExtensionsThenGeneratedThenTests() {
+        PathFilter filter = PathFilter.compile(EXTENSIONS, Collections.emptyList(), Collections.emptyList(),
+                true, false);
+
+        assertThat(filter.classify("Makefile"), is(Verdict.NO_EXTENSION));
+        assertThat(filter.classify("src/App.py"), is(Verdict.EXTENSION_NOT_ALLOWED));
+        assertThat(filter.classify("src/App.JAVA"), is(Verdict.REVIEW));
+        assertThat(filter.classify("build/classes/App.java"), is(Verdict.GENERATED));
+        assertThat(filter.classify("src/GeneratedModel.ts"), is(Verdict.GENERATED));
+        assertThat(filter.classify("src/test/java/AppTest.java"), is(Verdict.TEST));
+        assertThat(filter.classify("web/app.spec.ts"), is(Verdict.TEST));
+        assertThat(filter.accepts("src/main/java/App.java"), is(true));
+    }
+
+    @Test
+    public void emptyExtensionListAllowsAnyExtension() {
+        PathFilter filter = PathFilter.compile(Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), false, true);
+
+        assertThat(filter.classify("README.md"), is(Verdict.REVIEW));
+        assertThat(filter.classify("Makefile"), is(Verdict.NO_EXTENSION));
+    }
+
+    @Test
+    public void reusesTheCompiledFilterForEquivalentSettings() {
+        PathFilter first = PathFilter.compile(Arrays.asList("java", "ts"), Arrays.asList("*.lock"),
+                Arrays.asList("vendor/"), true, true);
+        PathFilter second = PathFilter.compile(Arrays.asList(" TS", "java"), Arrays.asList("*.lock", " "),
+                Arrays.asList("VENDOR/"), true, true);
+
+        assertThat(second, sameInstance(first));
+    }
+}
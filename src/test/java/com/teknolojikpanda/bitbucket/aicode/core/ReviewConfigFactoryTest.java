@@ -4,6 +4,9 @@ import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,4 +50,34 @@ public class ReviewConfigFactoryTest {
         assertEquals(2500, reviewConfig.getChunkRetryDelayMs());
         assertEquals(2500, reviewConfig.getOverviewRetryDelayMs());
     }
+
+    @Test
+    public void buildsEndpointPoolsDefaultingToOllamaUrl() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("ollamaUrl", "http://ollama:11434");
+        config.put("primaryModelEndpoints", "http://ollama-1:11434, http://ollama-2:11434,");
+
+        ReviewConfig reviewConfig = factory.from(config);
+
+        assertEquals(Arrays.asList(URI.create("http://ollama-1:11434"), URI.create("http://ollama-2:11434")),
+                reviewConfig.getPrimaryModelEndpoints());
+        assertEquals(URI.create("http://ollama-1:11434"), reviewConfig.getPrimaryModelEndpoint());
+        assertEquals(Collections.singletonList(URI.create("http://ollama:11434")),
+                reviewConfig.getFallbackModelEndpoints());
+    }
+
+    @Test
+    public void parsesPerEndpointRateLimitOverrides() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("modelRateLimitPerSecond", 12);
+        config.put("modelEndpointRateLimits", "http://ollama-1:11434/=30,\nhttp://ollama-2:11434=bad");
+        config.put("modelCircuitFailureThreshold", "3");
+
+        ReviewConfig reviewConfig = factory.from(config);
+
+        assertEquals(30, reviewConfig.modelRateLimitPerSecond("http://ollama-1:11434"));
+        assertEquals(12, reviewConfig.modelRateLimitPerSecond("http://ollama-2:11434"));
+        assertEquals(3, reviewConfig.getModelCircuitFailureThreshold());
+        assertEquals(60, reviewConfig.getModelCircuitOpenSeconds());
+    }
 }
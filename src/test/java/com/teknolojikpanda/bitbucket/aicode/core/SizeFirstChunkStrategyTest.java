@@ -16,6 +16,7 @@ import org.junit.Test;
 import java.net.URI;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -92,6 +93,55 @@ public class SizeFirstChunkStrategyTest {
         assertThat(ranges.get(0).getEnd(), equalTo(1));
     }
 
+    @Test
+    public void truncationKeepsTheRiskiestChunks() throws Exception {
+        String plain = "src/main/java/orders/OrderMapper.java";
+        String security = "src/main/java/security/TokenValidator.java";
+        String diff = fileDiff(plain) + fileDiff(security);
+        Map<String, ReviewOverview.FileStats> stats = new LinkedHashMap<>();
+        stats.put(plain, new ReviewOverview.FileStats(3, 0, false));
+        stats.put(security, new ReviewOverview.FileStats(3, 0, false));
+        ReviewConfig singleChunk = ReviewConfig.builder()
+                .primaryModelEndpoint(new URI("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(new URI("http://fallback"))
+                .fallbackModel("fallback-model")
+                .maxFilesPerChunk(1)
+                .maxChunks(1)
+                .reviewableExtensions(Set.of("java"))
+                .ignorePatterns(Collections.emptyList())
+                .ignorePaths(Collections.emptyList())
+                .profile(config.getProfile())
+                .build();
+
+        ReviewContext context = ReviewContext.builder()
+                .pullRequest(pullRequest)
+                .config(singleChunk)
+                .rawDiff(diff)
+                .fileStats(stats)
+                .fileMetadata(FileMetadataExtractor.extract(stats))
+                .collectedAt(Instant.now())
+                .build();
+
+        ChunkStrategy.Result result = strategy.plan(context, diff, stats.keySet(), metrics);
+
+        assertThat(result.isTruncated(), is(true));
+        assertThat(result.getChunks().size(), is(1));
+        assertThat(result.getChunks().get(0).getFiles(), equalTo(List.of(security)));
+    }
+
+    private static String fileDiff(String path) {
+        return String.join("\n",
+                "diff --git a/" + path + " b/" + path,
+                "--- a/" + path,
+                "+++ b/" + path,
+                "@@ -1,0 +1,3 @@",
+                "+int first;",
+                "+int second;",
+                "+int third;",
+                "");
+    }
+
     private static final class NoOpMetricsRecorder implements MetricsRecorder {
         @Override
         public Instant recordStart(String key) {
@@ -0,0 +1,165 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.teknolojikpanda.bitbucket.aicode.model.DiffFile;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffHunk;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffLineSpan;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.LineRange;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class StreamingDiffAccumulatorTest {
+
+    private static final String SAMPLE_DIFF = "diff --git a/src/Foo.java b/src/Foo.java\n" +
+            "index 123..456 100644\n" +
+            "--- a/src/Foo.java\n" +
+            "+++ b/src/Foo.java\n" +
+            "@@ -1,2 +1,2 @@\n" +
+            "-String greeting = \"hello\";\n" +
+            "+String greeting = \"günaydın\";\n" +
+            " return greeting;\n" +
+            "diff --git a/old.txt b/dev/null\n" +
+            "deleted file mode 100644\n" +
+            "--- a/old.txt\n" +
+            "+++ /dev/null\n" +
+            "@@ -1 +0,0 @@\n" +
+            "-obsolete";
+
+    @Test
+    public void tracksFilesAndStatsAcrossSplitSlices() {
+        byte[] payload = SAMPLE_DIFF.getBytes(StandardCharsets.UTF_8);
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(0);
+        for (int offset = 0; offset < payload.length; offset += 3) {
+            accumulator.write(payload, offset, Math.min(3, payload.length - offset));
+        }
+        accumulator.finish();
+
+        assertEquals(SAMPLE_DIFF, accumulator.getRawDiff());
+        assertEquals(payload.length, accumulator.getTotalBytes());
+        assertEquals(14, accumulator.getTotalLines());
+
+        Map<String, ReviewOverview.FileStats> stats = accumulator.getFileStats();
+        assertEquals(Arrays.asList("src/Foo.java", "old.txt"), Arrays.asList(stats.keySet().toArray()));
+        assertEquals(1, stats.get("src/Foo.java").getAdditions());
+        assertEquals(1, stats.get("src/Foo.java").getDeletions());
+        assertEquals(0, stats.get("old.txt").getAdditions());
+        assertEquals(1, stats.get("old.txt").getDeletions());
+
+        Map<String, String> diffs = accumulator.getFileDiffs();
+        assertTrue(diffs.get("src/Foo.java").startsWith("diff --git a/src/Foo.java"));
+        assertTrue(diffs.get("src/Foo.java").contains("günaydın"));
+        assertTrue(diffs.get("old.txt").endsWith("-obsolete"));
+    }
+
+    @Test
+    public void buildsHunksAndLineSpansWhileStreaming() {
+        String diff = "diff --git a/src/Bar.java b/src/Bar.java\n" +
+                "--- a/src/Bar.java\n" +
+                "+++ b/src/Bar.java\n" +
+                "@@ -10,4 +10,5 @@ class Bar {\n" +
+                " int a;\n" +
+                "--- removed comment\n" +
+                "+++ added comment\n" +
+                "+int b;\n" +
+                " int c;\n" +
+                " int d;\n" +
+                "@@ -40 +41,0 @@\n" +
+                "-int z;\n" +
+                "\\ No newline at end of file\n";
+        DiffModel model = StreamingDiffAccumulator.parse(diff);
+
+        DiffFile file = model.getFile("src/Bar.java");
+        assertNotNull(file);
+        assertEquals("diff --git a/src/Bar.java b/src/Bar.java\n--- a/src/Bar.java\n+++ b/src/Bar.java\n",
+                file.getHeader());
+        assertEquals(2, file.getAdditions());
+        assertEquals(2, file.getDeletions());
+        assertEquals(2, file.getHunks().size());
+
+        DiffHunk first = file.getHunks().get(0);
+        assertEquals(10, first.getOldStart());
+        assertEquals(5, first.getNewCount());
+        assertEquals(LineRange.of(10, 14), first.getNewRange());
+        assertTrue(first.getContent().startsWith("@@ -10,4 +10,5 @@ class Bar {\n int a;"));
+        assertTrue(first.getContent().endsWith(" int d;\n"));
+        assertEquals(Arrays.asList(
+                DiffLineSpan.of(DiffLineSpan.Type.CONTEXT, 10, 10, 1),
+                DiffLineSpan.of(DiffLineSpan.Type.REMOVED, 11, 11, 1),
+                DiffLineSpan.of(DiffLineSpan.Type.ADDED, 12, 11, 2),
+                DiffLineSpan.of(DiffLineSpan.Type.CONTEXT, 12, 13, 2)), first.getLineSpans());
+
+        DiffHunk second = file.getHunks().get(1);
+        assertEquals(1, second.getOldCount());
+        assertEquals(0, second.getNewCount());
+        assertTrue(second.getContent().endsWith("\\ No newline at end of file\n"));
+
+        assertEquals(DiffLineSpan.Type.ADDED, file.newLineType(12));
+        assertEquals(DiffLineSpan.Type.CONTEXT, file.newLineType(14));
+        assertNull(file.newLineType(15));
+        assertEquals(diff, file.getContent());
+    }
+
+    @Test
+    public void spillsLargeDiffsToDiskAndServesViewsFromTheMapping() throws IOException {
+        Path directory = Files.createTempDirectory("diff-spill-test");
+        try {
+            byte[] payload = SAMPLE_DIFF.getBytes(StandardCharsets.UTF_8);
+            StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(0, 32, directory);
+            for (int offset = 0; offset < payload.length; offset += 5) {
+                accumulator.write(payload, offset, Math.min(5, payload.length - offset));
+            }
+            accumulator.finish();
+
+            assertTrue(accumulator.isSpilled());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals("spill file is unlinked once mapped", 0, files.count());
+            }
+
+            DiffModel model = accumulator.getDiffModel();
+            assertTrue(model.getSource().isSpilled());
+            assertEquals(SAMPLE_DIFF, accumulator.getRawDiff());
+            assertEquals(payload.length, model.getTotalBytes());
+
+            DiffFile foo = model.getFile("src/Foo.java");
+            assertNotNull(foo);
+            assertEquals(1, foo.getAdditions());
+            DiffHunk hunk = foo.getHunks().get(0);
+            assertEquals("@@ -1,2 +1,2 @@\n-String greeting = \"hello\";\n+String greeting = \"günaydın\";\n return greeting;\n",
+                    hunk.getContent());
+            assertEquals(hunk.getContent().length(), hunk.getCharLength());
+            assertTrue(model.getFile("old.txt").getContent().endsWith("-obsolete"));
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void flagsBinaryFiles() {
+        String diff = "diff --git a/logo.png b/logo.png\n" +
+                "Binary files a/logo.png and b/logo.png differ\n";
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(0);
+        byte[] payload = diff.getBytes(StandardCharsets.UTF_8);
+        accumulator.write(payload, 0, payload.length);
+        accumulator.finish();
+
+        assertTrue(accumulator.getFileStats().get("logo.png").isBinary());
+    }
+
+    @Test
+    public void rejectsDiffsAboveLimit() {
+        byte[] payload = SAMPLE_DIFF.getBytes(StandardCharsets.UTF_8);
+        StreamingDiffAccumulator accumulator = new StreamingDiffAccumulator(16);
+        assertThrows(StreamingDiffAccumulator.DiffTooLargeException.class,
+                () -> accumulator.write(payload, 0, payload.length));
+    }
+}
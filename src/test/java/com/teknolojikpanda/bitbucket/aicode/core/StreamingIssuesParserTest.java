@@ -0,0 +1,62 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StreamingIssuesParserTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    @Test
+    public void completesWhenIssuesArrayClosesAcrossTokens() throws Exception {
+        StreamingIssuesParser parser = new StreamingIssuesParser(MAPPER);
+        String[] tokens = {"```json\n{\"iss", "ues\": [{\"path\":\"a.ja", "va\",\"line\":3,",
+                "\"summary\":\"ünïcode\"}", ", {\"path\":\"b\",\"nested\":[1,[2]]}", "]", ", \"extra\": tru"};
+
+        boolean complete = false;
+        int fed = 0;
+        while (!complete) {
+            complete = parser.feed(tokens[fed++]);
+        }
+
+        assertEquals(6, fed);
+        assertFalse(parser.isFailed());
+        Map<String, Object> result = parser.result(MAP_TYPE);
+        List<?> issues = (List<?>) result.get("issues");
+        assertEquals(2, issues.size());
+        assertEquals("ünïcode", ((Map<?, ?>) issues.get(0)).get("summary"));
+        assertFalse(result.containsKey("extra"));
+        assertTrue(parser.feed("ignored"));
+    }
+
+    @Test
+    public void ignoresNestedIssuesFieldsAndCompletesOnRootClose() throws Exception {
+        StreamingIssuesParser parser = new StreamingIssuesParser(MAPPER);
+
+        assertFalse(parser.feed("{\"meta\":{\"issues\":[]},"));
+        assertFalse(parser.isComplete());
+        assertTrue(parser.feed("\"note\":\"none\"}"));
+
+        Map<String, Object> result = parser.result(MAP_TYPE);
+        assertEquals("none", result.get("note"));
+    }
+
+    @Test
+    public void marksMalformedInputFailedAndKeepsRawText() {
+        StreamingIssuesParser parser = new StreamingIssuesParser(MAPPER);
+
+        assertFalse(parser.feed("{\"issues\": [oops"));
+        assertFalse(parser.feed("]}"));
+
+        assertTrue(parser.isFailed());
+        assertFalse(parser.isComplete());
+        assertEquals("{\"issues\": [oops]}", parser.getRawText());
+    }
+}
@@ -0,0 +1,139 @@
+package com.teknolojikpanda.bitbucket.aicode.core;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.teknolojikpanda.bitbucket.aicode.api.AiReviewClient;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkResultStore;
+import com.teknolojikpanda.bitbucket.aicode.api.MetricsRecorder;
+import com.teknolojikpanda.bitbucket.aicode.model.ChunkReviewResult;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewChunk;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewContext;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewOverview;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewPreparation;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewSummary;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class TwoPassReviewOrchestratorTest {
+
+    private final ChunkExecutionEngine engine = new ChunkExecutionEngine(2);
+
+    @After
+    public void tearDown() {
+        engine.destroy();
+    }
+
+    @Test
+    public void failedChunksAreNotReportedAsReviewed() {
+        AiReviewClient client = new AiReviewClient() {
+            @Override
+            public String generateOverview(ReviewPreparation preparation, MetricsRecorder metrics) {
+                return "";
+            }
+
+            @Override
+            public ChunkReviewResult reviewChunk(ReviewChunk chunk, String overview, ReviewContext context,
+                                                 MetricsRecorder metrics) {
+                if ("chunk-1".equals(chunk.getId())) {
+                    return ChunkReviewResult.builder().chunk(chunk).success(false).error("model timed out").build();
+                }
+                return ChunkReviewResult.builder()
+                        .chunk(chunk)
+                        .success(true)
+                        .findings(Collections.singletonList(ReviewFinding.builder()
+                                .filePath(chunk.getFiles().get(0))
+                                .severity(SeverityLevel.HIGH)
+                                .summary("finding in " + chunk.getId())
+                                .build()))
+                        .build();
+            }
+        };
+        TwoPassReviewOrchestrator orchestrator = new TwoPassReviewOrchestrator(
+                client, new ChunkResultCache(mock(ChunkResultStore.class)), engine);
+        CountingMetricsRecorder metrics = new CountingMetricsRecorder();
+
+        ReviewSummary summary = orchestrator.runReview(preparation(3), metrics, null);
+
+        assertEquals(2, summary.totalCount());
+        assertEquals(2, summary.getReviewedChunks().size());
+        assertEquals("chunk-0", summary.getReviewedChunks().get(0).getId());
+        assertEquals("chunk-2", summary.getReviewedChunks().get(1).getId());
+        assertEquals(2, metrics.counter("chunks.succeeded"));
+        assertEquals(1, metrics.counter("chunks.failed"));
+    }
+
+    private static ReviewPreparation preparation(int chunkCount) {
+        ReviewConfig config = ReviewConfig.builder()
+                .primaryModelEndpoint(URI.create("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(URI.create("http://fallback"))
+                .fallbackModel("fallback-model")
+                .parallelThreads(2)
+                .chunkResultCacheEnabled(false)
+                .build();
+        ReviewContext context = ReviewContext.builder()
+                .pullRequest(mock(PullRequest.class))
+                .config(config)
+                .rawDiff("")
+                .collectedAt(Instant.now())
+                .build();
+        ReviewPreparation.Builder builder = ReviewPreparation.builder()
+                .context(context)
+                .overview(new ReviewOverview.Builder().build());
+        for (int i = 0; i < chunkCount; i++) {
+            builder.addChunk(ReviewChunk.builder()
+                    .id("chunk-" + i)
+                    .index(i)
+                    .content("diff --git a/File" + i + ".java b/File" + i + ".java\n@@ -1 +1 @@\n+int x;\n")
+                    .addFile("File" + i + ".java")
+                    .build());
+        }
+        return builder.build();
+    }
+
+    private static final class CountingMetricsRecorder implements MetricsRecorder {
+        private final Map<String, Integer> counters = new ConcurrentHashMap<>();
+
+        int counter(String key) {
+            return counters.getOrDefault(key, 0);
+        }
+
+        @Override
+        public Instant recordStart(String key) {
+            return Instant.now();
+        }
+
+        @Override
+        public void recordEnd(String key, Instant start) {
+        }
+
+        @Override
+        public void increment(String key) {
+            counters.merge(key, 1, Integer::sum);
+        }
+
+        @Override
+        public void recordMetric(String key, Object value) {
+        }
+
+        @Override
+        public void addListEntry(String key, Map<String, Object> value) {
+        }
+
+        @Override
+        public Map<String, Object> snapshot() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.teknolojikpanda.bitbucket.aicode.model;
+
+import com.teknolojikpanda.bitbucket.aicode.core.StreamingDiffAccumulator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class IncrementalScopeTest {
+
+    // Since the reviewed commit: line 3 replaced, two lines inserted after line 10, lines 20-21 deleted.
+    private static final String INTERDIFF = "diff --git a/src/A.java b/src/A.java\n" +
+            "--- a/src/A.java\n" +
+            "+++ b/src/A.java\n" +
+            "@@ -3 +3 @@\n" +
+            "-old\n" +
+            "+new\n" +
+            "@@ -10,0 +11,2 @@\n" +
+            "+added1\n" +
+            "+added2\n" +
+            "@@ -20,2 +21,0 @@\n" +
+            "-gone1\n" +
+            "-gone2\n";
+
+    private final IncrementalScope scope = IncrementalScope.fromInterdiff("abc123",
+            StreamingDiffAccumulator.parse(INTERDIFF));
+
+    @Test
+    public void mapsPreviousLinesOntoCurrentHead() {
+        assertEquals(Integer.valueOf(1), scope.mapLine("src/A.java", 1));
+        assertNull(scope.mapLine("src/A.java", 3));
+        assertEquals(Integer.valueOf(10), scope.mapLine("src/A.java", 10));
+        assertEquals(Integer.valueOf(14), scope.mapLine("src/A.java", 12));
+        assertNull(scope.mapLine("src/A.java", 21));
+        assertEquals(Integer.valueOf(30), scope.mapLine("src/A.java", 30));
+        assertEquals(Integer.valueOf(7), scope.mapLine("src/B.java", 7));
+    }
+
+    @Test
+    public void selectsOnlyChunksCoveringTouchedLines() {
+        assertTrue(scope.intersects(chunk("src/A.java", 1, 5)));
+        assertTrue(scope.intersects(chunk("src/A.java", 11, 11)));
+        assertTrue(scope.intersects(chunk("src/A.java", 22, 30)));
+        assertFalse(scope.intersects(chunk("src/A.java", 5, 10)));
+        assertFalse(scope.intersects(chunk("src/A.java", 14, 20)));
+        assertFalse(scope.intersects(chunk("src/B.java", 1, 100)));
+    }
+
+    @Test
+    public void carriesForwardUntouchedFindingsOutsideReviewedChunks() {
+        List<ReviewFinding> previous = Arrays.asList(
+                finding("src/A.java", 3),
+                finding("src/A.java", 6),
+                finding("src/A.java", 15),
+                finding("src/B.java", 8),
+                finding("src/Removed.java", 2));
+        List<ReviewChunk> reviewed = Collections.singletonList(chunk("src/A.java", 1, 5));
+        Set<String> currentFiles = new HashSet<>(Arrays.asList("src/A.java", "src/B.java"));
+
+        List<ReviewFinding> carried = scope.carryForward(previous, reviewed, currentFiles);
+
+        assertEquals(3, carried.size());
+        assertEquals(LineRange.singleLine(6), carried.get(0).getLineRange());
+        assertEquals(LineRange.singleLine(17), carried.get(1).getLineRange());
+        assertEquals("src/B.java", carried.get(2).getFilePath());
+        assertEquals(LineRange.singleLine(8), carried.get(2).getLineRange());
+    }
+
+    private static ReviewChunk chunk(String path, int start, int end) {
+        return ReviewChunk.builder()
+                .id(path + ":" + start)
+                .content("")
+                .addFile(path)
+                .addPrimaryRange(path, LineRange.of(start, end))
+                .build();
+    }
+
+    private static ReviewFinding finding(String path, int line) {
+        return ReviewFinding.builder()
+                .filePath(path)
+                .lineRange(LineRange.singleLine(line))
+                .severity(SeverityLevel.MEDIUM)
+                .category(IssueCategory.BUG)
+                .summary("Issue at " + line)
+                .build();
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.Test;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.Response;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
@@ -74,4 +75,63 @@ public class MonitoringResourceTest {
         Map<String, Object> payload = (Map<String, Object>) response.getEntity();
         assertSame(snapshot, payload);
     }
+
+    @Test
+    public void getModelConcurrencyRequiresAdmin() {
+        when(userManager.getRemoteUser(request)).thenReturn(profile);
+        UserKey key = new UserKey("user");
+        when(profile.getUserKey()).thenReturn(key);
+        when(userManager.isSystemAdmin(key)).thenReturn(false);
+
+        Response response = resource.getModelConcurrency(request);
+
+        assertEquals(Response.Status.FORBIDDEN.getStatusCode(), response.getStatus());
+        verifyNoInteractions(telemetryService);
+    }
+
+    @Test
+    public void getModelConcurrencyReturnsLimiterSnapshot() {
+        when(userManager.getRemoteUser(request)).thenReturn(profile);
+        UserKey key = new UserKey("admin");
+        when(profile.getUserKey()).thenReturn(key);
+        when(userManager.isSystemAdmin(key)).thenReturn(true);
+        Map<String, Object> snapshot = Collections.singletonMap("endpoints", Collections.emptyList());
+        when(telemetryService.collectModelConcurrencySnapshot()).thenReturn(snapshot);
+
+        Response response = resource.getModelConcurrency(request);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertSame(snapshot, response.getEntity());
+    }
+
+    @Test
+    public void getModelEndpointsReturnsBalancerSnapshot() {
+        when(userManager.getRemoteUser(request)).thenReturn(profile);
+        UserKey key = new UserKey("admin");
+        when(profile.getUserKey()).thenReturn(key);
+        when(userManager.isSystemAdmin(key)).thenReturn(true);
+        Map<String, Object> snapshot = Collections.singletonMap("endpoints", Collections.emptyList());
+        when(telemetryService.collectModelEndpointSnapshot()).thenReturn(snapshot);
+
+        Response response = resource.getModelEndpoints(request);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertSame(snapshot, response.getEntity());
+    }
+
+    @Test
+    public void getModelConnectionPoolsReturnsTransportSnapshot() {
+        when(userManager.getRemoteUser(request)).thenReturn(profile);
+        UserKey key = new UserKey("admin");
+        when(profile.getUserKey()).thenReturn(key);
+        when(userManager.isSystemAdmin(key)).thenReturn(true);
+        List<Map<String, Object>> snapshot =
+                Collections.singletonList(Collections.singletonMap("role", "primary"));
+        when(telemetryService.collectModelConnectionPoolSnapshot()).thenReturn(snapshot);
+
+        Response response = resource.getModelConnectionPools(request);
+
+        assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+        assertSame(snapshot, response.getEntity());
+    }
 }
@@ -14,6 +14,7 @@ import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewHistory;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressEvent;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressRegistry;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressRegistry.ProgressMetadata;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewAdmissionSimulator;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewHistoryService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewSchedulerStateService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController;
@@ -99,7 +100,8 @@ public class ProgressResourceIntegrationTest {
                 progressRegistry,
                 historyService,
                 schedulerStateService,
-                concurrencyController);
+                concurrencyController,
+                mock(ReviewAdmissionSimulator.class));
 
         request = mock(HttpServletRequest.class);
         profile = mock(UserProfile.class);
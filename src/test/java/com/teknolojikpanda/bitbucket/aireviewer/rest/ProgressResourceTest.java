@@ -14,6 +14,7 @@ import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressEvent;
 import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressRegistry;
 import com.teknolojikpanda.bitbucket.aireviewer.service.GuardrailsRolloutService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.Page;
+import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewAdmissionSimulator;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewHistoryService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewSchedulerStateService;
 import com.teknolojikpanda.bitbucket.aireviewer.service.ReviewConcurrencyController;
@@ -88,7 +89,7 @@ public class ProgressResourceTest {
         when(concurrencyController.snapshot()).thenReturn(stats);
         when(concurrencyController.getQueuedRequests()).thenReturn(Collections.emptyList());
         when(historyService.getRecentDurationStats(anyInt())).thenReturn(ReviewHistoryService.DurationStats.empty());
-        resource = new ProgressResource(userManager, userService, repositoryService, permissionService, progressRegistry, historyService, schedulerStateService, concurrencyController);
+        resource = new ProgressResource(userManager, userService, repositoryService, permissionService, progressRegistry, historyService, schedulerStateService, concurrencyController, mock(ReviewAdmissionSimulator.class));
     }
 
     @Test
@@ -0,0 +1,232 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.bitbucket.comment.CommentService;
+import com.atlassian.bitbucket.hook.repository.RepositoryHookService;
+import com.atlassian.bitbucket.project.Project;
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.pull.PullRequestService;
+import com.atlassian.bitbucket.repository.Repository;
+import com.atlassian.bitbucket.server.ApplicationPropertiesService;
+import com.atlassian.bitbucket.user.ApplicationUser;
+import com.atlassian.bitbucket.user.SecurityService;
+import com.atlassian.bitbucket.user.UserService;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.teknolojikpanda.bitbucket.aicode.api.ChunkPlanner;
+import com.teknolojikpanda.bitbucket.aicode.api.DiffProvider;
+import com.teknolojikpanda.bitbucket.aicode.api.ReviewOrchestrator;
+import com.teknolojikpanda.bitbucket.aicode.core.MetricsRecorderAdapter;
+import com.teknolojikpanda.bitbucket.aicode.core.ReviewConfigFactory;
+import com.teknolojikpanda.bitbucket.aicode.model.DiffModel;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewConfig;
+import com.teknolojikpanda.bitbucket.aicode.model.ReviewFinding;
+import com.teknolojikpanda.bitbucket.aicode.model.SeverityLevel;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewHistory;
+import com.teknolojikpanda.bitbucket.aireviewer.dto.ReviewIssue;
+import com.teknolojikpanda.bitbucket.aireviewer.dto.ReviewResult;
+import com.teknolojikpanda.bitbucket.aireviewer.progress.ProgressRegistry;
+import com.teknolojikpanda.bitbucket.aireviewer.util.MetricsCollector;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AIReviewServiceIncrementalTest {
+
+    private ActiveObjects activeObjects;
+    private DiffProvider diffProvider;
+    private ReviewHistoryService reviewHistoryService;
+    private AIReviewServiceImpl service;
+
+    @Before
+    public void setUp() throws Exception {
+        activeObjects = mock(ActiveObjects.class);
+        diffProvider = mock(DiffProvider.class);
+        reviewHistoryService = mock(ReviewHistoryService.class);
+        AIReviewerConfigService configService = mock(AIReviewerConfigService.class);
+        when(configService.getConfigurationAsMap()).thenReturn(Collections.emptyMap());
+        ReviewSchedulerStateService schedulerStateService = mock(ReviewSchedulerStateService.class);
+        ReviewQueueAuditService queueAuditService = mock(ReviewQueueAuditService.class);
+
+        service = new AIReviewServiceImpl(
+                mock(PullRequestService.class),
+                mock(CommentService.class),
+                activeObjects,
+                mock(ApplicationPropertiesService.class),
+                configService,
+                diffProvider,
+                mock(ChunkPlanner.class),
+                mock(ReviewOrchestrator.class),
+                mock(ReviewConfigFactory.class),
+                mock(UserService.class),
+                mock(SecurityService.class),
+                reviewHistoryService,
+                mock(ProgressRegistry.class),
+                mock(RepositoryHookService.class),
+                new ReviewConcurrencyController(configService, schedulerStateService, queueAuditService),
+                mock(ReviewRateLimiter.class),
+                new ReviewWorkerPool(configService),
+                mock(GuardrailsAutoSnoozeService.class),
+                mock(WorkerDegradationService.class),
+                mock(ModelHealthService.class),
+                mock(GuardrailsRolloutService.class));
+
+        Field securityService = AIReviewServiceImpl.class.getDeclaredField("securityService");
+        securityService.setAccessible(true);
+        securityService.set(service, null);
+
+        when(activeObjects.executeInTransaction(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction());
+    }
+
+    @Test
+    public void reviewWithHighFindingServesAsBaselineForNextUpdate() throws Exception {
+        PullRequest reviewed = pullRequest("c1");
+        ReviewIssue high = ReviewIssue.builder()
+                .path("src/App.java")
+                .lineRange(10, 12)
+                .severity(ReviewIssue.Severity.HIGH)
+                .type("security")
+                .summary("SQL built from request parameters")
+                .build();
+        ReviewResult result = buildFinalResult(Collections.singletonList(high), chunkMetrics(0));
+        assertEquals(ReviewResult.Status.PARTIAL, result.getStatus());
+
+        AIReviewHistory saved = mock(AIReviewHistory.class);
+        when(activeObjects.create(eq(AIReviewHistory.class), anyMap())).thenReturn(saved);
+        saveReviewHistory(reviewed, Collections.singletonList(high), result);
+        ArgumentCaptor<String> findingsJson = ArgumentCaptor.forClass(String.class);
+        verify(saved).setFindingsJson(findingsJson.capture());
+        assertNotNull(findingsJson.getValue());
+
+        AIReviewHistory baseline = history(ReviewResult.Status.PARTIAL, "c1", findingsJson.getValue(), 0);
+        when(reviewHistoryService.findLatestForPullRequest(1L)).thenReturn(Optional.of(baseline));
+        when(diffProvider.collectInterdiff(any(), eq("c1"), eq("c2"), any(), any())).thenReturn(DiffModel.empty());
+
+        Object incremental = resolveIncrementalBaseline(pullRequest("c2"));
+
+        assertNotNull(incremental);
+        List<ReviewFinding> previous = previousFindings(incremental);
+        assertEquals(1, previous.size());
+        assertEquals(SeverityLevel.HIGH, previous.get(0).getSeverity());
+        assertEquals("src/App.java", previous.get(0).getFilePath());
+    }
+
+    @Test
+    public void reviewWithFailedChunksIsNotABaseline() throws Exception {
+        AIReviewHistory incomplete = history(ReviewResult.Status.SUCCESS, "c1", "[]", 1);
+        when(reviewHistoryService.findLatestForPullRequest(1L)).thenReturn(Optional.of(incomplete));
+
+        assertNull(resolveIncrementalBaseline(pullRequest("c2")));
+        verify(diffProvider, never()).collectInterdiff(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void reviewTruncatedByMaxChunksIsNotABaseline() throws Exception {
+        AIReviewHistory truncated = history(ReviewResult.Status.SUCCESS, "c1", "[]", 0);
+        when(truncated.getMetricsJson()).thenReturn("{\"chunks.truncated\":true,\"chunks.planned\":40}");
+        when(reviewHistoryService.findLatestForPullRequest(1L)).thenReturn(Optional.of(truncated));
+
+        assertNull(resolveIncrementalBaseline(pullRequest("c2")));
+        verify(diffProvider, never()).collectInterdiff(any(), any(), any(), any(), any());
+    }
+
+    private static Map<String, Object> chunkMetrics(int failedChunks) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("chunks.planned", 2);
+        metrics.put("chunks.succeeded", 2 - failedChunks);
+        metrics.put("chunks.failed", failedChunks);
+        return metrics;
+    }
+
+    private static AIReviewHistory history(ReviewResult.Status status, String fromCommit, String findingsJson,
+                                           int failedChunks) {
+        AIReviewHistory history = mock(AIReviewHistory.class);
+        when(history.getReviewStatus()).thenReturn(status.name());
+        when(history.getFromCommit()).thenReturn(fromCommit);
+        when(history.getFindingsJson()).thenReturn(findingsJson);
+        when(history.getFailedChunks()).thenReturn(failedChunks);
+        return history;
+    }
+
+    private static PullRequest pullRequest(String headCommit) {
+        Project project = mock(Project.class);
+        when(project.getKey()).thenReturn("PROJ");
+        Repository repository = mock(Repository.class);
+        when(repository.getProject()).thenReturn(project);
+        when(repository.getSlug()).thenReturn("repo");
+        PullRequestRef fromRef = mock(PullRequestRef.class);
+        when(fromRef.getLatestCommit()).thenReturn(headCommit);
+        PullRequestRef toRef = mock(PullRequestRef.class);
+        when(toRef.getRepository()).thenReturn(repository);
+        when(toRef.getLatestCommit()).thenReturn("base");
+        PullRequest pullRequest = mock(PullRequest.class);
+        when(pullRequest.getId()).thenReturn(1L);
+        when(pullRequest.getFromRef()).thenReturn(fromRef);
+        when(pullRequest.getToRef()).thenReturn(toRef);
+        return pullRequest;
+    }
+
+    private ReviewResult buildFinalResult(List<ReviewIssue> issues, Map<String, Object> metrics) throws Exception {
+        Method method = AIReviewServiceImpl.class.getDeclaredMethod("buildFinalResult", long.class, List.class,
+                int.class, int.class, int.class, boolean.class, Map.class);
+        method.setAccessible(true);
+        return (ReviewResult) method.invoke(service, 1L, issues, 1, 1, 0, false, metrics);
+    }
+
+    private void saveReviewHistory(PullRequest pullRequest, List<ReviewIssue> issues, ReviewResult result)
+            throws Exception {
+        Method method = AIReviewServiceImpl.class.getDeclaredMethod("saveReviewHistory", PullRequest.class,
+                List.class, ReviewResult.class, Map.class);
+        method.setAccessible(true);
+        method.invoke(service, pullRequest, issues, result, Collections.emptyMap());
+    }
+
+    private Object resolveIncrementalBaseline(PullRequest pullRequest) throws Exception {
+        Class<?> runType = Class.forName(AIReviewServiceImpl.class.getName() + "$ReviewRun");
+        Constructor<?> constructor = runType.getDeclaredConstructor(PullRequest.class, boolean.class, boolean.class,
+                boolean.class);
+        constructor.setAccessible(true);
+        Object run = constructor.newInstance(pullRequest, true, false, false);
+        ReviewConfig config = ReviewConfig.builder()
+                .primaryModelEndpoint(URI.create("http://primary"))
+                .primaryModel("primary-model")
+                .fallbackModelEndpoint(URI.create("http://fallback"))
+                .fallbackModel("fallback-model")
+                .incrementalReReview(true)
+                .build();
+        Method method = AIReviewServiceImpl.class.getDeclaredMethod("resolveIncrementalBaseline", runType,
+                PullRequest.class, ReviewConfig.class, ApplicationUser.class, MetricsRecorderAdapter.class);
+        method.setAccessible(true);
+        return method.invoke(service, run, pullRequest, config, null,
+                new MetricsRecorderAdapter(new MetricsCollector("test")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<ReviewFinding> previousFindings(Object baseline) throws Exception {
+        Field field = baseline.getClass().getDeclaredField("previousFindings");
+        field.setAccessible(true);
+        return (List<ReviewFinding>) field.get(baseline);
+    }
+}
@@ -17,12 +17,15 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkExecutionEngine;
 import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewConfiguration;
 import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewRepoConfiguration;
 import com.teknolojikpanda.bitbucket.aireviewer.service.AIReviewerConfigService.ScopeMode;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(ActiveObjectsJUnitRunner.class)
@@ -157,6 +160,59 @@ public class AIReviewerConfigServiceImplIntegrationTest {
         assertTrue(service.isRepositoryWithinScope("PROJ", "repo_ONE"));
     }
 
+    @Test
+    public void configurationIsServedFromSnapshotUntilChanged() {
+        Map<String, Object> first = service.getConfigurationAsMap();
+        long version = service.getSnapshotVersion();
+        assertSame(first, service.getConfigurationAsMap());
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("ollamaModel", "snapshot-model");
+        service.updateConfiguration(update);
+
+        Map<String, Object> updated = service.getConfigurationAsMap();
+        assertNotSame(first, updated);
+        assertEquals("snapshot-model", updated.get("ollamaModel"));
+        assertTrue(service.getSnapshotVersion() > version);
+        assertSame(service.getEffectiveConfiguration("PROJ", "repo"), service.getEffectiveConfiguration("PROJ", "repo"));
+    }
+
+    @Test
+    public void otherNodesPickUpChangesOnVersionCheck() {
+        AIReviewerConfigServiceImpl otherNode = new AIReviewerConfigServiceImpl(activeObjects);
+        assertEquals(service.getDefaultConfiguration().get("ollamaModel"),
+                otherNode.getEffectiveConfiguration("PROJ", "repo").get("ollamaModel"));
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("ollamaModel", "repo-model");
+        service.updateRepositoryConfiguration("PROJ", "repo", overrides, "tester");
+
+        assertEquals("repo-model", service.getEffectiveConfiguration("PROJ", "repo").get("ollamaModel"));
+        otherNode.setVersionCheckIntervalMs(0L);
+        assertEquals("repo-model", otherNode.getEffectiveConfiguration("PROJ", "repo").get("ollamaModel"));
+        assertEquals(service.getSnapshotVersion(), otherNode.getSnapshotVersion());
+    }
+
+    @Test
+    public void chunkEngineIsSizedFromGlobalConfigurationOnly() {
+        ChunkExecutionEngine engine = new ChunkExecutionEngine();
+        try {
+            AIReviewerConfigServiceImpl node = new AIReviewerConfigServiceImpl(activeObjects, engine);
+            Map<String, Object> update = new HashMap<>();
+            update.put("maxConcurrentModelRequests", 6);
+            node.updateConfiguration(update);
+            Map<String, Object> overrides = new HashMap<>();
+            overrides.put("maxConcurrentModelRequests", 40);
+            node.updateRepositoryConfiguration("PROJ", "repo", overrides, "tester");
+
+            assertEquals(40, ((Number) node.getEffectiveConfiguration("PROJ", "repo")
+                    .get("maxConcurrentModelRequests")).intValue());
+            assertEquals(6, engine.snapshot().get("maxInFlight"));
+        } finally {
+            engine.destroy();
+        }
+    }
+
     private static final class TestActiveObjects extends EntityManagedActiveObjects {
         TestActiveObjects(EntityManager entityManager) {
             super(entityManager, new ImmediateTransactionManager(), DatabaseType.H2);
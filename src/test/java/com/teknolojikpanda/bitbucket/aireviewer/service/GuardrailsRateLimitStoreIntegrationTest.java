@@ -0,0 +1,123 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.activeobjects.internal.EntityManagedActiveObjects;
+import com.atlassian.activeobjects.internal.TransactionManager;
+import com.atlassian.activeobjects.spi.DatabaseType;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.GuardrailsRateBucket;
+import net.java.ao.EntityManager;
+import net.java.ao.Query;
+import net.java.ao.test.jdbc.H2Memory;
+import net.java.ao.test.jdbc.Jdbc;
+import net.java.ao.test.junit.ActiveObjectsJUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+@RunWith(ActiveObjectsJUnitRunner.class)
+@Jdbc(H2Memory.class)
+public class GuardrailsRateLimitStoreIntegrationTest {
+
+    private static final long WINDOW_MS = TimeUnit.HOURS.toMillis(1);
+
+    private EntityManager entityManager;
+    private ActiveObjects activeObjects;
+    private long windowStart;
+    private long now;
+
+    @Before
+    public void setUp() {
+        activeObjects = new TestActiveObjects(entityManager);
+        activeObjects.migrate(GuardrailsRateBucket.class);
+        now = System.currentTimeMillis();
+        windowStart = now - (now % WINDOW_MS);
+    }
+
+    @Test
+    public void admitsInMemoryAndWritesBehindOnFlush() {
+        GuardrailsRateLimitStore store = new GuardrailsRateLimitStore(activeObjects, () -> "node-a");
+
+        for (int i = 0; i < 3; i++) {
+            acquire(store, 3);
+        }
+        assertThrows(RateLimitExceededException.class, () -> acquire(store, 3));
+        assertEquals(0, rows().length);
+
+        store.flush();
+
+        GuardrailsRateBucket[] rows = rows();
+        assertEquals(1, rows.length);
+        assertEquals(3, rows[0].getConsumed());
+        assertEquals(3, rows[0].getLimitPerHour());
+        assertEquals("node-a", rows[0].getNodeId());
+        assertEquals(1L, store.snapshot().get("rejected"));
+    }
+
+    @Test
+    public void admitsAgainstCountsFlushedByOtherNodes() {
+        GuardrailsRateLimitStore nodeA = new GuardrailsRateLimitStore(activeObjects, () -> "node-a");
+        GuardrailsRateLimitStore nodeB = new GuardrailsRateLimitStore(activeObjects, () -> "node-b");
+
+        acquire(nodeA, 4);
+        acquire(nodeA, 4);
+        acquire(nodeB, 4);
+        nodeA.flush();
+        nodeB.flush();
+
+        acquire(nodeB, 4);
+        assertThrows(RateLimitExceededException.class, () -> acquire(nodeB, 4));
+
+        nodeB.flush();
+        nodeA.flush();
+        assertThrows(RateLimitExceededException.class, () -> acquire(nodeA, 4));
+        assertEquals(4, nodeA.getTopWindows(GuardrailsRateLimitScope.REPOSITORY, 5).get(0).getConsumed());
+    }
+
+    @Test
+    public void restartedNodeKeepsItsPersistedCount() {
+        GuardrailsRateLimitStore before = new GuardrailsRateLimitStore(activeObjects, () -> "node-a");
+        acquire(before, 5);
+        acquire(before, 5);
+        before.flush();
+
+        GuardrailsRateLimitStore after = new GuardrailsRateLimitStore(activeObjects, () -> "node-a");
+        GuardrailsRateLimitStore.WindowSample sample =
+                after.findWindowSample(GuardrailsRateLimitScope.REPOSITORY, "PRJ/repo");
+        assertNotNull(sample);
+        assertEquals(2, sample.getConsumed());
+
+        acquire(after, 5);
+        after.flush();
+
+        assertEquals(3, rows()[0].getConsumed());
+        assertEquals(3, after.findWindowSample(GuardrailsRateLimitScope.REPOSITORY, "PRJ/repo").getConsumed());
+    }
+
+    private void acquire(GuardrailsRateLimitStore store, int limit) {
+        store.acquireToken(GuardrailsRateLimitScope.REPOSITORY, "PRJ/repo", limit, windowStart, WINDOW_MS, now);
+    }
+
+    private GuardrailsRateBucket[] rows() {
+        return activeObjects.find(GuardrailsRateBucket.class, Query.select());
+    }
+
+    private static final class TestActiveObjects extends EntityManagedActiveObjects {
+        TestActiveObjects(EntityManager entityManager) {
+            super(entityManager, new ImmediateTransactionManager(), DatabaseType.H2);
+        }
+    }
+
+    private static final class ImmediateTransactionManager implements TransactionManager {
+        @Override
+        public <T> T doInTransaction(TransactionCallback<T> callback) {
+            return callback.doInTransaction();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.teknolojikpanda.bitbucket.aireviewer.service;
 
+import com.teknolojikpanda.bitbucket.aicode.core.AdaptiveConcurrencyLimiter;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelEndpointBalancer;
+import com.teknolojikpanda.bitbucket.aicode.core.ModelHttpTransport;
+import com.teknolojikpanda.bitbucket.aicode.core.ChunkExecutionEngine;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -32,6 +36,8 @@ public class GuardrailsTelemetryServiceTest {
     private GuardrailsRateLimitOverrideService overrideService;
     private GuardrailsRateLimitStore rateLimitStore;
     private GuardrailsRolloutService rolloutService;
+    private ReviewRescopeCoalescer rescopeCoalescer;
+    private ReviewEventDispatcher eventDispatcher;
     private GuardrailsTelemetryService telemetryService;
 
     @Before
@@ -50,6 +56,8 @@ public class GuardrailsTelemetryServiceTest {
         overrideService = mock(GuardrailsRateLimitOverrideService.class);
         rateLimitStore = mock(GuardrailsRateLimitStore.class);
         rolloutService = mock(GuardrailsRolloutService.class);
+        rescopeCoalescer = mock(ReviewRescopeCoalescer.class);
+        eventDispatcher = mock(ReviewEventDispatcher.class);
 
         ReviewSchedulerStateService.SchedulerState schedulerState =
                 new ReviewSchedulerStateService.SchedulerState(
@@ -170,7 +178,13 @@ public class GuardrailsTelemetryServiceTest {
                 queueAuditService,
                 overrideService,
                 rateLimitStore,
-                rolloutService);
+                rolloutService,
+                new ChunkExecutionEngine(),
+                new AdaptiveConcurrencyLimiter(),
+                new ModelEndpointBalancer((endpoint, model) -> 1d),
+                new ModelHttpTransport(),
+                rescopeCoalescer,
+                eventDispatcher);
     }
 
     @Test
@@ -192,6 +206,10 @@ public class GuardrailsTelemetryServiceTest {
         assertTrue(snapshot.containsKey("modelStats"));
         assertTrue(snapshot.containsKey("schedulerState"));
         assertTrue(snapshot.containsKey("modelHealth"));
+        assertTrue(snapshot.containsKey("chunkExecution"));
+        assertTrue(snapshot.containsKey("modelConcurrency"));
+        assertTrue(snapshot.containsKey("modelEndpoints"));
+        assertTrue(snapshot.containsKey("modelConnectionPools"));
         @SuppressWarnings("unchecked")
         Map<String, Object> retention = (Map<String, Object>) snapshot.get("retention");
         assertTrue(retention.containsKey("schedule"));
@@ -208,6 +226,7 @@ public class GuardrailsTelemetryServiceTest {
         assertTrue(metrics.stream().anyMatch(m -> "ai.queue.active".equals(m.get("name"))));
         assertTrue(metrics.stream().anyMatch(m -> "ai.retention.totalEntries".equals(m.get("name"))));
         assertTrue(metrics.stream().anyMatch(m -> "ai.worker.activeThreads".equals(m.get("name"))));
+        assertTrue(metrics.stream().anyMatch(m -> "ai.chunks.queueDepth".equals(m.get("name"))));
         assertTrue(metrics.stream().anyMatch(m -> "ai.alerts.pendingAcknowledgements".equals(m.get("name"))));
         assertTrue(metrics.stream().anyMatch(m -> "ai.alerts.ack.latencySecondsAvg".equals(m.get("name"))));
     }
@@ -6,6 +6,7 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -51,4 +52,64 @@ public class ModelHealthServiceTest {
         assertFalse(result.isPrimaryDegraded());
         assertFalse(result.getConfiguration().containsKey("skipPrimaryModel"));
     }
+
+    @Test
+    public void applySetsHedgeDelayFromPrimaryLatencyPercentile() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("ollamaUrl", "http://localhost:11434");
+        config.put("ollamaModel", "primary-model");
+        config.put("fallbackModel", "fallback-model");
+        config.put("hedgeRequests", true);
+        config.put("hedgePercentile", 90);
+
+        service.recordSuccess("http://localhost:11434", "primary-model", 100);
+        assertFalse("too few samples to hedge", service.apply(config).getConfiguration().containsKey("hedgeDelayMs"));
+
+        for (int i = 1; i <= 19; i++) {
+            service.recordCallLatency("http://localhost:11434/", "primary-model", i * 200L);
+        }
+
+        ModelHealthService.Result result = service.apply(config);
+
+        assertEquals(3_400L, result.getHedgeDelayMs());
+        assertEquals(3_400L, result.getConfiguration().get("hedgeDelayMs"));
+        assertFalse(result.isFailoverApplied());
+
+        config.put("hedgeRequests", false);
+        assertFalse(service.apply(config).getConfiguration().containsKey("hedgeDelayMs"));
+    }
+
+    @Test
+    public void applyKeepsPrimaryWhileAnyPoolEndpointIsHealthy() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("ollamaUrl", "http://localhost:11434");
+        config.put("primaryModelEndpoints", "http://ollama-1:11434, http://ollama-2:11434/");
+        config.put("ollamaModel", "primary-model");
+        config.put("fallbackModel", "fallback-model");
+
+        service.recordFailure("http://ollama-1:11434", "primary-model", "timeout");
+        service.recordFailure("http://ollama-1:11434", "primary-model", "timeout");
+        service.recordSuccess("http://ollama-2:11434", "primary-model", 40);
+
+        ModelHealthService.Result result = service.apply(config);
+
+        assertFalse(result.isPrimaryDegraded());
+        assertFalse(result.getConfiguration().containsKey("skipPrimaryModel"));
+    }
+
+    @Test
+    public void routingWeightDrainsFailedEndpointsAndFavoursFasterOnes() {
+        for (int i = 0; i < ModelHealthService.MIN_HEDGE_SAMPLES; i++) {
+            service.recordSuccess("http://ollama-1:11434", "primary-model", 1000);
+            service.recordSuccess("http://ollama-2:11434", "primary-model", 4000);
+        }
+        for (int i = 0; i < 5; i++) {
+            service.recordFailure("http://ollama-3:11434", "primary-model", "connection refused");
+        }
+
+        assertEquals(1d, service.routingWeight("http://ollama-1:11434/", "primary-model"), 0.001d);
+        assertEquals(0.25d, service.routingWeight("http://ollama-2:11434", "primary-model"), 0.001d);
+        assertEquals(0d, service.routingWeight("http://ollama-3:11434", "primary-model"), 0.001d);
+        assertEquals(1d, service.routingWeight("http://ollama-4:11434", "primary-model"), 0.001d);
+    }
 }
@@ -0,0 +1,70 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReviewAdmissionOrderTest {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final double TYPICAL_MS = TimeUnit.MINUTES.toMillis(4);
+    private static final double SHORT_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final double LONG_MS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ReviewAdmissionOrder order = new ReviewAdmissionOrder();
+
+    @Test
+    public void fifoIgnoresFlagsAndCost() {
+        assertEquals(NOW, order.admissionKey(ReviewAdmissionPolicy.FIFO, NOW, true, true, "a", SHORT_MS, TYPICAL_MS));
+    }
+
+    @Test
+    public void priorityMatchesQueuePriorityHeadStart() {
+        long key = order.admissionKey(ReviewAdmissionPolicy.PRIORITY, NOW, true, false, "a", SHORT_MS, TYPICAL_MS);
+
+        assertEquals(NOW - ReviewQueuePriority.headStartMs(true, false, SHORT_MS, TYPICAL_MS), key);
+    }
+
+    @Test
+    public void shortestJobFirstPrefersShortRunsButBoundsTheDelay() {
+        long shortRun = order.admissionKey(ReviewAdmissionPolicy.SHORTEST_JOB_FIRST, NOW + 60_000, false, false, "a", SHORT_MS, TYPICAL_MS);
+        long longRun = order.admissionKey(ReviewAdmissionPolicy.SHORTEST_JOB_FIRST, NOW, false, false, "b", LONG_MS, TYPICAL_MS);
+        long hugeRun = order.admissionKey(ReviewAdmissionPolicy.SHORTEST_JOB_FIRST, NOW, false, false, "c",
+                TimeUnit.HOURS.toMillis(10), TYPICAL_MS);
+
+        assertTrue(shortRun < longRun);
+        assertEquals(NOW + ReviewAdmissionOrder.MAX_SJF_DELAY_MS, hugeRun);
+    }
+
+    @Test
+    public void weightedFairInterleavesRepositories() {
+        long busyFirst = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW, false, false, "busy", TYPICAL_MS, TYPICAL_MS);
+        long busySecond = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW, false, false, "busy", TYPICAL_MS, TYPICAL_MS);
+        long busyThird = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW, false, false, "busy", TYPICAL_MS, TYPICAL_MS);
+        long quiet = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW + 1, false, false, "quiet", TYPICAL_MS, TYPICAL_MS);
+
+        assertTrue(busyFirst < busySecond && busySecond < busyThird);
+        assertTrue(quiet < busySecond);
+    }
+
+    @Test
+    public void weightedFairGivesManualRunsALargerShare() {
+        long automatic = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW, false, false, "a", TYPICAL_MS, TYPICAL_MS);
+        long manual = order.admissionKey(ReviewAdmissionPolicy.WEIGHTED_FAIR, NOW, true, false, "b", TYPICAL_MS, TYPICAL_MS);
+
+        assertEquals(NOW + Math.round(TYPICAL_MS), automatic);
+        assertEquals(NOW + Math.round(TYPICAL_MS / ReviewAdmissionOrder.MANUAL_WEIGHT), manual);
+    }
+
+    @Test
+    public void policiesParseFromConfigValues() {
+        assertEquals(ReviewAdmissionPolicy.SHORTEST_JOB_FIRST, ReviewAdmissionPolicy.fromConfig("sjf"));
+        assertEquals(ReviewAdmissionPolicy.WEIGHTED_FAIR, ReviewAdmissionPolicy.fromConfig("WEIGHTED_FAIR"));
+        assertEquals(ReviewAdmissionPolicy.PRIORITY, ReviewAdmissionPolicy.fromConfig(null));
+        assertNull(ReviewAdmissionPolicy.parse("lottery"));
+    }
+}
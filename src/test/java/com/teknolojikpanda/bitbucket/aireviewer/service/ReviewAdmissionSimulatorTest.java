@@ -0,0 +1,109 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReviewAdmissionSimulatorTest {
+
+    private ReviewQueueAuditService auditService;
+    private ReviewHistoryService historyService;
+    private AIReviewerConfigService configService;
+    private ReviewAdmissionSimulator simulator;
+
+    @Before
+    public void setUp() {
+        auditService = mock(ReviewQueueAuditService.class);
+        historyService = mock(ReviewHistoryService.class);
+        configService = mock(AIReviewerConfigService.class);
+        when(historyService.getRecentDurationStats(anyInt())).thenReturn(ReviewHistoryService.DurationStats.empty());
+        simulator = new ReviewAdmissionSimulator(auditService, historyService, configService);
+    }
+
+    @Test
+    public void shortestJobFirstLowersMeanWaitOnMixedTraffic() {
+        List<ReviewAdmissionSimulator.Job> jobs = new ArrayList<>();
+        jobs.add(job(0, 600_000, 600_000, "big"));
+        jobs.add(job(1, 600_000, 600_000, "big"));
+        for (int i = 0; i < 6; i++) {
+            jobs.add(job(2 + i, 30_000, 30_000, "small"));
+        }
+
+        ReviewAdmissionSimulator.WaitSummary fifo = ReviewAdmissionSimulator.simulate(jobs, 1, ReviewAdmissionPolicy.FIFO);
+        ReviewAdmissionSimulator.WaitSummary sjf =
+                ReviewAdmissionSimulator.simulate(jobs, 1, ReviewAdmissionPolicy.SHORTEST_JOB_FIRST);
+
+        assertEquals(8, fifo.runs);
+        assertEquals(8, sjf.runs);
+        assertTrue(sjf.meanMs < fifo.meanMs);
+        assertTrue(sjf.p50Ms < fifo.p50Ms);
+    }
+
+    @Test
+    public void idleSlotsMeanNoWait() {
+        List<ReviewAdmissionSimulator.Job> jobs = Arrays.asList(
+                job(0, 1_000, 1_000, "a"),
+                job(5_000, 1_000, 1_000, "b"));
+
+        ReviewAdmissionSimulator.WaitSummary summary = ReviewAdmissionSimulator.simulate(jobs, 2, ReviewAdmissionPolicy.PRIORITY);
+
+        assertEquals(0L, summary.maxMs);
+    }
+
+    @Test
+    public void replayPairsQueueActionsWithReviewDurations() {
+        long base = 1_700_000_000_000L;
+        when(auditService.listRecentActions(anyInt())).thenReturn(Arrays.asList(
+                action("enqueued", base, "run-1", 1L),
+                action("started", base + 20_000, "run-1", 1L),
+                action("started", base + 1_000, "run-2", 2L),
+                action("enqueued", base + 2_000, "run-3", 3L),
+                action("canceled", base + 3_000, "run-3", 3L)));
+        when(historyService.getReviewTimingsSince(anyLong(), anyInt())).thenReturn(new ArrayList<>(Collections.singletonList(
+                new ReviewHistoryService.ReviewTiming("PRJ", "repo", 1L, base + 21_000, base + 81_000))));
+        Map<String, Object> config = new HashMap<>();
+        config.put("maxConcurrentReviews", 1);
+        config.put("queueAdmissionPolicy", "sjf");
+        when(configService.getConfigurationAsMap()).thenReturn(config);
+
+        Map<String, Object> payload = simulator.replayRecentTraffic(100);
+
+        assertEquals(2, payload.get("runs"));
+        assertEquals(1L, payload.get("runsWithMeasuredDuration"));
+        assertEquals("sjf", payload.get("activePolicy"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> recorded = (Map<String, Object>) payload.get("recorded");
+        assertEquals(20_000L, recorded.get("maxWaitMs"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> policies = (List<Map<String, Object>>) payload.get("policies");
+        assertEquals(ReviewAdmissionPolicy.values().length, policies.size());
+        for (Map<String, Object> policy : policies) {
+            assertEquals(2, policy.get("runs"));
+            assertFalse(((Long) policy.get("p95WaitMs")) < 0L);
+        }
+    }
+
+    private ReviewAdmissionSimulator.Job job(long arrival, long serviceMs, double estimatedMs, String scope) {
+        return new ReviewAdmissionSimulator.Job(arrival, 0L, serviceMs, true, estimatedMs, 120_000D, false, false, scope);
+    }
+
+    private ReviewConcurrencyController.QueueStats.QueueAction action(String type, long timestamp, String runId, long prId) {
+        return new ReviewConcurrencyController.QueueStats.QueueAction(
+                type, timestamp, runId, "PRJ", "repo", prId, false, false, false,
+                null, null, null, null, null);
+    }
+}
@@ -1,13 +1,25 @@
 package com.teknolojikpanda.bitbucket.aireviewer.service;
 
+import com.teknolojikpanda.bitbucket.aicode.api.ReviewCanceledException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ReviewConcurrencyControllerTest {
@@ -59,12 +71,158 @@ public class ReviewConcurrencyControllerTest {
         }
     }
 
+    @Test
+    public void clusterLeaseIsCompletedWhenSlotCloses() {
+        ReviewWorkQueueService workQueue = mock(ReviewWorkQueueService.class);
+        ReviewConcurrencyController controller = new ReviewConcurrencyController(
+                configService,
+                schedulerStateService,
+                queueAuditService,
+                workQueue);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of("maxConcurrentReviews", 3));
+        when(schedulerStateService.getState()).thenReturn(state(ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE));
+        when(workQueue.claim("run-1", 3)).thenReturn(true);
+
+        ReviewConcurrencyController.ReviewExecutionRequest request = buildRequest("run-1");
+        try (ReviewConcurrencyController.Slot slot = controller.acquire(request)) {
+            verify(workQueue).enqueue(request);
+            assertEquals(1, controller.getActiveReviews());
+        }
+
+        verify(workQueue).complete("run-1");
+        assertEquals(0, controller.getActiveReviews());
+    }
+
+    @Test
+    public void unreachableClusterQueueDelaysTheRunUntilItIsLeased() {
+        ReviewWorkQueueService workQueue = mock(ReviewWorkQueueService.class);
+        ReviewConcurrencyController controller = new ReviewConcurrencyController(
+                configService,
+                schedulerStateService,
+                queueAuditService,
+                workQueue);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of("maxConcurrentReviews", 2));
+        when(schedulerStateService.getState()).thenReturn(state(ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE));
+        when(workQueue.getNodeId()).thenReturn("node-a");
+        when(workQueue.claim("run-3", 2))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(true);
+
+        try (ReviewConcurrencyController.Slot slot = controller.acquire(buildRequest("run-3"))) {
+            verify(workQueue, times(2)).claim("run-3", 2);
+            assertEquals(1, controller.getActiveReviews());
+        }
+
+        verify(workQueue).complete("run-3");
+        assertEquals(0, controller.getActiveReviews());
+    }
+
+    @Test
+    public void waitingRunIsReleasedWhenAnotherNodeLeasesIt() {
+        ReviewWorkQueueService workQueue = mock(ReviewWorkQueueService.class);
+        ReviewConcurrencyController controller = new ReviewConcurrencyController(
+                configService,
+                schedulerStateService,
+                queueAuditService,
+                workQueue);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of("maxConcurrentReviews", 1));
+        when(schedulerStateService.getState()).thenReturn(state(ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE));
+        when(workQueue.getNodeId()).thenReturn("node-a");
+        when(workQueue.claim("run-2", 1)).thenReturn(false);
+        when(workQueue.leaseOwner("run-2")).thenReturn("node-b");
+
+        ReviewDelegatedException ex = assertThrows(ReviewDelegatedException.class,
+                () -> controller.acquire(buildRequest("run-2")));
+
+        assertEquals("node-b", ex.getNodeId());
+        assertEquals(0, controller.getWaitingCount());
+        assertEquals(0, controller.getActiveReviews());
+    }
+
+    @Test
+    public void manualRunIsAdmittedAheadOfEarlierAutomaticRun() throws Exception {
+        ReviewConcurrencyController controller = new ReviewConcurrencyController(
+                configService,
+                schedulerStateService,
+                queueAuditService);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of(
+                "maxConcurrentReviews", 1,
+                "maxQueuedReviews", 5));
+        when(schedulerStateService.getState()).thenReturn(state(ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE));
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ReviewConcurrencyController.Slot running = controller.acquire(buildRequest("run-0"));
+            Future<?> automatic = executor.submit(() -> admit(controller, buildRequest("run-1"), admitted));
+            awaitWaiting(controller, 1);
+            Future<?> manual = executor.submit(() -> admit(controller, buildRequest("run-2", true), admitted));
+            awaitWaiting(controller, 2);
+
+            List<ReviewConcurrencyController.QueueStats.QueueEntry> queued = controller.getQueuedRequests();
+            assertEquals("run-2", queued.get(0).getRunId());
+            assertEquals(ReviewQueuePriority.CLASS_MANUAL, queued.get(0).getPriorityClass());
+            assertEquals("run-1", queued.get(1).getRunId());
+
+            running.close();
+            manual.get(5, TimeUnit.SECONDS);
+            automatic.get(5, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("run-2", "run-1"), admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void canceledWaiterDoesNotRun() throws Exception {
+        ReviewConcurrencyController controller = new ReviewConcurrencyController(
+                configService,
+                schedulerStateService,
+                queueAuditService);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of(
+                "maxConcurrentReviews", 1,
+                "maxQueuedReviews", 5));
+        when(schedulerStateService.getState()).thenReturn(state(ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ReviewConcurrencyController.Slot running = controller.acquire(buildRequest("run-0"))) {
+            Future<?> waiting = executor.submit(() -> controller.acquire(buildRequest("run-1")).close());
+            awaitWaiting(controller, 1);
+
+            assertTrue(controller.cancelQueuedRun("run-1", "admin", null));
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof ReviewCanceledException);
+            assertEquals(1, controller.getActiveReviews());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void admit(ReviewConcurrencyController controller,
+                              ReviewConcurrencyController.ReviewExecutionRequest request,
+                              List<String> admitted) {
+        try (ReviewConcurrencyController.Slot ignored = controller.acquire(request)) {
+            admitted.add(request.getRunId());
+        }
+    }
+
+    private static void awaitWaiting(ReviewConcurrencyController controller, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (controller.getQueuedRequests().size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, controller.getQueuedRequests().size());
+    }
+
     private ReviewConcurrencyController.ReviewExecutionRequest buildRequest(String runId) {
+        return buildRequest(runId, false);
+    }
+
+    private ReviewConcurrencyController.ReviewExecutionRequest buildRequest(String runId, boolean manual) {
         return new ReviewConcurrencyController.ReviewExecutionRequest(
                 "PRJ",
                 "repo",
                 42L,
-                false,
+                manual,
                 false,
                 false,
                 runId,
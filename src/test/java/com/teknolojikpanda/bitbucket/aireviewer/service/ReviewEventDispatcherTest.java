@@ -0,0 +1,114 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.repository.Repository;
+import com.teknolojikpanda.bitbucket.aireviewer.dto.ReviewResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReviewEventDispatcherTest {
+
+    private final Map<Long, PullRequest> pullRequests = new HashMap<>();
+    private AIReviewService reviewService;
+    private ExecutorService executor;
+    private ReviewEventDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        reviewService = mock(AIReviewService.class);
+        executor = Executors.newCachedThreadPool();
+        dispatcher = new ReviewEventDispatcher(reviewService,
+                (repositoryId, pullRequestId) -> repositoryId == 7 ? pullRequests.get(pullRequestId) : null,
+                executor);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    public void dispatchReturnsBeforeTheReviewFinishes() throws Exception {
+        PullRequest event = pullRequest(1L, true);
+        PullRequest current = pullRequest(1L, true);
+        pullRequests.put(1L, current);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reviewService.reviewPullRequest(any(PullRequest.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ReviewResult.builder().status(ReviewResult.Status.SUCCESS).pullRequestId(1L).build();
+        });
+
+        assertTrue(dispatcher.dispatch(event, false));
+
+        verify(reviewService, timeout(2000)).reviewPullRequest(current);
+        assertEquals(1, dispatcher.snapshot().get("inFlight"));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1L, dispatcher.snapshot().get("completed"));
+        assertEquals(0, dispatcher.snapshot().get("inFlight"));
+    }
+
+    @Test
+    public void updateEventsTriggerReReview() {
+        PullRequest current = pullRequest(2L, true);
+        pullRequests.put(2L, current);
+        when(reviewService.reReviewPullRequest(any(PullRequest.class)))
+                .thenReturn(ReviewResult.builder().status(ReviewResult.Status.SUCCESS).pullRequestId(2L).build());
+
+        dispatcher.dispatch(pullRequest(2L, true), true);
+
+        verify(reviewService, timeout(2000)).reReviewPullRequest(current);
+        verify(reviewService, never()).reviewPullRequest(any(PullRequest.class));
+    }
+
+    @Test
+    public void closedPullRequestIsSkipped() {
+        pullRequests.put(3L, pullRequest(3L, false));
+
+        dispatcher.dispatch(pullRequest(3L, true), false);
+
+        verify(reviewService, after(300).never()).reviewPullRequest(any(PullRequest.class));
+        assertEquals(1L, dispatcher.snapshot().get("skipped"));
+    }
+
+    @Test
+    public void dispatchAfterShutdownIsRejected() {
+        dispatcher.destroy();
+
+        assertFalse(dispatcher.dispatch(pullRequest(4L, true), false));
+        assertEquals(0L, dispatcher.snapshot().get("submitted"));
+    }
+
+    private PullRequest pullRequest(long id, boolean open) {
+        PullRequest pullRequest = mock(PullRequest.class);
+        PullRequestRef toRef = mock(PullRequestRef.class);
+        Repository repository = mock(Repository.class);
+        when(repository.getId()).thenReturn(7);
+        when(toRef.getRepository()).thenReturn(repository);
+        when(pullRequest.getToRef()).thenReturn(toRef);
+        when(pullRequest.getId()).thenReturn(id);
+        when(pullRequest.isOpen()).thenReturn(open);
+        return pullRequest;
+    }
+}
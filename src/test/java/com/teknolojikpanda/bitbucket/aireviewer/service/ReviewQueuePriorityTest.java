@@ -0,0 +1,51 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReviewQueuePriorityTest {
+
+    private static final double TYPICAL_MS = TimeUnit.MINUTES.toMillis(4);
+
+    @Test
+    public void manualAndPriorityScopeMoveRunsForward() {
+        long automatic = ReviewQueuePriority.headStartMs(false, false, TYPICAL_MS, TYPICAL_MS);
+        long priority = ReviewQueuePriority.headStartMs(false, true, TYPICAL_MS, TYPICAL_MS);
+        long manual = ReviewQueuePriority.headStartMs(true, false, TYPICAL_MS, TYPICAL_MS);
+
+        assertEquals(0L, automatic);
+        assertTrue(priority > automatic);
+        assertTrue(manual > priority);
+    }
+
+    @Test
+    public void cheaperRunsMoveForwardAndCostlyRunsMoveBack() {
+        long cheap = ReviewQueuePriority.headStartMs(false, false, TimeUnit.MINUTES.toMillis(1), TYPICAL_MS);
+        long costly = ReviewQueuePriority.headStartMs(false, false, TimeUnit.MINUTES.toMillis(6), TYPICAL_MS);
+
+        assertEquals(TimeUnit.SECONDS.toMillis(90), cheap);
+        assertEquals(-TimeUnit.MINUTES.toMillis(1), costly);
+    }
+
+    @Test
+    public void costAdjustmentIsBoundedSoWaitingRunsAge() {
+        long huge = ReviewQueuePriority.headStartMs(false, false, TimeUnit.HOURS.toMillis(5), TYPICAL_MS);
+        long manualTiny = ReviewQueuePriority.headStartMs(true, true, 1, TYPICAL_MS);
+
+        assertEquals(-ReviewQueuePriority.MAX_COST_ADJUSTMENT_MS, huge);
+        assertTrue(manualTiny - huge <= ReviewQueuePriority.MAX_SPREAD_MS);
+    }
+
+    @Test
+    public void unknownCostLeavesOrderToFlagsAndArrival() {
+        assertEquals(0L, ReviewQueuePriority.headStartMs(false, false, 0, TYPICAL_MS));
+        assertEquals(ReviewQueuePriority.MANUAL_HEAD_START_MS, ReviewQueuePriority.headStartMs(true, false, 0, 0));
+        assertEquals(ReviewQueuePriority.CLASS_NORMAL, ReviewQueuePriority.priorityClass(false, false));
+        assertEquals(ReviewQueuePriority.CLASS_PRIORITY, ReviewQueuePriority.priorityClass(false, true));
+        assertEquals(ReviewQueuePriority.CLASS_MANUAL, ReviewQueuePriority.priorityClass(true, true));
+    }
+}
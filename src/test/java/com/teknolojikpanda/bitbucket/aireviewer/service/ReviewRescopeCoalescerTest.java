@@ -0,0 +1,119 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.bitbucket.project.Project;
+import com.atlassian.bitbucket.pull.PullRequest;
+import com.atlassian.bitbucket.pull.PullRequestRef;
+import com.atlassian.bitbucket.repository.Repository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReviewRescopeCoalescerTest {
+
+    private ReviewEventDispatcher eventDispatcher;
+    private AIReviewerConfigService configService;
+    private ReviewConcurrencyController concurrencyController;
+    private ReviewRescopeCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        eventDispatcher = mock(ReviewEventDispatcher.class);
+        configService = mock(AIReviewerConfigService.class);
+        concurrencyController = mock(ReviewConcurrencyController.class);
+        when(eventDispatcher.dispatch(any(PullRequest.class), eq(true))).thenReturn(true);
+        coalescer = new ReviewRescopeCoalescer(eventDispatcher, configService, concurrencyController);
+    }
+
+    @After
+    public void tearDown() {
+        coalescer.destroy();
+    }
+
+    @Test
+    public void burstOfPushesIsReviewedOnceAtTheLatestHead() {
+        PullRequest first = mockPullRequest(5L, "aaa");
+        PullRequest second = mockPullRequest(5L, "bbb");
+        PullRequest third = mockPullRequest(5L, "ccc");
+
+        coalescer.submit(first, 200);
+        coalescer.submit(second, 200);
+        coalescer.submit(third, 200);
+
+        verify(eventDispatcher, timeout(2000)).dispatch(third, true);
+        verify(eventDispatcher, after(300).never()).dispatch(first, true);
+        verify(eventDispatcher, never()).dispatch(second, true);
+        Map<String, Object> snapshot = coalescer.snapshot();
+        assertEquals(3L, snapshot.get("received"));
+        assertEquals(2L, snapshot.get("coalesced"));
+        assertEquals(1L, snapshot.get("dispatched"));
+        assertEquals(0, snapshot.get("pending"));
+    }
+
+    @Test
+    public void pullRequestsAreDebouncedIndependently() {
+        PullRequest one = mockPullRequest(5L, "aaa");
+        PullRequest other = mockPullRequest(6L, "bbb");
+
+        coalescer.submit(one, 50);
+        coalescer.submit(other, 50);
+
+        verify(eventDispatcher, timeout(2000)).dispatch(one, true);
+        verify(eventDispatcher, timeout(2000)).dispatch(other, true);
+        assertEquals(0L, coalescer.snapshot().get("coalesced"));
+    }
+
+    @Test
+    public void newerPushSupersedesRunsForTheOlderHead() {
+        when(concurrencyController.supersedeRuns(eq("PRJ"), eq("repo"), eq(5L), anyString())).thenReturn(1);
+
+        coalescer.submit(mockPullRequest(5L, "ccc"), 10_000);
+
+        verify(concurrencyController).supersedeRuns("PRJ", "repo", 5L, "Superseded by newer commit ccc");
+        assertEquals(1L, coalescer.snapshot().get("superseded"));
+        assertEquals(1, coalescer.snapshot().get("pending"));
+    }
+
+    @Test
+    public void zeroQuietPeriodDisablesCoalescing() {
+        when(configService.getConfigurationAsMap())
+                .thenReturn(Collections.singletonMap("rescopeQuietPeriodSeconds", 0));
+
+        assertFalse(coalescer.isEnabled());
+        verify(concurrencyController, times(0)).supersedeRuns(anyString(), anyString(), anyLong(), anyString());
+    }
+
+    private PullRequest mockPullRequest(long id, String commit) {
+        PullRequest pullRequest = mock(PullRequest.class);
+        PullRequestRef toRef = mock(PullRequestRef.class);
+        PullRequestRef fromRef = mock(PullRequestRef.class);
+        Repository repository = mock(Repository.class);
+        Project project = mock(Project.class);
+        when(project.getKey()).thenReturn("PRJ");
+        when(repository.getProject()).thenReturn(project);
+        when(repository.getSlug()).thenReturn("repo");
+        when(repository.getId()).thenReturn(7);
+        when(toRef.getRepository()).thenReturn(repository);
+        when(pullRequest.getToRef()).thenReturn(toRef);
+        when(pullRequest.getId()).thenReturn(id);
+        when(fromRef.getLatestCommit()).thenReturn(commit);
+        when(pullRequest.getFromRef()).thenReturn(fromRef);
+        return pullRequest;
+    }
+}
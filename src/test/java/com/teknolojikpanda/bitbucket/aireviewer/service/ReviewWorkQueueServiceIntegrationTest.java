@@ -0,0 +1,187 @@
+package com.teknolojikpanda.bitbucket.aireviewer.service;
+
+import com.atlassian.activeobjects.external.ActiveObjects;
+import com.atlassian.activeobjects.internal.EntityManagedActiveObjects;
+import com.atlassian.activeobjects.internal.TransactionManager;
+import com.atlassian.activeobjects.spi.DatabaseType;
+import com.atlassian.sal.api.transaction.TransactionCallback;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewWorkItem;
+import com.teknolojikpanda.bitbucket.aireviewer.ao.AIReviewWorkLease;
+import net.java.ao.EntityManager;
+import net.java.ao.Query;
+import net.java.ao.test.jdbc.H2Memory;
+import net.java.ao.test.jdbc.Jdbc;
+import net.java.ao.test.junit.ActiveObjectsJUnitRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(ActiveObjectsJUnitRunner.class)
+@Jdbc(H2Memory.class)
+public class ReviewWorkQueueServiceIntegrationTest {
+
+    private EntityManager entityManager;
+    private ActiveObjects activeObjects;
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private ReviewWorkQueueService nodeA;
+    private ReviewWorkQueueService nodeB;
+
+    @Before
+    public void setUp() {
+        activeObjects = new TestActiveObjects(entityManager);
+        activeObjects.migrate(AIReviewWorkItem.class, AIReviewWorkLease.class);
+        nodeA = new ReviewWorkQueueService(activeObjects, () -> "node-a", clock::get);
+        nodeB = new ReviewWorkQueueService(activeObjects, () -> "node-b", clock::get);
+    }
+
+    @Test
+    public void enforcesTheLimitAcrossNodes() {
+        nodeA.enqueue(request("run-1"));
+        nodeA.enqueue(request("run-2"));
+        nodeB.enqueue(request("run-3"));
+
+        assertTrue(nodeA.claim("run-1", 2));
+        assertTrue(nodeB.claim("run-2", 2));
+        assertFalse(nodeB.claim("run-3", 2));
+        assertFalse("a leased run belongs to one node", nodeA.claim("run-2", 3));
+
+        nodeA.complete("run-1");
+
+        assertTrue(nodeB.claim("run-3", 2));
+        assertEquals(ReviewWorkQueueService.STATUS_DONE, item("run-1").getStatus());
+        assertEquals(2, activeObjects.count(AIReviewWorkLease.class, Query.select()));
+    }
+
+    @Test
+    public void idleNodePullsRunQueuedElsewhere() {
+        nodeA.enqueue(request("run-1"));
+        clock.addAndGet(10);
+        nodeA.enqueue(request("run-2"));
+
+        Optional<ReviewWorkQueueService.WorkItem> claimed = nodeB.claimNext(4);
+
+        assertTrue(claimed.isPresent());
+        assertEquals("run-1", claimed.get().getRunId());
+        assertEquals("node-a", claimed.get().getOriginNode());
+        assertEquals(7, claimed.get().getRepositoryId());
+        assertEquals("node-b", nodeA.leaseOwner("run-1"));
+        assertEquals(1L, nodeB.snapshot().get("claimedFromOtherNodes"));
+    }
+
+    @Test
+    public void expiredLeaseReturnsRunToTheQueue() {
+        nodeA.enqueue(request("run-1"));
+        assertTrue(nodeA.claim("run-1", 1));
+
+        clock.addAndGet(ReviewWorkQueueService.LEASE_TTL_MS / 2);
+        assertEquals(1, nodeA.renewLocalLeases());
+        clock.addAndGet(ReviewWorkQueueService.LEASE_TTL_MS / 2 + 1);
+        assertEquals("renewed lease is still live", 0, nodeB.requeueExpired());
+        assertFalse(nodeB.claimNext(1).isPresent());
+
+        // node-a stops renewing, as if it died
+        clock.addAndGet(ReviewWorkQueueService.LEASE_TTL_MS + 1);
+        assertEquals(1, nodeB.requeueExpired());
+        assertNull(nodeB.leaseOwner("run-1"));
+        assertEquals(ReviewWorkQueueService.STATUS_QUEUED, item("run-1").getStatus());
+
+        Optional<ReviewWorkQueueService.WorkItem> claimed = nodeB.claimNext(1);
+        assertTrue(claimed.isPresent());
+        assertEquals(2, item("run-1").getAttempts());
+        assertEquals(0, nodeA.renewLocalLeases());
+        assertEquals(1L, nodeA.snapshot().get("lostLeases"));
+    }
+
+    @Test
+    public void canceledRunIsNotClaimed() {
+        nodeA.enqueue(request("run-1"));
+
+        assertTrue(nodeA.cancel("run-1"));
+
+        assertFalse(nodeB.claimNext(2).isPresent());
+        assertEquals(ReviewWorkQueueService.STATUS_CANCELED, item("run-1").getStatus());
+    }
+
+    @Test
+    public void runCompletedByAnotherNodeIsNotLeasedAgain() {
+        nodeA.enqueue(request("run-1"));
+        assertTrue(nodeB.claimNext(2).isPresent());
+        nodeB.complete("run-1");
+
+        assertFalse(nodeA.claim("run-1", 2));
+
+        assertEquals(ReviewWorkQueueService.STATUS_DONE, item("run-1").getStatus());
+        assertEquals(1, item("run-1").getAttempts());
+        assertEquals(0, activeObjects.count(AIReviewWorkLease.class, Query.select()));
+        assertTrue(nodeA.status("run-1").isDone());
+        assertEquals("node-b", nodeA.status("run-1").getLeaseOwner());
+    }
+
+    @Test
+    public void localWaiterStopsOnceAnotherNodeCompletedItsRun() {
+        AIReviewerConfigService configService = mock(AIReviewerConfigService.class);
+        when(configService.getConfigurationAsMap()).thenReturn(Map.of("maxConcurrentReviews", 2));
+        ReviewSchedulerStateService schedulerStateService = mock(ReviewSchedulerStateService.class);
+        when(schedulerStateService.getState()).thenReturn(new ReviewSchedulerStateService.SchedulerState(
+                ReviewSchedulerStateService.SchedulerState.Mode.ACTIVE, null, null, null, clock.get()));
+        ReviewConcurrencyController controllerA = new ReviewConcurrencyController(
+                configService, schedulerStateService, mock(ReviewQueueAuditService.class), nodeA);
+        nodeA.enqueue(request("run-1"));
+        assertTrue(nodeB.claimNext(2).isPresent());
+        nodeB.complete("run-1");
+
+        ReviewDelegatedException ex = assertThrows(ReviewDelegatedException.class,
+                () -> controllerA.acquire(request("run-1")));
+
+        assertEquals("node-b", ex.getNodeId());
+        assertEquals(0, controllerA.getWaitingCount());
+        assertEquals(0, controllerA.getActiveReviews());
+        assertEquals(ReviewWorkQueueService.STATUS_DONE, item("run-1").getStatus());
+        assertEquals(0, activeObjects.count(AIReviewWorkLease.class, Query.select()));
+    }
+
+    private AIReviewWorkItem item(String runId) {
+        return activeObjects.find(AIReviewWorkItem.class, Query.select().where("RUN_ID = ?", runId))[0];
+    }
+
+    private ReviewConcurrencyController.ReviewExecutionRequest request(String runId) {
+        return new ReviewConcurrencyController.ReviewExecutionRequest(
+                "PRJ",
+                "repo",
+                42L,
+                false,
+                true,
+                false,
+                runId,
+                "alice",
+                null,
+                null,
+                true,
+                7);
+    }
+
+    private static final class TestActiveObjects extends EntityManagedActiveObjects {
+        TestActiveObjects(EntityManager entityManager) {
+            super(entityManager, new ImmediateTransactionManager(), DatabaseType.H2);
+        }
+    }
+
+    private static final class ImmediateTransactionManager implements TransactionManager {
+        @Override
+        public <T> T doInTransaction(TransactionCallback<T> callback) {
+            return callback.doInTransaction();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.teknolojikpanda.bitbucket.aireviewer.util;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final RateLimiter limiter = new RateLimiter("test", 4, Duration.ofSeconds(1), now::get);
+
+    @Test
+    public void allowsBurstThenSpacesPermits() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(4, limiter.getCurrentLoad());
+
+        advanceMs(250);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void reserveReturnsDelayInsteadOfSleeping() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0L, limiter.reserve());
+        }
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(750), limiter.nanosUntilAvailable());
+    }
+
+    @Test
+    public void timedAcquireDoesNotClaimPermitItCannotGetInTime() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            limiter.reserve();
+        }
+
+        assertFalse(limiter.tryAcquire(100, TimeUnit.MILLISECONDS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), limiter.nanosUntilAvailable());
+    }
+
+    @Test
+    public void idleTimeRefillsOnlyUpToOneBurst() {
+        advanceMs(10_000);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void concurrentCallersNeverExceedTheBurst() throws Exception {
+        RateLimiter shared = new RateLimiter("shared", 50, Duration.ofHours(1));
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        if (shared.tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(50, granted.get());
+    }
+
+    private void advanceMs(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}